@@ -1,8 +1,21 @@
 package com.designpatterns.puzzle;
 
+import com.designpatterns.puzzle.ai.MlpEvaluator;
+import com.designpatterns.puzzle.core.BotFarm;
+import com.designpatterns.puzzle.core.GameLoop;
 import com.designpatterns.puzzle.core.GameManager;
+import com.designpatterns.puzzle.core.GameMode;
+import com.designpatterns.puzzle.core.InputCommand;
+import com.designpatterns.puzzle.model.GameGrid;
+import com.designpatterns.puzzle.network.GameClient;
+import com.designpatterns.puzzle.network.GameServer;
+import com.designpatterns.puzzle.network.Protocol;
 import com.designpatterns.puzzle.utils.GameLogger;
+import com.designpatterns.puzzle.view.FrameBuffer;
 import com.designpatterns.puzzle.view.GameView;
+import com.designpatterns.puzzle.view.RenderBackend;
+import com.designpatterns.puzzle.view.RenderScheduler;
+import com.designpatterns.puzzle.view.SpectatorWall;
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.scene.Scene;
@@ -11,6 +24,9 @@ import javafx.scene.input.KeyCode;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+
 /**
  * Application principale du jeu de Puzzle
  * Projet Design Patterns - JavaFX
@@ -27,12 +43,18 @@ public class PuzzleGameApplication extends Application {
     private static final int WINDOW_WIDTH = 650;
     private static final int WINDOW_HEIGHT = 700;
     private static final String TITLE = "Puzzle Game - Design Patterns Project";
+    private static final long DEFAULT_BOT_BUDGET_MS = 50;
+    private static final String DEFAULT_BALANCE_CHANCES = "0.05,0.15,0.30";
     
     private GameManager gameManager;
     private GameView gameView;
     private GameLogger logger;
-    
-    private long lastUpdate;
+    private GameClient client;
+    // Simulation sur son propre thread, rendu du dernier frame publié
+    private GameLoop gameLoop;
+    private final FrameBuffer frameBuffer = new FrameBuffer();
+    private RenderScheduler renderScheduler;
+    private BotFarm botFarm;
     
     @Override
     public void start(Stage primaryStage) {
@@ -42,13 +64,58 @@ public class PuzzleGameApplication extends Application {
             logger.logInfo("=== Puzzle Game Started ===");
             logger.logInfo("Application: " + TITLE);
             
+            // Mode client léger : --connect=hote:port [--watch pour regarder une autre partie]
+            String connect = getParameters().getNamed().get("connect");
+            if (connect != null) {
+                client = connectToServer(connect);
+                if (getParameters().getUnnamed().contains("--watch")) {
+                    client.watch();
+                }
+            }
+            
             // Initialise le game manager (Singleton)
             gameManager = GameManager.getInstance();
-            gameManager.initialize();
+            if (client == null) {
+                // Bac à sable : --sandbox=largeurxhauteur (grille creuse)
+                String sandbox = getParameters().getNamed().get("sandbox");
+                if (sandbox != null) {
+                    String[] size = sandbox.toLowerCase().split("x");
+                    gameManager.initializeSandbox(Integer.parseInt(size[0].trim()), Integer.parseInt(size[1].trim()));
+                } else {
+                    gameManager.initialize();
+                }
+                
+                // Mode de jeu : --mode=classic|cascade|color_match
+                String mode = getParameters().getNamed().get("mode");
+                if (mode != null) {
+                    gameManager.getGameContext().setGameMode(GameMode.fromName(mode));
+                }
+                
+                // Mode spectateur : --spectate=nombre de parties jouées par le bot
+                String spectate = getParameters().getNamed().get("spectate");
+                if (spectate != null) {
+                    botFarm = gameManager.createBotFarm(Integer.parseInt(spectate.trim()), System.nanoTime(),
+                                                        GameMode.fromName(mode));
+                }
+                
+                // Joueur automatique : --autoplay[=budget en ms par coup] [--model=poids du réseau]
+                String autoplay = getParameters().getNamed().get("autoplay");
+                if (autoplay != null || getParameters().getUnnamed().contains("--autoplay")) {
+                    long budget = autoplay != null ? Long.parseLong(autoplay.trim()) : DEFAULT_BOT_BUDGET_MS;
+                    String model = getParameters().getNamed().get("model");
+                    if (model != null) {
+                        gameManager.enableAutoPlayer(budget, MlpEvaluator.load(Paths.get(model)));
+                    } else {
+                        gameManager.enableAutoPlayer(budget);
+                    }
+                }
+            }
             
-            // Crée le canvas
+            // Crée le canvas ; rendu de la grille : --renderer=vector|raster
             Canvas canvas = new Canvas(WINDOW_WIDTH, WINDOW_HEIGHT);
-            gameView = new GameView(canvas);
+            RenderBackend backend = RenderBackend.fromName(getParameters().getNamed().get("renderer"));
+            gameView = new GameView(canvas, backend);
+            logger.logInfo("Board renderer: " + backend);
             
             // Layout
             StackPane root = new StackPane();
@@ -63,30 +130,55 @@ public class PuzzleGameApplication extends Application {
             primaryStage.setScene(scene);
             primaryStage.setResizable(false);
             primaryStage.setOnCloseRequest(event -> {
+                if (client != null) {
+                    client.close();
+                }
+                if (gameLoop != null) {
+                    renderScheduler.stop();
+                    gameLoop.stop();
+                }
+                if (botFarm != null) {
+                    botFarm.stop();
+                }
                 logger.logInfo("=== Application Closed ===");
                 System.exit(0);
             });
             primaryStage.show();
             
-            // Boucle de jeu
-            lastUpdate = System.nanoTime();
-            AnimationTimer gameLoop = new AnimationTimer() {
-                @Override
-                public void handle(long now) {
-                    double deltaTime = (now - lastUpdate) / 1_000_000_000.0;
-                    lastUpdate = now;
-                    
-                    // Met à jour le jeu
-                    gameManager.update(deltaTime);
-                    
-                    // Rend la vue
-                    gameView.render();
-                }
-            };
-            gameLoop.start();
+            // Boucle de jeu : la simulation publie ses frames, le thread FX
+            // les rend seulement quand l'écran change (voir RenderScheduler)
+            if (botFarm != null) {
+                // Les sessions publient leurs vignettes, le thread FX recopie celles qui ont changé
+                SpectatorWall wall = new SpectatorWall(botFarm.getSessionCount(), botFarm.getBoardWidth(),
+                                                       botFarm.getBoardHeight(), WINDOW_WIDTH, WINDOW_HEIGHT);
+                botFarm.start(wall::publish);
+                AnimationTimer wallLoop = new AnimationTimer() {
+                    @Override
+                    public void handle(long now) {
+                        gameView.render(wall);
+                    }
+                };
+                wallLoop.start();
+            } else if (client == null) {
+                renderScheduler = new RenderScheduler(gameView, frameBuffer);
+                gameLoop = gameManager.startGameLoop(context -> {
+                    frameBuffer.publish(context);
+                    renderScheduler.wake();
+                });
+                renderScheduler.wake();
+            } else {
+                // La logique tourne sur le serveur : rend seulement l'état reçu
+                AnimationTimer remoteLoop = new AnimationTimer() {
+                    @Override
+                    public void handle(long now) {
+                        gameView.render(client.getState(), now);
+                    }
+                };
+                remoteLoop.start();
+            }
             
             logger.logInfo("Game loop started");
-            
+        
         } catch (Exception e) {
             logger.logError("Error starting application", e);
             e.printStackTrace();
@@ -107,7 +199,7 @@ public class PuzzleGameApplication extends Application {
             case ESCAPE:
                 input = "QUIT";
                 break;
-                
+            
             // Jeu
             case LEFT:
                 input = "LEFT";
@@ -124,12 +216,12 @@ public class PuzzleGameApplication extends Application {
             case SPACE:
                 input = "DROP";
                 break;
-                
+            
             // Pause
             case P:
                 input = "PAUSE";
                 break;
-                
+            
             // Game Over
             case R:
                 input = "RESTART";
@@ -137,22 +229,127 @@ public class PuzzleGameApplication extends Application {
             case M:
                 input = "MENU";
                 break;
-                
+            
             default:
                 break;
         }
         
+        if (input != null && client != null) {
+            InputCommand command = InputCommand.fromInput(input);
+            client.send(command);
+            if (command == InputCommand.QUIT) {
+                client.close();
+                System.exit(0);
+            }
+            return;
+        }
+        
+        if (botFarm != null) {
+            // Mode spectateur : seule la sortie est gérée
+            if ("QUIT".equals(input)) {
+                System.exit(0);
+            }
+            return;
+        }
+        
         if (input != null) {
-            gameManager.handleInput(input);
-            // Force un rendu immédiat pour feedback instantané
-            gameView.render();
+            // Appliquée dès réception par la simulation, rendue au frame suivant
+            gameLoop.submit(input);
+            renderScheduler.wake();
         }
     }
     
+    /**
+     * Connecte le client léger au serveur indiqué (hote:port)
+     */
+    private GameClient connectToServer(String address) throws IOException {
+        int separator = address.lastIndexOf(':');
+        String host = separator >= 0 ? address.substring(0, separator) : address;
+        int port = separator >= 0 ? Integer.parseInt(address.substring(separator + 1)) : Protocol.DEFAULT_PORT;
+        
+        GameClient gameClient = new GameClient(host, port);
+        gameClient.start();
+        logger.logInfo("Connected to game server " + host + ":" + port);
+        return gameClient;
+    }
+    
     /**
      * Point d'entrée de l'application
+     * --server[=port] lance le serveur headless sans interface graphique
+     * --perft=profondeur [--seed=graine] [--mode=nom] compte les positions sur une grille vide
+     * --export-training=fichier exporte les verrouillages des parties archivées
+     * --balance[=p1,p2,...] [--seed=graine] [--mode=nom] analyse l'équilibrage des power-ups
+     * --render-replay=id|best [--out=chemin] [--from=n] [--to=n] [--step=n] [--raw]
+     *   rend une partie archivée en images PNG (ou en fichier brut bgr0 avec --raw)
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        String perft = null;
+        String balance = null;
+        String renderReplay = null;
+        String out = null;
+        int from = 0;
+        int to = Integer.MAX_VALUE;
+        int step = 1;
+        boolean raw = false;
+        long seed = 0;
+        GameMode mode = GameMode.CLASSIC;
+        for (String arg : args) {
+            if (arg.startsWith("--perft=")) {
+                perft = arg.substring("--perft=".length());
+            } else if (arg.equals("--balance") || arg.startsWith("--balance=")) {
+                balance = arg.contains("=") ? arg.substring(arg.indexOf('=') + 1) : DEFAULT_BALANCE_CHANCES;
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            } else if (arg.startsWith("--mode=")) {
+                mode = GameMode.fromName(arg.substring("--mode=".length()));
+            } else if (arg.startsWith("--render-replay=")) {
+                renderReplay = arg.substring("--render-replay=".length());
+            } else if (arg.startsWith("--out=")) {
+                out = arg.substring("--out=".length());
+            } else if (arg.startsWith("--from=")) {
+                from = Integer.parseInt(arg.substring("--from=".length()));
+            } else if (arg.startsWith("--to=")) {
+                to = Integer.parseInt(arg.substring("--to=".length()));
+            } else if (arg.startsWith("--step=")) {
+                step = Integer.parseInt(arg.substring("--step=".length()));
+            } else if (arg.equals("--raw")) {
+                raw = true;
+            }
+        }
+        if (perft != null) {
+            GameManager.getInstance().runPerft(new GameGrid(), seed, Integer.parseInt(perft), mode);
+            return;
+        }
+        if (balance != null) {
+            String[] values = balance.split(",");
+            double[] chances = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                chances[i] = Double.parseDouble(values[i].trim());
+            }
+            GameManager.getInstance().runPowerUpBalance(chances, seed, mode);
+            return;
+        }
+        if (renderReplay != null) {
+            long gameId = renderReplay.equalsIgnoreCase("best") ? -1 : Long.parseLong(renderReplay);
+            if (out == null) {
+                out = raw ? "replay-" + renderReplay + ".raw" : "replay-" + renderReplay;
+            }
+            GameManager.getInstance().renderReplay(gameId, Paths.get(out), from, to, step, raw);
+            return;
+        }
+        for (String arg : args) {
+            if (arg.startsWith("--export-training=")) {
+                GameManager.getInstance().exportTrainingData(Paths.get(arg.substring("--export-training=".length())));
+                return;
+            }
+            if (arg.equals("--server") || arg.startsWith("--server=")) {
+                int port = arg.contains("=") ? Integer.parseInt(arg.substring(arg.indexOf('=') + 1))
+                                             : Protocol.DEFAULT_PORT;
+                GameServer server = GameManager.getInstance().startHeadlessServer(port);
+                server.awaitTermination();
+                return;
+            }
+        }
         launch(args);
     }
 }
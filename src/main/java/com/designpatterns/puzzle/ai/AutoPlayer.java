@@ -0,0 +1,55 @@
+package com.designpatterns.puzzle.ai;
+
+import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.core.InputCommand;
+import com.designpatterns.puzzle.model.ActivePiece;
+import com.designpatterns.puzzle.utils.GameLogger;
+
+/**
+ * Joueur automatique
+ * Dès qu'une pièce apparaît, cherche son placement puis joue les commandes
+ * correspondantes comme un joueur (elles sont donc enregistrées dans le replay)
+ */
+public class AutoPlayer {
+    
+    private static final GameLogger logger = GameLogger.getInstance();
+    
+    private final LookaheadSearch search;
+    private ActivePiece handledPiece;
+    private SearchResult lastResult;
+    
+    public AutoPlayer(LookaheadSearch search) {
+        this.search = search;
+    }
+    
+    /**
+     * À appeler à chaque mise à jour de la partie
+     */
+    public void update(GameContext context) {
+        ActivePiece piece = context.getCurrentPiece();
+        if (piece == null || piece == handledPiece || !"PLAYING".equals(context.getCurrentStateName())) {
+            return;
+        }
+        handledPiece = piece;
+        SearchResult result = search.search(context);
+        if (result == null) {
+            return;
+        }
+        lastResult = result;
+        logger.logGameEvent("Bot move: " + result);
+        for (InputCommand command : result.getCommands()) {
+            context.handleInput(command.getInput());
+        }
+    }
+    
+    /**
+     * Résultat de la dernière recherche (null avant le premier coup)
+     */
+    public SearchResult getLastResult() {
+        return lastResult;
+    }
+    
+    public void close() {
+        search.close();
+    }
+}
@@ -0,0 +1,72 @@
+package com.designpatterns.puzzle.ai;
+
+import com.designpatterns.puzzle.patterns.factory.PowerUpConfig;
+
+import java.util.Locale;
+
+/**
+ * Résultat de l'analyse d'un réglage de power-ups : moyennes du score et de
+ * la durée des parties (en pièces posées), avec la demi-largeur de leur
+ * intervalle de confiance
+ */
+public final class BalanceResult {
+    
+    private final PowerUpConfig config;
+    private final int games;
+    private final double meanScore;
+    private final double scoreMargin;
+    private final double meanLength;
+    private final double lengthMargin;
+    private final boolean converged;
+    
+    BalanceResult(PowerUpConfig config, int games, double meanScore, double scoreMargin,
+                  double meanLength, double lengthMargin, boolean converged) {
+        this.config = config;
+        this.games = games;
+        this.meanScore = meanScore;
+        this.scoreMargin = scoreMargin;
+        this.meanLength = meanLength;
+        this.lengthMargin = lengthMargin;
+        this.converged = converged;
+    }
+    
+    public PowerUpConfig getConfig() {
+        return config;
+    }
+    
+    /**
+     * Nombre de parties jouées pour ce réglage
+     */
+    public int getGames() {
+        return games;
+    }
+    
+    public double getMeanScore() {
+        return meanScore;
+    }
+    
+    public double getScoreMargin() {
+        return scoreMargin;
+    }
+    
+    public double getMeanLength() {
+        return meanLength;
+    }
+    
+    public double getLengthMargin() {
+        return lengthMargin;
+    }
+    
+    /**
+     * Vrai si la précision demandée a été atteinte avant le nombre maximal de parties
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: score %.0f ± %.0f, length %.1f ± %.1f pieces, %d games%s",
+                config, meanScore, scoreMargin, meanLength, lengthMargin, games, converged ? "" : " (not converged)");
+    }
+}
@@ -0,0 +1,31 @@
+package com.designpatterns.puzzle.ai;
+
+import com.designpatterns.puzzle.model.GameGrid;
+
+/**
+ * Strategy Pattern - Évaluation d'une grille par le bot
+ * Note la grille obtenue après le verrouillage d'une pièce ; la recherche
+ * garde le placement de meilleure note. Une même instance est appelée
+ * depuis plusieurs threads de recherche et doit donc être sans état partagé
+ */
+public interface BoardEvaluator {
+    
+    /**
+     * Note une grille après verrouillage (plus haut = meilleur)
+     */
+    double evaluate(GameGrid grid);
+    
+    /**
+     * Note les count premières grilles d'un lot dans values
+     */
+    default void evaluate(GameGrid[] grids, int count, double[] values) {
+        for (int i = 0; i < count; i++) {
+            values[i] = evaluate(grids[i]);
+        }
+    }
+    
+    /**
+     * Récompense des lignes effacées par un verrouillage
+     */
+    double rewardLines(int lines);
+}
@@ -0,0 +1,177 @@
+package com.designpatterns.puzzle.ai;
+
+import com.designpatterns.puzzle.model.GameGrid;
+
+import java.util.Arrays;
+
+/**
+ * Extraction des caractéristiques d'une grille pour les évaluateurs
+ * Un seul parcours des lignes de l'empilement, sur les masques de bits de
+ * GameGrid : chaque opération sur un mot traite 64 colonnes à la fois
+ * (trous, transitions et puits sont des ET / OU / XOR de lignes voisines
+ * suivis d'un comptage de bits). Les hauteurs viennent du profil de la grille.
+ * Disposition des caractéristiques : les valeurs fixes (indices ci-dessous)
+ * puis la hauteur de chaque colonne.
+ * Les tampons sont alloués à la construction : une instance par thread
+ */
+public final class BoardFeatures {
+    
+    public static final int AGGREGATE_HEIGHT = 0;
+    public static final int MAX_HEIGHT = 1;
+    public static final int HOLES = 2;
+    // Lignes contenant au moins un trou
+    public static final int HOLE_ROWS = 3;
+    // Passages plein / vide le long des lignes de l'empilement, murs compris
+    public static final int ROW_TRANSITIONS = 4;
+    // Passages plein / vide le long des colonnes, fond compris
+    public static final int COLUMN_TRANSITIONS = 5;
+    // Somme des profondeurs des cases de puits ouverts (1 + 2 + ... + d par puits)
+    public static final int WELL_SUMS = 6;
+    public static final int BUMPINESS = 7;
+    public static final int FIXED_FEATURES = 8;
+    
+    private static final int INITIAL_WELL_DEPTH = 8;
+    
+    private final int width;
+    private final int height;
+    private final int words;
+    private final long lastMask;
+    private final long rightWall;
+    // Colonnes déjà couvertes par un bloc au-dessus de la ligne courante
+    private final long[] covered;
+    private final long[] previous;
+    // wellRuns[d * words + w] : colonnes dont le puits courant a au moins d + 1 cases
+    private long[] wellRuns;
+    
+    public BoardFeatures(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.words = (width + 63) >>> 6;
+        this.lastMask = (width & 63) == 0 ? -1L : (1L << (width & 63)) - 1;
+        this.rightWall = 1L << ((width - 1) & 63);
+        this.covered = new long[words];
+        this.previous = new long[words];
+        this.wellRuns = new long[INITIAL_WELL_DEPTH * words];
+    }
+    
+    /**
+     * Nombre de caractéristiques produites par grille
+     */
+    public int getFeatureCount() {
+        return FIXED_FEATURES + width;
+    }
+    
+    /**
+     * Écrit les caractéristiques d'une grille dans out à partir de offset
+     */
+    public void extract(GameGrid grid, float[] out, int offset) {
+        if (grid.getWidth() != width || grid.getHeight() != height) {
+            throw new IllegalArgumentException("Features built for " + width + "x" + height);
+        }
+        int holes = 0;
+        int holeRows = 0;
+        int rowTransitions = 0;
+        int columnTransitions = 0;
+        int wellSums = 0;
+        int wellDepth = 0;
+        for (int w = 0; w < words; w++) {
+            covered[w] = 0L;
+            previous[w] = 0L;
+        }
+        
+        for (int row = grid.getHighestRow(); row < height; row++) {
+            int rowHoles = 0;
+            int depth = 0;
+            long leftCarry = 1L;
+            long next = grid.getRowWord(row, 0);
+            for (int w = 0; w < words; w++) {
+                long mask = w == words - 1 ? lastMask : -1L;
+                long cells = next;
+                // Voisins gauche et droit de chaque colonne, murs pleins
+                long left = (cells << 1) | leftCarry;
+                long right = cells >>> 1;
+                if (w + 1 < words) {
+                    next = grid.getRowWord(row, w + 1);
+                    right |= next << 63;
+                } else {
+                    right |= rightWall;
+                }
+                leftCarry = cells >>> 63;
+                
+                rowTransitions += Long.bitCount((cells ^ left) & mask);
+                columnTransitions += Long.bitCount((cells ^ previous[w]) & mask);
+                rowHoles += Long.bitCount(covered[w] & ~cells & mask);
+                
+                // Puits ouverts : case vide non couverte, entre deux cases pleines
+                long wells = ~cells & left & right & ~covered[w] & mask;
+                long run = wells;
+                int level = 0;
+                // Une case à la profondeur d est comptée à chacun des d niveaux
+                while (run != 0) {
+                    wellSums += Long.bitCount(run);
+                    if (level == wellRuns.length / words) {
+                        wellRuns = Arrays.copyOf(wellRuns, wellRuns.length * 2);
+                    }
+                    long deeper = level < wellDepth ? wellRuns[level * words + w] : 0L;
+                    wellRuns[level * words + w] = run;
+                    run = deeper & wells;
+                    level++;
+                }
+                for (int d = level; d < wellDepth; d++) {
+                    wellRuns[d * words + w] = 0L;
+                }
+                depth = Math.max(depth, level);
+                
+                covered[w] |= cells;
+                previous[w] = cells;
+            }
+            if ((next & rightWall) == 0) {
+                rowTransitions++;
+            }
+            wellDepth = Math.max(wellDepth, depth);
+            holes += rowHoles;
+            if (rowHoles > 0) {
+                holeRows++;
+            }
+        }
+        // Transition entre la dernière ligne et le fond, plein
+        for (int w = 0; w < words; w++) {
+            long mask = w == words - 1 ? lastMask : -1L;
+            columnTransitions += Long.bitCount(~previous[w] & mask);
+        }
+        for (int d = 0; d < wellDepth; d++) {
+            for (int w = 0; w < words; w++) {
+                wellRuns[d * words + w] = 0L;
+            }
+        }
+        
+        int bumpiness = 0;
+        int last = grid.getColumnHeight(0);
+        out[offset + FIXED_FEATURES] = last;
+        for (int col = 1; col < width; col++) {
+            int columnHeight = grid.getColumnHeight(col);
+            bumpiness += Math.abs(columnHeight - last);
+            out[offset + FIXED_FEATURES + col] = columnHeight;
+            last = columnHeight;
+        }
+        out[offset + AGGREGATE_HEIGHT] = grid.getAggregateHeight();
+        out[offset + MAX_HEIGHT] = grid.getStackHeight();
+        out[offset + HOLES] = holes;
+        out[offset + HOLE_ROWS] = holeRows;
+        out[offset + ROW_TRANSITIONS] = rowTransitions;
+        out[offset + COLUMN_TRANSITIONS] = columnTransitions;
+        out[offset + WELL_SUMS] = wellSums;
+        out[offset + BUMPINESS] = bumpiness;
+    }
+    
+    /**
+     * Extrait les caractéristiques de count grilles à la suite dans out
+     * (getFeatureCount() valeurs par grille)
+     */
+    public void extract(GameGrid[] grids, int count, float[] out) {
+        int stride = getFeatureCount();
+        for (int i = 0; i < count; i++) {
+            extract(grids[i], out, i * stride);
+        }
+    }
+}
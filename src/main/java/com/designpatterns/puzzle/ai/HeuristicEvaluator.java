@@ -0,0 +1,35 @@
+package com.designpatterns.puzzle.ai;
+
+import com.designpatterns.puzzle.model.GameGrid;
+
+/**
+ * Évaluation heuristique classique, par combinaison linéaire de la hauteur
+ * cumulée, des trous et des irrégularités de surface
+ * Les caractéristiques sont lues dans le profil tenu à jour par GameGrid
+ */
+public class HeuristicEvaluator implements BoardEvaluator {
+    
+    private static final double HEIGHT_WEIGHT = -0.510066;
+    private static final double LINES_WEIGHT = 0.760666;
+    private static final double HOLES_WEIGHT = -0.35663;
+    private static final double BUMPINESS_WEIGHT = -0.184483;
+    
+    @Override
+    public double evaluate(GameGrid grid) {
+        int bumpiness = 0;
+        int previous = grid.getColumnHeight(0);
+        for (int col = 1; col < grid.getWidth(); col++) {
+            int height = grid.getColumnHeight(col);
+            bumpiness += Math.abs(height - previous);
+            previous = height;
+        }
+        return HEIGHT_WEIGHT * grid.getAggregateHeight()
+                + HOLES_WEIGHT * grid.getHoleCount()
+                + BUMPINESS_WEIGHT * bumpiness;
+    }
+    
+    @Override
+    public double rewardLines(int lines) {
+        return LINES_WEIGHT * lines;
+    }
+}
@@ -0,0 +1,406 @@
+package com.designpatterns.puzzle.ai;
+
+import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.core.GameMode;
+import com.designpatterns.puzzle.core.ReachabilityAnalyzer;
+import com.designpatterns.puzzle.model.ActivePiece;
+import com.designpatterns.puzzle.model.GameGrid;
+import com.designpatterns.puzzle.model.Zobrist;
+import com.designpatterns.puzzle.patterns.decorator.PuzzlePiece;
+import com.designpatterns.puzzle.patterns.strategy.ClearStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recherche en profondeur sur la pièce active et la file d'aperçu
+ * Chaque nœud énumère les placements atteignables depuis l'apparition
+ * (voir ReachabilityAnalyzer, glissements et rotations sous surplomb
+ * compris), les verrouille sur une copie de la grille et note les grilles
+ * finales avec le BoardEvaluator.
+ * Les valeurs des sous-arbres sont mémorisées dans une table de
+ * transposition indexée par le hachage de Zobrist de la grille et des
+ * pièces restantes : une même grille atteinte par des placements dans un
+ * ordre différent n'est explorée qu'une fois, et la recherche du coup
+ * suivant retrouve les positions déjà évaluées.
+ * Les placements de la racine sont répartis entre les threads ; la
+ * profondeur augmente tant que le budget de temps le permet
+ */
+public class LookaheadSearch {
+    
+    static final double GAME_OVER_VALUE = -1e9;
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+    
+    private final BoardEvaluator evaluator;
+    private final TranspositionTable table;
+    private final int threads;
+    private final int maxPieces;
+    private final long budgetNanos;
+    private final ExecutorService executor;
+    
+    // État de la recherche en cours, partagé par les workers
+    private volatile boolean aborted;
+    private long deadline;
+    private PuzzlePiece[] pieces;
+    private long[] sequenceKeys;
+    private long[] rootMoves;
+    private int rootMoveCount;
+    private double[] rootValues;
+    private final AtomicInteger nextRootMove = new AtomicInteger();
+    // Espaces de travail gardés d'un coup à l'autre, recréés seulement si
+    // la taille ou le type de grille change, ou s'il faut plus de pièces
+    private final List<Worker> workers = new ArrayList<>();
+    private ReachabilityAnalyzer rootAnalyzer;
+    
+    /**
+     * @param maxPieces nombre de pièces explorées : la pièce active puis l'aperçu
+     * @param budgetMillis budget de temps par coup
+     */
+    public LookaheadSearch(BoardEvaluator evaluator, TranspositionTable table, int threads,
+                           int maxPieces, long budgetMillis) {
+        this.evaluator = evaluator;
+        this.table = table;
+        this.threads = Math.max(1, threads);
+        this.maxPieces = Math.max(1, maxPieces);
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+            Thread thread = new Thread(runnable, "bot-search-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Cherche le meilleur placement de la pièce active (null s'il n'y en a pas,
+     * ou si la recherche est interrompue avant d'avoir terminé la profondeur 1)
+     * La partie ne doit pas être modifiée pendant la recherche
+     */
+    public synchronized SearchResult search(GameContext context) {
+        ActivePiece current = context.getCurrentPiece();
+        if (current == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        deadline = start + budgetNanos;
+        aborted = false;
+        table.newSearch();
+        
+        int depthLimit = Math.min(maxPieces, 1 + context.getPreviewCount());
+        pieces = new PuzzlePiece[depthLimit];
+        pieces[0] = current.getPiece();
+        for (int i = 1; i < depthLimit; i++) {
+            pieces[i] = context.getPreview(i - 1);
+        }
+        
+        GameGrid root = context.getGrid();
+        prepareWorkspace(root, depthLimit, context.getGameMode());
+        rootMoveCount = rootAnalyzer.analyze(root, current.getPiece(),
+                current.getX(), current.getY(), current.getRotation());
+        if (rootMoveCount == 0) {
+            return null;
+        }
+        rootMoves = new long[rootMoveCount];
+        for (int i = 0; i < rootMoveCount; i++) {
+            rootMoves[i] = rootAnalyzer.getPlacement(i);
+        }
+        
+        int bestMove = -1;
+        double bestValue = GAME_OVER_VALUE;
+        int completedDepth = 0;
+        for (int depth = 1; depth <= depthLimit; depth++) {
+            sequenceKeys = sequenceKeys(depth);
+            rootValues = new double[rootMoveCount];
+            nextRootMove.set(0);
+            for (Worker worker : workers) {
+                worker.prepare(depth, depth == 1);
+            }
+            runWorkers(workers);
+            if (aborted) {
+                break;
+            }
+            bestMove = 0;
+            for (int i = 1; i < rootMoveCount; i++) {
+                if (rootValues[i] > rootValues[bestMove]) {
+                    bestMove = i;
+                }
+            }
+            bestValue = rootValues[bestMove];
+            completedDepth = depth;
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        
+        if (completedDepth == 0) {
+            return null;
+        }
+        
+        long nodes = 0;
+        long probes = 0;
+        long hits = 0;
+        for (Worker worker : workers) {
+            nodes += worker.nodes;
+            probes += worker.probes;
+            hits += worker.hits;
+        }
+        long move = rootMoves[bestMove];
+        return new SearchResult(rootAnalyzer.getPath(bestMove), ReachabilityAnalyzer.placementRotation(move),
+                ReachabilityAnalyzer.placementX(move), ReachabilityAnalyzer.placementY(move), bestValue,
+                completedDepth, nodes, System.nanoTime() - start, probes, hits);
+    }
+    
+    /**
+     * Lance les workers et attend leur fin ; une interruption ou une
+     * recherche fermée (tâches refusées ou annulées) abandonne la profondeur
+     */
+    /**
+     * Reprend les workers et l'analyseur de la racine du coup précédent
+     * s'ils conviennent à cette grille, sinon les recrée
+     */
+    private void prepareWorkspace(GameGrid root, int depthLimit, GameMode mode) {
+        if (workers.isEmpty() || !workers.get(0).fits(root, depthLimit)) {
+            workers.clear();
+            for (int i = 0; i < threads; i++) {
+                workers.add(new Worker(root, depthLimit));
+            }
+            rootAnalyzer = new ReachabilityAnalyzer(root.getWidth(), root.getHeight());
+        }
+        for (Worker worker : workers) {
+            worker.reset(root, mode);
+        }
+    }
+    
+    private void runWorkers(List<Worker> workers) {
+        try {
+            List<Future<Void>> futures = executor.invokeAll(workers);
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aborted = true;
+        } catch (RejectedExecutionException | CancellationException e) {
+            aborted = true;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search worker failed", e.getCause());
+        }
+    }
+    
+    /**
+     * Clés des séquences de pièces restantes : sequenceKeys[p] identifie
+     * les pièces p à depth - 1, dans l'ordre
+     */
+    private long[] sequenceKeys(int depth) {
+        long[] keys = new long[depth + 1];
+        for (int ply = depth - 1; ply >= 0; ply--) {
+            keys[ply] = Zobrist.mix(keys[ply + 1] ^ Zobrist.previewKey(pieces[ply], 0));
+        }
+        return keys;
+    }
+    
+    /**
+     * Arrête les threads de recherche ; une recherche en cours s'arrête et
+     * les tâches encore en file sont annulées pour ne pas la bloquer
+     */
+    public void close() {
+        aborted = true;
+        for (Runnable pending : executor.shutdownNow()) {
+            if (pending instanceof Future) {
+                ((Future<?>) pending).cancel(false);
+            }
+        }
+    }
+    
+    public TranspositionTable getTable() {
+        return table;
+    }
+    
+    /**
+     * Espace de travail d'un thread : une grille et un analyseur par pièce
+     * explorée, et les grilles feuilles notées par lots ; rien n'est alloué
+     * par nœud, ni d'une recherche à l'autre sur une grille de même forme
+     * (sauf quand la pile dépasse la fenêtre des analyseurs)
+     */
+    private final class Worker implements Callable<Void> {
+        
+        private GameGrid root;
+        private final GameGrid[] grids;
+        private final ReachabilityAnalyzer[] analyzers;
+        // Grilles de la dernière pièce, notées par lots
+        private GameGrid[] leaves = new GameGrid[0];
+        private double[] leafRewards = new double[0];
+        private double[] leafValues = new double[0];
+        private final ActivePiece active;
+        private final BitSet rowsToRemove = new BitSet();
+        private GameMode mode;
+        private ClearStrategy clearStrategy;
+        private int spawnX;
+        private int depth;
+        private boolean mustComplete;
+        private long nodes;
+        private long probes;
+        private long hits;
+        
+        Worker(GameGrid root, int depthLimit) {
+            this.grids = new GameGrid[depthLimit + 1];
+            this.analyzers = new ReachabilityAnalyzer[depthLimit];
+            for (int i = 0; i <= depthLimit; i++) {
+                grids[i] = new GameGrid(root.getWidth(), root.getHeight(), root.isSparse());
+            }
+            for (int i = 0; i < depthLimit; i++) {
+                analyzers[i] = new ReachabilityAnalyzer(root.getWidth(), root.getHeight());
+            }
+            this.active = new ActivePiece(null, 0, 0);
+        }
+        
+        /**
+         * Vrai si les grilles de travail conviennent à root jusqu'à depthLimit pièces
+         */
+        boolean fits(GameGrid root, int depthLimit) {
+            GameGrid grid = grids[0];
+            return grid.getWidth() == root.getWidth() && grid.getHeight() == root.getHeight()
+                    && grid.isSparse() == root.isSparse() && analyzers.length >= depthLimit;
+        }
+        
+        /**
+         * Début d'une recherche : nouvelle racine, compteurs remis à zéro
+         */
+        void reset(GameGrid root, GameMode mode) {
+            this.root = root;
+            if (mode != this.mode) {
+                this.mode = mode;
+                this.clearStrategy = mode.createClearStrategy();
+            }
+            this.spawnX = GameContext.getSpawnX(root);
+            nodes = 0;
+            probes = 0;
+            hits = 0;
+        }
+        
+        void prepare(int depth, boolean mustComplete) {
+            this.depth = depth;
+            this.mustComplete = mustComplete;
+        }
+        
+        @Override
+        public Void call() {
+            grids[0].copyFrom(root);
+            int index;
+            while (!aborted && (index = nextRootMove.getAndIncrement()) < rootMoveCount) {
+                rootValues[index] = expand(0, rootMoves[index], depth);
+            }
+            return null;
+        }
+        
+        /**
+         * Valeur d'une position : grids[ply] avant la pose de pieces[ply]
+         */
+        private double search(int ply, int remaining) {
+            GameGrid board = grids[ply];
+            long key = board.getHash() ^ sequenceKeys[ply];
+            probes++;
+            long entry = table.probe(key);
+            if (entry != TranspositionTable.MISS) {
+                hits++;
+                return TranspositionTable.value(entry);
+            }
+            
+            ReachabilityAnalyzer analyzer = analyzers[ply];
+            int count = analyzer.analyze(board, pieces[ply], spawnX, GameContext.SPAWN_Y, 0);
+            double best = GAME_OVER_VALUE;
+            if (remaining == 1) {
+                best = evaluateLeaves(ply, analyzer, count);
+            } else {
+                for (int i = 0; i < count && !aborted; i++) {
+                    double value = expand(ply, analyzer.getPlacement(i), remaining);
+                    if (value > best) {
+                        best = value;
+                    }
+                }
+            }
+            // Arrondie comme dans la table : un sous-arbre vaut la même chose,
+            // qu'il soit lu dans la table ou recalculé, quel que soit l'ordre
+            // des threads
+            best = (float) best;
+            if (!aborted) {
+                table.store(key, remaining, best);
+            }
+            return best;
+        }
+        
+        /**
+         * Dernière pièce : verrouille tous les placements sur les grilles
+         * feuilles, puis les note en un seul lot ; retourne la meilleure valeur
+         */
+        private double evaluateLeaves(int ply, ReachabilityAnalyzer analyzer, int count) {
+            if (leaves.length < count) {
+                int previous = leaves.length;
+                leaves = Arrays.copyOf(leaves, count);
+                for (int i = previous; i < count; i++) {
+                    leaves[i] = new GameGrid(root.getWidth(), root.getHeight(), root.isSparse());
+                }
+                leafRewards = new double[count];
+                leafValues = new double[count];
+            }
+            int alive = 0;
+            for (int i = 0; i < count; i++) {
+                GameGrid leaf = leaves[alive];
+                leaf.copyFrom(grids[ply]);
+                int lines = lock(leaf, ply, analyzer.getPlacement(i));
+                if (!leaf.isGameOver()) {
+                    leafRewards[alive++] = evaluator.rewardLines(lines);
+                }
+            }
+            evaluator.evaluate(leaves, alive, leafValues);
+            double best = GAME_OVER_VALUE;
+            for (int i = 0; i < alive; i++) {
+                best = Math.max(best, leafRewards[i] + leafValues[i]);
+            }
+            return best;
+        }
+        
+        /**
+         * Verrouille un placement de pieces[ply] sur grids[ply + 1] et retourne sa valeur
+         */
+        private double expand(int ply, long move, int remaining) {
+            GameGrid child = grids[ply + 1];
+            child.copyFrom(grids[ply]);
+            int lines = lock(child, ply, move);
+            if (child.isGameOver()) {
+                return GAME_OVER_VALUE;
+            }
+            double reward = evaluator.rewardLines(lines);
+            if (remaining == 1) {
+                return reward + evaluator.evaluate(child);
+            }
+            return reward + search(ply + 1, remaining - 1);
+        }
+        
+        /**
+         * Verrouille un placement de pieces[ply] sur une grille, compte le nœud
+         * et retourne le nombre de lignes effacées
+         */
+        private int lock(GameGrid grid, int ply, long move) {
+            active.setPiece(pieces[ply]);
+            active.setRotation(ReachabilityAnalyzer.placementRotation(move));
+            active.setX(ReachabilityAnalyzer.placementX(move));
+            active.setY(ReachabilityAnalyzer.placementY(move));
+            int lines = GameContext.resolveLock(grid, active, clearStrategy, rowsToRemove, null);
+            if (++nodes % DEADLINE_CHECK_INTERVAL == 0 && !mustComplete && System.nanoTime() >= deadline) {
+                aborted = true;
+            }
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.designpatterns.puzzle.ai;
+
+import com.designpatterns.puzzle.model.GameGrid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Évaluation par un petit perceptron multicouche (CPU, Java pur)
+ * Entrées : les caractéristiques de BoardFeatures ; couches cachées en
+ * ReLU, sortie linéaire à une valeur. Les grilles sont évaluées par lots
+ * de BATCH, dont les activations restent en cache.
+ * Les caractéristiques et activations sont rangées dans des tableaux de
+ * float réutilisés, un jeu par thread : l'inférence n'alloue rien.
+ * Format du fichier de poids (big-endian) : magic "PGNN", nombre de
+ * couches, tailles des couches (entrée comprise), récompense par ligne
+ * effacée, puis pour chaque couche ses poids (ligne par neurone) et ses biais
+ */
+public final class MlpEvaluator implements BoardEvaluator {
+    
+    private static final int FILE_MAGIC = 0x50474E4E; // "PGNN"
+    private static final int MAX_LAYERS = 16;
+    private static final int MAX_LAYER_SIZE = 4096;
+    // Nombre de grilles évaluées ensemble
+    private static final int BATCH = 64;
+    
+    private final int[] sizes;
+    private final float[][] weights;
+    // Poids transposés : colonne de chaque entrée, contiguë
+    private final float[][] columns;
+    private final float[][] biases;
+    private final float lineReward;
+    private final int maxSize;
+    private final ThreadLocal<Arena> arenas = ThreadLocal.withInitial(Arena::new);
+    
+    /**
+     * @param sizes tailles des couches, entrée comprise ; la dernière vaut 1
+     * @param weights poids de chaque couche, sizes[l + 1] lignes de sizes[l] valeurs
+     * @param biases biais de chaque couche
+     */
+    public MlpEvaluator(int[] sizes, float[][] weights, float[][] biases, float lineReward) {
+        if (sizes.length < 2 || sizes.length > MAX_LAYERS + 1 || sizes[sizes.length - 1] != 1) {
+            throw new IllegalArgumentException("Invalid layer sizes");
+        }
+        int max = 0;
+        for (int l = 0; l < sizes.length; l++) {
+            if (sizes[l] <= 0 || sizes[l] > MAX_LAYER_SIZE) {
+                throw new IllegalArgumentException("Invalid layer size: " + sizes[l]);
+            }
+            max = Math.max(max, sizes[l]);
+        }
+        for (int l = 0; l < sizes.length - 1; l++) {
+            if (weights[l].length != sizes[l] * sizes[l + 1] || biases[l].length != sizes[l + 1]) {
+                throw new IllegalArgumentException("Layer " + l + " does not match its sizes");
+            }
+        }
+        this.sizes = sizes.clone();
+        this.weights = weights;
+        this.columns = new float[weights.length][];
+        for (int l = 0; l < weights.length; l++) {
+            columns[l] = new float[weights[l].length];
+            for (int j = 0; j < sizes[l + 1]; j++) {
+                for (int k = 0; k < sizes[l]; k++) {
+                    columns[l][k * sizes[l + 1] + j] = weights[l][j * sizes[l] + k];
+                }
+            }
+        }
+        this.biases = biases;
+        this.lineReward = lineReward;
+        this.maxSize = max;
+    }
+    
+    /**
+     * Charge un réseau depuis un fichier de poids
+     */
+    public static MlpEvaluator load(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != FILE_MAGIC) {
+                throw new IOException("Not a network file: " + path);
+            }
+            int layers = buffer.getInt();
+            if (layers < 1 || layers > MAX_LAYERS) {
+                throw new IOException("Invalid layer count: " + layers);
+            }
+            int[] sizes = new int[layers + 1];
+            for (int l = 0; l <= layers; l++) {
+                sizes[l] = buffer.getInt();
+                if (sizes[l] <= 0 || sizes[l] > MAX_LAYER_SIZE) {
+                    throw new IOException("Invalid layer size: " + sizes[l]);
+                }
+            }
+            float lineReward = buffer.getFloat();
+            float[][] weights = new float[layers][];
+            float[][] biases = new float[layers][];
+            for (int l = 0; l < layers; l++) {
+                weights[l] = new float[sizes[l] * sizes[l + 1]];
+                buffer.asFloatBuffer().get(weights[l]);
+                buffer.position(buffer.position() + weights[l].length * Float.BYTES);
+                biases[l] = new float[sizes[l + 1]];
+                buffer.asFloatBuffer().get(biases[l]);
+                buffer.position(buffer.position() + biases[l].length * Float.BYTES);
+            }
+            return new MlpEvaluator(sizes, weights, biases, lineReward);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupted network file: " + path, e);
+        }
+    }
+    
+    /**
+     * Écrit le réseau au format lu par load
+     */
+    public void save(Path path) throws IOException {
+        int floats = 1;
+        for (int l = 0; l < weights.length; l++) {
+            floats += weights[l].length + biases[l].length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((2 + sizes.length) * Integer.BYTES + floats * Float.BYTES);
+        buffer.putInt(FILE_MAGIC);
+        buffer.putInt(weights.length);
+        for (int size : sizes) {
+            buffer.putInt(size);
+        }
+        buffer.putFloat(lineReward);
+        for (int l = 0; l < weights.length; l++) {
+            for (float weight : weights[l]) {
+                buffer.putFloat(weight);
+            }
+            for (float bias : biases[l]) {
+                buffer.putFloat(bias);
+            }
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+    
+    @Override
+    public double evaluate(GameGrid grid) {
+        Arena arena = arena(grid);
+        arena.features.extract(grid, arena.input, 0);
+        return forward(arena, 1)[0];
+    }
+    
+    @Override
+    public void evaluate(GameGrid[] grids, int count, double[] values) {
+        if (count == 0) {
+            return;
+        }
+        Arena arena = arena(grids[0]);
+        int inputs = sizes[0];
+        for (int start = 0; start < count; start += BATCH) {
+            int batch = Math.min(BATCH, count - start);
+            for (int i = 0; i < batch; i++) {
+                arena.features.extract(grids[start + i], arena.input, i * inputs);
+            }
+            float[] output = forward(arena, batch);
+            for (int i = 0; i < batch; i++) {
+                values[start + i] = output[i];
+            }
+        }
+    }
+    
+    @Override
+    public double rewardLines(int lines) {
+        return lineReward * lines;
+    }
+    
+    /**
+     * Tampons du thread courant, adaptés aux dimensions de la grille
+     */
+    private Arena arena(GameGrid grid) {
+        Arena arena = arenas.get();
+        if (arena.features == null || arena.width != grid.getWidth() || arena.height != grid.getHeight()) {
+            BoardFeatures features = new BoardFeatures(grid.getWidth(), grid.getHeight());
+            if (features.getFeatureCount() != sizes[0]) {
+                throw new IllegalArgumentException("Network expects " + sizes[0] + " inputs, board gives "
+                        + features.getFeatureCount());
+            }
+            arena.features = features;
+            arena.width = grid.getWidth();
+            arena.height = grid.getHeight();
+        }
+        return arena;
+    }
+    
+    /**
+     * Propage les count entrées de arena.input ; la sortie i est à l'index i
+     * du tableau retourné
+     * Chaque entrée non nulle ajoute sa colonne de poids aux sorties : la
+     * boucle interne, sans réduction, est vectorisée par le JIT, et les
+     * entrées annulées par ReLU ne coûtent rien
+     */
+    private float[] forward(Arena arena, int count) {
+        float[] in = arena.input;
+        float[] out = arena.first;
+        int layers = columns.length;
+        for (int l = 0; l < layers; l++) {
+            int inputs = sizes[l];
+            int outputs = sizes[l + 1];
+            float[] w = columns[l];
+            float[] b = biases[l];
+            for (int s = 0; s < count; s++) {
+                int o = s * outputs;
+                System.arraycopy(b, 0, out, o, outputs);
+                for (int k = 0; k < inputs; k++) {
+                    float x = in[s * inputs + k];
+                    if (x == 0) {
+                        continue;
+                    }
+                    int column = k * outputs;
+                    for (int j = 0; j < outputs; j++) {
+                        out[o + j] += x * w[column + j];
+                    }
+                }
+                if (l < layers - 1) {
+                    for (int j = o; j < o + outputs; j++) {
+                        out[j] = Math.max(out[j], 0f);
+                    }
+                }
+            }
+            in = out;
+            out = out == arena.first ? arena.second : arena.first;
+        }
+        return in;
+    }
+    
+    public int[] getLayerSizes() {
+        return sizes.clone();
+    }
+    
+    /**
+     * Tampons d'un thread : extracteur, entrées et activations d'un lot
+     */
+    private final class Arena {
+        
+        BoardFeatures features;
+        int width;
+        int height;
+        final float[] input = new float[BATCH * sizes[0]];
+        final float[] first = new float[BATCH * maxSize];
+        final float[] second = new float[BATCH * maxSize];
+    }
+}
@@ -0,0 +1,245 @@
+package com.designpatterns.puzzle.ai;
+
+import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.core.GameMode;
+import com.designpatterns.puzzle.core.ReachabilityAnalyzer;
+import com.designpatterns.puzzle.model.ActivePiece;
+import com.designpatterns.puzzle.model.GameGrid;
+import com.designpatterns.puzzle.model.Zobrist;
+import com.designpatterns.puzzle.patterns.decorator.PieceShape;
+import com.designpatterns.puzzle.patterns.decorator.PuzzlePiece;
+import com.designpatterns.puzzle.patterns.factory.PieceFactory;
+import com.designpatterns.puzzle.patterns.strategy.ClearStrategy;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Compteur de positions ("perft") : à partir d'une grille et d'une séquence
+ * de pièces, compte toutes les positions de verrouillage distinctes
+ * atteignables à chaque profondeur, avec les règles de déplacement de
+ * GameContext (gauche, droite, rotation annulée en cas de collision,
+ * descente). Sert d'oracle pour valider un moteur de placement plus
+ * rapide et de banc d'essai de débit.
+ * Les premiers niveaux sont répartis en sous-arbres fork-join ; les
+ * résultats (comptes et somme de contrôle) ne dépendent pas de l'ordre
+ * d'exécution et sont donc reproductibles
+ */
+public class Perft {
+    
+    // Profondeur restante sous laquelle un sous-arbre est exploré séquentiellement
+    private static final int SEQUENTIAL_DEPTH = 2;
+    
+    private final GameMode mode;
+    private final ForkJoinPool pool;
+    
+    public Perft(GameMode mode) {
+        this(mode, ForkJoinPool.commonPool());
+    }
+    
+    public Perft(GameMode mode, ForkJoinPool pool) {
+        this.mode = mode;
+        this.pool = pool;
+    }
+    
+    /**
+     * Pièces tirées de PieceFactory avec une graine (sans power-up)
+     */
+    public static PuzzlePiece[] pieceSequence(long seed, int count) {
+        Random random = new Random(seed);
+        PuzzlePiece[] pieces = new PuzzlePiece[count];
+        for (int i = 0; i < count; i++) {
+            pieces[i] = PieceFactory.createRandomPiece(random);
+        }
+        return pieces;
+    }
+    
+    /**
+     * Compte les positions jusqu'à la profondeur donnée, avec la séquence de pièces d'une graine
+     */
+    public PerftResult run(GameGrid board, long seed, int depth) {
+        return run(board, pieceSequence(seed, depth), depth);
+    }
+    
+    /**
+     * Compte les positions jusqu'à la profondeur donnée (une pièce par niveau)
+     */
+    public PerftResult run(GameGrid board, PuzzlePiece[] pieces, int depth) {
+        if (pieces.length < depth) {
+            throw new IllegalArgumentException("Need " + depth + " pieces, got " + pieces.length);
+        }
+        GameGrid start = new GameGrid(board.getWidth(), board.getHeight(), board.isSparse());
+        start.copyFrom(board);
+        long begin = System.nanoTime();
+        Tally tally = pool.invoke(new SubtreeTask(start, pieces, 0, depth));
+        return new PerftResult(tally.counts, tally.checksum, System.nanoTime() - begin);
+    }
+    
+    /**
+     * Comptes d'un sous-arbre : positions par niveau et somme de contrôle
+     */
+    private static final class Tally {
+        
+        final long[] counts;
+        long checksum;
+        
+        Tally(int depth) {
+            counts = new long[depth + 1];
+        }
+        
+        void add(Tally other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            checksum += other.checksum;
+        }
+    }
+    
+    /**
+     * Sous-arbre à partir de la grille board, avant la pose de pieces[ply]
+     */
+    private final class SubtreeTask extends RecursiveTask<Tally> {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final GameGrid board;
+        private final PuzzlePiece[] pieces;
+        private final int ply;
+        private final int depth;
+        
+        SubtreeTask(GameGrid board, PuzzlePiece[] pieces, int ply, int depth) {
+            this.board = board;
+            this.pieces = pieces;
+            this.ply = ply;
+            this.depth = depth;
+        }
+        
+        @Override
+        protected Tally compute() {
+            Explorer explorer = new Explorer(board, depth, mode);
+            if (depth - ply <= SEQUENTIAL_DEPTH) {
+                Tally tally = new Tally(depth);
+                explorer.count(board, pieces, ply, tally);
+                return tally;
+            }
+            
+            // Un sous-arbre par position de verrouillage
+            Tally tally = new Tally(depth);
+            List<SubtreeTask> children = new ArrayList<>();
+            int count = explorer.generate(board, pieces[ply].getPieceShape(), ply);
+            tally.counts[ply + 1] += count;
+            for (int i = 0; i < count; i++) {
+                GameGrid child = new GameGrid(board.getWidth(), board.getHeight(), board.isSparse());
+                child.copyFrom(board);
+                tally.checksum += explorer.lock(child, pieces[ply], ply, i);
+                if (!child.isGameOver()) {
+                    children.add(new SubtreeTask(child, pieces, ply + 1, depth));
+                }
+            }
+            invokeAll(children);
+            for (SubtreeTask child : children) {
+                tally.add(child.join());
+            }
+            return tally;
+        }
+    }
+    
+    /**
+     * Exploration séquentielle : une grille et un analyseur par niveau
+     */
+    private static final class Explorer {
+        
+        private final GameGrid[] grids;
+        private final ReachabilityAnalyzer[] analyzers;
+        private final ActivePiece active = new ActivePiece(null, 0, 0);
+        private final BitSet rowsToRemove = new BitSet();
+        private final ClearStrategy clearStrategy;
+        private final int width;
+        private final int height;
+        private final int spawnX;
+        
+        Explorer(GameGrid board, int depth, GameMode mode) {
+            this.width = board.getWidth();
+            this.height = board.getHeight();
+            this.grids = new GameGrid[depth + 1];
+            this.analyzers = new ReachabilityAnalyzer[depth];
+            this.clearStrategy = mode.createClearStrategy();
+            this.spawnX = GameContext.getSpawnX(board);
+        }
+        
+        /**
+         * Compte le sous-arbre de board (avant la pose de pieces[ply]) dans tally
+         */
+        void count(GameGrid board, PuzzlePiece[] pieces, int ply, Tally tally) {
+            int depth = tally.counts.length - 1;
+            PieceShape shape = pieces[ply].getPieceShape();
+            int count = generate(board, shape, ply);
+            tally.counts[ply + 1] += count;
+            boolean last = ply + 1 == depth;
+            for (int i = 0; i < count; i++) {
+                if (last) {
+                    // Dernier niveau : la position suffit, sans poser la pièce
+                    tally.checksum += Zobrist.mix(board.getHash() ^ position(shape, ply, i));
+                    continue;
+                }
+                GameGrid child = grid(ply + 1, board);
+                tally.checksum += lock(child, pieces[ply], ply, i);
+                if (!child.isGameOver()) {
+                    count(child, pieces, ply + 1, tally);
+                }
+            }
+        }
+        
+        /**
+         * Grille de travail d'un niveau, initialisée avec le contenu de source
+         */
+        private GameGrid grid(int ply, GameGrid source) {
+            if (grids[ply] == null) {
+                grids[ply] = new GameGrid(width, height, source.isSparse());
+            }
+            grids[ply].copyFrom(source);
+            return grids[ply];
+        }
+        
+        /**
+         * Verrouille la i-ème position de verrouillage du niveau sur la grille
+         * Retourne la contribution de la position à la somme de contrôle
+         */
+        long lock(GameGrid grid, PuzzlePiece piece, int ply, int index) {
+            long position = position(piece.getPieceShape(), ply, index);
+            long contribution = Zobrist.mix(grid.getHash() ^ position);
+            active.setPiece(piece);
+            active.setRotation(ReachabilityAnalyzer.placementRotation(position));
+            active.setX(ReachabilityAnalyzer.placementX(position));
+            active.setY(ReachabilityAnalyzer.placementY(position));
+            GameContext.resolveLock(grid, active, clearStrategy, rowsToRemove, null);
+            return contribution;
+        }
+        
+        /**
+         * Analyse les positions de verrouillage de shape depuis l'apparition
+         * Deux rotations de même masque donnent la même position, comptée une fois
+         */
+        int generate(GameGrid board, PieceShape shape, int ply) {
+            if (analyzers[ply] == null) {
+                analyzers[ply] = new ReachabilityAnalyzer(width, height);
+            }
+            return analyzers[ply].analyze(board, shape, spawnX, GameContext.SPAWN_Y, 0);
+        }
+        
+        /**
+         * Position de verrouillage d'index i du niveau, codée avec la rotation
+         * canonique pour que la somme de contrôle ne dépende pas du chemin
+         */
+        private long position(PieceShape shape, int ply, int index) {
+            long placement = analyzers[ply].getPlacement(index);
+            int rotation = ReachabilityAnalyzer.placementRotation(placement);
+            return ReachabilityAnalyzer.placement(ReachabilityAnalyzer.canonicalRotation(shape, rotation),
+                    ReachabilityAnalyzer.placementX(placement), ReachabilityAnalyzer.placementY(placement));
+        }
+    }
+}
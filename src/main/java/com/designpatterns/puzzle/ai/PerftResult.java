@@ -0,0 +1,63 @@
+package com.designpatterns.puzzle.ai;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Résultat d'un perft : nombre de positions par profondeur et somme de
+ * contrôle des positions, reproductibles pour une même grille et une
+ * même séquence de pièces
+ */
+public final class PerftResult {
+    
+    private final long[] counts;
+    private final long checksum;
+    private final long elapsedNanos;
+    
+    PerftResult(long[] counts, long checksum, long elapsedNanos) {
+        this.counts = counts;
+        this.checksum = checksum;
+        this.elapsedNanos = elapsedNanos;
+    }
+    
+    /**
+     * Nombre de positions de verrouillage à une profondeur (1 = première pièce)
+     */
+    public long getCount(int depth) {
+        return counts[depth];
+    }
+    
+    public int getDepth() {
+        return counts.length - 1;
+    }
+    
+    /**
+     * Nombre total de positions générées, toutes profondeurs confondues
+     */
+    public long getTotalNodes() {
+        long total = 0;
+        for (int depth = 1; depth < counts.length; depth++) {
+            total += counts[depth];
+        }
+        return total;
+    }
+    
+    public long getChecksum() {
+        return checksum;
+    }
+    
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+    
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : getTotalNodes() * 1e9 / elapsedNanos;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "perft %s checksum %016x, %.1f ms (%.0f nodes/s)",
+                Arrays.toString(Arrays.copyOfRange(counts, 1, counts.length)), checksum,
+                elapsedNanos / 1e6, getNodesPerSecond());
+    }
+}
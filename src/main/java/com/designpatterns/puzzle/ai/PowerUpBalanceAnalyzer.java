@@ -0,0 +1,193 @@
+package com.designpatterns.puzzle.ai;
+
+import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.core.GameMode;
+import com.designpatterns.puzzle.patterns.factory.PowerUpConfig;
+import com.designpatterns.puzzle.patterns.state.MenuState;
+import com.designpatterns.puzzle.utils.GameLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Analyse Monte-Carlo de l'équilibrage des power-ups
+ * Pour chaque réglage, le bot joue des parties avec graine, en parallèle,
+ * par lots de taille fixe. Après chaque lot, les moyennes et variances du
+ * score et de la durée (algorithme de Welford) donnent des intervalles de
+ * confiance à 95 % ; l'analyse du réglage s'arrête dès que les deux sont
+ * assez étroits, ou au nombre maximal de parties.
+ * Tous les réglages sont joués sur les mêmes graines, ce qui réduit la
+ * variance de leurs écarts. La recherche du bot n'est pas limitée en temps :
+ * les résultats ne dépendent que des graines, pas du nombre de threads
+ */
+public class PowerUpBalanceAnalyzer {
+    
+    private static final GameLogger logger = GameLogger.getInstance();
+    private static final double Z_95 = 1.959964;
+    private static final int MIN_GAMES = 16;
+    private static final int BATCH_GAMES = 16;
+    // Pièce active et une pièce d'aperçu
+    private static final int BOT_PIECES = 2;
+    private static final int BOT_TABLE_MEGABYTES = 4;
+    private static final long BOT_BUDGET_MILLIS = 3_600_000L;
+    private static final double STEP_SECONDS = 0.0001;
+    
+    private final GameMode mode;
+    private final int maxPieces;
+    private final int maxGames;
+    private final double relativePrecision;
+    private final ExecutorService executor;
+    private final BlockingQueue<LookaheadSearch> searches;
+    
+    /**
+     * @param maxPieces durée maximale d'une partie, en pièces posées
+     * @param maxGames nombre maximal de parties par réglage
+     * @param relativePrecision demi-largeur visée des intervalles, relative à la moyenne
+     */
+    public PowerUpBalanceAnalyzer(BoardEvaluator evaluator, GameMode mode, int threads,
+                                  int maxPieces, int maxGames, double relativePrecision) {
+        this.mode = mode;
+        this.maxPieces = maxPieces;
+        this.maxGames = Math.max(MIN_GAMES, maxGames);
+        this.relativePrecision = relativePrecision;
+        int poolSize = Math.max(1, threads);
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "balance-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.searches = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            searches.add(new LookaheadSearch(evaluator,
+                    new TranspositionTable(BOT_TABLE_MEGABYTES), 1, BOT_PIECES, BOT_BUDGET_MILLIS));
+        }
+    }
+    
+    /**
+     * Analyse chaque réglage sur les graines baseSeed, baseSeed + 1, ...
+     */
+    public List<BalanceResult> sweep(List<PowerUpConfig> configs, long baseSeed) {
+        List<BalanceResult> results = new ArrayList<>(configs.size());
+        for (PowerUpConfig config : configs) {
+            BalanceResult result = analyze(config, baseSeed);
+            logger.logInfo("Power-up balance " + result);
+            results.add(result);
+        }
+        return results;
+    }
+    
+    /**
+     * Joue des parties avec un réglage jusqu'à la précision demandée
+     */
+    public BalanceResult analyze(PowerUpConfig config, long baseSeed) {
+        RunningStats scores = new RunningStats();
+        RunningStats lengths = new RunningStats();
+        boolean converged = false;
+        List<Future<int[]>> batch = new ArrayList<>(BATCH_GAMES);
+        while (scores.count < maxGames && !converged) {
+            int size = Math.min(BATCH_GAMES, maxGames - scores.count);
+            for (int i = 0; i < size; i++) {
+                long seed = baseSeed + scores.count + i;
+                batch.add(executor.submit(() -> play(config, seed)));
+            }
+            // Résultats ajoutés dans l'ordre des graines
+            for (Future<int[]> game : batch) {
+                int[] outcome = await(game);
+                scores.add(outcome[0]);
+                lengths.add(outcome[1]);
+            }
+            batch.clear();
+            converged = scores.count >= MIN_GAMES
+                    && scores.margin() <= relativePrecision * Math.max(1, Math.abs(scores.mean))
+                    && lengths.margin() <= relativePrecision * Math.max(1, Math.abs(lengths.mean));
+        }
+        return new BalanceResult(config, scores.count, scores.mean, scores.margin(),
+                                 lengths.mean, lengths.margin(), converged);
+    }
+    
+    /**
+     * Joue une partie ; retourne le score et le nombre de pièces posées
+     */
+    private int[] play(PowerUpConfig config, long seed) throws InterruptedException {
+        LookaheadSearch search = searches.take();
+        try {
+            // Table vidée : la partie ne dépend pas de celles jouées avant par ce thread
+            search.getTable().clear();
+            AutoPlayer player = new AutoPlayer(search);
+            GameContext context = new GameContext(new MenuState());
+            context.setGameMode(mode);
+            context.setPowerUpConfig(config);
+            context.setPreviewCount(BOT_PIECES - 1);
+            context.setSeed(seed);
+            context.handleInput("START");
+            int placed = 0;
+            while (!context.isGameOver() && placed < maxPieces) {
+                context.update(STEP_SECONDS);
+                SearchResult previous = player.getLastResult();
+                player.update(context);
+                if (player.getLastResult() != previous) {
+                    placed++;
+                }
+            }
+            return new int[] {context.getScore(), placed};
+        } finally {
+            searches.add(search);
+        }
+    }
+    
+    private static int[] await(Future<int[]> game) {
+        try {
+            return game.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during balance analysis", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Balance game failed", e.getCause());
+        }
+    }
+    
+    /**
+     * Arrête les threads de simulation et de recherche
+     */
+    public void close() {
+        executor.shutdownNow();
+        for (LookaheadSearch search : searches) {
+            search.close();
+        }
+    }
+    
+    /**
+     * Moyenne et variance incrémentales (Welford)
+     */
+    private static final class RunningStats {
+        
+        int count;
+        double mean;
+        double squares;
+        
+        void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            squares += delta * (value - mean);
+        }
+        
+        /**
+         * Demi-largeur de l'intervalle de confiance à 95 % de la moyenne
+         */
+        double margin() {
+            if (count < 2) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return Z_95 * Math.sqrt(squares / (count - 1) / count);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.designpatterns.puzzle.ai;
+
+import com.designpatterns.puzzle.core.InputCommand;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Résultat d'une recherche : placement choisi, commandes pour l'atteindre
+ * depuis la position de la pièce active et statistiques de la recherche
+ */
+public final class SearchResult {
+    
+    private final int rotation;
+    private final int x;
+    private final int y;
+    private final double value;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedNanos;
+    private final long probes;
+    private final long hits;
+    private final List<InputCommand> commands;
+    
+    SearchResult(List<InputCommand> commands, int rotation, int x, int y, double value, int depth,
+                 long nodes, long elapsedNanos, long probes, long hits) {
+        this.rotation = rotation;
+        this.x = x;
+        this.y = y;
+        this.value = value;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.probes = probes;
+        this.hits = hits;
+        this.commands = Collections.unmodifiableList(commands);
+    }
+    
+    /**
+     * Plus court chemin de commandes jusqu'au placement, chute comprise
+     */
+    public List<InputCommand> getCommands() {
+        return commands;
+    }
+    
+    public int getRotation() {
+        return rotation;
+    }
+    
+    public int getX() {
+        return x;
+    }
+    
+    public int getY() {
+        return y;
+    }
+    
+    public double getValue() {
+        return value;
+    }
+    
+    /**
+     * Nombre de pièces (active puis aperçu) de la dernière itération terminée
+     */
+    public int getDepth() {
+        return depth;
+    }
+    
+    public long getNodes() {
+        return nodes;
+    }
+    
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+    
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+    
+    /**
+     * Proportion des consultations de la table de transposition réussies
+     */
+    public double getHitRate() {
+        return probes == 0 ? 0 : hits / (double) probes;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "depth %d, %d nodes in %.1f ms (%.0f nodes/s), TT hits %.1f%%",
+                depth, nodes, elapsedNanos / 1e6, getNodesPerSecond(), getHitRate() * 100);
+    }
+}
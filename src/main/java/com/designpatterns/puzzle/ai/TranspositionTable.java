@@ -0,0 +1,137 @@
+package com.designpatterns.puzzle.ai;
+
+import java.util.Arrays;
+
+/**
+ * Table de transposition de taille fixe, partagée sans verrou entre les
+ * threads de recherche
+ * Chaque entrée occupe deux mots : (clé XOR données, données). Une écriture
+ * concurrente interrompue donne une paire incohérente, rejetée à la lecture
+ * comme une absence. Les entrées sont rangées par seaux de deux ; une
+ * nouvelle entrée remplace celle de plus faible priorité (entrée d'une
+ * recherche précédente d'abord, puis la moins profonde)
+ */
+public final class TranspositionTable {
+    
+    public static final long MISS = 0L;
+    
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_ENTRIES = 2;
+    private static final int BUCKET_LONGS = ENTRY_LONGS * BUCKET_ENTRIES;
+    private static final int MAX_BUCKETS = 1 << 26;
+    
+    private final long[] slots;
+    private final int bucketMask;
+    private volatile int generation;
+    
+    /**
+     * Crée une table tenant dans le budget mémoire donné (arrondi à la
+     * puissance de deux inférieure)
+     */
+    public TranspositionTable(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        long buckets = Math.min(MAX_BUCKETS, Long.highestOneBit(bytes / (BUCKET_LONGS * Long.BYTES)));
+        this.slots = new long[(int) buckets * BUCKET_LONGS];
+        this.bucketMask = (int) buckets - 1;
+    }
+    
+    /**
+     * Retourne les données associées à une clé, ou MISS
+     */
+    public long probe(long key) {
+        int base = bucket(key);
+        for (int i = base; i < base + BUCKET_LONGS; i += ENTRY_LONGS) {
+            long data = slots[i + 1];
+            if (data != MISS && (slots[i] ^ data) == key) {
+                return data;
+            }
+        }
+        return MISS;
+    }
+    
+    /**
+     * Enregistre la valeur d'une position pour une profondeur restante (au moins 1)
+     */
+    public void store(long key, int depth, double value) {
+        int current = generation;
+        int base = bucket(key);
+        int target = base;
+        int lowest = Integer.MAX_VALUE;
+        for (int i = base; i < base + BUCKET_LONGS; i += ENTRY_LONGS) {
+            long data = slots[i + 1];
+            if (data == MISS || (slots[i] ^ data) == key) {
+                target = i;
+                break;
+            }
+            int priority = depth(data) + (generation(data) == current ? 256 : 0);
+            if (priority < lowest) {
+                lowest = priority;
+                target = i;
+            }
+        }
+        long data = (Float.floatToRawIntBits((float) value) & 0xFFFFFFFFL)
+                | ((long) (depth & 0xFF) << 32)
+                | ((long) current << 40);
+        slots[target] = key ^ data;
+        slots[target + 1] = data;
+    }
+    
+    private int bucket(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * BUCKET_LONGS;
+    }
+    
+    /**
+     * Valeur contenue dans des données retournées par probe
+     */
+    public static double value(long data) {
+        return Float.intBitsToFloat((int) data);
+    }
+    
+    public static int depth(long data) {
+        return (int) (data >>> 32) & 0xFF;
+    }
+    
+    private static int generation(long data) {
+        return (int) (data >>> 40) & 0xFF;
+    }
+    
+    /**
+     * Démarre une nouvelle recherche : les entrées existantes restent
+     * lisibles mais deviennent prioritaires au remplacement
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+    
+    /**
+     * Vide la table et remet la génération à zéro : la recherche suivante
+     * se déroule comme avec une table neuve
+     */
+    public void clear() {
+        Arrays.fill(slots, 0L);
+        generation = 0;
+    }
+    
+    /**
+     * Nombre d'entrées de la table
+     */
+    public int getCapacity() {
+        return slots.length / ENTRY_LONGS;
+    }
+    
+    /**
+     * Proportion d'entrées écrites par la recherche courante, estimée sur un échantillon
+     */
+    public double getFillRate() {
+        int sample = Math.min(slots.length, 4096 * ENTRY_LONGS);
+        int current = generation;
+        int used = 0;
+        for (int i = 0; i < sample; i += ENTRY_LONGS) {
+            long data = slots[i + 1];
+            if (data != MISS && generation(data) == current) {
+                used++;
+            }
+        }
+        return used / (double) (sample / ENTRY_LONGS);
+    }
+}
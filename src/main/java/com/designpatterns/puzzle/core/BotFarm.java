@@ -0,0 +1,142 @@
+package com.designpatterns.puzzle.core;
+
+import com.designpatterns.puzzle.ai.AutoPlayer;
+import com.designpatterns.puzzle.ai.BoardEvaluator;
+import com.designpatterns.puzzle.ai.LookaheadSearch;
+import com.designpatterns.puzzle.ai.TranspositionTable;
+import com.designpatterns.puzzle.patterns.state.MenuState;
+import com.designpatterns.puzzle.utils.GameLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Ferme de parties jouées par le bot, pour le mode spectateur
+ * Les sessions sont réparties entre quelques threads ; chaque thread fait
+ * avancer les siennes à pas fixe et publie l'état de chacune après chaque
+ * pas. Le bot d'une session ne joue qu'une pièce tous les BOT_MOVE_TICKS
+ * pas (phases décalées entre sessions) : des centaines de parties restent
+ * lisibles et tiennent sur peu de cœurs. Une partie terminée recommence
+ */
+public class BotFarm {
+    
+    private static final GameLogger logger = GameLogger.getInstance();
+    private static final double TICK_SECONDS = 1.0 / 60;
+    private static final long TICK_NANOS = (long) (TICK_SECONDS * 1_000_000_000L);
+    private static final int BOT_MOVE_TICKS = 30;
+    // Pièce active seulement : une recherche coûte quelques dizaines d'évaluations
+    private static final int BOT_PIECES = 1;
+    private static final int BOT_TABLE_MEGABYTES = 1;
+    private static final long BOT_BUDGET_MILLIS = 5;
+    
+    private final GameContext[] contexts;
+    private final AutoPlayer[] players;
+    private final LookaheadSearch[] searches;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+    
+    /**
+     * Crée les sessions (graines seed, seed + 1, ...) et un bot par thread
+     */
+    public BotFarm(int sessions, int threadCount, long seed, GameMode mode, BoardEvaluator evaluator) {
+        int workers = Math.max(1, Math.min(threadCount, sessions));
+        this.contexts = new GameContext[sessions];
+        this.players = new AutoPlayer[sessions];
+        this.searches = new LookaheadSearch[workers];
+        for (int w = 0; w < workers; w++) {
+            searches[w] = new LookaheadSearch(evaluator, new TranspositionTable(BOT_TABLE_MEGABYTES),
+                                              1, BOT_PIECES, BOT_BUDGET_MILLIS);
+        }
+        for (int i = 0; i < sessions; i++) {
+            GameContext context = new GameContext(new MenuState());
+            context.setGameMode(mode);
+            context.setSeed(seed + i);
+            context.handleInput("START");
+            contexts[i] = context;
+            // Sessions d'un même thread : elles partagent sa recherche
+            players[i] = new AutoPlayer(searches[i % workers]);
+        }
+    }
+    
+    /**
+     * Démarre les threads ; frameConsumer reçoit (session, index) après
+     * chaque pas, sur le thread de la session
+     */
+    public synchronized void start(ObjIntConsumer<GameContext> frameConsumer) {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int w = 0; w < searches.length; w++) {
+            int worker = w;
+            Thread thread = new Thread(() -> run(worker, frameConsumer), "bot-farm-" + (w + 1));
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        logger.logInfo("Bot farm started: " + contexts.length + " sessions on " + searches.length + " threads");
+    }
+    
+    /**
+     * Arrête les threads et les recherches
+     */
+    public void stop() {
+        running = false;
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (LookaheadSearch search : searches) {
+            search.close();
+        }
+    }
+    
+    private void run(int worker, ObjIntConsumer<GameContext> frameConsumer) {
+        int workers = searches.length;
+        long tick = 0;
+        long nextTick = System.nanoTime();
+        while (running) {
+            for (int i = worker; i < contexts.length; i += workers) {
+                GameContext context = contexts[i];
+                context.update(TICK_SECONDS);
+                if ((tick + i) % BOT_MOVE_TICKS == 0) {
+                    players[i].update(context);
+                }
+                if ("GAME_OVER".equals(context.getCurrentStateName())) {
+                    context.handleInput("RESTART");
+                }
+                frameConsumer.accept(context, i);
+            }
+            tick++;
+            
+            nextTick += TICK_NANOS;
+            long wait = nextTick - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            } else if (-wait > TICK_NANOS * 10) {
+                // Rattrapage impossible : repart du temps courant
+                nextTick = System.nanoTime();
+            }
+        }
+    }
+    
+    public int getSessionCount() {
+        return contexts.length;
+    }
+    
+    public int getBoardWidth() {
+        return contexts[0].getGrid().getWidth();
+    }
+    
+    public int getBoardHeight() {
+        return contexts[0].getGrid().getHeight();
+    }
+}
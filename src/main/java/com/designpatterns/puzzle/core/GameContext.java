@@ -1,13 +1,26 @@
 package com.designpatterns.puzzle.core;
 
+import com.designpatterns.puzzle.events.GameEvent;
+import com.designpatterns.puzzle.events.GameEventBus;
+import com.designpatterns.puzzle.events.GameEventType;
 import com.designpatterns.puzzle.model.ActivePiece;
+import com.designpatterns.puzzle.model.BombEffect;
 import com.designpatterns.puzzle.model.GameGrid;
+import com.designpatterns.puzzle.model.LockEffect;
+import com.designpatterns.puzzle.model.Zobrist;
+import com.designpatterns.puzzle.patterns.decorator.PieceAttributes;
 import com.designpatterns.puzzle.patterns.decorator.PuzzlePiece;
 import com.designpatterns.puzzle.patterns.factory.PieceFactory;
+import com.designpatterns.puzzle.patterns.factory.PowerUpConfig;
 import com.designpatterns.puzzle.patterns.factory.PowerUpFactory;
 import com.designpatterns.puzzle.patterns.state.GameState;
+import com.designpatterns.puzzle.patterns.strategy.ClearStrategy;
 import com.designpatterns.puzzle.utils.GameLogger;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
 /**
  * Contexte du jeu - Utilise le State Pattern
  * Gère l'état actuel du jeu et délègue les actions à l'état actif
@@ -17,20 +30,52 @@ public class GameContext {
     private GameState currentState;
     private GameGrid grid;
     private ActivePiece currentPiece;
-    private PuzzlePiece nextPiece;
+    // File des pièces à venir ; la première est la pièce suivante affichée
+    private PuzzlePiece[] previews = new PuzzlePiece[1];
     private int score;
     private int level;
     private int linesCleared;
     private double fallSpeed;
     private double fallTimer;
     private boolean gameOver;
+    private GameEventBus eventBus;
+    private GameRecorder recorder;
+    private LockListener lockListener;
+    private final BitSet rowsToRemove = new BitSet();
+    private GameMode gameMode = GameMode.CLASSIC;
+    private ClearStrategy clearStrategy = gameMode.createClearStrategy();
+    private PowerUpConfig powerUpConfig = PowerUpConfig.DEFAULT;
+    
+    // Générateur propre à la partie : une même graine redonne les mêmes pièces
+    private final Random random = new Random();
+    private long seed;
+    private boolean seedPreset;
     
     private static final GameLogger logger = GameLogger.getInstance();
+    private static final Random SEED_SOURCE = new Random();
     private static final double BASE_FALL_SPEED = 1.0; // secondes
+    public static final int SPAWN_Y = 0;
+    private static final LockEffect[] LOCK_EFFECTS = { new BombEffect() };
     
     public GameContext(GameState initialState) {
+        this(initialState, null);
+    }
+    
+    /**
+     * Crée un contexte qui publie ses événements sur le bus donné (null = aucun)
+     */
+    public GameContext(GameState initialState, GameEventBus eventBus) {
+        this(initialState, eventBus, new GameGrid());
+    }
+    
+    /**
+     * Crée un contexte sur une grille donnée (par exemple une grande grille creuse)
+     */
+    public GameContext(GameState initialState, GameEventBus eventBus, GameGrid grid) {
         this.currentState = initialState;
-        this.grid = new GameGrid();
+        this.eventBus = eventBus;
+        this.grid = grid;
+        grid.setEventBus(eventBus);
         this.score = 0;
         this.level = 1;
         this.linesCleared = 0;
@@ -70,6 +115,16 @@ public class GameContext {
      * Initialise une nouvelle partie
      */
     public void initializeGame() {
+        if (!seedPreset) {
+            seed = SEED_SOURCE.nextLong();
+        }
+        seedPreset = false;
+        random.setSeed(seed);
+        if (recorder != null) {
+            recorder.gameStarted(seed);
+            recorder.commandApplied(gameMode.getCommand());
+        }
+        
         grid.clear();
         score = 0;
         level = 1;
@@ -82,9 +137,9 @@ public class GameContext {
         spawnNewPiece();
         
         // Prépare la pièce suivante
-        nextPiece = PowerUpFactory.applyRandomPowerUp(PieceFactory.createRandomPiece());
+        advancePreviews();
         
-        logger.logInfo("New game initialized");
+        logger.logGameEvent("New game initialized");
     }
     
     /**
@@ -92,6 +147,7 @@ public class GameContext {
      */
     public void updateGame(double deltaTime) {
         if (currentPiece == null) {
+            record(InputCommand.SPAWN);
             spawnNewPiece();
             return;
         }
@@ -100,7 +156,124 @@ public class GameContext {
         fallTimer += deltaTime;
         if (fallTimer >= fallSpeed) {
             fallTimer = 0;
-            movePieceDown();
+            record(InputCommand.GRAVITY);
+            stepDown();
+        }
+    }
+    
+    /**
+     * Démarre directement une partie avec une graine donnée (rejeu)
+     * sans passer par les états du jeu
+     */
+    public void startReplay(long replaySeed) {
+        setSeed(replaySeed);
+        initializeGame();
+    }
+    
+    /**
+     * Applique une commande de jeu enregistrée (voir GameRecorder)
+     */
+    public void applyCommand(InputCommand command) {
+        switch (command) {
+            case LEFT:
+                movePieceLeft();
+                break;
+            case RIGHT:
+                movePieceRight();
+                break;
+            case DOWN:
+                movePieceDown();
+                break;
+            case ROTATE:
+                rotatePiece();
+                break;
+            case DROP:
+                dropPiece();
+                break;
+            case GRAVITY:
+                record(InputCommand.GRAVITY);
+                stepDown();
+                break;
+            case SPAWN:
+                record(InputCommand.SPAWN);
+                spawnNewPiece();
+                break;
+            case MODE_CLASSIC:
+            case MODE_CASCADE:
+            case MODE_COLOR_MATCH:
+                setGameMode(GameMode.fromCommand(command));
+                break;
+            default:
+                handleInput(command.getInput());
+                break;
+        }
+    }
+    
+    /**
+     * Impose la graine de la prochaine partie initialisée
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.seedPreset = true;
+    }
+    
+    /**
+     * Change le mode de jeu (Strategy Pattern), à faire avant de démarrer la partie
+     */
+    public void setGameMode(GameMode mode) {
+        if (mode != gameMode) {
+            gameMode = mode;
+            clearStrategy = mode.createClearStrategy();
+            logger.logInfo("Game mode: " + clearStrategy.getModeName());
+        }
+    }
+    
+    public GameMode getGameMode() {
+        return gameMode;
+    }
+    
+    /**
+     * Branche un enregistreur de partie (null pour le retirer)
+     */
+    public void setRecorder(GameRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
+    /**
+     * Règle le tirage des power-ups des pièces à venir
+     * Les replays ne conservent pas ce réglage : seul le réglage par défaut
+     * permet de les rejouer
+     */
+    public void setPowerUpConfig(PowerUpConfig powerUpConfig) {
+        this.powerUpConfig = powerUpConfig;
+    }
+    
+    public PowerUpConfig getPowerUpConfig() {
+        return powerUpConfig;
+    }
+    
+    /**
+     * Branche un observateur des verrouillages (null pour le retirer)
+     */
+    public void setLockListener(LockListener lockListener) {
+        this.lockListener = lockListener;
+    }
+    
+    private void record(InputCommand command) {
+        if (recorder != null) {
+            recorder.commandApplied(command);
+        }
+    }
+    
+    /**
+     * Marque la fin de partie et la signale à l'enregistreur
+     */
+    private void endGame() {
+        if (!gameOver) {
+            gameOver = true;
+            if (recorder != null) {
+                recorder.gameEnded(score, level, linesCleared);
+            }
         }
     }
     
@@ -108,28 +281,64 @@ public class GameContext {
      * Fait apparaître une nouvelle pièce
      */
     private void spawnNewPiece() {
-        PuzzlePiece piece = (nextPiece != null) ? nextPiece : 
-                           PowerUpFactory.applyRandomPowerUp(PieceFactory.createRandomPiece());
+        PuzzlePiece piece = (previews[0] != null) ? previews[0] : drawPiece();
         
-        int startX = grid.getWidth() / 2 - 1;
-        int startY = 0;
+        int startX = getSpawnX(grid);
+        int startY = SPAWN_Y;
         
         currentPiece = new ActivePiece(piece, startX, startY);
         
         // Prépare la pièce suivante
-        nextPiece = PowerUpFactory.applyRandomPowerUp(PieceFactory.createRandomPiece());
+        advancePreviews();
+        
+        if (eventBus != null) {
+            PieceAttributes attributes = piece.getAttributes();
+            eventBus.publishAt(GameEventType.PIECE_SPAWNED, startX, startY, attributes.getScoreMultiplier());
+            if (attributes.hasSpecialEffect()) {
+                eventBus.publish(GameEventType.POWER_UP_SPAWNED, attributes.getScoreMultiplier(), 0, 0);
+            }
+        }
         
         // Vérifie si le jeu est terminé
         if (!grid.canPlacePiece(currentPiece)) {
-            gameOver = true;
-            logger.logGameEvent("Game Over - Cannot spawn new piece");
+            endGame();
+            if (eventBus != null) {
+                eventBus.publish(GameEventType.SPAWN_BLOCKED, startX, startY);
+            }
+        }
+    }
+    
+    private PuzzlePiece drawPiece() {
+        return PowerUpFactory.applyRandomPowerUp(PieceFactory.createRandomPiece(random), random, powerUpConfig);
+    }
+    
+    /**
+     * Retire la tête de la file d'aperçu et la complète
+     * Les pièces sont tirées dans le même ordre quelle que soit la taille
+     * de la file : une graine donne la même séquence de pièces
+     */
+    private void advancePreviews() {
+        System.arraycopy(previews, 1, previews, 0, previews.length - 1);
+        previews[previews.length - 1] = null;
+        for (int i = 0; i < previews.length; i++) {
+            if (previews[i] == null) {
+                previews[i] = drawPiece();
+            }
         }
     }
     
+    /**
+     * Colonne d'apparition des pièces sur une grille
+     */
+    public static int getSpawnX(GameGrid grid) {
+        return grid.getWidth() / 2 - 1;
+    }
+    
     /**
      * Déplace la pièce vers la gauche
      */
     public void movePieceLeft() {
+        record(InputCommand.LEFT);
         if (currentPiece != null) {
             currentPiece.moveLeft();
             if (!grid.canPlacePiece(currentPiece)) {
@@ -142,6 +351,7 @@ public class GameContext {
      * Déplace la pièce vers la droite
      */
     public void movePieceRight() {
+        record(InputCommand.RIGHT);
         if (currentPiece != null) {
             currentPiece.moveRight();
             if (!grid.canPlacePiece(currentPiece)) {
@@ -154,6 +364,14 @@ public class GameContext {
      * Déplace la pièce vers le bas
      */
     public void movePieceDown() {
+        record(InputCommand.DOWN);
+        stepDown();
+    }
+    
+    /**
+     * Fait descendre la pièce d'une case et la verrouille si elle est bloquée
+     */
+    private void stepDown() {
         if (currentPiece != null) {
             currentPiece.moveDown();
             if (!grid.canPlacePiece(currentPiece)) {
@@ -167,6 +385,7 @@ public class GameContext {
      * Fait tourner la pièce
      */
     public void rotatePiece() {
+        record(InputCommand.ROTATE);
         if (currentPiece != null) {
             currentPiece.rotate();
             if (!grid.canPlacePiece(currentPiece)) {
@@ -174,6 +393,8 @@ public class GameContext {
                 currentPiece.rotate();
                 currentPiece.rotate();
                 currentPiece.rotate();
+            } else if (eventBus != null) {
+                eventBus.publish(GameEventType.PIECE_ROTATED, currentPiece.getRotation(), 0, 0);
             }
         }
     }
@@ -182,6 +403,7 @@ public class GameContext {
      * Fait tomber la pièce instantanément
      */
     public void dropPiece() {
+        record(InputCommand.DROP);
         if (currentPiece != null) {
             int dropDistance = 0;
             while (grid.canPlacePiece(currentPiece)) {
@@ -194,7 +416,9 @@ public class GameContext {
             score += dropDistance * 2;
             
             lockPiece();
-            logger.logGameEvent("Piece dropped (distance: " + dropDistance + ")");
+            if (eventBus != null) {
+                eventBus.publish(GameEventType.PIECE_DROPPED, 0, dropDistance, 0);
+            }
         }
     }
     
@@ -203,32 +427,72 @@ public class GameContext {
      */
     private void lockPiece() {
         if (currentPiece != null) {
-            grid.placePiece(currentPiece);
+            if (lockListener != null) {
+                lockListener.pieceLocking(grid, currentPiece);
+            }
+            int previousScore = score;
+            int lines = resolveLock(grid, currentPiece, clearStrategy, rowsToRemove, eventBus);
+            PieceAttributes attributes = currentPiece.getPiece().getAttributes();
             
-            // Efface les lignes complètes
-            int lines = grid.clearCompleteLines();
             if (lines > 0) {
                 linesCleared += lines;
                 int baseScore = calculateLineScore(lines);
-                int multiplier = currentPiece.getPiece().getScoreMultiplier();
+                int multiplier = attributes.getScoreMultiplier();
                 score += baseScore * multiplier;
                 
-                logger.logGameEvent("Lines cleared: " + lines + " | Score added: " + (baseScore * multiplier));
+                if (eventBus != null) {
+                    eventBus.publish(GameEventType.SCORE_CHANGED, baseScore * multiplier, lines, multiplier);
+                }
                 
                 // Augmente le niveau tous les 10 lignes
                 level = (linesCleared / 10) + 1;
                 fallSpeed = BASE_FALL_SPEED / (1 + (level - 1) * 0.1);
             }
+            if (lockListener != null) {
+                lockListener.pieceLocked(lines, score - previousScore);
+            }
             
             // Vérifie game over
             if (grid.isGameOver()) {
-                gameOver = true;
+                endGame();
             }
             
             currentPiece = null;
         }
     }
     
+    /**
+     * Pose une pièce et résout ses effets et les effacements du mode
+     * Les lignes marquées par les effets de la pièce sont supprimées par la
+     * stratégie en même temps que ses propres lignes. Partagé avec les
+     * simulations (recherche du bot), qui passent un bus null
+     * Retourne le nombre de lignes effacées
+     */
+    public static int resolveLock(GameGrid grid, ActivePiece piece, ClearStrategy clearStrategy,
+                                  BitSet rowsToRemove, GameEventBus eventBus) {
+        grid.placePiece(piece);
+        
+        rowsToRemove.clear();
+        int lines = 0;
+        PieceAttributes attributes = piece.getPiece().getAttributes();
+        if (attributes.hasSpecialEffect()) {
+            for (LockEffect effect : LOCK_EFFECTS) {
+                if (attributes.hasEffect(effect.getEffect())) {
+                    int effectLines = effect.apply(grid, piece, rowsToRemove);
+                    lines += effectLines;
+                    if (effectLines > 0 && eventBus != null) {
+                        eventBus.publish(GameEventType.EFFECT_TRIGGERED, effect.getEffect(), effectLines, 0);
+                    }
+                }
+            }
+        }
+        lines += clearStrategy.clear(grid, piece, rowsToRemove);
+        if (lines > 0 && eventBus != null) {
+            eventBus.publish(GameEventType.LINES_CLEARED, 0, lines, 0);
+        }
+        return lines;
+    }
+    
     /**
      * Calcule le score pour les lignes effacées
      */
@@ -254,7 +518,7 @@ public class GameContext {
         fallTimer = 0;
         gameOver = false;
         currentPiece = null;
-        nextPiece = null;
+        Arrays.fill(previews, null);
         
         logger.logInfo("Game reset");
     }
@@ -268,6 +532,40 @@ public class GameContext {
         return currentState;
     }
     
+    public GameEventBus getEventBus() {
+        return eventBus;
+    }
+    
+    /**
+     * Publie un événement nommé sur le bus du contexte, s'il y en a un
+     */
+    public void publishEvent(GameEventType type, String name, String previousName) {
+        if (eventBus != null) {
+            eventBus.publish(type, name, previousName);
+        }
+    }
+    
+    /**
+     * Publie un événement numérique sur le bus du contexte, s'il y en a un
+     */
+    public void publishEvent(GameEventType type, int value, int count, int extra) {
+        if (eventBus != null) {
+            eventBus.publish(type, value, count, extra);
+        }
+    }
+    
+    /**
+     * Publie la fin de partie : score, lignes, niveau et graine
+     */
+    public void publishGameOver() {
+        if (eventBus != null) {
+            GameEvent event = eventBus.claim(GameEventType.GAME_OVER);
+            if (event != null) {
+                eventBus.publish(event.setValue(score).setCount(linesCleared).setExtra(level).setSeed(seed));
+            }
+        }
+    }
+    
     public GameGrid getGrid() {
         return grid;
     }
@@ -277,7 +575,36 @@ public class GameContext {
     }
     
     public PuzzlePiece getNextPiece() {
-        return nextPiece;
+        return previews[0];
+    }
+    
+    /**
+     * Pièce à venir à une position de la file (0 = pièce suivante)
+     */
+    public PuzzlePiece getPreview(int index) {
+        return previews[index];
+    }
+    
+    public int getPreviewCount() {
+        return previews.length;
+    }
+    
+    /**
+     * Change la taille de la file d'aperçu, à faire avant de démarrer la partie
+     */
+    public void setPreviewCount(int count) {
+        previews = Arrays.copyOf(previews, Math.max(1, count));
+    }
+    
+    /**
+     * Hachage de Zobrist de la position : grille, pièce active et file d'aperçu
+     */
+    public long getHash() {
+        long hash = grid.getHash() ^ Zobrist.pieceKey(currentPiece);
+        for (int i = 0; i < previews.length; i++) {
+            hash ^= Zobrist.previewKey(previews[i], i);
+        }
+        return hash;
     }
     
     public int getScore() {
@@ -299,4 +626,11 @@ public class GameContext {
     public double getFallSpeed() {
         return fallSpeed;
     }
+    
+    /**
+     * Graine de la partie en cours
+     */
+    public long getSeed() {
+        return seed;
+    }
 }
@@ -0,0 +1,146 @@
+package com.designpatterns.puzzle.core;
+
+import com.designpatterns.puzzle.utils.GameLogger;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Boucle de simulation sur son propre thread
+ * La partie avance à pas fixe ; les entrées des autres threads passent par
+ * une file et sont appliquées dès leur arrivée, entre deux pas. Après chaque
+ * pas ou lot d'entrées, l'état est publié au consommateur de frames, sur ce
+ * thread : seul ce thread touche GameContext, et un rendu lent ne retarde
+ * ni la gravité ni les entrées.
+ * Hors partie en cours (menu, pause, fin de partie), un pas ne change rien :
+ * la boucle dort alors jusqu'à la prochaine entrée
+ */
+public class GameLoop implements Runnable {
+    
+    private static final GameLogger logger = GameLogger.getInstance();
+    private static final double TICK_SECONDS = 1.0 / 60;
+    private static final long TICK_NANOS = (long) (TICK_SECONDS * 1_000_000_000L);
+    
+    private final GameManager gameManager;
+    private final Consumer<GameContext> frameConsumer;
+    private final BlockingQueue<String> inputs = new LinkedBlockingQueue<>();
+    
+    private volatile boolean running;
+    private Thread thread;
+    
+    /**
+     * @param frameConsumer appelé sur le thread de simulation après chaque changement
+     */
+    public GameLoop(GameManager gameManager, Consumer<GameContext> frameConsumer) {
+        this.gameManager = gameManager;
+        this.frameConsumer = frameConsumer;
+    }
+    
+    /**
+     * Démarre la simulation sur son propre thread
+     */
+    public synchronized void start() {
+        if (thread == null) {
+            running = true;
+            thread = new Thread(this, "game-simulation");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+    
+    /**
+     * Arrête la simulation et attend la fin du thread
+     */
+    public void stop() {
+        running = false;
+        Thread current = thread;
+        if (current != null && current != Thread.currentThread()) {
+            current.interrupt();
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Transmet une entrée à la simulation (appelable depuis n'importe quel thread)
+     */
+    public void submit(String input) {
+        inputs.add(input);
+    }
+    
+    @Override
+    public void run() {
+        logger.logInfo("Simulation thread started");
+        publish();
+        long nextTick = System.nanoTime() + TICK_NANOS;
+        try {
+            while (running) {
+                String input;
+                if (isIdle()) {
+                    input = inputs.take();
+                    nextTick = System.nanoTime() + TICK_NANOS;
+                } else {
+                    long wait = nextTick - System.nanoTime();
+                    input = wait > 0 ? inputs.poll(wait, TimeUnit.NANOSECONDS) : inputs.poll();
+                }
+                if (input != null) {
+                    do {
+                        step(input);
+                        input = inputs.poll();
+                    } while (input != null);
+                    publish();
+                }
+                
+                long now = System.nanoTime();
+                if (now >= nextTick) {
+                    step(null);
+                    publish();
+                    nextTick += TICK_NANOS;
+                    // Rattrapage impossible : repart du temps courant
+                    if (now - nextTick > TICK_NANOS * 10) {
+                        nextTick = now + TICK_NANOS;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.logInfo("Simulation thread stopped");
+    }
+    
+    /**
+     * Vrai si un pas de temps ne peut rien changer (pas de partie en cours)
+     */
+    private boolean isIdle() {
+        GameContext context = gameManager.getGameContext();
+        return context == null || !"PLAYING".equals(context.getCurrentStateName());
+    }
+    
+    /**
+     * Applique une entrée, ou un pas de temps si input est null
+     * Une erreur est tracée sans arrêter la boucle
+     */
+    private void step(String input) {
+        try {
+            if (input != null) {
+                gameManager.handleInput(input);
+            } else {
+                gameManager.update(TICK_SECONDS);
+            }
+        } catch (RuntimeException e) {
+            logger.logError("Simulation step failed", e);
+        }
+    }
+    
+    private void publish() {
+        GameContext context = gameManager.getGameContext();
+        if (context != null) {
+            frameConsumer.accept(context);
+        }
+    }
+}
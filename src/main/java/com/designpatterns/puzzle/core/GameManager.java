@@ -1,7 +1,35 @@
 package com.designpatterns.puzzle.core;
 
+import com.designpatterns.puzzle.ai.AutoPlayer;
+import com.designpatterns.puzzle.ai.BalanceResult;
+import com.designpatterns.puzzle.ai.BoardEvaluator;
+import com.designpatterns.puzzle.ai.HeuristicEvaluator;
+import com.designpatterns.puzzle.ai.LookaheadSearch;
+import com.designpatterns.puzzle.ai.Perft;
+import com.designpatterns.puzzle.ai.PerftResult;
+import com.designpatterns.puzzle.ai.PowerUpBalanceAnalyzer;
+import com.designpatterns.puzzle.ai.TranspositionTable;
+import com.designpatterns.puzzle.events.GameEventBus;
+import com.designpatterns.puzzle.events.LoggingEventHandler;
+import com.designpatterns.puzzle.model.GameGrid;
+import com.designpatterns.puzzle.network.GameServer;
+import com.designpatterns.puzzle.patterns.factory.PowerUpConfig;
 import com.designpatterns.puzzle.patterns.state.MenuState;
+import com.designpatterns.puzzle.persistence.StatisticsRecorder;
+import com.designpatterns.puzzle.persistence.StatisticsStore;
+import com.designpatterns.puzzle.persistence.TrainingDataExporter;
+import com.designpatterns.puzzle.replay.Replay;
+import com.designpatterns.puzzle.replay.ReplayArchive;
+import com.designpatterns.puzzle.replay.ReplayRecorder;
+import com.designpatterns.puzzle.replay.ReplaySimulator;
 import com.designpatterns.puzzle.utils.GameLogger;
+import com.designpatterns.puzzle.view.ReplayVideoExporter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Singleton Pattern - GameManager
@@ -11,8 +39,30 @@ public class GameManager {
     
     private static GameManager instance;
     private static final GameLogger logger = GameLogger.getInstance();
+    private static final String STATS_FILE_PROPERTY = "puzzle.stats.file";
+    private static final String DEFAULT_STATS_FILE = "game-stats.dat";
+    private static final String REPLAY_DIR_PROPERTY = "puzzle.replay.dir";
+    private static final String DEFAULT_REPLAY_DIR = "replays";
+    private static final String TRAINING_FILE_PROPERTY = "puzzle.training.file";
+    private static final int BOT_PREVIEWS = 2;
+    private static final int BOT_TABLE_MEGABYTES = 32;
+    private static final int BALANCE_MAX_PIECES = 500;
+    private static final int BALANCE_MAX_GAMES = 400;
+    private static final double BALANCE_PRECISION = 0.05;
+    // Poids des power-ups essayés : partage égal puis chaque type doublé
+    private static final double[][] BALANCE_WEIGHTS = {
+        {1, 1, 1}, {2, 1, 1}, {1, 2, 1}, {1, 1, 2}
+    };
+    // Taille de la fenêtre du jeu, reprise pour le rendu des replays
+    private static final int REPLAY_FRAME_WIDTH = 650;
+    private static final int REPLAY_FRAME_HEIGHT = 700;
     
     private GameContext gameContext;
+    private StatisticsStore statisticsStore;
+    private ReplayArchive replayArchive;
+    private TrainingDataExporter trainingExporter;
+    private GameEventBus eventBus;
+    private AutoPlayer autoPlayer;
     private boolean initialized;
     
     /**
@@ -38,13 +88,165 @@ public class GameManager {
      * Initialise le gestionnaire de jeu
      */
     public void initialize() {
+        initialize(new GameGrid());
+    }
+    
+    /**
+     * Initialise le gestionnaire de jeu sur une grille donnée
+     * Les parties sur une grille creuse (bac à sable) ne sont pas archivées :
+     * les replays supposent la grille standard
+     */
+    public void initialize(GameGrid grid) {
         if (!initialized) {
-            gameContext = new GameContext(new MenuState());
+            // Les événements du jeu sont tracés sur le thread du consommateur
+            eventBus = new GameEventBus();
+            eventBus.subscribe("logging", new LoggingEventHandler());
+            openStatisticsStore();
+            gameContext = new GameContext(new MenuState(), eventBus, grid);
+            if (!grid.isSparse()) {
+                openReplayArchive();
+            }
+            String trainingFile = System.getProperty(TRAINING_FILE_PROPERTY);
+            if (trainingFile != null) {
+                openTrainingExporter(Paths.get(trainingFile));
+            }
             initialized = true;
             logger.logInfo("GameManager initialized");
         }
     }
     
+    /**
+     * Initialise le mode bac à sable : très grande grille creuse
+     */
+    public void initializeSandbox(int width, int height) {
+        // Les traces par pièce satureraient les logs
+        logger.setVerbose(false);
+        initialize(new GameGrid(width, height, true));
+        logger.logInfo("Sandbox board: " + width + "x" + height);
+    }
+    
+    /**
+     * Confie la partie au joueur automatique : la pièce active et deux
+     * pièces d'aperçu sont explorées dans le budget de temps donné
+     */
+    public void enableAutoPlayer(long budgetMillis) {
+        enableAutoPlayer(budgetMillis, new HeuristicEvaluator());
+    }
+    
+    /**
+     * Confie la partie au joueur automatique avec un évaluateur donné
+     */
+    public void enableAutoPlayer(long budgetMillis, BoardEvaluator evaluator) {
+        if (gameContext == null || autoPlayer != null) {
+            return;
+        }
+        gameContext.setPreviewCount(BOT_PREVIEWS);
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        LookaheadSearch search = new LookaheadSearch(evaluator,
+                new TranspositionTable(BOT_TABLE_MEGABYTES), threads, 1 + BOT_PREVIEWS, budgetMillis);
+        autoPlayer = new AutoPlayer(search);
+        logger.logInfo("Auto player enabled: " + threads + " threads, " + budgetMillis + " ms per move, "
+                + evaluator.getClass().getSimpleName());
+    }
+    
+    /**
+     * Ouvre le stockage des statistiques et l'abonne aux fins de partie
+     * La compaction du journal s'exécute à l'arrêt de la JVM
+     */
+    private void openStatisticsStore() {
+        try {
+            statisticsStore = new StatisticsStore(
+                    Paths.get(System.getProperty(STATS_FILE_PROPERTY, DEFAULT_STATS_FILE)));
+            eventBus.subscribe("statistics", new StatisticsRecorder(statisticsStore));
+            Runtime.getRuntime().addShutdownHook(new Thread(this::closeStatisticsStore, "statistics-close"));
+        } catch (IOException e) {
+            logger.logError("Statistics store unavailable, games will not be recorded", e);
+            statisticsStore = null;
+        }
+    }
+    
+    private void closeStatisticsStore() {
+        // Laisse le consommateur terminer les événements déjà publiés
+        eventBus.shutdown();
+        try {
+            statisticsStore.close();
+        } catch (IOException e) {
+            logger.logError("Failed to close statistics store", e);
+        }
+    }
+    
+    /**
+     * Ouvre l'archive des replays et y enregistre chaque partie terminée
+     */
+    private void openReplayArchive() {
+        try {
+            replayArchive = new ReplayArchive(
+                    Paths.get(System.getProperty(REPLAY_DIR_PROPERTY, DEFAULT_REPLAY_DIR)));
+            gameContext.setRecorder(new ReplayRecorder(replayArchive));
+            Runtime.getRuntime().addShutdownHook(new Thread(this::closeReplayArchive, "replay-close"));
+        } catch (IOException e) {
+            logger.logError("Replay archive unavailable, games will not be recorded", e);
+            replayArchive = null;
+        }
+    }
+    
+    private void closeReplayArchive() {
+        try {
+            replayArchive.close();
+        } catch (IOException e) {
+            logger.logError("Failed to close replay archive", e);
+        }
+    }
+    
+    /**
+     * Exporte les verrouillages des parties en cours vers un fichier d'entraînement
+     */
+    private void openTrainingExporter(Path path) {
+        GameGrid grid = gameContext.getGrid();
+        try {
+            trainingExporter = new TrainingDataExporter(path, grid.getWidth(), grid.getHeight());
+            gameContext.setLockListener(trainingExporter);
+            Runtime.getRuntime().addShutdownHook(new Thread(this::closeTrainingExporter, "training-close"));
+        } catch (IOException e) {
+            logger.logError("Training export unavailable", e);
+            trainingExporter = null;
+        }
+    }
+    
+    private void closeTrainingExporter() {
+        try {
+            trainingExporter.close();
+        } catch (IOException e) {
+            logger.logError("Failed to close training export", e);
+        }
+    }
+    
+    /**
+     * Rejoue toutes les parties archivées et exporte leurs verrouillages
+     * Retourne le nombre d'enregistrements écrits
+     */
+    public long exportTrainingData(Path output) throws IOException {
+        logger.setVerbose(false);
+        ReplayArchive archive = new ReplayArchive(
+                Paths.get(System.getProperty(REPLAY_DIR_PROPERTY, DEFAULT_REPLAY_DIR)));
+        GameGrid grid = new GameGrid();
+        long games = 0;
+        try (TrainingDataExporter exporter = new TrainingDataExporter(output, grid.getWidth(), grid.getHeight())) {
+            for (int segmentId : archive.getSegmentIds()) {
+                int[] count = new int[1];
+                archive.forEachInSegment(segmentId, replay -> {
+                    ReplaySimulator.simulate(replay, exporter);
+                    count[0]++;
+                });
+                games += count[0];
+            }
+            logger.logInfo("Exported " + games + " archived games to " + output);
+            return exporter.getRecordCount();
+        } finally {
+            archive.close();
+        }
+    }
+    
     /**
      * Démarre une nouvelle partie
      */
@@ -97,6 +299,9 @@ public class GameManager {
     public void update(double deltaTime) {
         if (gameContext != null) {
             gameContext.update(deltaTime);
+            if (autoPlayer != null) {
+                autoPlayer.update(gameContext);
+            }
         }
     }
     
@@ -109,6 +314,103 @@ public class GameManager {
         }
     }
     
+    /**
+     * Démarre la simulation sur son propre thread ; frameConsumer reçoit
+     * l'état après chaque changement, sur ce thread
+     * Les entrées doivent ensuite passer par GameLoop.submit
+     */
+    public GameLoop startGameLoop(Consumer<GameContext> frameConsumer) {
+        GameLoop loop = new GameLoop(this, frameConsumer);
+        loop.start();
+        return loop;
+    }
+    
+    /**
+     * Crée une ferme de parties jouées par le bot pour le mode spectateur
+     * (non démarrée, voir BotFarm.start)
+     */
+    public BotFarm createBotFarm(int sessions, long seed, GameMode mode) {
+        // Les traces par coup de centaines de parties satureraient les logs
+        logger.setVerbose(false);
+        int threads = Runtime.getRuntime().availableProcessors();
+        return new BotFarm(sessions, threads, seed, mode, new HeuristicEvaluator());
+    }
+    
+    /**
+     * Démarre le mode serveur headless (sans interface graphique)
+     * Chaque client TCP obtient sa propre session GameContext
+     */
+    public GameServer startHeadlessServer(int port) throws IOException {
+        // Les traces par pièce et par session satureraient les logs
+        logger.setVerbose(false);
+        GameServer server = new GameServer(port);
+        server.start();
+        logger.logInfo("Headless server listening on port " + server.getPort());
+        return server;
+    }
+    
+    /**
+     * Compte les positions atteignables (perft) et trace le résultat
+     * Une même grille, graine et profondeur donnent toujours les mêmes comptes
+     */
+    public PerftResult runPerft(GameGrid board, long seed, int depth, GameMode mode) {
+        logger.setVerbose(false);
+        PerftResult result = new Perft(mode).run(board, seed, depth);
+        logger.logInfo("Perft " + mode + " seed " + seed + " depth " + depth + ": " + result);
+        return result;
+    }
+    
+    /**
+     * Analyse l'équilibrage des power-ups pour chaque probabilité donnée,
+     * combinée aux jeux de poids de BALANCE_WEIGHTS, et trace les résultats
+     */
+    public List<BalanceResult> runPowerUpBalance(double[] chances, long seed, GameMode mode) {
+        logger.setVerbose(false);
+        int threads = Runtime.getRuntime().availableProcessors();
+        PowerUpBalanceAnalyzer analyzer = new PowerUpBalanceAnalyzer(new HeuristicEvaluator(), mode, threads,
+                BALANCE_MAX_PIECES, BALANCE_MAX_GAMES, BALANCE_PRECISION);
+        try {
+            return analyzer.sweep(PowerUpConfig.grid(chances, BALANCE_WEIGHTS), seed);
+        } finally {
+            analyzer.close();
+        }
+    }
+    
+    /**
+     * Rend une partie archivée en images, hors écran et sur tous les cœurs
+     * (gameId négatif : meilleure partie de l'archive). Voir ReplayVideoExporter
+     * @return nombre de frames écrits
+     */
+    public int renderReplay(long gameId, Path output, int from, int to, int step, boolean raw)
+            throws IOException {
+        logger.setVerbose(false);
+        ReplayArchive archive = new ReplayArchive(
+                Paths.get(System.getProperty(REPLAY_DIR_PROPERTY, DEFAULT_REPLAY_DIR)));
+        try {
+            long id = gameId;
+            if (id < 0) {
+                long[] best = archive.findTopScores(1);
+                if (best.length == 0) {
+                    throw new IOException("Replay archive is empty");
+                }
+                id = best[0];
+            }
+            Replay replay = archive.open(id);
+            if (replay == null) {
+                throw new IOException("Unknown replay: " + id);
+            }
+            int threads = Runtime.getRuntime().availableProcessors();
+            ReplayVideoExporter exporter = new ReplayVideoExporter(threads, REPLAY_FRAME_WIDTH, REPLAY_FRAME_HEIGHT);
+            int frames = exporter.export(replay, output, from, to, step,
+                    raw ? ReplayVideoExporter.Format.RAW : ReplayVideoExporter.Format.PNG);
+            logger.logInfo("Replay " + id + " exported to " + output + " (" + frames + " frames, "
+                           + REPLAY_FRAME_WIDTH + "x" + REPLAY_FRAME_HEIGHT + ")");
+            return frames;
+        } finally {
+            archive.close();
+        }
+    }
+    
     /**
      * Quitte le jeu
      */
@@ -122,6 +424,31 @@ public class GameManager {
         return gameContext;
     }
     
+    /**
+     * Stockage des statistiques (null s'il n'a pas pu être ouvert)
+     */
+    public StatisticsStore getStatisticsStore() {
+        return statisticsStore;
+    }
+    
+    /**
+     * Archive des replays (null si elle n'a pas pu être ouverte)
+     */
+    public ReplayArchive getReplayArchive() {
+        return replayArchive;
+    }
+    
+    /**
+     * Joueur automatique (null s'il n'est pas activé)
+     */
+    public AutoPlayer getAutoPlayer() {
+        return autoPlayer;
+    }
+    
+    public GameEventBus getEventBus() {
+        return eventBus;
+    }
+    
     public boolean isInitialized() {
         return initialized;
     }
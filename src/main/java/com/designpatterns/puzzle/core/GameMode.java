@@ -0,0 +1,66 @@
+package com.designpatterns.puzzle.core;
+
+import com.designpatterns.puzzle.patterns.strategy.CascadeClearStrategy;
+import com.designpatterns.puzzle.patterns.strategy.ClassicClearStrategy;
+import com.designpatterns.puzzle.patterns.strategy.ClearStrategy;
+import com.designpatterns.puzzle.patterns.strategy.ColorMatchClearStrategy;
+
+/**
+ * Modes de jeu disponibles
+ * Chaque mode fournit sa stratégie d'effacement et la commande qui le
+ * sélectionne dans un replay
+ */
+public enum GameMode {
+    CLASSIC(InputCommand.MODE_CLASSIC),   // Lignes complètes
+    CASCADE(InputCommand.MODE_CASCADE),   // Lignes complètes + gravité en cascade
+    COLOR_MATCH(InputCommand.MODE_COLOR_MATCH); // Groupes de même couleur
+    
+    private final InputCommand command;
+    
+    GameMode(InputCommand command) {
+        this.command = command;
+    }
+    
+    /**
+     * Crée la stratégie d'effacement du mode
+     */
+    public ClearStrategy createClearStrategy() {
+        switch (this) {
+            case CASCADE:
+                return new CascadeClearStrategy();
+            case COLOR_MATCH:
+                return new ColorMatchClearStrategy();
+            case CLASSIC:
+            default:
+                return new ClassicClearStrategy();
+        }
+    }
+    
+    public InputCommand getCommand() {
+        return command;
+    }
+    
+    /**
+     * Mode sélectionné par une commande (null si ce n'est pas une commande de mode)
+     */
+    public static GameMode fromCommand(InputCommand command) {
+        for (GameMode mode : values()) {
+            if (mode.command == command) {
+                return mode;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Mode à partir de son nom, insensible à la casse (CLASSIC si inconnu)
+     */
+    public static GameMode fromName(String name) {
+        for (GameMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+        return CLASSIC;
+    }
+}
@@ -0,0 +1,24 @@
+package com.designpatterns.puzzle.core;
+
+/**
+ * Enregistreur de partie branché sur un GameContext
+ * Reçoit la graine de la partie et chaque commande de jeu appliquée,
+ * ce qui suffit à rejouer la partie à l'identique
+ */
+public interface GameRecorder {
+    
+    /**
+     * Une nouvelle partie commence avec cette graine
+     */
+    void gameStarted(long seed);
+    
+    /**
+     * Une commande de jeu vient d'être appliquée (déplacement, gravité, apparition)
+     */
+    void commandApplied(InputCommand command);
+    
+    /**
+     * La partie est terminée
+     */
+    void gameEnded(int score, int level, int linesCleared);
+}
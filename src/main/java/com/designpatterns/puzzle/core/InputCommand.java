@@ -0,0 +1,73 @@
+package com.designpatterns.puzzle.core;
+
+/**
+ * Commandes d'entrée du jeu
+ * Associe chaque entrée textuelle de GameContext.handleInput à un code binaire
+ * d'un octet, utilisé pour les échanges réseau compacts
+ */
+public enum InputCommand {
+    START(1, "START"),
+    PAUSE(2, "PAUSE"),
+    RESUME(3, "RESUME"),
+    MENU(4, "MENU"),
+    RESTART(5, "RESTART"),
+    LEFT(6, "LEFT"),
+    RIGHT(7, "RIGHT"),
+    DOWN(8, "DOWN"),
+    ROTATE(9, "ROTATE"),
+    DROP(10, "DROP"),
+    QUIT(11, "QUIT"),
+    // Commandes internes, enregistrées dans les replays mais jamais envoyées par un joueur
+    GRAVITY(12, "GRAVITY"),
+    SPAWN(13, "SPAWN"),
+    // Choix du mode de jeu, enregistré en tête des replays (voir GameMode)
+    MODE_CLASSIC(14, "MODE_CLASSIC"),
+    MODE_CASCADE(15, "MODE_CASCADE"),
+    MODE_COLOR_MATCH(16, "MODE_COLOR_MATCH");
+    
+    private static final InputCommand[] BY_CODE = new InputCommand[32];
+    
+    static {
+        for (InputCommand command : values()) {
+            BY_CODE[command.code] = command;
+        }
+    }
+    
+    private final byte code;
+    private final String input;
+    
+    InputCommand(int code, String input) {
+        this.code = (byte) code;
+        this.input = input;
+    }
+    
+    /**
+     * Retrouve une commande à partir de son code binaire (null si inconnu)
+     */
+    public static InputCommand fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            return null;
+        }
+        return BY_CODE[code];
+    }
+    
+    /**
+     * Retrouve une commande à partir de son entrée textuelle (null si inconnue)
+     */
+    public static InputCommand fromInput(String input) {
+        for (InputCommand command : values()) {
+            if (command.input.equals(input)) {
+                return command;
+            }
+        }
+        return null;
+    }
+    
+    public byte getCode() {
+        return code;
+    }
+    
+    public String getInput() {
+        return input;
+    }
+}
@@ -0,0 +1,23 @@
+package com.designpatterns.puzzle.core;
+
+import com.designpatterns.puzzle.model.ActivePiece;
+import com.designpatterns.puzzle.model.GameGrid;
+
+/**
+ * Observateur des verrouillages de pièces d'un GameContext
+ * Chaque verrouillage donne un appel à pieceLocking, sur la grille encore
+ * intacte, suivi d'un appel à pieceLocked avec son résultat. Les appels
+ * ont lieu dans le thread de la partie et doivent rester brefs
+ */
+public interface LockListener {
+    
+    /**
+     * La pièce va être posée sur la grille (grille et pièce en lecture seule)
+     */
+    void pieceLocking(GameGrid grid, ActivePiece piece);
+    
+    /**
+     * La pièce est posée : lignes effacées et points gagnés
+     */
+    void pieceLocked(int lines, int scoreDelta);
+}
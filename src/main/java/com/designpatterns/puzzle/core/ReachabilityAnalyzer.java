@@ -0,0 +1,301 @@
+package com.designpatterns.puzzle.core;
+
+import com.designpatterns.puzzle.model.GameGrid;
+import com.designpatterns.puzzle.patterns.decorator.PieceShape;
+import com.designpatterns.puzzle.patterns.decorator.PuzzlePiece;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Analyse des placements finaux atteignables par une pièce
+ * Parcourt en largeur les états (x, y, rotation) avec les règles de
+ * GameContext : gauche, droite, rotation (annulée si elle entre en
+ * collision) et descente d'une case. Chaque état peut se terminer par une
+ * chute : le placement obtenu est retenu avec le plus court chemin de
+ * commandes qui y mène (glissements sous un surplomb et rotations en
+ * place compris). Deux rotations de même masque donnent le même placement.
+ * Les lignes libres au-dessus de la pile sont toutes équivalentes : la
+ * fenêtre d'états commence à la plus basse d'entre elles, qui représente
+ * la ligne de départ, et descend jusqu'au fond de la grille. Les tampons
+ * sont dimensionnés pour la plus grande fenêtre rencontrée : une analyse
+ * n'alloue que si la pile a dépassé toutes les précédentes, et ses
+ * résultats restent lisibles jusqu'à l'analyse suivante
+ */
+public final class ReachabilityAnalyzer {
+    
+    private static final byte MOVE_LEFT = 0;
+    private static final byte MOVE_RIGHT = 1;
+    private static final byte MOVE_ROTATE = 2;
+    private static final byte MOVE_DOWN = 3;
+    private static final InputCommand[] COMMANDS = {
+        InputCommand.LEFT, InputCommand.RIGHT, InputCommand.ROTATE, InputCommand.DOWN
+    };
+    // Marge des index : colonnes à gauche de la grille
+    private static final int X_OFFSET = 4;
+    
+    private final int width;
+    private final int height;
+    private final int stride;
+    
+    // Fenêtre de la dernière analyse : première ligne, nombre de lignes et
+    // nombre de descentes que la première ligne remplace
+    private int windowTop;
+    private int windowRows;
+    private int skippedRows;
+    
+    // Carte des états visités, en bits, et file en tableau
+    private int capacity;
+    private long[] visited = new long[0];
+    private long[] landingKnown = new long[0];
+    private long[] placementSeen = new long[0];
+    private int[] queue = new int[0];
+    private int[] parent = new int[0];
+    private byte[] moves = new byte[0];
+    private int[] landing = new int[0];
+    
+    private long[] placements = new long[0];
+    private int[] sources = new int[0];
+    private final int[] canonical = new int[PieceShape.ROTATIONS];
+    private int count;
+    
+    public ReachabilityAnalyzer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.stride = width + X_OFFSET;
+    }
+    
+    /**
+     * Analyse les placements d'une pièce depuis une position
+     * Retourne le nombre de placements (0 si la position de départ est occupée)
+     */
+    public int analyze(GameGrid grid, PuzzlePiece piece, int startX, int startY, int startRotation) {
+        return analyze(grid, piece.getPieceShape(), startX, startY, startRotation);
+    }
+    
+    /**
+     * Analyse les placements d'une forme depuis une position
+     * Retourne le nombre de placements (0 si la position de départ est occupée)
+     */
+    public int analyze(GameGrid grid, PieceShape shape, int startX, int startY, int startRotation) {
+        if (grid.getWidth() != width || grid.getHeight() != height) {
+            throw new IllegalArgumentException("Analyzer built for " + width + "x" + height);
+        }
+        count = 0;
+        if (!grid.canPlace(shape, startRotation, startX, startY)) {
+            return 0;
+        }
+        // Aucune rotation ne touche la pile depuis une ligne libre : la plus
+        // basse d'entre elles sert de ligne de départ
+        windowTop = Math.max(startY, grid.getHighestRow() - spanRows(shape));
+        windowRows = height - windowTop;
+        skippedRows = windowTop - startY;
+        int states = PieceShape.ROTATIONS * windowRows * stride;
+        ensureCapacity(states);
+        int words = (states + 63) >>> 6;
+        Arrays.fill(visited, 0, words, 0L);
+        Arrays.fill(landingKnown, 0, words, 0L);
+        Arrays.fill(placementSeen, 0, words, 0L);
+        for (int rotation = 0; rotation < PieceShape.ROTATIONS; rotation++) {
+            canonical[rotation] = canonicalRotation(shape, rotation);
+        }
+        
+        int head = 0;
+        int tail = 0;
+        int start = index(startRotation, startX, windowTop);
+        set(visited, start);
+        parent[start] = -1;
+        queue[tail++] = start;
+        while (head < tail) {
+            int state = queue[head++];
+            int rotation = state / (windowRows * stride);
+            int y = row(state);
+            int x = state % stride - X_OFFSET;
+            
+            // Placement obtenu en chutant depuis cet état ; l'ordre du parcours
+            // garantit que le premier état trouvé donne le chemin le plus court
+            int landY = land(grid, shape, rotation, x, y);
+            int key = index(canonical[rotation], x, landY);
+            if (!get(placementSeen, key)) {
+                set(placementSeen, key);
+                placements[count] = placement(rotation, x, landY);
+                sources[count] = state;
+                count++;
+            }
+            
+            tail = visit(grid, shape, state, MOVE_LEFT, rotation, x - 1, y, tail);
+            tail = visit(grid, shape, state, MOVE_RIGHT, rotation, x + 1, y, tail);
+            tail = visit(grid, shape, state, MOVE_ROTATE, (rotation + 1) & 3, x, y, tail);
+            tail = visit(grid, shape, state, MOVE_DOWN, rotation, x, y + 1, tail);
+        }
+        return count;
+    }
+    
+    /**
+     * Agrandit les tampons pour une fenêtre d'états, avec une marge pour
+     * que la croissance de la pile ne réalloue pas à chaque analyse
+     */
+    private void ensureCapacity(int states) {
+        if (states <= capacity) {
+            return;
+        }
+        int full = PieceShape.ROTATIONS * height * stride;
+        capacity = Math.max(states, Math.min(full, capacity + (capacity >> 1)));
+        visited = new long[(capacity + 63) >>> 6];
+        landingKnown = new long[visited.length];
+        placementSeen = new long[visited.length];
+        queue = new int[capacity];
+        parent = new int[capacity];
+        moves = new byte[capacity];
+        landing = new int[capacity];
+        placements = new long[capacity];
+        sources = new int[capacity];
+    }
+    
+    /**
+     * Nombre de lignes couvertes par la boîte de la forme, toutes rotations confondues
+     */
+    private static int spanRows(PieceShape shape) {
+        int span = 0;
+        for (int rotation = 0; rotation < PieceShape.ROTATIONS; rotation++) {
+            span = Math.max(span, shape.getRows(rotation).length);
+        }
+        return span;
+    }
+    
+    private int visit(GameGrid grid, PieceShape shape, int from, byte move, int rotation, int x, int y, int tail) {
+        if (!grid.canPlace(shape, rotation, x, y)) {
+            return tail;
+        }
+        int state = index(rotation, x, y);
+        if (get(visited, state)) {
+            return tail;
+        }
+        set(visited, state);
+        parent[state] = from;
+        moves[state] = move;
+        queue[tail] = state;
+        return tail + 1;
+    }
+    
+    /**
+     * Ligne d'arrivée d'une chute depuis un état libre, mémorisée pour
+     * toute la colonne parcourue
+     */
+    private int land(GameGrid grid, PieceShape shape, int rotation, int x, int y) {
+        int bottom = y;
+        while (!get(landingKnown, index(rotation, x, bottom)) && grid.canPlace(shape, rotation, x, bottom + 1)) {
+            bottom++;
+        }
+        int result = get(landingKnown, index(rotation, x, bottom)) ? landing[index(rotation, x, bottom)] : bottom;
+        for (int row = y; row <= bottom; row++) {
+            int state = index(rotation, x, row);
+            set(landingKnown, state);
+            landing[state] = result;
+        }
+        return result;
+    }
+    
+    private int index(int rotation, int x, int y) {
+        return (rotation * windowRows + y - windowTop) * stride + x + X_OFFSET;
+    }
+    
+    private int row(int state) {
+        return (state / stride) % windowRows + windowTop;
+    }
+    
+    private static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+    
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+    
+    /**
+     * Nombre de placements trouvés par la dernière analyse
+     */
+    public int getPlacementCount() {
+        return count;
+    }
+    
+    /**
+     * Placement codé (voir placement) d'index i
+     */
+    public long getPlacement(int i) {
+        return placements[i];
+    }
+    
+    /**
+     * Longueur du plus court chemin de commandes du placement i, chute finale comprise
+     */
+    public int getPathLength(int i) {
+        // Les descentes à travers les lignes libres précèdent la sortie de la première ligne
+        int length = row(sources[i]) > windowTop ? 1 + skippedRows : 1;
+        for (int state = sources[i]; parent[state] >= 0; state = parent[state]) {
+            length++;
+        }
+        return length;
+    }
+    
+    /**
+     * Écrit dans out le plus court chemin de commandes du placement i
+     * (déplacements puis DROP) et retourne sa longueur
+     */
+    public int getPath(int i, InputCommand[] out) {
+        int length = getPathLength(i);
+        int position = length - 1;
+        out[position] = InputCommand.DROP;
+        for (int state = sources[i]; parent[state] >= 0; state = parent[state]) {
+            out[--position] = COMMANDS[moves[state]];
+            if (moves[state] == MOVE_DOWN && row(state) == windowTop + 1) {
+                for (int skipped = 0; skipped < skippedRows; skipped++) {
+                    out[--position] = InputCommand.DOWN;
+                }
+            }
+        }
+        return length;
+    }
+    
+    /**
+     * Plus court chemin de commandes du placement i (alloue une liste)
+     */
+    public List<InputCommand> getPath(int i) {
+        InputCommand[] path = new InputCommand[getPathLength(i)];
+        getPath(i, path);
+        return Arrays.asList(path);
+    }
+    
+    /**
+     * Code un placement (rotation, x, y) dans un entier long : 31 bits
+     * signés par coordonnée, pour les grilles creuses de toute taille
+     */
+    public static long placement(int rotation, int x, int y) {
+        return ((long) rotation << 62) | ((x & 0x7FFFFFFFL) << 31) | (y & 0x7FFFFFFFL);
+    }
+    
+    public static int placementRotation(long placement) {
+        return (int) (placement >>> 62);
+    }
+    
+    public static int placementX(long placement) {
+        return (int) ((placement << 2) >> 33);
+    }
+    
+    public static int placementY(long placement) {
+        return (int) ((placement << 33) >> 33);
+    }
+    
+    /**
+     * Plus petite rotation de même masque qu'une rotation donnée
+     */
+    public static int canonicalRotation(PieceShape shape, int rotation) {
+        int mask = shape.getMask(rotation);
+        for (int candidate = 0; candidate < rotation; candidate++) {
+            if (shape.getMask(candidate) == mask) {
+                return candidate;
+            }
+        }
+        return rotation;
+    }
+}
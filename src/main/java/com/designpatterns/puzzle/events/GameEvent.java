@@ -0,0 +1,120 @@
+package com.designpatterns.puzzle.events;
+
+/**
+ * Emplacement réutilisable du tampon circulaire du GameEventBus
+ * Les instances sont préallouées et réécrites à chaque publication :
+ * un consommateur ne doit pas conserver de référence après onEvent.
+ */
+public final class GameEvent {
+    
+    private GameEventType type;
+    private long sequence;
+    private long timestamp;
+    private int x;
+    private int y;
+    private int value;
+    private int count;
+    private int extra;
+    private long seed;
+    private String name;
+    private String previousName;
+    
+    GameEvent() {
+    }
+    
+    /**
+     * Réinitialise l'emplacement pour une nouvelle publication
+     */
+    void reset(GameEventType type, long sequence, long timestamp) {
+        this.type = type;
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.x = 0;
+        this.y = 0;
+        this.value = 0;
+        this.count = 0;
+        this.extra = 0;
+        this.seed = 0;
+        this.name = null;
+        this.previousName = null;
+    }
+    
+    public GameEvent setPosition(int x, int y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+    
+    public GameEvent setValue(int value) {
+        this.value = value;
+        return this;
+    }
+    
+    public GameEvent setCount(int count) {
+        this.count = count;
+        return this;
+    }
+    
+    public GameEvent setExtra(int extra) {
+        this.extra = extra;
+        return this;
+    }
+    
+    public GameEvent setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+    
+    public GameEvent setNames(String name, String previousName) {
+        this.name = name;
+        this.previousName = previousName;
+        return this;
+    }
+    
+    public GameEventType getType() {
+        return type;
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+    
+    /**
+     * Horodatage System.nanoTime() de la publication
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public int getX() {
+        return x;
+    }
+    
+    public int getY() {
+        return y;
+    }
+    
+    public int getValue() {
+        return value;
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    public int getExtra() {
+        return extra;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getPreviousName() {
+        return previousName;
+    }
+}
@@ -0,0 +1,223 @@
+package com.designpatterns.puzzle.events;
+
+import com.designpatterns.puzzle.utils.GameLogger;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bus d'événements typés du jeu (style Disruptor)
+ * Un tampon circulaire préalloué d'emplacements GameEvent réutilisables,
+ * un seul producteur (le thread du jeu) et des consommateurs qui suivent
+ * chacun leur propre séquence sur leur propre thread.
+ *
+ * Le producteur ne bloque jamais et n'alloue rien : si le consommateur le
+ * plus lent a un tour de retard, l'événement est abandonné et compté.
+ */
+public class GameEventBus {
+    
+    public static final int DEFAULT_CAPACITY = 1024;
+    
+    private static final GameLogger logger = GameLogger.getInstance();
+    
+    private final GameEvent[] ring;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private volatile Processor[] processors = new Processor[0];
+    
+    // État propre au thread producteur
+    private long nextSequence;
+    private long cachedGatingSequence = -1;
+    private volatile long droppedEvents;
+    
+    public GameEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * @param capacity taille du tampon, arrondie à la puissance de 2 supérieure
+     */
+    public GameEventBus(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ring = new GameEvent[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            ring[i] = new GameEvent();
+        }
+    }
+    
+    /**
+     * Réserve l'emplacement suivant pour y écrire un événement
+     * Retourne null si le tampon est plein (événement abandonné)
+     * Chaque claim réussi doit être suivi de publish.
+     */
+    public GameEvent claim(GameEventType type) {
+        long sequence = nextSequence;
+        long wrapPoint = sequence - ring.length;
+        if (wrapPoint > cachedGatingSequence) {
+            cachedGatingSequence = minimumSequence(sequence - 1);
+            if (wrapPoint > cachedGatingSequence) {
+                droppedEvents++;
+                return null;
+            }
+        }
+        GameEvent event = ring[(int) (sequence & mask)];
+        event.reset(type, sequence, System.nanoTime());
+        return event;
+    }
+    
+    /**
+     * Rend l'événement réservé visible aux consommateurs
+     */
+    public void publish(GameEvent event) {
+        nextSequence = event.getSequence() + 1;
+        cursor.lazySet(event.getSequence());
+    }
+    
+    /**
+     * Publie un événement de position
+     */
+    public void publish(GameEventType type, int x, int y) {
+        GameEvent event = claim(type);
+        if (event != null) {
+            publish(event.setPosition(x, y));
+        }
+    }
+    
+    /**
+     * Publie un événement de position accompagné d'une valeur
+     */
+    public void publishAt(GameEventType type, int x, int y, int value) {
+        GameEvent event = claim(type);
+        if (event != null) {
+            publish(event.setPosition(x, y).setValue(value));
+        }
+    }
+    
+    /**
+     * Publie un événement numérique
+     */
+    public void publish(GameEventType type, int value, int count, int extra) {
+        GameEvent event = claim(type);
+        if (event != null) {
+            publish(event.setValue(value).setCount(count).setExtra(extra));
+        }
+    }
+    
+    /**
+     * Publie un événement nommé (changement d'état)
+     */
+    public void publish(GameEventType type, String name, String previousName) {
+        GameEvent event = claim(type);
+        if (event != null) {
+            publish(event.setNames(name, previousName));
+        }
+    }
+    
+    /**
+     * Abonne un consommateur sur son propre thread
+     * Il reçoit les événements publiés à partir de maintenant.
+     */
+    public synchronized void subscribe(String name, GameEventHandler handler) {
+        Processor processor = new Processor(handler, cursor.get());
+        processor.thread = new Thread(processor, "event-" + name);
+        processor.thread.setDaemon(true);
+        
+        Processor[] updated = Arrays.copyOf(processors, processors.length + 1);
+        updated[updated.length - 1] = processor;
+        processors = updated;
+        processor.thread.start();
+    }
+    
+    /**
+     * Arrête tous les consommateurs après traitement des événements publiés
+     * et attend leur fin (au plus une seconde chacun)
+     */
+    public synchronized void shutdown() {
+        for (Processor processor : processors) {
+            processor.running = false;
+            LockSupport.unpark(processor.thread);
+        }
+        for (Processor processor : processors) {
+            try {
+                processor.thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        processors = new Processor[0];
+    }
+    
+    private long minimumSequence(long defaultValue) {
+        long minimum = defaultValue;
+        for (Processor processor : processors) {
+            minimum = Math.min(minimum, processor.sequence.get());
+        }
+        return minimum;
+    }
+    
+    /**
+     * Nombre d'événements abandonnés faute de place
+     */
+    public long getDroppedEvents() {
+        return droppedEvents;
+    }
+    
+    public int getCapacity() {
+        return ring.length;
+    }
+    
+    /**
+     * Boucle d'un consommateur : traite les événements par lots
+     */
+    private class Processor implements Runnable {
+        
+        private static final int SPIN_TRIES = 100;
+        private static final long MAX_PARK_NANOS = 8_000_000;
+        
+        private final GameEventHandler handler;
+        private final AtomicLong sequence;
+        private volatile boolean running = true;
+        private Thread thread;
+        
+        Processor(GameEventHandler handler, long startSequence) {
+            this.handler = handler;
+            this.sequence = new AtomicLong(startSequence);
+        }
+        
+        @Override
+        public void run() {
+            int idle = 0;
+            long parkNanos = 100_000;
+            
+            while (true) {
+                long next = sequence.get() + 1;
+                long available = cursor.get();
+                if (available >= next) {
+                    for (long s = next; s <= available; s++) {
+                        try {
+                            handler.onEvent(ring[(int) (s & mask)], s, s == available);
+                        } catch (RuntimeException e) {
+                            logger.logError("Event handler failed", e);
+                        }
+                    }
+                    sequence.lazySet(available);
+                    idle = 0;
+                    parkNanos = 100_000;
+                } else if (!running) {
+                    return;
+                } else if (idle < SPIN_TRIES) {
+                    idle++;
+                    Thread.onSpinWait();
+                } else if (idle < SPIN_TRIES * 2) {
+                    idle++;
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(parkNanos);
+                    parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+                }
+            }
+        }
+    }
+}
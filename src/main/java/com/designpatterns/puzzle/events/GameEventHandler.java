@@ -0,0 +1,14 @@
+package com.designpatterns.puzzle.events;
+
+/**
+ * Consommateur d'événements du GameEventBus
+ * Appelé sur le thread dédié du consommateur, jamais sur le thread du jeu
+ */
+public interface GameEventHandler {
+    
+    /**
+     * Traite un événement
+     * endOfBatch vaut true pour le dernier événement disponible du lot courant
+     */
+    void onEvent(GameEvent event, long sequence, boolean endOfBatch);
+}
@@ -0,0 +1,34 @@
+package com.designpatterns.puzzle.events;
+
+/**
+ * Types d'événements publiés sur le GameEventBus
+ * Le commentaire de chaque type indique les champs renseignés
+ */
+public enum GameEventType {
+    /** Changement d'état : name = nouvel état, previousName = ancien état */
+    STATE_CHANGED,
+    /** Nouvelle partie initialisée */
+    GAME_STARTED,
+    /** Fin de partie : value = score, count = lignes, extra = niveau, seed = graine */
+    GAME_OVER,
+    /** Nouvelle pièce : x, y = position d'apparition, value = multiplicateur */
+    PIECE_SPAWNED,
+    /** Apparition impossible (grille pleine) : x, y = position d'apparition */
+    SPAWN_BLOCKED,
+    /** Pièce tournée : value = rotation (0-3) */
+    PIECE_ROTATED,
+    /** Chute instantanée : count = distance parcourue */
+    PIECE_DROPPED,
+    /** Pièce posée sur la grille : x, y = position */
+    PIECE_PLACED,
+    /** Ligne supprimée : y = index de la ligne */
+    LINE_CLEARED,
+    /** Lignes effacées au verrouillage (complètes et effets) : count = nombre de lignes */
+    LINES_CLEARED,
+    /** Effet de power-up déclenché : value = drapeau d'effet, count = lignes marquées */
+    EFFECT_TRIGGERED,
+    /** Points gagnés : value = points ajoutés, count = lignes, extra = multiplicateur */
+    SCORE_CHANGED,
+    /** Pièce à power-up en jeu : value = multiplicateur de score */
+    POWER_UP_SPAWNED
+}
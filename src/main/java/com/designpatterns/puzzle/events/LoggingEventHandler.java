@@ -0,0 +1,57 @@
+package com.designpatterns.puzzle.events;
+
+import com.designpatterns.puzzle.utils.GameLogger;
+
+/**
+ * Consommateur qui trace les événements du jeu dans GameLogger
+ * Le formatage des messages se fait sur le thread du consommateur
+ */
+public class LoggingEventHandler implements GameEventHandler {
+    
+    private static final GameLogger logger = GameLogger.getInstance();
+    
+    @Override
+    public void onEvent(GameEvent event, long sequence, boolean endOfBatch) {
+        switch (event.getType()) {
+            case STATE_CHANGED:
+                logger.logStateChange("Game", event.getPreviousName(), event.getName());
+                break;
+            case GAME_STARTED:
+                logger.logGameEvent("Game started");
+                break;
+            case GAME_OVER:
+                logger.logGameEvent("Game Over");
+                logger.logFinalScore(event.getValue(), event.getExtra(), event.getCount());
+                break;
+            case SPAWN_BLOCKED:
+                logger.logGameEvent("Game Over - Cannot spawn new piece");
+                break;
+            case PIECE_ROTATED:
+                logger.logGameEvent("Piece rotated (rotation: " + event.getValue() + ")");
+                break;
+            case PIECE_DROPPED:
+                logger.logGameEvent("Piece dropped (distance: " + event.getCount() + ")");
+                break;
+            case PIECE_PLACED:
+                logger.logGameEvent("Piece placed at (" + event.getX() + ", " + event.getY() + ")");
+                break;
+            case LINE_CLEARED:
+                logger.logGameEvent("Line cleared: " + event.getY());
+                break;
+            case LINES_CLEARED:
+                logger.logGameEvent("Total lines cleared: " + event.getCount());
+                break;
+            case EFFECT_TRIGGERED:
+                logger.logGameEvent("Power-up effect " + event.getValue() + " cleared " + event.getCount() + " lines");
+                break;
+            case SCORE_CHANGED:
+                logger.logGameEvent("Lines cleared: " + event.getCount() + " | Score added: " + event.getValue());
+                break;
+            case POWER_UP_SPAWNED:
+                logger.logGameEvent("Power-up piece spawned (x" + event.getValue() + " score)");
+                break;
+            default:
+                break;
+        }
+    }
+}
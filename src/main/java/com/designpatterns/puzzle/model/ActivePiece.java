@@ -1,7 +1,6 @@
 package com.designpatterns.puzzle.model;
 
 import com.designpatterns.puzzle.patterns.decorator.PuzzlePiece;
-import com.designpatterns.puzzle.utils.GameLogger;
 
 /**
  * Représente une pièce active dans le jeu
@@ -13,7 +12,6 @@ public class ActivePiece {
     private int x;
     private int y;
     private int rotation;
-    private static final GameLogger logger = GameLogger.getInstance();
     
     public ActivePiece(PuzzlePiece piece, int startX, int startY) {
         this.piece = piece;
@@ -48,42 +46,28 @@ public class ActivePiece {
      */
     public void rotate() {
         rotation = (rotation + 1) % 4;
-        logger.logGameEvent("Piece rotated (rotation: " + rotation + ")");
     }
     
     /**
      * Obtient la forme actuelle de la pièce avec rotation appliquée
+     * (matrice précalculée et partagée, en lecture seule)
      */
     public int[][] getCurrentShape() {
-        int[][] baseShape = piece.getShape();
-        return rotateMatrix(baseShape, rotation);
+        return piece.getPieceShape().getMatrix(rotation);
     }
     
     /**
-     * Fait tourner une matrice selon le nombre de rotations (90° chaque)
+     * Masques de lignes de la forme actuelle (bit c = colonne x + c)
      */
-    private int[][] rotateMatrix(int[][] matrix, int times) {
-        int[][] result = matrix;
-        for (int i = 0; i < times; i++) {
-            result = rotate90Clockwise(result);
-        }
-        return result;
+    public int[] getCurrentRows() {
+        return piece.getPieceShape().getRows(rotation);
     }
     
     /**
-     * Fait tourner une matrice de 90° dans le sens horaire
+     * Masque 4x4 de la forme actuelle (voir Protocol.shapeMask)
      */
-    private int[][] rotate90Clockwise(int[][] matrix) {
-        int rows = matrix.length;
-        int cols = matrix[0].length;
-        int[][] rotated = new int[cols][rows];
-        
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                rotated[j][rows - 1 - i] = matrix[i][j];
-            }
-        }
-        return rotated;
+    public int getCurrentMask() {
+        return piece.getPieceShape().getMask(rotation);
     }
     
     // Getters et setters
@@ -114,4 +98,8 @@ public class ActivePiece {
     public int getRotation() {
         return rotation;
     }
+    
+    public void setRotation(int rotation) {
+        this.rotation = rotation & 3;
+    }
 }
@@ -0,0 +1,35 @@
+package com.designpatterns.puzzle.model;
+
+import com.designpatterns.puzzle.patterns.decorator.PieceAttributes;
+
+import java.util.BitSet;
+
+/**
+ * Effet de la pièce bombe : détruit les lignes adjacentes à la pièce
+ * (la ligne juste au-dessus et celle juste en dessous de son emprise)
+ */
+public class BombEffect implements LockEffect {
+    
+    @Override
+    public int getEffect() {
+        return PieceAttributes.EFFECT_BOMB;
+    }
+    
+    @Override
+    public int apply(GameGrid grid, ActivePiece piece, BitSet rowsToRemove) {
+        int top = piece.getY() - 1;
+        int bottom = piece.getY() + piece.getCurrentRows().length;
+        return mark(grid, top, rowsToRemove) + mark(grid, bottom, rowsToRemove);
+    }
+    
+    /**
+     * Marque une ligne si elle existe, contient des blocs et n'est pas déjà marquée
+     */
+    private int mark(GameGrid grid, int row, BitSet rowsToRemove) {
+        if (row < 0 || row >= grid.getHeight() || grid.isRowEmpty(row) || rowsToRemove.get(row)) {
+            return 0;
+        }
+        rowsToRemove.set(row);
+        return 1;
+    }
+}
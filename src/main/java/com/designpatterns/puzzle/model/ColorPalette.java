@@ -0,0 +1,98 @@
+package com.designpatterns.puzzle.model;
+
+import javafx.scene.paint.Color;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Palette indexée des couleurs de blocs
+ * Permet de représenter une case de la grille sur un seul octet
+ * (0 = case vide) pour la sérialisation et les représentations compactes
+ */
+public final class ColorPalette {
+    
+    public static final int EMPTY = 0;
+    
+    private static final int MAX_CACHED_COLORS = 1024;
+    private static final Color[] BASE_COLORS = {
+        Color.CYAN, Color.YELLOW, Color.PURPLE, Color.GREEN, Color.RED, Color.BLUE, Color.ORANGE
+    };
+    private static final int RAINBOW_STEPS = 12;
+    
+    private static final Color[] COLORS;
+    private static final Map<Color, Integer> INDEX = new ConcurrentHashMap<>();
+    
+    static {
+        COLORS = new Color[1 + BASE_COLORS.length * 2 + RAINBOW_STEPS];
+        int index = 1;
+        for (Color base : BASE_COLORS) {
+            COLORS[index++] = base;
+        }
+        // Variantes dorées (voir GoldenPieceDecorator)
+        for (Color base : BASE_COLORS) {
+            COLORS[index++] = base.interpolate(Color.GOLD, 0.3);
+        }
+        // Teintes arc-en-ciel (voir RainbowPieceDecorator)
+        for (int i = 0; i < RAINBOW_STEPS; i++) {
+            COLORS[index++] = Color.hsb(i * 360.0 / RAINBOW_STEPS, 0.8, 0.9);
+        }
+        for (int i = 1; i < COLORS.length; i++) {
+            INDEX.putIfAbsent(COLORS[i], i);
+        }
+    }
+    
+    private ColorPalette() {
+    }
+    
+    /**
+     * Retourne l'index de palette d'une couleur (la plus proche si inconnue)
+     */
+    public static int indexOf(Color color) {
+        if (color == null) {
+            return EMPTY;
+        }
+        Integer cached = INDEX.get(color);
+        if (cached != null) {
+            return cached;
+        }
+        int nearest = findNearest(color);
+        if (INDEX.size() < MAX_CACHED_COLORS) {
+            INDEX.putIfAbsent(color, nearest);
+        }
+        return nearest;
+    }
+    
+    /**
+     * Retourne la couleur associée à un index de palette (null pour une case vide)
+     */
+    public static Color colorOf(int index) {
+        if (index <= EMPTY || index >= COLORS.length) {
+            return null;
+        }
+        return COLORS[index];
+    }
+    
+    /**
+     * Nombre d'entrées de la palette, case vide comprise
+     */
+    public static int size() {
+        return COLORS.length;
+    }
+    
+    private static int findNearest(Color color) {
+        int best = 1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int i = 1; i < COLORS.length; i++) {
+            double dr = COLORS[i].getRed() - color.getRed();
+            double dg = COLORS[i].getGreen() - color.getGreen();
+            double db = COLORS[i].getBlue() - color.getBlue();
+            double distance = dr * dr + dg * dg + db * db;
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+        return best;
+    }
+}
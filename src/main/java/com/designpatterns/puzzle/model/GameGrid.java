@@ -1,30 +1,98 @@
 package com.designpatterns.puzzle.model;
 
-import com.designpatterns.puzzle.utils.GameLogger;
+import com.designpatterns.puzzle.events.GameEventBus;
+import com.designpatterns.puzzle.events.GameEventType;
+import com.designpatterns.puzzle.patterns.decorator.PieceShape;
 import javafx.scene.paint.Color;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
 /**
  * Représente la grille de jeu (le plateau)
  * Gère l'état des blocs placés
+ * L'occupation est doublée par des masques de bits par ligne (64 colonnes
+ * par mot) : collisions et lignes complètes sont testées mot par mot
+ * En mode creux (bac à sable), une ligne n'est allouée qu'avec son premier
+ * bloc, et seulement par mots de 64 colonnes occupés (voir SparseRow) : la
+ * mémoire suit le nombre de cases occupées et non la surface de la grille
+ * Les lecteurs parcourent une ligne mot par mot (getRowWord,
+ * nextOccupiedWord) ou par plage de colonnes (copyRow)
+ * Le profil de l'empilement (hauteur des colonnes, remplissage des lignes,
+ * ligne la plus haute, trous) est tenu à jour à chaque modification,
+ * ainsi qu'un hachage de Zobrist de l'occupation (voir Zobrist)
  */
 public class GameGrid {
     
     private static final int DEFAULT_WIDTH = 10;
     private static final int DEFAULT_HEIGHT = 20;
-    private static final GameLogger logger = GameLogger.getInstance();
     
+    // Grille pleine : couleurs et masques de toutes les lignes
     private Color[][] grid;
+    private long[][] rowBits;
+    // Grille creuse : lignes découpées par mots (null = ligne vide)
+    private final SparseRow[] sparseRows;
+    private long[] fullRow;
+    private final boolean sparse;
+    private int words;
+    // Tampons réutilisés par la compaction des lignes (grille pleine)
+    private final BitSet completeRows = new BitSet();
+    private Color[][] spareRows;
+    private long[][] spareBits;
+    // Profil de l'empilement
+    private final int[] rowFill;
+    private final int[] columnTop;
+    private final long[] unresolved;
+    private int topRow;
+    private int blockCount;
+    private int sumHeights;
+    // Hachage de Zobrist par ligne et pour toute la grille
+    private final long[] rowHash;
+    private long hash;
+    // Hachages des lignes avant une compaction de colonnes
+    private final long[] previousRowHash;
     private int width;
     private int height;
+    private final List<GridListener> listeners = new ArrayList<>();
+    private GameEventBus eventBus;
     
     public GameGrid() {
         this(DEFAULT_WIDTH, DEFAULT_HEIGHT);
     }
     
     public GameGrid(int width, int height) {
+        this(width, height, false);
+    }
+    
+    /**
+     * Crée une grille ; en mode creux les lignes vides ne sont pas allouées
+     */
+    public GameGrid(int width, int height, boolean sparse) {
         this.width = width;
         this.height = height;
-        this.grid = new Color[height][width];
+        this.sparse = sparse;
+        this.words = (width + 63) >>> 6;
+        if (sparse) {
+            this.sparseRows = new SparseRow[height];
+        } else {
+            this.sparseRows = null;
+            this.grid = new Color[height][width];
+            this.rowBits = new long[height][words];
+            this.spareRows = new Color[height][];
+            this.spareBits = new long[height][];
+        }
+        this.fullRow = new long[words];
+        this.rowFill = new int[height];
+        this.columnTop = new int[width];
+        this.unresolved = new long[words];
+        this.rowHash = new long[height];
+        this.previousRowHash = new long[height];
+        Arrays.fill(fullRow, -1L);
+        if ((width & 63) != 0) {
+            fullRow[words - 1] = (1L << (width & 63)) - 1;
+        }
         clear();
     }
     
@@ -32,11 +100,78 @@ public class GameGrid {
      * Efface la grille
      */
     public void clear() {
+        if (sparse) {
+            Arrays.fill(sparseRows, null);
+        } else {
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    grid[row][col] = null;
+                }
+                Arrays.fill(rowBits[row], 0L);
+            }
+        }
+        Arrays.fill(rowFill, 0);
+        Arrays.fill(columnTop, height);
+        topRow = height;
+        blockCount = 0;
+        sumHeights = 0;
+        Arrays.fill(rowHash, 0L);
+        hash = 0;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).gridCleared();
+        }
+    }
+    
+    /**
+     * Recopie le contenu d'une grille de mêmes dimensions et de même mode
+     * (cases, profil et hachage), sans prévenir les observateurs ; sert aux
+     * simulations
+     */
+    public void copyFrom(GameGrid other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Grid size mismatch: " + other.width + "x" + other.height);
+        }
+        if (other.sparse != sparse) {
+            throw new IllegalArgumentException("Grid mode mismatch: " + (other.sparse ? "sparse" : "dense"));
+        }
         for (int row = 0; row < height; row++) {
-            for (int col = 0; col < width; col++) {
-                grid[row][col] = null;
+            if (!sparse) {
+                System.arraycopy(other.grid[row], 0, grid[row], 0, width);
+                System.arraycopy(other.rowBits[row], 0, rowBits[row], 0, words);
+            } else if (other.sparseRows[row] == null) {
+                sparseRows[row] = null;
+            } else {
+                if (sparseRows[row] == null) {
+                    sparseRows[row] = new SparseRow();
+                }
+                sparseRows[row].copyFrom(other.sparseRows[row]);
             }
         }
+        System.arraycopy(other.rowFill, 0, rowFill, 0, height);
+        System.arraycopy(other.columnTop, 0, columnTop, 0, width);
+        System.arraycopy(other.rowHash, 0, rowHash, 0, height);
+        topRow = other.topRow;
+        blockCount = other.blockCount;
+        sumHeights = other.sumHeights;
+        hash = other.hash;
+    }
+    
+    /**
+     * Abonne un observateur aux modifications de la grille
+     */
+    public void addListener(GridListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(GridListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Définit le bus sur lequel la grille publie ses événements (null = aucun)
+     */
+    public void setEventBus(GameEventBus eventBus) {
+        this.eventBus = eventBus;
     }
     
     /**
@@ -46,7 +181,7 @@ public class GameGrid {
         if (row < 0 || row >= height || col < 0 || col >= width) {
             return false;
         }
-        return grid[row][col] == null;
+        return (getRowWord(row, col >>> 6) & (1L << col)) == 0;
     }
     
     /**
@@ -54,7 +189,93 @@ public class GameGrid {
      */
     public void setBlock(int row, int col, Color color) {
         if (row >= 0 && row < height && col >= 0 && col < width) {
-            grid[row][col] = color;
+            if (sparse && sparseRows[row] == null && color == null) {
+                return;
+            }
+            Color previous = store(row, col, color);
+            updateHash(row, col, previous, color);
+            if (color != null) {
+                if (previous == null) {
+                    blockAdded(row, col);
+                }
+            } else if (previous != null) {
+                blockRemoved(row, col);
+                if (sparse && rowFill[row] == 0) {
+                    sparseRows[row] = null;
+                }
+            }
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).blockSet(row, col, color);
+            }
+        }
+    }
+    
+    /**
+     * Écrit une case (couleur et masque) sans mettre à jour le profil ni le
+     * hachage, et retourne la couleur précédente
+     */
+    private Color store(int row, int col, Color color) {
+        if (sparse) {
+            if (sparseRows[row] == null) {
+                sparseRows[row] = new SparseRow();
+            }
+            return sparseRows[row].set(col, color);
+        }
+        Color previous = grid[row][col];
+        grid[row][col] = color;
+        if (color != null) {
+            rowBits[row][col >>> 6] |= 1L << col;
+        } else {
+            rowBits[row][col >>> 6] &= ~(1L << col);
+        }
+        return previous;
+    }
+    
+    private void updateHash(int row, int col, Color previous, Color color) {
+        int previousIndex = ColorPalette.indexOf(previous);
+        int index = ColorPalette.indexOf(color);
+        if (previousIndex == index) {
+            return;
+        }
+        long updated = rowHash[row];
+        if (previousIndex != ColorPalette.EMPTY) {
+            updated ^= Zobrist.cellKey(col, previousIndex);
+        }
+        if (index != ColorPalette.EMPTY) {
+            updated ^= Zobrist.cellKey(col, index);
+        }
+        hash ^= Zobrist.rowKey(row, rowHash[row]) ^ Zobrist.rowKey(row, updated);
+        rowHash[row] = updated;
+    }
+    
+    private void blockAdded(int row, int col) {
+        rowFill[row]++;
+        blockCount++;
+        if (row < columnTop[col]) {
+            sumHeights += columnTop[col] - row;
+            columnTop[col] = row;
+        }
+        if (row < topRow) {
+            topRow = row;
+        }
+    }
+    
+    private void blockRemoved(int row, int col) {
+        rowFill[row]--;
+        blockCount--;
+        if (row == columnTop[col]) {
+            // Cherche le bloc suivant de la colonne, sous l'ancien sommet
+            int word = col >>> 6;
+            long bit = 1L << col;
+            int top = row + 1;
+            while (top < height && (getRowWord(top, word) & bit) == 0) {
+                top++;
+            }
+            sumHeights -= top - row;
+            columnTop[col] = top;
+        }
+        while (topRow < height && rowFill[topRow] == 0) {
+            topRow++;
         }
     }
     
@@ -65,105 +286,361 @@ public class GameGrid {
         if (row < 0 || row >= height || col < 0 || col >= width) {
             return null;
         }
+        if (sparse) {
+            return sparseRows[row] != null ? sparseRows[row].get(col) : null;
+        }
         return grid[row][col];
     }
     
+    /**
+     * Copie les couleurs des colonnes [fromCol, fromCol + length) d'une ligne
+     * dans out à partir de offset (null = case vide) ; en mode creux seuls
+     * les mots occupés de la plage sont lus
+     */
+    public void copyRow(int row, int fromCol, Color[] out, int offset, int length) {
+        if (sparse) {
+            if (sparseRows[row] == null) {
+                Arrays.fill(out, offset, offset + length, null);
+            } else {
+                sparseRows[row].copyTo(fromCol, out, offset, length);
+            }
+        } else {
+            System.arraycopy(grid[row], fromCol, out, offset, length);
+        }
+    }
+    
     /**
      * Vérifie si une pièce peut être placée à une position
      */
     public boolean canPlacePiece(ActivePiece piece) {
-        int[][] shape = piece.getCurrentShape();
-        int pieceX = piece.getX();
-        int pieceY = piece.getY();
+        return canPlace(piece.getPiece().getPieceShape(), piece.getRotation(), piece.getX(), piece.getY());
+    }
+    
+    /**
+     * Vérifie si une forme peut être placée à une position (x, y = coin haut gauche)
+     * Les lignes au-dessus de la grille ne sont pas testées
+     */
+    public boolean canPlace(PieceShape shape, int rotation, int pieceX, int pieceY) {
+        // Vérifie les limites horizontales sur la boîte englobante
+        if (pieceX + shape.getLeftColumn(rotation) < 0 || pieceX + shape.getRightColumn(rotation) >= width) {
+            return false;
+        }
         
-        for (int row = 0; row < shape.length; row++) {
-            for (int col = 0; col < shape[row].length; col++) {
-                if (shape[row][col] == 1) {
-                    int gridX = pieceX + col;
-                    int gridY = pieceY + row;
-                    
-                    // Vérifie les limites
-                    if (gridX < 0 || gridX >= width || gridY >= height) {
-                        return false;
-                    }
-                    
-                    // Vérifie si la position est occupée
-                    if (gridY >= 0 && !isEmpty(gridY, gridX)) {
-                        return false;
-                    }
-                }
+        int[] rows = shape.getRows(rotation);
+        for (int row = 0; row < rows.length; row++) {
+            if (rows[row] == 0) {
+                continue;
+            }
+            int gridY = pieceY + row;
+            if (gridY >= height) {
+                return false;
+            }
+            if (gridY >= 0 && overlaps(gridY, rows[row], pieceX)) {
+                return false;
             }
         }
         return true;
     }
     
+    /**
+     * Teste un masque de ligne décalé de x colonnes contre une ligne de la grille,
+     * y compris quand il chevauche deux mots
+     */
+    private boolean overlaps(int row, int rowMask, int x) {
+        if (sparse && sparseRows[row] == null) {
+            return false;
+        }
+        long mask = rowMask & 0xFFFFFFFFL;
+        if (x < 0) {
+            mask >>>= -x;
+            x = 0;
+        }
+        int word = x >>> 6;
+        int offset = x & 63;
+        if ((getRowWord(row, word) & (mask << offset)) != 0) {
+            return true;
+        }
+        return offset != 0 && word + 1 < words && (getRowWord(row, word + 1) & (mask >>> (64 - offset))) != 0;
+    }
+    
     /**
      * Place une pièce sur la grille
      */
     public void placePiece(ActivePiece piece) {
-        int[][] shape = piece.getCurrentShape();
+        int[] rows = piece.getCurrentRows();
         int pieceX = piece.getX();
         int pieceY = piece.getY();
-        Color color = piece.getPiece().getColor();
+        Color color = piece.getPiece().getAttributes().getColor();
         
-        for (int row = 0; row < shape.length; row++) {
-            for (int col = 0; col < shape[row].length; col++) {
-                if (shape[row][col] == 1) {
-                    int gridX = pieceX + col;
-                    int gridY = pieceY + row;
-                    if (gridY >= 0 && gridY < height) {
-                        setBlock(gridY, gridX, color);
-                    }
-                }
+        for (int row = 0; row < rows.length; row++) {
+            int gridY = pieceY + row;
+            if (gridY < 0 || gridY >= height) {
+                continue;
+            }
+            for (int bits = rows[row]; bits != 0; bits &= bits - 1) {
+                setBlock(gridY, pieceX + Integer.numberOfTrailingZeros(bits), color);
             }
         }
         
-        logger.logGameEvent("Piece placed at (" + pieceX + ", " + pieceY + ")");
+        if (eventBus != null) {
+            eventBus.publish(GameEventType.PIECE_PLACED, pieceX, pieceY);
+        }
     }
     
     /**
      * Vérifie si une ligne est complète
      */
     public boolean isLineComplete(int row) {
-        for (int col = 0; col < width; col++) {
-            if (isEmpty(row, col)) {
-                return false;
-            }
+        if (row < 0 || row >= height) {
+            return false;
         }
-        return true;
+        return rowFill[row] == width;
     }
     
     /**
      * Supprime une ligne et fait descendre les lignes au-dessus
      */
     public void clearLine(int row) {
-        for (int r = row; r > 0; r--) {
-            for (int col = 0; col < width; col++) {
-                grid[r][col] = grid[r - 1][col];
+        completeRows.clear();
+        completeRows.set(row);
+        removeRows(completeRows);
+    }
+    
+    /**
+     * Vérifie si une ligne ne contient aucun bloc
+     */
+    public boolean isRowEmpty(int row) {
+        return rowFill[row] == 0;
+    }
+    
+    /**
+     * Marque les lignes complètes dans la sélection et retourne leur nombre
+     * (les lignes au-dessus de l'empilement ne sont pas parcourues)
+     */
+    public int markCompleteLines(BitSet rows) {
+        int count = 0;
+        for (int row = topRow; row < height; row++) {
+            if (rowFill[row] == width) {
+                rows.set(row);
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Supprime toutes les lignes sélectionnées en une seule passe de compaction :
+     * chaque ligne conservée descend directement à sa place finale et les
+     * lignes supprimées sont recyclées, vidées, en haut de la grille
+     * (libérées en mode creux)
+     * Retourne le nombre de lignes supprimées
+     */
+    public int removeRows(BitSet rows) {
+        int removed = 0;
+        for (int row = rows.nextSetBit(0); row >= 0 && row < height; row = rows.nextSetBit(row + 1)) {
+            if (!sparse) {
+                spareRows[removed] = grid[row];
+                spareBits[removed] = rowBits[row];
+            }
+            blockCount -= rowFill[row];
+            hash ^= Zobrist.rowKey(row, rowHash[row]);
+            removed++;
+        }
+        if (removed == 0) {
+            return 0;
+        }
+        
+        int write = height - 1;
+        for (int read = height - 1; read >= 0; read--) {
+            if (rows.get(read)) {
+                continue;
+            }
+            if (sparse) {
+                sparseRows[write] = sparseRows[read];
+            } else {
+                grid[write] = grid[read];
+                rowBits[write] = rowBits[read];
+            }
+            rowFill[write] = rowFill[read];
+            if (write != read) {
+                hash ^= Zobrist.rowKey(read, rowHash[read]) ^ Zobrist.rowKey(write, rowHash[read]);
+            }
+            rowHash[write] = rowHash[read];
+            write--;
+        }
+        for (int i = 0; i < removed; i++) {
+            rowFill[i] = 0;
+            rowHash[i] = 0;
+            if (sparse) {
+                sparseRows[i] = null;
+            } else {
+                Arrays.fill(spareRows[i], null);
+                Arrays.fill(spareBits[i], 0L);
+                grid[i] = spareRows[i];
+                rowBits[i] = spareBits[i];
+                spareRows[i] = null;
+                spareBits[i] = null;
             }
         }
-        // Efface la ligne du haut
+        rebuildColumnProfile();
+        
+        // Par ordre croissant : chaque suppression laisse intactes les lignes plus basses
+        for (int row = rows.nextSetBit(0); row >= 0 && row < height; row = rows.nextSetBit(row + 1)) {
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).rowRemoved(row);
+            }
+            if (eventBus != null) {
+                eventBus.publish(GameEventType.LINE_CLEARED, 0, row);
+            }
+        }
+        return removed;
+    }
+    
+    /**
+     * Recalcule le sommet de chaque colonne en descendant depuis la ligne
+     * la plus haute, jusqu'à ce que toutes les colonnes soient résolues
+     */
+    private void rebuildColumnProfile() {
+        topRow = 0;
+        while (topRow < height && rowFill[topRow] == 0) {
+            topRow++;
+        }
+        Arrays.fill(columnTop, height);
+        System.arraycopy(fullRow, 0, unresolved, 0, words);
+        int pending = words;
+        for (int row = topRow; row < height && pending > 0; row++) {
+            for (int word = nextOccupiedWord(row, 0); word >= 0; word = nextOccupiedWord(row, word + 1)) {
+                long bits = getRowWord(row, word);
+                long found = bits & unresolved[word];
+                if (found == 0) {
+                    continue;
+                }
+                for (; found != 0; found &= found - 1) {
+                    columnTop[(word << 6) + Long.numberOfTrailingZeros(found)] = row;
+                }
+                unresolved[word] &= ~bits;
+                if (unresolved[word] == 0) {
+                    pending--;
+                }
+            }
+        }
+        sumHeights = 0;
         for (int col = 0; col < width; col++) {
-            grid[0][col] = null;
+            sumHeights += height - columnTop[col];
         }
-        logger.logGameEvent("Line cleared: " + row);
     }
     
     /**
-     * Efface toutes les lignes complètes et retourne le nombre de lignes effacées
+     * Marque les colonnes où un bloc repose au-dessus d'une case vide
+     * (bit c du mot c / 64), en comparant chaque ligne à celle du dessus
+     * Sans trou dans l'empilement (somme des hauteurs = nombre de blocs),
+     * la réponse est immédiate et aucune ligne n'est parcourue
+     * Retourne true s'il en existe au moins une
      */
-    public int clearCompleteLines() {
-        int linesCleared = 0;
-        for (int row = height - 1; row >= 0; row--) {
-            if (isLineComplete(row)) {
-                clearLine(row);
-                linesCleared++;
-                row++; // Revérifie la même ligne car elle a descendu
+    public boolean findUnsupportedColumns(long[] columns) {
+        Arrays.fill(columns, 0, words, 0L);
+        if (sumHeights == blockCount) {
+            return false;
+        }
+        long any = 0;
+        for (int row = Math.max(1, topRow + 1); row < height; row++) {
+            for (int word = nextOccupiedWord(row - 1, 0); word >= 0; word = nextOccupiedWord(row - 1, word + 1)) {
+                long gaps = getRowWord(row - 1, word) & ~getRowWord(row, word);
+                columns[word] |= gaps;
+                any |= gaps;
+            }
+        }
+        return any != 0;
+    }
+    
+    /**
+     * Fait tomber les blocs des colonnes marquées (bit c du mot c / 64)
+     * jusqu'au fond, sans trou
+     * Chaque colonne est compactée en une passe sur les masques de lignes,
+     * sans passer par setBlock : le hachage global, la ligne la plus haute
+     * et la libération des lignes vides sont mis à jour une seule fois à la
+     * fin, le sommet et la hauteur une fois par colonne
+     * Retourne le nombre de blocs déplacés
+     */
+    public int compactColumns(long[] columns) {
+        int top = height;
+        for (int word = 0; word < words; word++) {
+            for (long bits = columns[word]; bits != 0; bits &= bits - 1) {
+                top = Math.min(top, columnTop[(word << 6) + Long.numberOfTrailingZeros(bits)]);
+            }
+        }
+        if (top >= height) {
+            return 0;
+        }
+        System.arraycopy(rowHash, top, previousRowHash, top, height - top);
+        
+        int moved = 0;
+        for (int word = 0; word < words; word++) {
+            for (long bits = columns[word]; bits != 0; bits &= bits - 1) {
+                moved += compactColumn((word << 6) + Long.numberOfTrailingZeros(bits));
             }
         }
         
-        if (linesCleared > 0) {
-            logger.logGameEvent("Total lines cleared: " + linesCleared);
+        for (int row = top; row < height; row++) {
+            if (rowHash[row] != previousRowHash[row]) {
+                hash ^= Zobrist.rowKey(row, previousRowHash[row]) ^ Zobrist.rowKey(row, rowHash[row]);
+            }
+            if (sparse && rowFill[row] == 0) {
+                sparseRows[row] = null;
+            }
+        }
+        while (topRow < height && rowFill[topRow] == 0) {
+            topRow++;
+        }
+        return moved;
+    }
+    
+    /**
+     * Compacte une colonne : chaque bloc descend sur la prochaine case libre
+     * en partant du fond (le hachage global reste à mettre à jour)
+     */
+    private int compactColumn(int col) {
+        int word = col >>> 6;
+        long bit = 1L << col;
+        int top = columnTop[col];
+        int target = height - 1;
+        int moved = 0;
+        for (int row = height - 1; row >= top; row--) {
+            if ((getRowWord(row, word) & bit) == 0) {
+                continue;
+            }
+            if (row != target) {
+                Color color = store(row, col, null);
+                long key = Zobrist.cellKey(col, ColorPalette.indexOf(color));
+                rowFill[row]--;
+                rowHash[row] ^= key;
+                store(target, col, color);
+                rowFill[target]++;
+                rowHash[target] ^= key;
+                for (int i = 0; i < listeners.size(); i++) {
+                    listeners.get(i).blockSet(row, col, null);
+                    listeners.get(i).blockSet(target, col, color);
+                }
+                moved++;
+            }
+            target--;
+        }
+        int newTop = target + 1;
+        sumHeights -= newTop - top;
+        columnTop[col] = newTop;
+        return moved;
+    }
+    
+    /**
+     * Efface toutes les lignes complètes et retourne le nombre de lignes effacées
+     */
+    public int clearCompleteLines() {
+        completeRows.clear();
+        int linesCleared = markCompleteLines(completeRows);
+        removeRows(completeRows);
+        
+        if (linesCleared > 0 && eventBus != null) {
+            eventBus.publish(GameEventType.LINES_CLEARED, 0, linesCleared, 0);
         }
         
         return linesCleared;
@@ -173,12 +650,7 @@ public class GameGrid {
      * Vérifie si le jeu est terminé (blocs en haut)
      */
     public boolean isGameOver() {
-        for (int col = 0; col < width; col++) {
-            if (!isEmpty(0, col)) {
-                return true;
-            }
-        }
-        return false;
+        return topRow == 0;
     }
     
     // Getters
@@ -190,7 +662,127 @@ public class GameGrid {
         return height;
     }
     
-    public Color[][] getGrid() {
-        return grid;
+    /**
+     * Nombre de mots de 64 colonnes d'une ligne
+     */
+    public int getWordCount() {
+        return words;
+    }
+    
+    /**
+     * Masque d'occupation d'un mot d'une ligne : bit c pour la colonne
+     * word * 64 + c (0 pour un mot non alloué d'une grille creuse)
+     */
+    public long getRowWord(int row, int word) {
+        if (sparse) {
+            return sparseRows[row] != null ? sparseRows[row].getWord(word) : 0L;
+        }
+        return rowBits[row][word];
+    }
+    
+    /**
+     * Premier mot d'une ligne d'index au moins égal à word qui porte un
+     * bloc, ou -1 ; en mode creux seuls les mots alloués sont parcourus
+     */
+    public int nextOccupiedWord(int row, int word) {
+        if (sparse) {
+            return sparseRows[row] != null ? sparseRows[row].nextWord(word) : -1;
+        }
+        long[] bits = rowBits[row];
+        for (; word < words; word++) {
+            if (bits[word] != 0) {
+                return word;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Ligne du bloc le plus haut (height si la grille est vide)
+     */
+    public int getHighestRow() {
+        return topRow;
+    }
+    
+    /**
+     * Hauteur de l'empilement, en lignes
+     */
+    public int getStackHeight() {
+        return height - topRow;
+    }
+    
+    /**
+     * Hauteur d'une colonne : distance du fond à son bloc le plus haut
+     */
+    public int getColumnHeight(int col) {
+        return height - columnTop[col];
+    }
+    
+    /**
+     * Nombre de blocs d'une ligne
+     */
+    public int getRowFill(int row) {
+        return rowFill[row];
+    }
+    
+    public int getBlockCount() {
+        return blockCount;
+    }
+    
+    /**
+     * Somme des hauteurs de colonnes
+     */
+    public int getAggregateHeight() {
+        return sumHeights;
+    }
+    
+    /**
+     * Nombre de cases vides situées sous le sommet de leur colonne
+     */
+    public int getHoleCount() {
+        return sumHeights - blockCount;
+    }
+    
+    /**
+     * Hachage de Zobrist de la grille (cases occupées et leur couleur)
+     */
+    public long getHash() {
+        return hash;
+    }
+    
+    public boolean isSparse() {
+        return sparse;
+    }
+    
+    /**
+     * Nombre de lignes effectivement allouées
+     */
+    public int getAllocatedRowCount() {
+        if (!sparse) {
+            return height;
+        }
+        int count = 0;
+        for (int row = 0; row < height; row++) {
+            if (sparseRows[row] != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Nombre de mots de 64 colonnes effectivement alloués (masque et couleurs)
+     */
+    public long getAllocatedWordCount() {
+        if (!sparse) {
+            return (long) height * words;
+        }
+        long count = 0;
+        for (int row = 0; row < height; row++) {
+            if (sparseRows[row] != null) {
+                count += sparseRows[row].getWordCount();
+            }
+        }
+        return count;
     }
 }
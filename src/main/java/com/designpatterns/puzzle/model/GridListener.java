@@ -0,0 +1,26 @@
+package com.designpatterns.puzzle.model;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Observateur des modifications de la grille
+ * Reçoit chaque changement de case et chaque suppression de ligne,
+ * dans l'ordre où GameGrid les applique
+ */
+public interface GridListener {
+    
+    /**
+     * Une case a changé (color == null pour une case vidée)
+     */
+    void blockSet(int row, int col, Color color);
+    
+    /**
+     * Une ligne a été supprimée et les lignes au-dessus ont descendu d'un cran
+     */
+    void rowRemoved(int row);
+    
+    /**
+     * La grille entière a été vidée
+     */
+    void gridCleared();
+}
@@ -0,0 +1,22 @@
+package com.designpatterns.puzzle.model;
+
+import java.util.BitSet;
+
+/**
+ * Effet de power-up appliqué au verrouillage d'une pièce
+ * Un effet ne modifie pas la grille directement : il marque les lignes
+ * à supprimer, toutes compactées ensuite en une seule passe
+ */
+public interface LockEffect {
+    
+    /**
+     * Drapeau d'effet déclencheur (voir PieceAttributes)
+     */
+    int getEffect();
+    
+    /**
+     * Marque les lignes à supprimer pour la pièce qui vient d'être posée
+     * Retourne le nombre de lignes ajoutées à la sélection
+     */
+    int apply(GameGrid grid, ActivePiece piece, BitSet rowsToRemove);
+}
@@ -0,0 +1,149 @@
+package com.designpatterns.puzzle.model;
+
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+
+/**
+ * Ligne d'une grille creuse, découpée en mots de 64 colonnes
+ * Seuls les mots portant au moins un bloc sont alloués (masque et 64
+ * couleurs), rangés par index croissant : la mémoire d'une ligne suit le
+ * nombre de mots occupés et non la largeur de la grille
+ */
+final class SparseRow {
+    
+    private int size;
+    private int[] words = new int[1];
+    private long[] bits = new long[1];
+    private Color[][] cells = new Color[1][];
+    
+    /**
+     * Position d'un mot dans les tableaux, ou -(point d'insertion) - 1
+     */
+    private int find(int word) {
+        return Arrays.binarySearch(words, 0, size, word);
+    }
+    
+    /**
+     * Masque d'un mot (bit c pour la colonne word * 64 + c), 0 s'il n'est pas alloué
+     */
+    long getWord(int word) {
+        int index = find(word);
+        return index >= 0 ? bits[index] : 0L;
+    }
+    
+    /**
+     * Premier mot occupé d'index au moins égal à word, ou -1
+     */
+    int nextWord(int word) {
+        int index = find(word);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index < size ? words[index] : -1;
+    }
+    
+    Color get(int col) {
+        int index = find(col >>> 6);
+        return index >= 0 ? cells[index][col & 63] : null;
+    }
+    
+    /**
+     * Écrit une case et retourne la couleur précédente ; un mot est alloué
+     * à son premier bloc et libéré avec le dernier
+     */
+    Color set(int col, Color color) {
+        int index = find(col >>> 6);
+        if (index < 0) {
+            if (color == null) {
+                return null;
+            }
+            index = insert(-index - 1, col >>> 6);
+        }
+        Color previous = cells[index][col & 63];
+        cells[index][col & 63] = color;
+        if (color != null) {
+            bits[index] |= 1L << col;
+        } else {
+            bits[index] &= ~(1L << col);
+            if (bits[index] == 0) {
+                remove(index);
+            }
+        }
+        return previous;
+    }
+    
+    /**
+     * Copie les couleurs des colonnes [from, from + length) dans out à partir de offset
+     */
+    void copyTo(int from, Color[] out, int offset, int length) {
+        Arrays.fill(out, offset, offset + length, null);
+        int end = from + length;
+        int index = find(from >>> 6);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        for (; index < size && words[index] << 6 < end; index++) {
+            int start = Math.max(from, words[index] << 6);
+            int stop = Math.min(end, (words[index] + 1) << 6);
+            System.arraycopy(cells[index], start & 63, out, offset + start - from, stop - start);
+        }
+    }
+    
+    /**
+     * Recopie le contenu d'une autre ligne en réutilisant les mots déjà alloués
+     */
+    void copyFrom(SparseRow other) {
+        if (other.size > words.length) {
+            grow(other.size);
+        }
+        for (int index = 0; index < other.size; index++) {
+            words[index] = other.words[index];
+            bits[index] = other.bits[index];
+            if (cells[index] == null) {
+                cells[index] = new Color[Long.SIZE];
+            }
+            System.arraycopy(other.cells[index], 0, cells[index], 0, Long.SIZE);
+        }
+        if (other.size < size) {
+            Arrays.fill(cells, other.size, size, null);
+        }
+        size = other.size;
+    }
+    
+    /**
+     * Nombre de mots alloués
+     */
+    int getWordCount() {
+        return size;
+    }
+    
+    private int insert(int index, int word) {
+        if (size == words.length) {
+            grow(size + 1);
+        }
+        System.arraycopy(words, index, words, index + 1, size - index);
+        System.arraycopy(bits, index, bits, index + 1, size - index);
+        System.arraycopy(cells, index, cells, index + 1, size - index);
+        words[index] = word;
+        bits[index] = 0L;
+        cells[index] = new Color[Long.SIZE];
+        size++;
+        return index;
+    }
+    
+    private void remove(int index) {
+        size--;
+        System.arraycopy(words, index + 1, words, index, size - index);
+        System.arraycopy(bits, index + 1, bits, index, size - index);
+        System.arraycopy(cells, index + 1, cells, index, size - index);
+        cells[size] = null;
+    }
+    
+    private void grow(int capacity) {
+        int length = Math.max(capacity, words.length * 2);
+        words = Arrays.copyOf(words, length);
+        bits = Arrays.copyOf(bits, length);
+        cells = Arrays.copyOf(cells, length);
+    }
+}
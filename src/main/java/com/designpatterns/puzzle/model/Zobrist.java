@@ -0,0 +1,78 @@
+package com.designpatterns.puzzle.model;
+
+import com.designpatterns.puzzle.patterns.decorator.PieceAttributes;
+import com.designpatterns.puzzle.patterns.decorator.PuzzlePiece;
+
+/**
+ * Clés de hachage de Zobrist pour l'état du plateau
+ * Les clés sont dérivées à la volée (splitmix64) au lieu d'être tabulées,
+ * ce qui reste valable pour les grilles géantes du bac à sable.
+ * Le hachage d'une ligne combine par XOR les clés de ses cases ; celui de
+ * la grille combine les lignes selon leur position, si bien qu'une
+ * suppression de lignes ne recalcule qu'une clé par ligne déplacée
+ */
+public final class Zobrist {
+    
+    private static final long CELL_SALT = 0x9E3779B97F4A7C15L;
+    private static final long ROW_SALT = 0xC2B2AE3D27D4EB4FL;
+    private static final long PIECE_SALT = 0x165667B19E3779F9L;
+    private static final long PREVIEW_SALT = 0xD6E8FEB86659FD93L;
+    
+    private Zobrist() {
+    }
+    
+    /**
+     * Finaliseur splitmix64
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    /**
+     * Clé d'une case occupée, par colonne et index de palette
+     */
+    public static long cellKey(int col, int colorIndex) {
+        return mix((((long) col << 8) | colorIndex) + CELL_SALT);
+    }
+    
+    /**
+     * Contribution d'une ligne au hachage de la grille (0 pour une ligne vide)
+     */
+    public static long rowKey(int row, long rowHash) {
+        if (rowHash == 0) {
+            return 0;
+        }
+        return mix(rowHash ^ mix(row + ROW_SALT));
+    }
+    
+    /**
+     * Clé de la pièce active : forme orientée, couleur, effets et position
+     */
+    public static long pieceKey(ActivePiece piece) {
+        if (piece == null) {
+            return 0;
+        }
+        PieceAttributes attributes = piece.getPiece().getAttributes();
+        long appearance = piece.getCurrentMask()
+                | ((long) ColorPalette.indexOf(attributes.getColor()) << 16)
+                | ((long) attributes.getEffects() << 24);
+        long position = ((long) piece.getX() << 32) | (piece.getY() & 0xFFFFFFFFL);
+        return mix(mix(appearance + PIECE_SALT) ^ position);
+    }
+    
+    /**
+     * Clé d'une pièce de la file d'aperçu : forme, couleur, effets et rang
+     */
+    public static long previewKey(PuzzlePiece piece, int slot) {
+        if (piece == null) {
+            return 0;
+        }
+        PieceAttributes attributes = piece.getAttributes();
+        long appearance = attributes.getShapeMask()
+                | ((long) ColorPalette.indexOf(attributes.getColor()) << 16)
+                | ((long) attributes.getEffects() << 24);
+        return mix(appearance + PREVIEW_SALT + ((long) slot << 32));
+    }
+}
@@ -0,0 +1,348 @@
+package com.designpatterns.puzzle.network;
+
+import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.model.ActivePiece;
+import com.designpatterns.puzzle.model.ColorPalette;
+import com.designpatterns.puzzle.model.GameGrid;
+import com.designpatterns.puzzle.model.GridListener;
+import javafx.scene.paint.Color;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Flux de changements d'une partie pour les spectateurs
+ * Observe la grille d'un GameContext et émet, à chaque tick, seulement les
+ * différences : cases posées (en plages), lignes supprimées, position et
+ * rotation de la pièce active. Une image clé complète (RLE) est émise
+ * périodiquement. Chaque trame est encodée une seule fois et partagée
+ * par tous les abonnés.
+ */
+public class BoardChangeFeed implements GridListener {
+    
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 120;
+    
+    // Opérations d'une trame MSG_BOARD_DELTA
+    static final byte OP_END = 0;
+    static final byte OP_CELLS = 1;
+    static final byte OP_REMOVE_ROW = 2;
+    static final byte OP_PIECE = 3;
+    
+    // Écritures de cases en attente : ligne << 40 | colonne << 16 | ordre d'écriture
+    private static final int ORDER_BITS = 16;
+    private static final int MAX_PENDING_CELLS = 1 << ORDER_BITS;
+    
+    private final GameContext context;
+    private final GameGrid grid;
+    private final int keyframeInterval;
+    private final List<BoardFeedSubscriber> subscribers = new ArrayList<>();
+    
+    // Opérations en attente depuis la dernière trame
+    private ByteBuffer ops = ByteBuffer.allocate(1024);
+    private long[] pendingCells = new long[64];
+    private byte[] pendingColors = new byte[64];
+    private int pendingCellCount;
+    private boolean keyframeRequested = true;
+    private ActivePiece lastPiece;
+    private int lastPieceX;
+    private int lastPieceY;
+    private int lastPieceRotation;
+    
+    private int sequence;
+    private int framesSinceKeyframe;
+    private ByteBuffer payload = ByteBuffer.allocate(1024);
+    
+    // Dernière image clé et différences suivantes, rejouées aux nouveaux abonnés
+    private ByteBuffer lastKeyframe;
+    private final List<ByteBuffer> deltasSinceKeyframe = new ArrayList<>();
+    
+    public BoardChangeFeed(GameContext context) {
+        this(context, DEFAULT_KEYFRAME_INTERVAL);
+    }
+    
+    public BoardChangeFeed(GameContext context, int keyframeInterval) {
+        this.context = context;
+        this.grid = context.getGrid();
+        this.keyframeInterval = keyframeInterval;
+        grid.addListener(this);
+    }
+    
+    /**
+     * Abonne un spectateur ; il reçoit immédiatement la dernière image clé
+     * et les différences émises depuis
+     */
+    public void subscribe(BoardFeedSubscriber subscriber) {
+        subscribers.add(subscriber);
+        if (lastKeyframe != null) {
+            subscriber.onFrame(lastKeyframe.asReadOnlyBuffer(), true);
+            for (ByteBuffer delta : deltasSinceKeyframe) {
+                subscriber.onFrame(delta.asReadOnlyBuffer(), false);
+            }
+        }
+    }
+    
+    public void unsubscribe(BoardFeedSubscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+    
+    /**
+     * Détache le flux de la grille observée
+     */
+    public void close() {
+        grid.removeListener(this);
+        subscribers.clear();
+    }
+    
+    /**
+     * Émet la trame du tick courant (à appeler après GameContext.update)
+     */
+    public void publishTick() {
+        ByteBuffer frame;
+        boolean keyframe = keyframeRequested || framesSinceKeyframe >= keyframeInterval;
+        if (keyframe) {
+            frame = encodeKeyframe();
+            keyframeRequested = false;
+            framesSinceKeyframe = 0;
+            pendingCellCount = 0;
+            ops.clear();
+            lastKeyframe = frame;
+            deltasSinceKeyframe.clear();
+        } else {
+            appendPieceIfChanged();
+            flushPendingCells();
+            if (ops.position() == 0) {
+                return;
+            }
+            frame = encodeDelta();
+            framesSinceKeyframe++;
+            deltasSinceKeyframe.add(frame);
+        }
+        
+        for (int i = 0; i < subscribers.size(); i++) {
+            subscribers.get(i).onFrame(frame.asReadOnlyBuffer(), keyframe);
+        }
+    }
+    
+    @Override
+    public void blockSet(int row, int col, Color color) {
+        if (pendingCellCount == MAX_PENDING_CELLS) {
+            flushPendingCells();
+        }
+        if (pendingCellCount == pendingCells.length) {
+            pendingCells = Arrays.copyOf(pendingCells, pendingCells.length * 2);
+            pendingColors = Arrays.copyOf(pendingColors, pendingColors.length * 2);
+        }
+        pendingColors[pendingCellCount] = (byte) ColorPalette.indexOf(color);
+        pendingCells[pendingCellCount] = ((long) row << 40) | ((long) col << ORDER_BITS) | pendingCellCount;
+        pendingCellCount++;
+    }
+    
+    @Override
+    public void rowRemoved(int row) {
+        // Les cases posées doivent précéder la suppression dans le flux
+        flushPendingCells();
+        ensureOpsCapacity(8);
+        ops.put(OP_REMOVE_ROW);
+        Protocol.putVarInt(ops, row);
+    }
+    
+    @Override
+    public void gridCleared() {
+        keyframeRequested = true;
+    }
+    
+    /**
+     * Convertit les cases en attente en plages (ligne, colonne, longueur, couleur)
+     * Une case écrite plusieurs fois depuis la trame précédente ne garde que
+     * sa dernière couleur : le tri par position conserve l'ordre d'écriture
+     */
+    private void flushPendingCells() {
+        if (pendingCellCount == 0) {
+            return;
+        }
+        Arrays.sort(pendingCells, 0, pendingCellCount);
+        int count = 0;
+        for (int i = 0; i < pendingCellCount; i++) {
+            long position = pendingCells[i] >>> ORDER_BITS;
+            if (i + 1 < pendingCellCount && pendingCells[i + 1] >>> ORDER_BITS == position) {
+                continue;
+            }
+            int order = (int) (pendingCells[i] & (MAX_PENDING_CELLS - 1));
+            long row = position >>> (40 - ORDER_BITS);
+            long col = position & ((1L << (40 - ORDER_BITS)) - 1);
+            // Case retenue : ligne << 40 | colonne << 8 | couleur
+            pendingCells[count++] = (row << 40) | (col << 8) | (pendingColors[order] & 0xFF);
+        }
+        pendingCellCount = count;
+        
+        int runCount = 0;
+        for (int i = 0; i < pendingCellCount; i++) {
+            if (i == 0 || !extendsRun(pendingCells[i - 1], pendingCells[i])) {
+                runCount++;
+            }
+        }
+        ensureOpsCapacity(8 + runCount * 16);
+        ops.put(OP_CELLS);
+        Protocol.putVarInt(ops, runCount);
+        int start = 0;
+        for (int i = 1; i <= pendingCellCount; i++) {
+            if (i == pendingCellCount || !extendsRun(pendingCells[i - 1], pendingCells[i])) {
+                long first = pendingCells[start];
+                Protocol.putVarInt(ops, (int) (first >>> 40));
+                Protocol.putVarInt(ops, (int) ((first >>> 8) & 0xFFFFFFFFL));
+                Protocol.putVarInt(ops, i - start);
+                ops.put((byte) first);
+                start = i;
+            }
+        }
+        pendingCellCount = 0;
+    }
+    
+    private static boolean extendsRun(long previous, long current) {
+        return (previous >>> 40) == (current >>> 40)
+                && ((previous >>> 8) & 0xFFFFFFFFL) + 1 == ((current >>> 8) & 0xFFFFFFFFL)
+                && (previous & 0xFF) == (current & 0xFF);
+    }
+    
+    private void appendPieceIfChanged() {
+        ActivePiece piece = context.getCurrentPiece();
+        if (!rememberPiece(piece)) {
+            return;
+        }
+        ensureOpsCapacity(16);
+        ops.put(OP_PIECE);
+        writePiece(ops, piece);
+    }
+    
+    private static void writePiece(ByteBuffer out, ActivePiece piece) {
+        if (piece == null) {
+            Protocol.putVarInt(out, 0);
+            return;
+        }
+        Protocol.putVarInt(out, piece.getCurrentMask());
+        out.put((byte) ColorPalette.indexOf(piece.getPiece().getAttributes().getColor()));
+        out.put((byte) piece.getRotation());
+        Protocol.putSignedVarInt(out, piece.getX());
+        Protocol.putSignedVarInt(out, piece.getY());
+    }
+    
+    /**
+     * Mémorise la pièce active ; retourne true si elle a changé depuis la trame précédente
+     */
+    private boolean rememberPiece(ActivePiece piece) {
+        boolean changed = piece != lastPiece
+                || (piece != null && (piece.getX() != lastPieceX
+                                      || piece.getY() != lastPieceY
+                                      || piece.getRotation() != lastPieceRotation));
+        lastPiece = piece;
+        if (piece != null) {
+            lastPieceX = piece.getX();
+            lastPieceY = piece.getY();
+            lastPieceRotation = piece.getRotation();
+        }
+        return changed;
+    }
+    
+    private ByteBuffer encodeDelta() {
+        ensureOpsCapacity(1);
+        ops.put(OP_END);
+        ops.flip();
+        payload = ensureCapacity(payload, ops.remaining() + 8);
+        payload.clear();
+        Protocol.putVarInt(payload, sequence++);
+        payload.put(ops);
+        ops.clear();
+        return seal(Protocol.MSG_BOARD_DELTA);
+    }
+    
+    /**
+     * Image clé : dimensions puis toute la grille en plages (longueur, couleur)
+     * parcourue ligne par ligne, suivie de la pièce active
+     */
+    private ByteBuffer encodeKeyframe() {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        payload.clear();
+        payload = ensureCapacity(payload, 32);
+        Protocol.putVarInt(payload, sequence++);
+        Protocol.putVarInt(payload, width);
+        Protocol.putVarInt(payload, height);
+        
+        // Lignes vides ajoutées d'un bloc ; le tampon grandit avec les plages,
+        // sa taille suit le contenu et non la surface de la grille
+        int runColor = ColorPalette.EMPTY;
+        long runLength = 0;
+        for (int row = 0; row < height; row++) {
+            if (grid.isRowEmpty(row)) {
+                if (runColor != ColorPalette.EMPTY) {
+                    putRun(runLength, runColor);
+                    runColor = ColorPalette.EMPTY;
+                    runLength = 0;
+                }
+                runLength += width;
+                continue;
+            }
+            for (int col = 0; col < width; col++) {
+                int color = ColorPalette.indexOf(grid.getBlock(row, col));
+                if (color == runColor) {
+                    runLength++;
+                } else {
+                    if (runLength > 0) {
+                        putRun(runLength, runColor);
+                    }
+                    runColor = color;
+                    runLength = 1;
+                }
+            }
+        }
+        putRun(runLength, runColor);
+        
+        payload = ensureCapacity(payload, payload.position() + 16);
+        ActivePiece piece = context.getCurrentPiece();
+        rememberPiece(piece);
+        writePiece(payload, piece);
+        return seal(Protocol.MSG_KEYFRAME);
+    }
+    
+    /**
+     * Écrit une plage de l'image clé, découpée si elle dépasse un varint
+     */
+    private void putRun(long length, int color) {
+        for (long remaining = length; remaining > 0; remaining -= Integer.MAX_VALUE) {
+            payload = ensureCapacity(payload, payload.position() + 6);
+            Protocol.putVarInt(payload, (int) Math.min(remaining, Integer.MAX_VALUE));
+            payload.put((byte) color);
+        }
+    }
+    
+    /**
+     * Encadre le contenu en trame protocolaire immuable, prête à être écrite
+     */
+    private ByteBuffer seal(byte type) {
+        payload.flip();
+        ByteBuffer frame = ByteBuffer.allocate(payload.remaining() + 6);
+        Protocol.putFrame(frame, type, payload);
+        frame.flip();
+        return frame.asReadOnlyBuffer();
+    }
+    
+    private void ensureOpsCapacity(int extra) {
+        ops = ensureCapacity(ops, ops.position() + extra);
+    }
+    
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int required) {
+        if (buffer.capacity() >= required) {
+            return buffer;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(required, buffer.capacity() * 2));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+}
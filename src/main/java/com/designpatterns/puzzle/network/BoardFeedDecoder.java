@@ -0,0 +1,168 @@
+package com.designpatterns.puzzle.network;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Reconstruit une grille à partir des trames d'un BoardChangeFeed
+ * Les différences reçues avant la première image clé, ou après une
+ * trame manquante, sont ignorées jusqu'à l'image clé suivante.
+ */
+public class BoardFeedDecoder implements BoardFeedSubscriber {
+    
+    private int width;
+    private int height;
+    private byte[][] cells = new byte[0][0];
+    private int expectedSequence = -1;
+    private boolean synced;
+    
+    private int pieceMask;
+    private int pieceColor;
+    private int pieceRotation;
+    private int pieceX;
+    private int pieceY;
+    
+    @Override
+    public synchronized void onFrame(ByteBuffer frame, boolean keyframe) {
+        apply(frame);
+    }
+    
+    /**
+     * Applique une trame complète (type, longueur, contenu)
+     */
+    public synchronized void apply(ByteBuffer frame) {
+        ByteBuffer in = frame.duplicate();
+        byte type = in.get();
+        Protocol.getVarInt(in);
+        apply(type, in);
+    }
+    
+    /**
+     * Applique le contenu d'une trame dont l'en-tête a déjà été lu
+     */
+    public synchronized void apply(byte type, ByteBuffer in) {
+        int sequence = Protocol.getVarInt(in);
+        if (type == Protocol.MSG_KEYFRAME) {
+            applyKeyframe(in);
+            synced = true;
+        } else if (type == Protocol.MSG_BOARD_DELTA) {
+            if (!synced || sequence != expectedSequence) {
+                synced = false;
+                return;
+            }
+            applyDelta(in);
+        } else {
+            return;
+        }
+        expectedSequence = sequence + 1;
+    }
+    
+    private void applyKeyframe(ByteBuffer in) {
+        int newWidth = Protocol.getVarInt(in);
+        int newHeight = Protocol.getVarInt(in);
+        if (newWidth != width || newHeight != height) {
+            width = newWidth;
+            height = newHeight;
+            cells = new byte[height][width];
+        }
+        int cell = 0;
+        int total = width * height;
+        while (cell < total) {
+            int length = Protocol.getVarInt(in);
+            byte color = in.get();
+            for (int end = cell + length; cell < end; cell++) {
+                cells[cell / width][cell % width] = color;
+            }
+        }
+        readPiece(in);
+    }
+    
+    private void applyDelta(ByteBuffer in) {
+        byte op;
+        while ((op = in.get()) != BoardChangeFeed.OP_END) {
+            switch (op) {
+                case BoardChangeFeed.OP_CELLS:
+                    int runCount = Protocol.getVarInt(in);
+                    for (int i = 0; i < runCount; i++) {
+                        byte[] row = cells[Protocol.getVarInt(in)];
+                        int col = Protocol.getVarInt(in);
+                        int length = Protocol.getVarInt(in);
+                        byte color = in.get();
+                        for (int end = col + length; col < end; col++) {
+                            row[col] = color;
+                        }
+                    }
+                    break;
+                case BoardChangeFeed.OP_REMOVE_ROW:
+                    removeRow(Protocol.getVarInt(in));
+                    break;
+                case BoardChangeFeed.OP_PIECE:
+                    readPiece(in);
+                    break;
+                default:
+                    // Opération inconnue : resynchronisation sur la prochaine image clé
+                    synced = false;
+                    return;
+            }
+        }
+    }
+    
+    /**
+     * Même sémantique que GameGrid.clearLine : les lignes au-dessus descendent
+     */
+    private void removeRow(int row) {
+        byte[] removed = cells[row];
+        System.arraycopy(cells, 0, cells, 1, row);
+        Arrays.fill(removed, (byte) 0);
+        cells[0] = removed;
+    }
+    
+    private void readPiece(ByteBuffer in) {
+        pieceMask = Protocol.getVarInt(in);
+        if (pieceMask != 0) {
+            pieceColor = in.get() & 0xFF;
+            pieceRotation = in.get() & 0xFF;
+            pieceX = Protocol.getSignedVarInt(in);
+            pieceY = Protocol.getSignedVarInt(in);
+        }
+    }
+    
+    /**
+     * Index de palette d'une case (0 si vide)
+     */
+    public synchronized int getCell(int row, int col) {
+        return cells[row][col] & 0xFF;
+    }
+    
+    public synchronized int getWidth() {
+        return width;
+    }
+    
+    public synchronized int getHeight() {
+        return height;
+    }
+    
+    public synchronized boolean isSynced() {
+        return synced;
+    }
+    
+    public synchronized int getPieceMask() {
+        return pieceMask;
+    }
+    
+    public synchronized int getPieceColor() {
+        return pieceColor;
+    }
+    
+    public synchronized int getPieceRotation() {
+        return pieceRotation;
+    }
+    
+    public synchronized int getPieceX() {
+        return pieceX;
+    }
+    
+    public synchronized int getPieceY() {
+        return pieceY;
+    }
+}
@@ -0,0 +1,17 @@
+package com.designpatterns.puzzle.network;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Abonné au flux de changements d'une grille (spectateur)
+ */
+public interface BoardFeedSubscriber {
+    
+    /**
+     * Reçoit une trame encodée (MSG_KEYFRAME ou MSG_BOARD_DELTA)
+     * Le tampon est une vue en lecture seule d'un encodage partagé
+     * entre tous les abonnés : il ne doit pas être conservé après l'appel
+     * sans en copier le contenu.
+     */
+    void onFrame(ByteBuffer frame, boolean keyframe);
+}
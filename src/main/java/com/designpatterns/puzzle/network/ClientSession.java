@@ -0,0 +1,396 @@
+package com.designpatterns.puzzle.network;
+
+import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.model.ActivePiece;
+import com.designpatterns.puzzle.model.ColorPalette;
+import com.designpatterns.puzzle.model.GameGrid;
+import com.designpatterns.puzzle.model.GridListener;
+import com.designpatterns.puzzle.patterns.decorator.PieceAttributes;
+import com.designpatterns.puzzle.patterns.decorator.PuzzlePiece;
+import com.designpatterns.puzzle.patterns.state.MenuState;
+import javafx.scene.paint.Color;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+
+/**
+ * Session d'un client connecté au serveur
+ * Associe une connexion TCP à son propre GameContext et mémorise
+ * le dernier état envoyé pour ne transmettre que les différences
+ * Observe sa grille pour ne relire, à chaque tick, que les lignes
+ * modifiées depuis le dernier envoi
+ * Une session spectatrice ne joue pas : elle relaie le flux de grille
+ * (BoardChangeFeed) de la session qu'elle regarde
+ */
+class ClientSession implements GridListener, BoardFeedSubscriber {
+    
+    private static final int OUTBOUND_CAPACITY = 16 * 1024;
+    
+    private final SocketChannel channel;
+    private final GameContext context;
+    private final ByteBuffer outbound = ByteBuffer.allocate(OUTBOUND_CAPACITY);
+    private SelectionKey key;
+    private boolean closed;
+    // Flux de la grille, créé au premier spectateur
+    private BoardChangeFeed feed;
+    // Session regardée (null pour un joueur)
+    private ClientSession watched;
+    
+    // Dernier état envoyé au client
+    private final byte[][] sentRows;
+    private final byte[][] currentRows;
+    private final boolean[] changedRows;
+    // Lignes modifiées depuis le dernier envoi validé
+    private final boolean[] dirtyRows;
+    private int sentState = -1;
+    private int sentScore = -1;
+    private int sentLevel = -1;
+    private int sentLines = -1;
+    private long sentPieceKey = -1;
+    private long sentNextKey = -1;
+    
+    // État en cours d'envoi (validé par commit)
+    private int pendingState;
+    private int pendingScore;
+    private int pendingLevel;
+    private int pendingLines;
+    private long pendingPieceKey;
+    private long pendingNextKey;
+    
+    ClientSession(SocketChannel channel) {
+        this.channel = channel;
+        this.context = new GameContext(new MenuState());
+        GameGrid grid = context.getGrid();
+        this.sentRows = new byte[grid.getHeight()][grid.getWidth()];
+        this.currentRows = new byte[grid.getHeight()][grid.getWidth()];
+        this.changedRows = new boolean[grid.getHeight()];
+        this.dirtyRows = new boolean[grid.getHeight()];
+        grid.addListener(this);
+        
+        ByteBuffer hello = ByteBuffer.allocate(16);
+        Protocol.putVarInt(hello, grid.getWidth());
+        Protocol.putVarInt(hello, grid.getHeight());
+        hello.flip();
+        Protocol.putFrame(outbound, Protocol.MSG_HELLO, hello);
+    }
+    
+    /**
+     * Encode dans frame la trame de différences depuis le dernier envoi
+     * (payload sert de tampon intermédiaire)
+     * Retourne false s'il n'y a rien à envoyer
+     */
+    boolean encodeDelta(ByteBuffer frame, ByteBuffer payload) {
+        frame.clear();
+        int flags = 0;
+        
+        pendingState = Protocol.stateCode(context.getCurrentStateName());
+        if (pendingState != sentState) {
+            flags |= Protocol.FLAG_STATE;
+        }
+        
+        pendingScore = context.getScore();
+        pendingLevel = context.getLevel();
+        pendingLines = context.getLinesCleared();
+        if (pendingScore != sentScore || pendingLevel != sentLevel || pendingLines != sentLines) {
+            flags |= Protocol.FLAG_HUD;
+        }
+        
+        ActivePiece piece = context.getCurrentPiece();
+        pendingPieceKey = pieceKey(piece);
+        if (pendingPieceKey != sentPieceKey) {
+            flags |= Protocol.FLAG_PIECE;
+        }
+        
+        pendingNextKey = nextKey(context.getNextPiece());
+        if (pendingNextKey != sentNextKey) {
+            flags |= Protocol.FLAG_NEXT;
+        }
+        
+        int changedCount = snapshotRows();
+        if (changedCount > 0) {
+            flags |= Protocol.FLAG_ROWS;
+        }
+        
+        if (flags == 0) {
+            return false;
+        }
+        
+        payload.clear();
+        payload.put((byte) flags);
+        if ((flags & Protocol.FLAG_STATE) != 0) {
+            payload.put((byte) pendingState);
+        }
+        if ((flags & Protocol.FLAG_HUD) != 0) {
+            Protocol.putVarInt(payload, pendingScore);
+            Protocol.putVarInt(payload, pendingLevel);
+            Protocol.putVarInt(payload, pendingLines);
+        }
+        if ((flags & Protocol.FLAG_PIECE) != 0) {
+            int mask = (int) (pendingPieceKey & 0xFFFF);
+            Protocol.putVarInt(payload, mask);
+            if (mask != 0) {
+                payload.put((byte) (pendingPieceKey >>> 32));
+                Protocol.putSignedVarInt(payload, piece.getX());
+                Protocol.putSignedVarInt(payload, piece.getY());
+            }
+        }
+        if ((flags & Protocol.FLAG_NEXT) != 0) {
+            Protocol.putVarInt(payload, (int) (pendingNextKey & 0xFFFF));
+            payload.put((byte) (pendingNextKey >>> 16));
+        }
+        if ((flags & Protocol.FLAG_ROWS) != 0) {
+            Protocol.putVarInt(payload, changedCount);
+            for (int row = 0; row < changedRows.length; row++) {
+                if (changedRows[row]) {
+                    Protocol.putVarInt(payload, row);
+                    encodeRowRuns(payload, currentRows[row]);
+                }
+            }
+        }
+        payload.flip();
+        Protocol.putFrame(frame, Protocol.MSG_DELTA, payload);
+        return true;
+    }
+    
+    /**
+     * Valide l'envoi de la dernière trame encodée
+     */
+    void commit() {
+        sentState = pendingState;
+        sentScore = pendingScore;
+        sentLevel = pendingLevel;
+        sentLines = pendingLines;
+        sentPieceKey = pendingPieceKey;
+        sentNextKey = pendingNextKey;
+        for (int row = 0; row < changedRows.length; row++) {
+            if (changedRows[row]) {
+                System.arraycopy(currentRows[row], 0, sentRows[row], 0, currentRows[row].length);
+                dirtyRows[row] = false;
+            }
+        }
+    }
+    
+    @Override
+    public void blockSet(int row, int col, Color color) {
+        dirtyRows[row] = true;
+    }
+    
+    @Override
+    public void rowRemoved(int row) {
+        // Les lignes au-dessus ont toutes descendu
+        Arrays.fill(dirtyRows, 0, row + 1, true);
+    }
+    
+    @Override
+    public void gridCleared() {
+        Arrays.fill(dirtyRows, true);
+    }
+    
+    /**
+     * Copie en indices de palette les lignes modifiées depuis le dernier
+     * envoi (cases lues d'après le masque de la ligne) et marque celles qui
+     * diffèrent de ce qui a été envoyé
+     */
+    private int snapshotRows() {
+        GameGrid grid = context.getGrid();
+        int changed = 0;
+        for (int row = 0; row < dirtyRows.length; row++) {
+            changedRows[row] = false;
+            if (!dirtyRows[row]) {
+                continue;
+            }
+            byte[] current = currentRows[row];
+            Arrays.fill(current, (byte) ColorPalette.EMPTY);
+            for (int word = grid.nextOccupiedWord(row, 0); word >= 0; word = grid.nextOccupiedWord(row, word + 1)) {
+                for (long found = grid.getRowWord(row, word); found != 0; found &= found - 1) {
+                    int col = (word << 6) + Long.numberOfTrailingZeros(found);
+                    current[col] = (byte) ColorPalette.indexOf(grid.getBlock(row, col));
+                }
+            }
+            if (Arrays.equals(current, sentRows[row])) {
+                dirtyRows[row] = false;
+            } else {
+                changedRows[row] = true;
+                changed++;
+            }
+        }
+        return changed;
+    }
+    
+    /**
+     * Encode une ligne en plages (longueur, couleur)
+     */
+    private static void encodeRowRuns(ByteBuffer buffer, byte[] row) {
+        int runCount = 0;
+        for (int col = 0; col < row.length; col++) {
+            if (col == 0 || row[col] != row[col - 1]) {
+                runCount++;
+            }
+        }
+        Protocol.putVarInt(buffer, runCount);
+        int start = 0;
+        for (int col = 1; col <= row.length; col++) {
+            if (col == row.length || row[col] != row[start]) {
+                Protocol.putVarInt(buffer, col - start);
+                buffer.put(row[start]);
+                start = col;
+            }
+        }
+    }
+    
+    private static long pieceKey(ActivePiece piece) {
+        if (piece == null) {
+            return 0;
+        }
+        long mask = piece.getCurrentMask();
+        long color = ColorPalette.indexOf(piece.getPiece().getAttributes().getColor());
+        return mask | ((piece.getX() & 0xFFL) << 16) | ((piece.getY() & 0xFFL) << 24) | (color << 32);
+    }
+    
+    private static long nextKey(PuzzlePiece piece) {
+        if (piece == null) {
+            return 0;
+        }
+        PieceAttributes attributes = piece.getAttributes();
+        return attributes.getShapeMask() | ((long) ColorPalette.indexOf(attributes.getColor()) << 16);
+    }
+    
+    /**
+     * Envoie autant que possible du tampon sortant
+     */
+    void flush() throws IOException {
+        outbound.flip();
+        channel.write(outbound);
+        outbound.compact();
+        if (key != null && key.isValid()) {
+            int ops = outbound.position() > 0
+                    ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                    : SelectionKey.OP_READ;
+            if (key.interestOps() != ops) {
+                key.interestOps(ops);
+            }
+        }
+    }
+    
+    void close() {
+        closed = true;
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Connexion déjà fermée
+        }
+    }
+    
+    /**
+     * Devient spectateur d'une autre session
+     */
+    void watch(ClientSession player) {
+        watched = player;
+        player.getFeed().subscribe(this);
+    }
+    
+    /**
+     * Cesse de regarder la session suivie (désabonné de son flux s'il existe encore)
+     */
+    void unwatch() {
+        if (watched != null && watched.feed != null) {
+            watched.feed.unsubscribe(this);
+        }
+        watched = null;
+    }
+    
+    /**
+     * Oublie l'état envoyé : la prochaine différence transporte tout l'état
+     * de la session (état, HUD, pièces et toutes les lignes)
+     */
+    void resend() {
+        sentState = -1;
+        sentScore = -1;
+        sentLevel = -1;
+        sentLines = -1;
+        sentPieceKey = -1;
+        sentNextKey = -1;
+        for (byte[] row : sentRows) {
+            Arrays.fill(row, (byte) -1);
+        }
+        Arrays.fill(dirtyRows, true);
+    }
+    
+    /**
+     * Trame du flux regardé : copiée si le tampon sortant a la place,
+     * sinon perdue (le client se resynchronise sur l'image clé suivante)
+     */
+    @Override
+    public void onFrame(ByteBuffer frame, boolean keyframe) {
+        if (!closed && outbound.remaining() >= frame.remaining()) {
+            outbound.put(frame);
+        }
+    }
+    
+    /**
+     * Flux de la grille de cette session, créé à la demande
+     */
+    BoardChangeFeed getFeed() {
+        if (feed == null) {
+            feed = new BoardChangeFeed(context);
+        }
+        return feed;
+    }
+    
+    /**
+     * Émet la trame du tick aux spectateurs, une fois le flux créé
+     */
+    void publishFeed() {
+        if (feed != null) {
+            feed.publishTick();
+        }
+    }
+    
+    /**
+     * Détache la session de ses spectateurs ou de la partie regardée
+     */
+    void detach() {
+        if (feed != null) {
+            feed.close();
+            feed = null;
+        }
+        unwatch();
+    }
+    
+    boolean isSpectator() {
+        return watched != null;
+    }
+    
+    /**
+     * Session regardée (null pour un joueur)
+     */
+    ClientSession getWatched() {
+        return watched;
+    }
+    
+    ByteBuffer getOutbound() {
+        return outbound;
+    }
+    
+    SocketChannel getChannel() {
+        return channel;
+    }
+    
+    GameContext getContext() {
+        return context;
+    }
+    
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+    
+    boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,165 @@
+package com.designpatterns.puzzle.network;
+
+import com.designpatterns.puzzle.core.InputCommand;
+import com.designpatterns.puzzle.utils.GameLogger;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Client léger du serveur de jeu
+ * Envoie les commandes sur un octet et reconstruit l'état à partir
+ * des trames reçues sur un thread de lecture dédié
+ */
+public class GameClient implements Runnable {
+    
+    private static final GameLogger logger = GameLogger.getInstance();
+    
+    private final SocketChannel channel;
+    private final RemoteGameState state = new RemoteGameState();
+    private final BoardFeedDecoder boardFeed = new BoardFeedDecoder();
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(64 * 1024);
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(1);
+    private volatile boolean running;
+    private Thread thread;
+    
+    public GameClient(String host, int port) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.socket().setTcpNoDelay(true);
+    }
+    
+    /**
+     * Démarre le thread de réception
+     */
+    public synchronized void start() {
+        if (thread == null) {
+            running = true;
+            thread = new Thread(this, "game-client");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+    
+    /**
+     * Envoie une commande au serveur
+     */
+    public synchronized void send(InputCommand command) {
+        sendCode(command.getCode());
+    }
+    
+    private void sendCode(byte code) {
+        sendBuffer.clear();
+        sendBuffer.put(code);
+        sendBuffer.flip();
+        try {
+            while (sendBuffer.hasRemaining()) {
+                channel.write(sendBuffer);
+            }
+        } catch (IOException e) {
+            logger.logError("Failed to send command " + code, e);
+            close();
+        }
+    }
+    
+    /**
+     * Demande à regarder la partie d'un autre client (mode spectateur)
+     */
+    public synchronized void watch() {
+        sendCode(Protocol.CMD_WATCH);
+    }
+    
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                byte type = readByte();
+                int length = readVarInt();
+                ByteBuffer payload = readFully(length);
+                switch (type) {
+                    case Protocol.MSG_HELLO:
+                        state.applyHello(payload);
+                        break;
+                    case Protocol.MSG_DELTA:
+                        state.applyDelta(payload);
+                        break;
+                    case Protocol.MSG_KEYFRAME:
+                    case Protocol.MSG_BOARD_DELTA:
+                        boardFeed.apply(type, payload);
+                        state.applyBoard(boardFeed);
+                        break;
+                    default:
+                        // Type inconnu : le contenu est ignoré
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                logger.logWarning("Connection to game server lost: " + e.getMessage());
+            }
+        } finally {
+            state.setConnected(false);
+            close();
+        }
+    }
+    
+    private byte readByte() throws IOException {
+        return readFully(1).get();
+    }
+    
+    private int readVarInt() throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+    
+    /**
+     * Lit exactement length octets (le tampon retourné est réutilisé)
+     */
+    private ByteBuffer readFully(int length) throws IOException {
+        readBuffer.clear();
+        readBuffer.limit(length);
+        while (readBuffer.hasRemaining()) {
+            if (channel.read(readBuffer) < 0) {
+                throw new EOFException("Server closed the connection");
+            }
+        }
+        readBuffer.flip();
+        return readBuffer;
+    }
+    
+    /**
+     * Ferme la connexion
+     */
+    public void close() {
+        running = false;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Déjà fermée
+        }
+    }
+    
+    /**
+     * Grille reconstruite à partir du flux spectateur
+     */
+    public BoardFeedDecoder getBoardFeed() {
+        return boardFeed;
+    }
+    
+    public RemoteGameState getState() {
+        return state;
+    }
+    
+    public boolean isConnected() {
+        return channel.isConnected() && state.isConnected();
+    }
+}
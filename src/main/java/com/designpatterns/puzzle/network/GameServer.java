@@ -0,0 +1,306 @@
+package com.designpatterns.puzzle.network;
+
+import com.designpatterns.puzzle.core.InputCommand;
+import com.designpatterns.puzzle.utils.GameLogger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Serveur de jeu headless non bloquant
+ * Un seul thread (boucle d'événements sur un Selector) accepte les clients,
+ * décode leurs commandes binaires, fait avancer chaque session et
+ * renvoie les différences d'état à chaque tick. Un client peut aussi
+ * regarder la partie d'un autre (Protocol.CMD_WATCH) : il reçoit alors
+ * le flux de grille de cette partie, encodé une fois pour tous
+ */
+public class GameServer implements Runnable {
+    
+    private static final GameLogger logger = GameLogger.getInstance();
+    private static final double TICK_SECONDS = 1.0 / 60;
+    private static final long TICK_NANOS = (long) (TICK_SECONDS * 1_000_000_000L);
+    private static final int FRAME_CAPACITY = 16 * 1024;
+    
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final List<ClientSession> sessions = new ArrayList<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(4096);
+    private final ByteBuffer frameBuffer = ByteBuffer.allocate(FRAME_CAPACITY);
+    private final ByteBuffer payloadBuffer = ByteBuffer.allocate(FRAME_CAPACITY);
+    
+    private volatile boolean running;
+    private Thread thread;
+    
+    public GameServer(int port) throws IOException {
+        this(new InetSocketAddress(port));
+    }
+    
+    public GameServer(InetSocketAddress address) throws IOException {
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(address);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+    
+    /**
+     * Démarre la boucle d'événements sur son propre thread
+     */
+    public synchronized void start() {
+        if (thread == null) {
+            running = true;
+            thread = new Thread(this, "game-server");
+            thread.start();
+        }
+    }
+    
+    /**
+     * Arrête le serveur et ferme toutes les connexions
+     */
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        awaitTermination();
+    }
+    
+    /**
+     * Attend la fin de la boucle d'événements
+     */
+    public void awaitTermination() {
+        Thread current = thread;
+        if (current != null && current != Thread.currentThread()) {
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    @Override
+    public void run() {
+        logger.logInfo("Game server started on port " + getPort());
+        long nextTick = System.nanoTime() + TICK_NANOS;
+        
+        try {
+            while (running) {
+                long waitMillis = (nextTick - System.nanoTime()) / 1_000_000;
+                if (waitMillis > 0) {
+                    selector.select(waitMillis);
+                } else {
+                    selector.selectNow();
+                }
+                processSelectedKeys();
+                
+                long now = System.nanoTime();
+                if (now >= nextTick) {
+                    tick();
+                    nextTick += TICK_NANOS;
+                    // Rattrapage impossible : repart du temps courant
+                    if (now - nextTick > TICK_NANOS * 10) {
+                        nextTick = now + TICK_NANOS;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.logError("Game server failure", e);
+        } finally {
+            shutdown();
+        }
+    }
+    
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            SelectionKey key = iterator.next();
+            iterator.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            ClientSession session = (ClientSession) key.attachment();
+            try {
+                if (key.isReadable()) {
+                    read(session);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    session.flush();
+                }
+            } catch (IOException e) {
+                session.close();
+            }
+        }
+    }
+    
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                ClientSession session = new ClientSession(channel);
+                session.setKey(channel.register(selector, SelectionKey.OP_READ, session));
+                sessions.add(session);
+                session.flush();
+            }
+        } catch (IOException e) {
+            logger.logError("Failed to accept client", e);
+        }
+    }
+    
+    /**
+     * Décode les commandes (un octet chacune) et les applique à la session
+     */
+    private void read(ClientSession session) throws IOException {
+        readBuffer.clear();
+        int read = session.getChannel().read(readBuffer);
+        if (read < 0) {
+            session.close();
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.hasRemaining()) {
+            byte code = readBuffer.get();
+            if (code == Protocol.CMD_WATCH) {
+                watch(session);
+                continue;
+            }
+            if (session.isSpectator()) {
+                continue;
+            }
+            InputCommand command = InputCommand.fromCode(code);
+            if (command == null) {
+                continue;
+            }
+            if (command == InputCommand.QUIT) {
+                // Ne quitte jamais le processus serveur : ferme seulement la session
+                session.close();
+                return;
+            }
+            session.getContext().handleInput(command.getInput());
+        }
+    }
+    
+    /**
+     * Abonne la session au flux de la plus ancienne partie d'un autre client
+     */
+    private void watch(ClientSession spectator) {
+        if (spectator.isSpectator()) {
+            return;
+        }
+        for (ClientSession player : sessions) {
+            if (player != spectator && !player.isClosed() && !player.isSpectator()) {
+                spectator.watch(player);
+                logger.logInfo("Spectator joined: " + player.getFeed().getSubscriberCount() + " watching");
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Fait avancer toutes les sessions puis leur envoie les différences
+     * (et leur flux de grille aux spectateurs)
+     */
+    private void tick() {
+        removeClosedSessions();
+        for (ClientSession session : sessions) {
+            if (!session.isSpectator()) {
+                advance(session);
+            }
+            
+            try {
+                if (session.getOutbound().position() > 0) {
+                    session.flush();
+                }
+            } catch (IOException e) {
+                session.close();
+            }
+        }
+    }
+    
+    /**
+     * Retire les sessions fermées ; les spectateurs d'un joueur parti
+     * passent sur une autre partie, ou redeviennent joueurs s'il n'y en a
+     * plus (leur prochaine différence, complète, annonce la fin du flux)
+     */
+    private void removeClosedSessions() {
+        boolean playerLeft = false;
+        Iterator<ClientSession> iterator = sessions.iterator();
+        while (iterator.hasNext()) {
+            ClientSession session = iterator.next();
+            if (session.isClosed()) {
+                playerLeft |= !session.isSpectator();
+                session.detach();
+                iterator.remove();
+            }
+        }
+        if (!playerLeft) {
+            return;
+        }
+        for (ClientSession session : sessions) {
+            if (session.isSpectator() && session.getWatched().isClosed()) {
+                session.unwatch();
+                watch(session);
+                if (!session.isSpectator()) {
+                    session.resend();
+                    logger.logInfo("Spectator stream ended: no game left to watch");
+                }
+            }
+        }
+    }
+    
+    private void advance(ClientSession session) {
+        session.getContext().update(TICK_SECONDS);
+        session.publishFeed();
+        
+        if (session.encodeDelta(frameBuffer, payloadBuffer)) {
+            frameBuffer.flip();
+            ByteBuffer outbound = session.getOutbound();
+            // Client trop lent : la différence reste en attente pour le tick suivant
+            if (outbound.remaining() >= frameBuffer.remaining()) {
+                outbound.put(frameBuffer);
+                session.commit();
+            }
+        }
+    }
+    
+    private void shutdown() {
+        for (ClientSession session : sessions) {
+            session.close();
+        }
+        sessions.clear();
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            logger.logError("Error closing game server", e);
+        }
+        logger.logInfo("Game server stopped");
+    }
+    
+    /**
+     * Port d'écoute effectif (utile avec le port 0 en boucle locale)
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+    
+    public int getSessionCount() {
+        return sessions.size();
+    }
+    
+    public boolean isRunning() {
+        return running;
+    }
+}
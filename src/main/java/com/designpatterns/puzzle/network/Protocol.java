@@ -0,0 +1,115 @@
+package com.designpatterns.puzzle.network;
+
+import com.designpatterns.puzzle.patterns.decorator.PieceAttributes;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Protocole binaire compact entre le serveur de jeu et les clients légers
+ *
+ * Client -> serveur : un octet par commande (voir InputCommand), ou
+ * CMD_WATCH pour suivre une autre partie en spectateur.
+ * Serveur -> client : trames [type:u8][longueur:varint][contenu],
+ * soit 2 à 4 octets d'en-tête par message.
+ */
+public final class Protocol {
+    
+    public static final int DEFAULT_PORT = 7777;
+    
+    /** Trame d'accueil : largeur et hauteur de la grille */
+    public static final byte MSG_HELLO = 1;
+    /** Trame de différences d'état depuis la trame précédente */
+    public static final byte MSG_DELTA = 2;
+    /** Flux spectateur : image clé complète de la grille (voir BoardChangeFeed) */
+    public static final byte MSG_KEYFRAME = 3;
+    /** Flux spectateur : différences de grille depuis la trame précédente */
+    public static final byte MSG_BOARD_DELTA = 4;
+    
+    /** Client -> serveur : devenir spectateur de la plus ancienne partie d'un autre client */
+    public static final byte CMD_WATCH = 0x7F;
+    
+    // Drapeaux d'une trame MSG_DELTA
+    public static final int FLAG_STATE = 1;
+    public static final int FLAG_HUD = 1 << 1;
+    public static final int FLAG_PIECE = 1 << 2;
+    public static final int FLAG_NEXT = 1 << 3;
+    public static final int FLAG_ROWS = 1 << 4;
+    
+    private static final String[] STATE_NAMES = {"MENU", "PLAYING", "PAUSED", "GAME_OVER"};
+    
+    private Protocol() {
+    }
+    
+    /**
+     * Code d'un nom d'état (State Pattern) sur un octet
+     */
+    public static int stateCode(String stateName) {
+        for (int i = 0; i < STATE_NAMES.length; i++) {
+            if (STATE_NAMES[i].equals(stateName)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+    
+    public static String stateName(int code) {
+        if (code < 0 || code >= STATE_NAMES.length) {
+            return STATE_NAMES[0];
+        }
+        return STATE_NAMES[code];
+    }
+    
+    /**
+     * Écrit un entier positif en varint (7 bits par octet)
+     */
+    public static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+    
+    /**
+     * Lit un entier varint
+     */
+    public static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+    
+    /**
+     * Écrit un entier signé en varint (codage zigzag)
+     */
+    public static void putSignedVarInt(ByteBuffer buffer, int value) {
+        putVarInt(buffer, (value << 1) ^ (value >> 31));
+    }
+    
+    public static int getSignedVarInt(ByteBuffer buffer) {
+        int raw = getVarInt(buffer);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+    
+    /**
+     * Écrit une trame complète : type, longueur du contenu, contenu
+     */
+    public static void putFrame(ByteBuffer out, byte type, ByteBuffer payload) {
+        out.put(type);
+        putVarInt(out, payload.remaining());
+        out.put(payload);
+    }
+    
+    /**
+     * Encode une forme de pièce (au plus 4x4) en masque de 16 bits
+     */
+    public static int shapeMask(int[][] shape) {
+        return PieceAttributes.maskOf(shape);
+    }
+}
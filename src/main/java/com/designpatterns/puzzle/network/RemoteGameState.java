@@ -0,0 +1,166 @@
+package com.designpatterns.puzzle.network;
+
+import java.nio.ByteBuffer;
+
+/**
+ * État du jeu reconstruit côté client léger
+ * Mis à jour par les trames du serveur, lu par la vue lors du rendu
+ * (accès synchronisés sur l'instance)
+ */
+public class RemoteGameState {
+    
+    private int width;
+    private int height;
+    private byte[][] cells = new byte[0][0];
+    private String stateName = "MENU";
+    private int score;
+    private int level = 1;
+    private int linesCleared;
+    private int pieceMask;
+    private int pieceColor;
+    private int pieceX;
+    private int pieceY;
+    private int nextMask;
+    private int nextColor;
+    private boolean connected;
+    
+    /**
+     * Applique une trame d'accueil (dimensions de la grille)
+     */
+    synchronized void applyHello(ByteBuffer payload) {
+        width = Protocol.getVarInt(payload);
+        height = Protocol.getVarInt(payload);
+        cells = new byte[height][width];
+        connected = true;
+    }
+    
+    /**
+     * Applique une trame de différences
+     */
+    synchronized void applyDelta(ByteBuffer payload) {
+        int flags = payload.get() & 0xFF;
+        if ((flags & Protocol.FLAG_STATE) != 0) {
+            stateName = Protocol.stateName(payload.get());
+        }
+        if ((flags & Protocol.FLAG_HUD) != 0) {
+            score = Protocol.getVarInt(payload);
+            level = Protocol.getVarInt(payload);
+            linesCleared = Protocol.getVarInt(payload);
+        }
+        if ((flags & Protocol.FLAG_PIECE) != 0) {
+            pieceMask = Protocol.getVarInt(payload);
+            if (pieceMask != 0) {
+                pieceColor = payload.get() & 0xFF;
+                pieceX = Protocol.getSignedVarInt(payload);
+                pieceY = Protocol.getSignedVarInt(payload);
+            }
+        }
+        if ((flags & Protocol.FLAG_NEXT) != 0) {
+            nextMask = Protocol.getVarInt(payload);
+            nextColor = payload.get() & 0xFF;
+        }
+        if ((flags & Protocol.FLAG_ROWS) != 0) {
+            int rowCount = Protocol.getVarInt(payload);
+            for (int i = 0; i < rowCount; i++) {
+                byte[] row = cells[Protocol.getVarInt(payload)];
+                int runCount = Protocol.getVarInt(payload);
+                int col = 0;
+                for (int run = 0; run < runCount; run++) {
+                    int length = Protocol.getVarInt(payload);
+                    byte color = payload.get();
+                    for (int end = col + length; col < end; col++) {
+                        row[col] = color;
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Recopie la grille et la pièce du flux spectateur, une fois synchronisé
+     * (le flux ne transporte pas le HUD)
+     */
+    synchronized void applyBoard(BoardFeedDecoder board) {
+        if (!board.isSynced()) {
+            return;
+        }
+        if (board.getWidth() != width || board.getHeight() != height) {
+            width = board.getWidth();
+            height = board.getHeight();
+            cells = new byte[height][width];
+        }
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                cells[row][col] = (byte) board.getCell(row, col);
+            }
+        }
+        pieceMask = board.getPieceMask();
+        pieceColor = board.getPieceColor();
+        pieceX = board.getPieceX();
+        pieceY = board.getPieceY();
+        stateName = "PLAYING";
+    }
+    
+    synchronized void setConnected(boolean connected) {
+        this.connected = connected;
+    }
+    
+    /**
+     * Index de palette d'une case (0 si vide)
+     */
+    public int getCell(int row, int col) {
+        return cells[row][col] & 0xFF;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    public String getStateName() {
+        return stateName;
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    public int getLevel() {
+        return level;
+    }
+    
+    public int getLinesCleared() {
+        return linesCleared;
+    }
+    
+    public int getPieceMask() {
+        return pieceMask;
+    }
+    
+    public int getPieceColor() {
+        return pieceColor;
+    }
+    
+    public int getPieceX() {
+        return pieceX;
+    }
+    
+    public int getPieceY() {
+        return pieceY;
+    }
+    
+    public int getNextMask() {
+        return nextMask;
+    }
+    
+    public int getNextColor() {
+        return nextColor;
+    }
+    
+    public boolean isConnected() {
+        return connected;
+    }
+}
@@ -12,32 +12,41 @@ public class BasicPuzzlePiece implements PuzzlePiece {
     protected Color color;
     protected int[][] shape;
     protected String type;
+    private final PieceAttributes attributes;
     
     public BasicPuzzlePiece(Color color, int[][] shape, String type) {
+        this(color, PieceShape.of(shape), type);
+    }
+    
+    /**
+     * Crée une pièce à partir d'une forme déjà précalculée (partagée par type)
+     */
+    public BasicPuzzlePiece(Color color, PieceShape pieceShape, String type) {
         this.color = color;
-        this.shape = shape;
+        this.shape = pieceShape.getMatrix(0);
         this.type = type;
+        this.attributes = PieceAttributes.of(color, pieceShape);
     }
     
     @Override
     public void render(GraphicsContext gc, double x, double y, double blockSize) {
         gc.setFill(color);
-        for (int row = 0; row < shape.length; row++) {
-            for (int col = 0; col < shape[row].length; col++) {
-                if (shape[row][col] == 1) {
-                    double blockX = x + col * blockSize;
-                    double blockY = y + row * blockSize;
-                    gc.fillRect(blockX, blockY, blockSize - 1, blockSize - 1);
-                    
-                    // Effet 3D
-                    gc.setStroke(color.brighter());
-                    gc.strokeLine(blockX, blockY, blockX + blockSize - 1, blockY);
-                    gc.strokeLine(blockX, blockY, blockX, blockY + blockSize - 1);
-                    
-                    gc.setStroke(color.darker());
-                    gc.strokeLine(blockX + blockSize - 1, blockY, blockX + blockSize - 1, blockY + blockSize - 1);
-                    gc.strokeLine(blockX, blockY + blockSize - 1, blockX + blockSize - 1, blockY + blockSize - 1);
-                }
+        int[] rows = attributes.getPieceShape().getRows(0);
+        for (int row = 0; row < rows.length; row++) {
+            for (int bits = rows[row]; bits != 0; bits &= bits - 1) {
+                int col = Integer.numberOfTrailingZeros(bits);
+                double blockX = x + col * blockSize;
+                double blockY = y + row * blockSize;
+                gc.fillRect(blockX, blockY, blockSize - 1, blockSize - 1);
+                
+                // Effet 3D
+                gc.setStroke(color.brighter());
+                gc.strokeLine(blockX, blockY, blockX + blockSize - 1, blockY);
+                gc.strokeLine(blockX, blockY, blockX, blockY + blockSize - 1);
+                
+                gc.setStroke(color.darker());
+                gc.strokeLine(blockX + blockSize - 1, blockY, blockX + blockSize - 1, blockY + blockSize - 1);
+                gc.strokeLine(blockX, blockY + blockSize - 1, blockX + blockSize - 1, blockY + blockSize - 1);
             }
         }
     }
@@ -52,6 +61,11 @@ public class BasicPuzzlePiece implements PuzzlePiece {
         return shape;
     }
     
+    @Override
+    public PieceShape getPieceShape() {
+        return attributes.getPieceShape();
+    }
+    
     @Override
     public int getScoreMultiplier() {
         return 1;
@@ -67,6 +81,11 @@ public class BasicPuzzlePiece implements PuzzlePiece {
         return "Basic " + type + " piece";
     }
     
+    @Override
+    public PieceAttributes getAttributes() {
+        return attributes;
+    }
+    
     public String getType() {
         return type;
     }
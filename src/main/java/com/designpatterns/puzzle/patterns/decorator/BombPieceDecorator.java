@@ -10,7 +10,8 @@ import javafx.scene.paint.Color;
 public class BombPieceDecorator extends PuzzlePieceDecorator {
     
     public BombPieceDecorator(PuzzlePiece piece) {
-        super(piece);
+        super(piece, piece.getAttributes().withEffect(PieceAttributes.EFFECT_BOMB, 1,
+                piece.getAttributes().getColor()));
         logger.logDecoratorApplied("BombPiece", piece.getDescription());
     }
     
@@ -20,29 +21,23 @@ public class BombPieceDecorator extends PuzzlePieceDecorator {
         decoratedPiece.render(gc, x, y, blockSize);
         
         // Ajoute un symbole de bombe
-        int[][] shape = getShape();
+        int[] rows = getPieceShape().getRows(0);
         gc.setFill(Color.RED);
         
-        for (int row = 0; row < shape.length; row++) {
-            for (int col = 0; col < shape[row].length; col++) {
-                if (shape[row][col] == 1) {
-                    double blockX = x + col * blockSize;
-                    double blockY = y + row * blockSize;
-                    double centerX = blockX + blockSize / 2;
-                    double centerY = blockY + blockSize / 2;
-                    
-                    // Dessine un cercle rouge (symbole bombe)
-                    gc.fillOval(centerX - 5, centerY - 5, 10, 10);
-                }
+        for (int row = 0; row < rows.length; row++) {
+            for (int bits = rows[row]; bits != 0; bits &= bits - 1) {
+                int col = Integer.numberOfTrailingZeros(bits);
+                double blockX = x + col * blockSize;
+                double blockY = y + row * blockSize;
+                double centerX = blockX + blockSize / 2;
+                double centerY = blockY + blockSize / 2;
+                
+                // Dessine un cercle rouge (symbole bombe)
+                gc.fillOval(centerX - 5, centerY - 5, 10, 10);
             }
         }
     }
     
-    @Override
-    public boolean hasSpecialEffect() {
-        return true;
-    }
-    
     @Override
     public String getDescription() {
         return decoratedPiece.getDescription() + " + Bomb Effect (clears adjacent lines)";
@@ -10,7 +10,9 @@ import javafx.scene.paint.Color;
 public class GoldenPieceDecorator extends PuzzlePieceDecorator {
     
     public GoldenPieceDecorator(PuzzlePiece piece) {
-        super(piece);
+        // Ton doré calculé une seule fois
+        super(piece, piece.getAttributes().withEffect(PieceAttributes.EFFECT_GOLDEN, 2,
+                piece.getAttributes().getColor().interpolate(Color.GOLD, 0.3)));
         logger.logDecoratorApplied("GoldenPiece", piece.getDescription());
     }
     
@@ -20,42 +22,24 @@ public class GoldenPieceDecorator extends PuzzlePieceDecorator {
         decoratedPiece.render(gc, x, y, blockSize);
         
         // Ajoute un effet doré brillant
-        int[][] shape = getShape();
+        int[] rows = getPieceShape().getRows(0);
         gc.setStroke(Color.GOLD);
         gc.setLineWidth(2);
         
-        for (int row = 0; row < shape.length; row++) {
-            for (int col = 0; col < shape[row].length; col++) {
-                if (shape[row][col] == 1) {
-                    double blockX = x + col * blockSize;
-                    double blockY = y + row * blockSize;
-                    gc.strokeRect(blockX + 1, blockY + 1, blockSize - 3, blockSize - 3);
-                }
+        for (int row = 0; row < rows.length; row++) {
+            for (int bits = rows[row]; bits != 0; bits &= bits - 1) {
+                int col = Integer.numberOfTrailingZeros(bits);
+                double blockX = x + col * blockSize;
+                double blockY = y + row * blockSize;
+                gc.strokeRect(blockX + 1, blockY + 1, blockSize - 3, blockSize - 3);
             }
         }
         
         gc.setLineWidth(1);
     }
     
-    @Override
-    public int getScoreMultiplier() {
-        return decoratedPiece.getScoreMultiplier() * 2;
-    }
-    
-    @Override
-    public boolean hasSpecialEffect() {
-        return true;
-    }
-    
     @Override
     public String getDescription() {
         return decoratedPiece.getDescription() + " + Golden Boost (x2 score)";
     }
-    
-    @Override
-    public Color getColor() {
-        // Modifie légèrement la couleur pour un ton doré
-        Color baseColor = decoratedPiece.getColor();
-        return baseColor.interpolate(Color.GOLD, 0.3);
-    }
 }
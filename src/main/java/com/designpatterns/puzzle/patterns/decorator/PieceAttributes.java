@@ -0,0 +1,101 @@
+package com.designpatterns.puzzle.patterns.decorator;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Attributs résolus d'une pièce (immuable)
+ * Calculés une seule fois à la construction de la pièce : une pile de
+ * décorateurs est repliée en une couleur effective, un multiplicateur,
+ * des drapeaux d'effets et une forme compacte (voir PieceShape). Les règles du jeu lisent
+ * ces attributs au lieu de parcourir la chaîne de délégation.
+ */
+public final class PieceAttributes {
+    
+    public static final int EFFECT_GOLDEN = 1;
+    public static final int EFFECT_BOMB = 1 << 1;
+    public static final int EFFECT_RAINBOW = 1 << 2;
+    
+    private final Color color;
+    private final PieceShape shape;
+    private final int scoreMultiplier;
+    private final int effects;
+    
+    private PieceAttributes(Color color, PieceShape shape, int scoreMultiplier, int effects) {
+        this.color = color;
+        this.shape = shape;
+        this.scoreMultiplier = scoreMultiplier;
+        this.effects = effects;
+    }
+    
+    /**
+     * Attributs d'une pièce de base, sans effet
+     */
+    public static PieceAttributes of(Color color, PieceShape shape) {
+        return new PieceAttributes(color, shape, 1, 0);
+    }
+    
+    /**
+     * Attributs après application d'un effet : le multiplicateur est
+     * multiplié par le facteur donné et la couleur remplacée
+     */
+    public PieceAttributes withEffect(int effect, int multiplierFactor, Color effectColor) {
+        return new PieceAttributes(effectColor, shape, scoreMultiplier * multiplierFactor, effects | effect);
+    }
+    
+    /**
+     * Masque 4x4 d'une forme (bit = ligne * 4 + colonne)
+     */
+    public static int maskOf(int[][] shape) {
+        int mask = 0;
+        for (int row = 0; row < shape.length && row < 4; row++) {
+            for (int col = 0; col < shape[row].length && col < 4; col++) {
+                if (shape[row][col] != 0) {
+                    mask |= 1 << (row * 4 + col);
+                }
+            }
+        }
+        return mask;
+    }
+    
+    public Color getColor() {
+        return color;
+    }
+    
+    /**
+     * Matrice de blocs sans rotation
+     */
+    public int[][] getShape() {
+        return shape.getMatrix(0);
+    }
+    
+    public PieceShape getPieceShape() {
+        return shape;
+    }
+    
+    /**
+     * Masque 4x4 de la forme sans rotation
+     */
+    public int getShapeMask() {
+        return shape.getMask(0);
+    }
+    
+    public int getBlockCount() {
+        return shape.getBlockCount();
+    }
+    
+    public int getScoreMultiplier() {
+        return scoreMultiplier;
+    }
+    
+    public int getEffects() {
+        return effects;
+    }
+    
+    public boolean hasEffect(int effect) {
+        return (effects & effect) != 0;
+    }
+    
+    public boolean hasSpecialEffect() {
+        return effects != 0;
+    }
+}
@@ -0,0 +1,172 @@
+package com.designpatterns.puzzle.patterns.decorator;
+
+import java.util.Arrays;
+
+/**
+ * Forme compacte d'un type de pièce, précalculée pour ses 4 rotations
+ * (rotation horaire de 90°, ancrage en haut à gauche comme ActivePiece)
+ *
+ * Chaque ligne est un masque de bits : le bit c correspond à la colonne c.
+ * La forme est immuable et partagée par toutes les pièces du même type ;
+ * les tableaux retournés ne doivent pas être modifiés.
+ */
+public final class PieceShape {
+    
+    public static final int ROTATIONS = 4;
+    
+    private final int[][][] matrices = new int[ROTATIONS][][];
+    private final int[][] rows = new int[ROTATIONS][];
+    private final int[] widths = new int[ROTATIONS];
+    private final int[] heights = new int[ROTATIONS];
+    private final int[] leftColumns = new int[ROTATIONS];
+    private final int[] rightColumns = new int[ROTATIONS];
+    private final int[][] bottoms = new int[ROTATIONS][];
+    private final int[][] tops = new int[ROTATIONS][];
+    private final int[] masks = new int[ROTATIONS];
+    private final int blockCount;
+    
+    private PieceShape(int[][] shape) {
+        int[][] matrix = copyOf(shape);
+        for (int rotation = 0; rotation < ROTATIONS; rotation++) {
+            matrices[rotation] = matrix;
+            pack(rotation, matrix);
+            matrix = rotate90Clockwise(matrix);
+        }
+        this.blockCount = Integer.bitCount(masks[0]);
+    }
+    
+    /**
+     * Construit la forme compacte d'une matrice de blocs (au plus 32 colonnes)
+     */
+    public static PieceShape of(int[][] shape) {
+        return new PieceShape(shape);
+    }
+    
+    private void pack(int rotation, int[][] matrix) {
+        int height = matrix.length;
+        int width = matrix[0].length;
+        int[] rowMasks = new int[height];
+        int[] bottom = new int[width];
+        int[] top = new int[width];
+        Arrays.fill(bottom, -1);
+        Arrays.fill(top, -1);
+        int columns = 0;
+        int mask = 0;
+        
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                if (matrix[row][col] != 0) {
+                    rowMasks[row] |= 1 << col;
+                    if (top[col] < 0) {
+                        top[col] = row;
+                    }
+                    bottom[col] = row;
+                    if (row < 4 && col < 4) {
+                        mask |= 1 << (row * 4 + col);
+                    }
+                }
+            }
+            columns |= rowMasks[row];
+        }
+        
+        rows[rotation] = rowMasks;
+        widths[rotation] = width;
+        heights[rotation] = height;
+        leftColumns[rotation] = columns == 0 ? 0 : Integer.numberOfTrailingZeros(columns);
+        rightColumns[rotation] = columns == 0 ? -1 : 31 - Integer.numberOfLeadingZeros(columns);
+        bottoms[rotation] = bottom;
+        tops[rotation] = top;
+        masks[rotation] = mask;
+    }
+    
+    /**
+     * Masques de lignes pour une rotation (bit c = colonne c)
+     */
+    public int[] getRows(int rotation) {
+        return rows[rotation & 3];
+    }
+    
+    /**
+     * Matrice de blocs 0/1 pour une rotation (partagée, lecture seule)
+     */
+    public int[][] getMatrix(int rotation) {
+        return matrices[rotation & 3];
+    }
+    
+    /**
+     * Largeur de la boîte englobante
+     */
+    public int getWidth(int rotation) {
+        return widths[rotation & 3];
+    }
+    
+    /**
+     * Hauteur de la boîte englobante
+     */
+    public int getHeight(int rotation) {
+        return heights[rotation & 3];
+    }
+    
+    /**
+     * Première colonne occupée
+     */
+    public int getLeftColumn(int rotation) {
+        return leftColumns[rotation & 3];
+    }
+    
+    /**
+     * Dernière colonne occupée
+     */
+    public int getRightColumn(int rotation) {
+        return rightColumns[rotation & 3];
+    }
+    
+    /**
+     * Profil bas : ligne du bloc le plus bas de chaque colonne (-1 si vide)
+     */
+    public int[] getBottomProfile(int rotation) {
+        return bottoms[rotation & 3];
+    }
+    
+    /**
+     * Profil haut : ligne du bloc le plus haut de chaque colonne (-1 si vide)
+     */
+    public int[] getTopProfile(int rotation) {
+        return tops[rotation & 3];
+    }
+    
+    /**
+     * Masque 4x4 pour une rotation (bit = ligne * 4 + colonne)
+     */
+    public int getMask(int rotation) {
+        return masks[rotation & 3];
+    }
+    
+    public int getBlockCount() {
+        return blockCount;
+    }
+    
+    private static int[][] copyOf(int[][] matrix) {
+        int[][] copy = new int[matrix.length][];
+        for (int row = 0; row < matrix.length; row++) {
+            copy[row] = matrix[row].clone();
+        }
+        return copy;
+    }
+    
+    /**
+     * Fait tourner une matrice de 90° dans le sens horaire
+     */
+    private static int[][] rotate90Clockwise(int[][] matrix) {
+        int rows = matrix.length;
+        int cols = matrix[0].length;
+        int[][] rotated = new int[cols][rows];
+        
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                rotated[j][rows - 1 - i] = matrix[i][j];
+            }
+        }
+        return rotated;
+    }
+}
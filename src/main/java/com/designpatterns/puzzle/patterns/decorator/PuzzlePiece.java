@@ -24,6 +24,11 @@ public interface PuzzlePiece {
      */
     int[][] getShape();
     
+    /**
+     * Obtient la forme compacte de la pièce (masques de lignes par rotation)
+     */
+    PieceShape getPieceShape();
+    
     /**
      * Obtient le score bonus de la pièce
      */
@@ -38,4 +43,9 @@ public interface PuzzlePiece {
      * Description de la pièce et ses effets
      */
     String getDescription();
+    
+    /**
+     * Attributs résolus de la pièce (voir PieceAttributes)
+     */
+    PieceAttributes getAttributes();
 }
@@ -7,14 +7,25 @@ import javafx.scene.paint.Color;
 /**
  * Decorator Pattern - Décorateur abstrait
  * Classe de base pour tous les décorateurs de pièces
+ * Les attributs de la pièce décorée sont repliés à la construction :
+ * les accesseurs ne délèguent plus le long de la chaîne
  */
 public abstract class PuzzlePieceDecorator implements PuzzlePiece {
     
     protected PuzzlePiece decoratedPiece;
+    protected final PieceAttributes attributes;
     protected static final GameLogger logger = GameLogger.getInstance();
     
     public PuzzlePieceDecorator(PuzzlePiece piece) {
+        this(piece, piece.getAttributes());
+    }
+    
+    /**
+     * Décore une pièce avec les attributs déjà résolus de la pile
+     */
+    protected PuzzlePieceDecorator(PuzzlePiece piece, PieceAttributes attributes) {
         this.decoratedPiece = piece;
+        this.attributes = attributes;
     }
     
     @Override
@@ -24,22 +35,27 @@ public abstract class PuzzlePieceDecorator implements PuzzlePiece {
     
     @Override
     public Color getColor() {
-        return decoratedPiece.getColor();
+        return attributes.getColor();
     }
     
     @Override
     public int[][] getShape() {
-        return decoratedPiece.getShape();
+        return attributes.getShape();
+    }
+    
+    @Override
+    public PieceShape getPieceShape() {
+        return attributes.getPieceShape();
     }
     
     @Override
     public int getScoreMultiplier() {
-        return decoratedPiece.getScoreMultiplier();
+        return attributes.getScoreMultiplier();
     }
     
     @Override
     public boolean hasSpecialEffect() {
-        return decoratedPiece.hasSpecialEffect();
+        return attributes.hasSpecialEffect();
     }
     
     @Override
@@ -47,6 +63,11 @@ public abstract class PuzzlePieceDecorator implements PuzzlePiece {
         return decoratedPiece.getDescription();
     }
     
+    @Override
+    public PieceAttributes getAttributes() {
+        return attributes;
+    }
+    
     protected PuzzlePiece getDecoratedPiece() {
         return decoratedPiece;
     }
@@ -9,10 +9,13 @@ import javafx.scene.paint.Color;
  */
 public class RainbowPieceDecorator extends PuzzlePieceDecorator {
     
+    private static final Color BASE_COLOR = Color.hsb(0, 0.8, 0.9);
+    
     private double hueShift = 0;
     
     public RainbowPieceDecorator(PuzzlePiece piece) {
-        super(piece);
+        // La couleur posée sur la grille ne dépend pas de l'animation
+        super(piece, piece.getAttributes().withEffect(PieceAttributes.EFFECT_RAINBOW, 3, BASE_COLOR));
         logger.logDecoratorApplied("RainbowPiece", piece.getDescription());
     }
     
@@ -22,41 +25,30 @@ public class RainbowPieceDecorator extends PuzzlePieceDecorator {
         hueShift = (hueShift + 2) % 360;
         
         // Rend avec effet arc-en-ciel
-        int[][] shape = getShape();
+        int[] rows = getPieceShape().getRows(0);
         
-        for (int row = 0; row < shape.length; row++) {
-            for (int col = 0; col < shape[row].length; col++) {
-                if (shape[row][col] == 1) {
-                    double blockX = x + col * blockSize;
-                    double blockY = y + row * blockSize;
-                    
-                    // Calcule une couleur arc-en-ciel basée sur la position
-                    double hue = (hueShift + row * 30 + col * 30) % 360;
-                    Color rainbowColor = Color.hsb(hue, 0.8, 0.9);
-                    
-                    gc.setFill(rainbowColor);
-                    gc.fillRect(blockX, blockY, blockSize - 1, blockSize - 1);
-                    
-                    // Effet brillant
-                    gc.setStroke(rainbowColor.brighter());
-                    gc.setLineWidth(2);
-                    gc.strokeRect(blockX + 2, blockY + 2, blockSize - 5, blockSize - 5);
-                    gc.setLineWidth(1);
-                }
+        for (int row = 0; row < rows.length; row++) {
+            for (int bits = rows[row]; bits != 0; bits &= bits - 1) {
+                int col = Integer.numberOfTrailingZeros(bits);
+                double blockX = x + col * blockSize;
+                double blockY = y + row * blockSize;
+                
+                // Calcule une couleur arc-en-ciel basée sur la position
+                double hue = (hueShift + row * 30 + col * 30) % 360;
+                Color rainbowColor = Color.hsb(hue, 0.8, 0.9);
+                
+                gc.setFill(rainbowColor);
+                gc.fillRect(blockX, blockY, blockSize - 1, blockSize - 1);
+                
+                // Effet brillant
+                gc.setStroke(rainbowColor.brighter());
+                gc.setLineWidth(2);
+                gc.strokeRect(blockX + 2, blockY + 2, blockSize - 5, blockSize - 5);
+                gc.setLineWidth(1);
             }
         }
     }
     
-    @Override
-    public int getScoreMultiplier() {
-        return decoratedPiece.getScoreMultiplier() * 3;
-    }
-    
-    @Override
-    public boolean hasSpecialEffect() {
-        return true;
-    }
-    
     @Override
     public String getDescription() {
         return decoratedPiece.getDescription() + " + Rainbow Power (x3 score, animated)";
@@ -1,10 +1,13 @@
 package com.designpatterns.puzzle.patterns.factory;
 
 import com.designpatterns.puzzle.patterns.decorator.BasicPuzzlePiece;
+import com.designpatterns.puzzle.patterns.decorator.PieceShape;
 import com.designpatterns.puzzle.patterns.decorator.PuzzlePiece;
 import com.designpatterns.puzzle.utils.GameLogger;
 import javafx.scene.paint.Color;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Random;
 
 /**
@@ -23,6 +26,47 @@ public class PieceFactory {
         I, O, T, S, Z, J, L
     }
     
+    // Formes précalculées une seule fois par type (voir PieceShape)
+    private static final Map<PieceType, PieceShape> SHAPES = new EnumMap<>(PieceType.class);
+    private static final PieceType[] TYPES = PieceType.values();
+    
+    static {
+        // Pièce I (ligne droite de 4 blocs)
+        SHAPES.put(PieceType.I, PieceShape.of(new int[][] {
+            {1, 1, 1, 1}
+        }));
+        // Pièce O (carré 2x2)
+        SHAPES.put(PieceType.O, PieceShape.of(new int[][] {
+            {1, 1},
+            {1, 1}
+        }));
+        // Pièce T (en forme de T)
+        SHAPES.put(PieceType.T, PieceShape.of(new int[][] {
+            {0, 1, 0},
+            {1, 1, 1}
+        }));
+        // Pièce S (en forme de S)
+        SHAPES.put(PieceType.S, PieceShape.of(new int[][] {
+            {0, 1, 1},
+            {1, 1, 0}
+        }));
+        // Pièce Z (en forme de Z)
+        SHAPES.put(PieceType.Z, PieceShape.of(new int[][] {
+            {1, 1, 0},
+            {0, 1, 1}
+        }));
+        // Pièce J (en forme de J)
+        SHAPES.put(PieceType.J, PieceShape.of(new int[][] {
+            {1, 0, 0},
+            {1, 1, 1}
+        }));
+        // Pièce L (en forme de L)
+        SHAPES.put(PieceType.L, PieceShape.of(new int[][] {
+            {0, 0, 1},
+            {1, 1, 1}
+        }));
+    }
+    
     /**
      * Crée une pièce selon le type spécifié
      */
@@ -61,70 +105,71 @@ public class PieceFactory {
      * Crée une pièce aléatoire
      */
     public static PuzzlePiece createRandomPiece() {
+        return createRandomPiece(random);
+    }
+    
+    /**
+     * Crée une pièce aléatoire à partir d'un générateur donné
+     * (une graine fixe donne une séquence de pièces reproductible)
+     */
+    public static PuzzlePiece createRandomPiece(Random generator) {
         PieceType[] types = PieceType.values();
-        PieceType randomType = types[random.nextInt(types.length)];
+        PieceType randomType = types[generator.nextInt(types.length)];
         return createPiece(randomType);
     }
     
+    /**
+     * Type d'une pièce, retrouvé par sa forme (null pour une forme inconnue)
+     */
+    public static PieceType typeOf(PuzzlePiece piece) {
+        PieceShape shape = piece.getPieceShape();
+        for (PieceType type : TYPES) {
+            if (SHAPES.get(type) == shape) {
+                return type;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Forme précalculée d'un type de pièce
+     */
+    public static PieceShape getShape(PieceType type) {
+        return SHAPES.get(type);
+    }
+    
     // Pièce I (ligne droite de 4 blocs)
     private static PuzzlePiece createIPiece() {
-        int[][] shape = {
-            {1, 1, 1, 1}
-        };
-        return new BasicPuzzlePiece(Color.CYAN, shape, "I");
+        return new BasicPuzzlePiece(Color.CYAN, SHAPES.get(PieceType.I), "I");
     }
     
     // Pièce O (carré 2x2)
     private static PuzzlePiece createOPiece() {
-        int[][] shape = {
-            {1, 1},
-            {1, 1}
-        };
-        return new BasicPuzzlePiece(Color.YELLOW, shape, "O");
+        return new BasicPuzzlePiece(Color.YELLOW, SHAPES.get(PieceType.O), "O");
     }
     
     // Pièce T (en forme de T)
     private static PuzzlePiece createTPiece() {
-        int[][] shape = {
-            {0, 1, 0},
-            {1, 1, 1}
-        };
-        return new BasicPuzzlePiece(Color.PURPLE, shape, "T");
+        return new BasicPuzzlePiece(Color.PURPLE, SHAPES.get(PieceType.T), "T");
     }
     
     // Pièce S (en forme de S)
     private static PuzzlePiece createSPiece() {
-        int[][] shape = {
-            {0, 1, 1},
-            {1, 1, 0}
-        };
-        return new BasicPuzzlePiece(Color.GREEN, shape, "S");
+        return new BasicPuzzlePiece(Color.GREEN, SHAPES.get(PieceType.S), "S");
     }
     
     // Pièce Z (en forme de Z)
     private static PuzzlePiece createZPiece() {
-        int[][] shape = {
-            {1, 1, 0},
-            {0, 1, 1}
-        };
-        return new BasicPuzzlePiece(Color.RED, shape, "Z");
+        return new BasicPuzzlePiece(Color.RED, SHAPES.get(PieceType.Z), "Z");
     }
     
     // Pièce J (en forme de J)
     private static PuzzlePiece createJPiece() {
-        int[][] shape = {
-            {1, 0, 0},
-            {1, 1, 1}
-        };
-        return new BasicPuzzlePiece(Color.BLUE, shape, "J");
+        return new BasicPuzzlePiece(Color.BLUE, SHAPES.get(PieceType.J), "J");
     }
     
     // Pièce L (en forme de L)
     private static PuzzlePiece createLPiece() {
-        int[][] shape = {
-            {0, 0, 1},
-            {1, 1, 1}
-        };
-        return new BasicPuzzlePiece(Color.ORANGE, shape, "L");
+        return new BasicPuzzlePiece(Color.ORANGE, SHAPES.get(PieceType.L), "L");
     }
 }
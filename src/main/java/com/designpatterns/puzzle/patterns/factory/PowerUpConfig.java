@@ -0,0 +1,130 @@
+package com.designpatterns.puzzle.patterns.factory;
+
+import com.designpatterns.puzzle.patterns.factory.PowerUpFactory.PowerUpType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Réglage du tirage des power-ups : probabilité qu'une pièce en reçoive un
+ * et poids relatifs de chaque type
+ * Avec des poids égaux, le tirage consomme le générateur exactement comme
+ * le tirage historique : les replays archivés restent valides
+ */
+public final class PowerUpConfig {
+    
+    private static final PowerUpType[] TYPES = PowerUpType.values();
+    
+    public static final PowerUpConfig DEFAULT = new PowerUpConfig(0.15, 1, 1, 1);
+    
+    private final double chance;
+    private final double[] weights;
+    private final double[] cumulative;
+    private final boolean uniform;
+    
+    /**
+     * @param chance probabilité de power-up par pièce, entre 0 et 1
+     * @param weights poids de chaque type, dans l'ordre de PowerUpType
+     */
+    public PowerUpConfig(double chance, double... weights) {
+        if (chance < 0 || chance > 1) {
+            throw new IllegalArgumentException("Power-up chance out of range: " + chance);
+        }
+        if (weights.length != TYPES.length) {
+            throw new IllegalArgumentException("Expected " + TYPES.length + " weights, got " + weights.length);
+        }
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative power-up weight: " + weight);
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Power-up weights must not all be zero");
+        }
+        this.chance = chance;
+        this.weights = weights.clone();
+        this.cumulative = new double[weights.length];
+        double sum = 0;
+        boolean equal = true;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i] / total;
+            cumulative[i] = sum;
+            equal &= weights[i] == weights[0];
+        }
+        this.uniform = equal;
+    }
+    
+    /**
+     * Tire le power-up d'une nouvelle pièce (null = aucun)
+     */
+    public PowerUpType draw(Random generator) {
+        if (generator.nextDouble() >= chance) {
+            return null;
+        }
+        if (uniform) {
+            return TYPES[generator.nextInt(TYPES.length)];
+        }
+        double roll = generator.nextDouble();
+        for (int i = 0; i < TYPES.length - 1; i++) {
+            if (roll < cumulative[i]) {
+                return TYPES[i];
+            }
+        }
+        return TYPES[TYPES.length - 1];
+    }
+    
+    /**
+     * Toutes les combinaisons de probabilités et de jeux de poids
+     */
+    public static List<PowerUpConfig> grid(double[] chances, double[][] weightSets) {
+        List<PowerUpConfig> configs = new ArrayList<>(chances.length * weightSets.length);
+        for (double chance : chances) {
+            for (double[] weights : weightSets) {
+                configs.add(new PowerUpConfig(chance, weights));
+            }
+        }
+        return configs;
+    }
+    
+    public double getChance() {
+        return chance;
+    }
+    
+    /**
+     * Poids relatif d'un type de power-up
+     */
+    public double getWeight(PowerUpType type) {
+        return weights[type.ordinal()];
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PowerUpConfig)) {
+            return false;
+        }
+        PowerUpConfig other = (PowerUpConfig) o;
+        return chance == other.chance && Arrays.equals(weights, other.weights);
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(chance) + Arrays.hashCode(weights);
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT, "%.0f%%", chance * 100));
+        for (int i = 0; i < TYPES.length; i++) {
+            sb.append(i == 0 ? " " : "/").append(TYPES[i]).append(String.format(Locale.ROOT, "=%.2f", weights[i]));
+        }
+        return sb.toString();
+    }
+}
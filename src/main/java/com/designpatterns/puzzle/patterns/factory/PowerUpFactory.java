@@ -25,16 +25,25 @@ public class PowerUpFactory {
     
     /**
      * Applique un power-up aléatoire à une pièce
-     * Probabilité: 15% de recevoir un power-up
+     * Probabilité: 15% de recevoir un power-up (voir PowerUpConfig.DEFAULT)
      */
     public static PuzzlePiece applyRandomPowerUp(PuzzlePiece piece) {
-        // 15% de chance d'avoir un power-up
-        if (random.nextDouble() < 0.15) {
-            PowerUpType[] types = PowerUpType.values();
-            PowerUpType randomType = types[random.nextInt(types.length)];
-            return applyPowerUp(piece, randomType);
-        }
-        return piece;
+        return applyRandomPowerUp(piece, random);
+    }
+    
+    /**
+     * Applique un power-up aléatoire à partir d'un générateur donné
+     */
+    public static PuzzlePiece applyRandomPowerUp(PuzzlePiece piece, Random generator) {
+        return applyRandomPowerUp(piece, generator, PowerUpConfig.DEFAULT);
+    }
+    
+    /**
+     * Applique un power-up tiré selon un réglage donné
+     */
+    public static PuzzlePiece applyRandomPowerUp(PuzzlePiece piece, Random generator, PowerUpConfig config) {
+        PowerUpType type = config.draw(generator);
+        return type != null ? applyPowerUp(piece, type) : piece;
     }
     
     /**
@@ -1,6 +1,7 @@
 package com.designpatterns.puzzle.patterns.state;
 
 import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.events.GameEventType;
 import com.designpatterns.puzzle.utils.GameLogger;
 
 /**
@@ -13,8 +14,7 @@ public class PausedState implements GameState {
     
     @Override
     public void enter(GameContext context) {
-        logger.logStateChange("Game", context.getCurrentStateName(), getStateName());
-        logger.logGameEvent("Game paused");
+        context.publishEvent(GameEventType.STATE_CHANGED, getStateName(), context.getCurrentStateName());
     }
     
     @Override
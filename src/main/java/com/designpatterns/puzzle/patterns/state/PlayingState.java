@@ -1,6 +1,7 @@
 package com.designpatterns.puzzle.patterns.state;
 
 import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.events.GameEventType;
 import com.designpatterns.puzzle.utils.GameLogger;
 
 /**
@@ -13,9 +14,9 @@ public class PlayingState implements GameState {
     
     @Override
     public void enter(GameContext context) {
-        logger.logStateChange("Game", context.getCurrentStateName(), getStateName());
-        logger.logGameEvent("Game started");
+        context.publishEvent(GameEventType.STATE_CHANGED, getStateName(), context.getCurrentStateName());
         context.initializeGame();
+        context.publishEvent(GameEventType.GAME_STARTED, 0, 0, 0);
     }
     
     @Override
@@ -0,0 +1,35 @@
+package com.designpatterns.puzzle.patterns.state;
+
+import com.designpatterns.puzzle.core.GameContext;
+
+/**
+ * State Pattern - État Rejeu
+ * Contexte piloté uniquement par des commandes enregistrées
+ * (voir GameContext.applyCommand) : ni chute automatique ni entrées joueur
+ */
+public class ReplayState implements GameState {
+    
+    @Override
+    public void enter(GameContext context) {
+        // Aucun effet : un rejeu doit rester silencieux
+    }
+    
+    @Override
+    public void update(GameContext context, double deltaTime) {
+        // La gravité fait partie des commandes enregistrées
+    }
+    
+    @Override
+    public void handleInput(GameContext context, String input) {
+        // Les entrées joueur sont ignorées pendant un rejeu
+    }
+    
+    @Override
+    public void exit(GameContext context) {
+    }
+    
+    @Override
+    public String getStateName() {
+        return "REPLAY";
+    }
+}
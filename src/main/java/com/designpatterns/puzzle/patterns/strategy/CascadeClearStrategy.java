@@ -0,0 +1,58 @@
+package com.designpatterns.puzzle.patterns.strategy;
+
+import com.designpatterns.puzzle.model.ActivePiece;
+import com.designpatterns.puzzle.model.GameGrid;
+
+import java.util.BitSet;
+
+/**
+ * Strategy Pattern - Mode cascade
+ * Après un effacement, les blocs sans support tombent dans les trous de leur
+ * colonne ; les lignes ainsi complétées sont effacées à leur tour, jusqu'à
+ * stabilité de la grille
+ *
+ * Les colonnes à compacter sont trouvées mot par mot sur les masques de
+ * lignes (un bloc au-dessus d'une case vide), seules celles-ci sont parcourues
+ */
+public class CascadeClearStrategy implements ClearStrategy {
+    
+    private long[] unsupportedColumns = new long[0];
+    private int lastChainLength;
+    
+    @Override
+    public int clear(GameGrid grid, ActivePiece piece, BitSet rowsToRemove) {
+        int lines = grid.markCompleteLines(rowsToRemove);
+        boolean removed = grid.removeRows(rowsToRemove) > 0;
+        lastChainLength = 0;
+        
+        int words = (grid.getWidth() + 63) >>> 6;
+        if (unsupportedColumns.length < words) {
+            unsupportedColumns = new long[words];
+        }
+        
+        while (removed && grid.findUnsupportedColumns(unsupportedColumns)) {
+            grid.compactColumns(unsupportedColumns);
+            
+            rowsToRemove.clear();
+            int chained = grid.markCompleteLines(rowsToRemove);
+            removed = chained > 0 && grid.removeRows(rowsToRemove) > 0;
+            lines += chained;
+            if (removed) {
+                lastChainLength++;
+            }
+        }
+        return lines;
+    }
+    
+    /**
+     * Nombre d'effacements en chaîne lors du dernier verrouillage
+     */
+    public int getLastChainLength() {
+        return lastChainLength;
+    }
+    
+    @Override
+    public String getModeName() {
+        return "CASCADE";
+    }
+}
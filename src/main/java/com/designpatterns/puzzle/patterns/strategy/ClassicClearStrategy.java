@@ -0,0 +1,26 @@
+package com.designpatterns.puzzle.patterns.strategy;
+
+import com.designpatterns.puzzle.model.ActivePiece;
+import com.designpatterns.puzzle.model.GameGrid;
+
+import java.util.BitSet;
+
+/**
+ * Strategy Pattern - Mode classique
+ * Les lignes complètes sont supprimées, les blocs restants descendent
+ * ligne par ligne sans combler les trous
+ */
+public class ClassicClearStrategy implements ClearStrategy {
+    
+    @Override
+    public int clear(GameGrid grid, ActivePiece piece, BitSet rowsToRemove) {
+        int lines = grid.markCompleteLines(rowsToRemove);
+        grid.removeRows(rowsToRemove);
+        return lines;
+    }
+    
+    @Override
+    public String getModeName() {
+        return "CLASSIC";
+    }
+}
@@ -0,0 +1,26 @@
+package com.designpatterns.puzzle.patterns.strategy;
+
+import com.designpatterns.puzzle.model.ActivePiece;
+import com.designpatterns.puzzle.model.GameGrid;
+
+import java.util.BitSet;
+
+/**
+ * Strategy Pattern - Règle d'effacement appliquée au verrouillage d'une pièce
+ * Chaque mode de jeu fournit sa propre stratégie (voir GameMode)
+ */
+public interface ClearStrategy {
+    
+    /**
+     * Résout les effacements après la pose de la pièce
+     * rowsToRemove contient déjà les lignes marquées par les effets de la pièce ;
+     * la stratégie doit les supprimer avec les siennes
+     * Retourne le nombre de lignes effacées par la règle du mode
+     */
+    int clear(GameGrid grid, ActivePiece piece, BitSet rowsToRemove);
+    
+    /**
+     * Nom du mode de jeu
+     */
+    String getModeName();
+}
@@ -0,0 +1,164 @@
+package com.designpatterns.puzzle.patterns.strategy;
+
+import com.designpatterns.puzzle.model.ActivePiece;
+import com.designpatterns.puzzle.model.GameGrid;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Strategy Pattern - Mode correspondance de couleurs
+ * Au verrouillage, les groupes connexes (4 voisins) de cases de même couleur
+ * contenant la pièce posée sont effacés s'ils atteignent la taille minimale ;
+ * les blocs au-dessus tombent dans les colonnes touchées. Les lignes
+ * complètes sont toujours effacées.
+ *
+ * Le parcours part uniquement des cases de la pièce : son coût dépend de la
+ * taille des groupes touchés, pas de celle de la grille. Marquage, pile et
+ * listes sont préalloués et réutilisés d'un verrouillage à l'autre.
+ */
+public class ColorMatchClearStrategy implements ClearStrategy {
+    
+    public static final int DEFAULT_MIN_GROUP_SIZE = 8;
+    
+    private final int minGroupSize;
+    private final ClassicClearStrategy lineClear = new ClassicClearStrategy();
+    
+    // Cases visitées (index = ligne * largeur + colonne), remises à zéro via touched
+    private final BitSet visited = new BitSet();
+    private int[] touched = new int[64];
+    private int touchedCount;
+    private int[] stack = new int[64];
+    private int[] group = new int[64];
+    private long[] clearedColumns = new long[0];
+    private int lastGroupCount;
+    
+    public ColorMatchClearStrategy() {
+        this(DEFAULT_MIN_GROUP_SIZE);
+    }
+    
+    public ColorMatchClearStrategy(int minGroupSize) {
+        this.minGroupSize = minGroupSize;
+    }
+    
+    @Override
+    public int clear(GameGrid grid, ActivePiece piece, BitSet rowsToRemove) {
+        int words = (grid.getWidth() + 63) >>> 6;
+        if (clearedColumns.length < words) {
+            clearedColumns = new long[words];
+        }
+        Arrays.fill(clearedColumns, 0L);
+        
+        int groups = piece != null ? clearGroups(grid, piece) : 0;
+        int lines = lineClear.clear(grid, piece, rowsToRemove);
+        
+        // Les blocs au-dessus des groupes effacés tombent
+        if (groups > 0) {
+            grid.compactColumns(clearedColumns);
+        }
+        lastGroupCount = groups;
+        return lines + groups;
+    }
+    
+    /**
+     * Efface les groupes assez grands qui contiennent une case de la pièce
+     * Retourne le nombre de groupes effacés
+     */
+    private int clearGroups(GameGrid grid, ActivePiece piece) {
+        int width = grid.getWidth();
+        int[] rows = piece.getCurrentRows();
+        int groups = 0;
+        touchedCount = 0;
+        
+        for (int row = 0; row < rows.length; row++) {
+            int gridY = piece.getY() + row;
+            if (gridY < 0 || gridY >= grid.getHeight()) {
+                continue;
+            }
+            for (int bits = rows[row]; bits != 0; bits &= bits - 1) {
+                int gridX = piece.getX() + Integer.numberOfTrailingZeros(bits);
+                if (visited.get(gridY * width + gridX) || grid.getBlock(gridY, gridX) == null) {
+                    continue;
+                }
+                int size = fill(grid, gridY, gridX);
+                if (size >= minGroupSize) {
+                    for (int i = 0; i < size; i++) {
+                        int col = group[i] % width;
+                        grid.setBlock(group[i] / width, col, null);
+                        clearedColumns[col >>> 6] |= 1L << col;
+                    }
+                    groups++;
+                }
+            }
+        }
+        
+        for (int i = 0; i < touchedCount; i++) {
+            visited.clear(touched[i]);
+        }
+        return groups;
+    }
+    
+    /**
+     * Parcours en profondeur du groupe de même couleur à partir d'une case
+     * Les cases du groupe sont placées dans group ; retourne sa taille
+     */
+    private int fill(GameGrid grid, int startRow, int startCol) {
+        int width = grid.getWidth();
+        Color color = grid.getBlock(startRow, startCol);
+        int size = 0;
+        int top = 0;
+        stack[top++] = visit(startRow * width + startCol);
+        
+        while (top > 0) {
+            int cell = stack[--top];
+            if (size == group.length) {
+                group = Arrays.copyOf(group, size * 2);
+            }
+            group[size++] = cell;
+            
+            int row = cell / width;
+            int col = cell - row * width;
+            if (stack.length < top + 4) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            top = push(grid, color, row - 1, col, top);
+            top = push(grid, color, row + 1, col, top);
+            top = push(grid, color, row, col - 1, top);
+            top = push(grid, color, row, col + 1, top);
+        }
+        return size;
+    }
+    
+    private int push(GameGrid grid, Color color, int row, int col, int top) {
+        // getBlock retourne null hors de la grille
+        Color neighbour = grid.getBlock(row, col);
+        int cell = row * grid.getWidth() + col;
+        if (neighbour == null || !neighbour.equals(color) || visited.get(cell)) {
+            return top;
+        }
+        stack[top] = visit(cell);
+        return top + 1;
+    }
+    
+    private int visit(int cell) {
+        visited.set(cell);
+        if (touchedCount == touched.length) {
+            touched = Arrays.copyOf(touched, touchedCount * 2);
+        }
+        touched[touchedCount++] = cell;
+        return cell;
+    }
+    
+    /**
+     * Nombre de groupes effacés lors du dernier verrouillage
+     */
+    public int getLastGroupCount() {
+        return lastGroupCount;
+    }
+    
+    @Override
+    public String getModeName() {
+        return "COLOR_MATCH";
+    }
+}
@@ -0,0 +1,118 @@
+package com.designpatterns.puzzle.persistence;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Enregistrement binaire de taille fixe d'une partie terminée
+ *
+ * Disposition (48 octets) : magic, date de fin, score, niveau, lignes,
+ * durée, graine, réservé, CRC32 des 44 premiers octets.
+ */
+public final class GameRecord {
+    
+    public static final int SIZE = 48;
+    
+    private static final int MAGIC = 0x47524543; // "GREC"
+    private static final int CHECKSUM_OFFSET = 44;
+    
+    private final long timestamp;
+    private final int score;
+    private final int level;
+    private final int linesCleared;
+    private final long durationMillis;
+    private final long seed;
+    
+    public GameRecord(long timestamp, int score, int level, int linesCleared, long durationMillis, long seed) {
+        this.timestamp = timestamp;
+        this.score = score;
+        this.level = level;
+        this.linesCleared = linesCleared;
+        this.durationMillis = durationMillis;
+        this.seed = seed;
+    }
+    
+    /**
+     * Écrit l'enregistrement à la position absolue donnée
+     */
+    void writeTo(ByteBuffer buffer, int offset) {
+        buffer.putInt(offset, MAGIC);
+        buffer.putLong(offset + 4, timestamp);
+        buffer.putInt(offset + 12, score);
+        buffer.putInt(offset + 16, level);
+        buffer.putInt(offset + 20, linesCleared);
+        buffer.putLong(offset + 24, durationMillis);
+        buffer.putLong(offset + 32, seed);
+        buffer.putInt(offset + 40, 0);
+        buffer.putInt(offset + CHECKSUM_OFFSET, checksum(buffer, offset));
+    }
+    
+    /**
+     * Lit l'enregistrement à la position absolue donnée (null si invalide)
+     */
+    static GameRecord readFrom(ByteBuffer buffer, int offset) {
+        if (!isValid(buffer, offset)) {
+            return null;
+        }
+        return new GameRecord(buffer.getLong(offset + 4), buffer.getInt(offset + 12),
+                              buffer.getInt(offset + 16), buffer.getInt(offset + 20),
+                              buffer.getLong(offset + 24), buffer.getLong(offset + 32));
+    }
+    
+    /**
+     * Vérifie le magic et la somme de contrôle (détecte les écritures interrompues)
+     */
+    static boolean isValid(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset) == MAGIC
+                && buffer.getInt(offset + CHECKSUM_OFFSET) == checksum(buffer, offset);
+    }
+    
+    /**
+     * Lit seulement le score, sans créer d'objet (reconstruction de l'index)
+     */
+    static int readScore(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + 12);
+    }
+    
+    static int readLines(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + 20);
+    }
+    
+    private static int checksum(ByteBuffer buffer, int offset) {
+        CRC32 crc = new CRC32();
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(offset + CHECKSUM_OFFSET).position(offset);
+        crc.update(slice);
+        return (int) crc.getValue();
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    public int getLevel() {
+        return level;
+    }
+    
+    public int getLinesCleared() {
+        return linesCleared;
+    }
+    
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    @Override
+    public String toString() {
+        return "GameRecord[score=" + score + ", level=" + level + ", lines=" + linesCleared
+                + ", duration=" + durationMillis + "ms]";
+    }
+}
@@ -0,0 +1,47 @@
+package com.designpatterns.puzzle.persistence;
+
+import com.designpatterns.puzzle.events.GameEvent;
+import com.designpatterns.puzzle.events.GameEventHandler;
+import com.designpatterns.puzzle.utils.GameLogger;
+
+import java.io.IOException;
+
+/**
+ * Consommateur du bus d'événements qui enregistre chaque partie terminée
+ * dans le StatisticsStore (sur le thread du consommateur)
+ */
+public class StatisticsRecorder implements GameEventHandler {
+    
+    private static final GameLogger logger = GameLogger.getInstance();
+    
+    private final StatisticsStore store;
+    private long gameStartNanos = -1;
+    
+    public StatisticsRecorder(StatisticsStore store) {
+        this.store = store;
+    }
+    
+    @Override
+    public void onEvent(GameEvent event, long sequence, boolean endOfBatch) {
+        switch (event.getType()) {
+            case GAME_STARTED:
+                gameStartNanos = event.getTimestamp();
+                break;
+            case GAME_OVER:
+                long durationMillis = gameStartNanos < 0 ? 0
+                        : (event.getTimestamp() - gameStartNanos) / 1_000_000;
+                GameRecord record = new GameRecord(System.currentTimeMillis(), event.getValue(),
+                                                   event.getExtra(), event.getCount(), durationMillis,
+                                                   event.getSeed());
+                try {
+                    store.append(record);
+                } catch (IOException e) {
+                    logger.logError("Failed to record game statistics", e);
+                }
+                gameStartNanos = -1;
+                break;
+            default:
+                break;
+        }
+    }
+}
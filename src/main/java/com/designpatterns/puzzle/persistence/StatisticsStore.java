@@ -0,0 +1,308 @@
+package com.designpatterns.puzzle.persistence;
+
+import com.designpatterns.puzzle.utils.GameLogger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stockage persistant des parties terminées
+ * Journal en ajout seul d'enregistrements de taille fixe (GameRecord) dans
+ * un fichier projeté en mémoire. Au démarrage, un parcours séquentiel
+ * reconstruit les statistiques globales et l'index du classement (top-K),
+ * qui répond ensuite aux requêtes sans toucher au fichier.
+ * À la fermeture, une compaction retire les enregistrements invalides et
+ * l'espace préalloué inutilisé.
+ */
+public class StatisticsStore implements Closeable {
+    
+    public static final int DEFAULT_LEADERBOARD_SIZE = 100;
+    
+    private static final GameLogger logger = GameLogger.getInstance();
+    private static final int FILE_MAGIC = 0x50475354; // "PGST"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int COUNT_OFFSET = 12;
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int MAX_MAPPED_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / GameRecord.SIZE;
+    
+    private final Path path;
+    private final FileChannel channel;
+    private MappedByteBuffer mapped;
+    private int capacity;
+    private int recordCount;
+    private int invalidRecords;
+    
+    // Index du classement : positions des meilleurs enregistrements, triés par score décroissant
+    private final int leaderboardSize;
+    private final int[] topScores;
+    private final int[] topIndexes;
+    private int topCount;
+    
+    // Statistiques globales
+    private long totalScore;
+    private long totalLines;
+    
+    public StatisticsStore(Path path) throws IOException {
+        this(path, DEFAULT_LEADERBOARD_SIZE);
+    }
+    
+    public StatisticsStore(Path path, int leaderboardSize) throws IOException {
+        this.path = path;
+        this.leaderboardSize = leaderboardSize;
+        this.topScores = new int[leaderboardSize];
+        this.topIndexes = new int[leaderboardSize];
+        
+        installPendingCompaction();
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            initializeFile();
+        } else {
+            map(Math.max(INITIAL_CAPACITY, recordsInFile()));
+            if (mapped.getInt(0) != FILE_MAGIC || mapped.getInt(4) != VERSION) {
+                throw new IOException("Not a statistics file: " + path);
+            }
+        }
+        rebuildIndex();
+        logger.logInfo("Statistics store opened: " + recordCount + " games (" + path + ")");
+    }
+    
+    /**
+     * Ajoute une partie terminée au journal
+     */
+    public synchronized void append(GameRecord record) throws IOException {
+        if (recordCount == capacity) {
+            if (capacity == MAX_MAPPED_RECORDS) {
+                throw new IOException("Statistics store is full");
+            }
+            map((int) Math.min((long) capacity * 2, MAX_MAPPED_RECORDS));
+        }
+        int index = recordCount;
+        record.writeTo(mapped, offsetOf(index));
+        // Le compteur n'est publié qu'une fois l'enregistrement écrit
+        recordCount++;
+        mapped.putInt(COUNT_OFFSET, recordCount);
+        indexRecord(index, record.getScore(), record.getLinesCleared());
+    }
+    
+    /**
+     * Retourne les meilleures parties, par score décroissant
+     */
+    public synchronized List<GameRecord> getLeaderboard(int limit) {
+        int count = Math.min(limit, topCount);
+        List<GameRecord> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(GameRecord.readFrom(mapped, offsetOf(topIndexes[i])));
+        }
+        return result;
+    }
+    
+    /**
+     * Meilleur score enregistré (0 si aucune partie)
+     */
+    public synchronized int getBestScore() {
+        return topCount > 0 ? topScores[0] : 0;
+    }
+    
+    /**
+     * Rang qu'obtiendrait un score dans le classement (1 = premier)
+     */
+    public synchronized int rankOf(int score) {
+        int rank = 1;
+        while (rank <= topCount && topScores[rank - 1] >= score) {
+            rank++;
+        }
+        return rank;
+    }
+    
+    public synchronized int getGamesPlayed() {
+        return recordCount - invalidRecords;
+    }
+    
+    public synchronized double getAverageScore() {
+        int games = getGamesPlayed();
+        return games == 0 ? 0 : (double) totalScore / games;
+    }
+    
+    public synchronized long getTotalLines() {
+        return totalLines;
+    }
+    
+    /**
+     * Compacte le journal puis ferme le fichier
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        mapped.force();
+        Path compacted = compact();
+        channel.close();
+        mapped = null;
+        if (compacted != null) {
+            try {
+                Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // Fichier encore projeté (Windows) : la copie sera installée à la prochaine ouverture
+                logger.logWarning("Compaction deferred to next start: " + e.getMessage());
+            }
+        }
+        logger.logInfo("Statistics store closed: " + getGamesPlayed() + " games");
+    }
+    
+    /**
+     * Écrit dans un fichier voisin les seuls enregistrements valides,
+     * sans l'espace préalloué
+     * La copie est écrite sous un nom temporaire, forcée sur disque, puis
+     * renommée : un fichier .compact présent est donc toujours complet
+     */
+    private Path compact() throws IOException {
+        Path target = compactionPath();
+        Path temporary = temporaryCompactionPath();
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                                                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(0, FILE_MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(8, GameRecord.SIZE);
+            header.putInt(COUNT_OFFSET, getGamesPlayed());
+            out.write(header);
+            
+            ByteBuffer source = mapped.duplicate();
+            int runStart = -1;
+            for (int i = 0; i <= recordCount; i++) {
+                boolean valid = i < recordCount && GameRecord.isValid(mapped, offsetOf(i));
+                if (valid && runStart < 0) {
+                    runStart = i;
+                } else if (!valid && runStart >= 0) {
+                    // Copie les plages d'enregistrements valides consécutifs en un seul appel
+                    source.limit(offsetOf(i)).position(offsetOf(runStart));
+                    while (source.hasRemaining()) {
+                        out.write(source);
+                    }
+                    runStart = -1;
+                }
+            }
+            out.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+    
+    /**
+     * Installe une compaction différée, seulement si son en-tête et sa
+     * taille concordent ; une copie interrompue est supprimée
+     */
+    private void installPendingCompaction() throws IOException {
+        Files.deleteIfExists(temporaryCompactionPath());
+        Path pending = compactionPath();
+        if (!Files.exists(pending)) {
+            return;
+        }
+        if (isCompleteCompaction(pending)) {
+            Files.move(pending, path, StandardCopyOption.REPLACE_EXISTING);
+            logger.logInfo("Installed pending statistics compaction");
+        } else {
+            Files.delete(pending);
+            logger.logWarning("Discarded incomplete statistics compaction: " + pending);
+        }
+    }
+    
+    private static boolean isCompleteCompaction(Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (in.read(header) < 0) {
+                    return false;
+                }
+            }
+            long expected = HEADER_SIZE + (long) header.getInt(COUNT_OFFSET) * GameRecord.SIZE;
+            return header.getInt(0) == FILE_MAGIC && header.getInt(4) == VERSION
+                    && header.getInt(8) == GameRecord.SIZE && in.size() == expected;
+        }
+    }
+    
+    private Path compactionPath() {
+        return path.resolveSibling(path.getFileName() + ".compact");
+    }
+    
+    private Path temporaryCompactionPath() {
+        return path.resolveSibling(path.getFileName() + ".compact.tmp");
+    }
+    
+    private void initializeFile() throws IOException {
+        map(INITIAL_CAPACITY);
+        mapped.putInt(0, FILE_MAGIC);
+        mapped.putInt(4, VERSION);
+        mapped.putInt(8, GameRecord.SIZE);
+        mapped.putInt(COUNT_OFFSET, 0);
+    }
+    
+    private int recordsInFile() throws IOException {
+        return (int) Math.min((channel.size() - HEADER_SIZE) / GameRecord.SIZE, MAX_MAPPED_RECORDS);
+    }
+    
+    /**
+     * (Re)projette le fichier avec la capacité demandée
+     */
+    private void map(int newCapacity) throws IOException {
+        long size = HEADER_SIZE + (long) newCapacity * GameRecord.SIZE;
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        capacity = newCapacity;
+    }
+    
+    /**
+     * Parcours séquentiel du journal : statistiques et classement
+     */
+    private void rebuildIndex() {
+        recordCount = Math.min(mapped.getInt(COUNT_OFFSET), capacity);
+        invalidRecords = 0;
+        topCount = 0;
+        totalScore = 0;
+        totalLines = 0;
+        for (int i = 0; i < recordCount; i++) {
+            int offset = offsetOf(i);
+            if (GameRecord.isValid(mapped, offset)) {
+                indexRecord(i, GameRecord.readScore(mapped, offset), GameRecord.readLines(mapped, offset));
+            } else {
+                invalidRecords++;
+            }
+        }
+    }
+    
+    private void indexRecord(int index, int score, int lines) {
+        totalScore += score;
+        totalLines += lines;
+        if (topCount == leaderboardSize && score <= topScores[topCount - 1]) {
+            return;
+        }
+        // Insertion triée dans le top-K (à score égal, la partie la plus ancienne reste devant)
+        int position = topCount < leaderboardSize ? topCount : leaderboardSize - 1;
+        while (position > 0 && topScores[position - 1] < score) {
+            topScores[position] = topScores[position - 1];
+            topIndexes[position] = topIndexes[position - 1];
+            position--;
+        }
+        topScores[position] = score;
+        topIndexes[position] = index;
+        if (topCount < leaderboardSize) {
+            topCount++;
+        }
+    }
+    
+    private static int offsetOf(int index) {
+        return HEADER_SIZE + index * GameRecord.SIZE;
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+}
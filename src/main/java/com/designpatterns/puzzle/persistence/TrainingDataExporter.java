@@ -0,0 +1,347 @@
+package com.designpatterns.puzzle.persistence;
+
+import com.designpatterns.puzzle.core.LockListener;
+import com.designpatterns.puzzle.model.ActivePiece;
+import com.designpatterns.puzzle.model.GameGrid;
+import com.designpatterns.puzzle.patterns.decorator.PuzzlePiece;
+import com.designpatterns.puzzle.patterns.factory.PieceFactory;
+import com.designpatterns.puzzle.utils.GameLogger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Export des verrouillages de pièces pour l'entraînement des évaluateurs
+ * Chaque verrouillage donne un enregistrement : grille avant la pose (masques
+ * de lignes), type de pièce, rotation, colonne, lignes effacées et points
+ * gagnés. Les enregistrements sont regroupés par blocs stockés colonne par
+ * colonne, chaque colonne compressée séparément (Deflater).
+ * La partie remplit un bloc préalloué ; un thread d'écriture compresse et
+ * écrit les blocs pleins puis les rend. Le nombre de blocs est fixe : la
+ * mémoire est bornée, et la partie n'attend que si l'écriture prend du retard.
+ * Le surcoût pour la partie n'est faible que si le thread d'écriture dispose
+ * de son propre cœur : sur un seul cœur, la compression lui prend son temps.
+ * Format : en-tête (magic "PGTD", version, largeur, hauteur, mots par ligne)
+ * puis blocs (magic "PGTB", nombre d'enregistrements, puis pour chaque
+ * colonne sa taille brute et compressée, puis les colonnes compressées).
+ * La colonne des grilles range le mot w de la ligne r de tous les
+ * enregistrements à la suite, pour chaque (r, w) ; chaque mot y est réduit
+ * à ses octets utiles, poids faible en premier (2 octets pour 10 colonnes)
+ */
+public class TrainingDataExporter implements LockListener, Closeable {
+    
+    public static final int COLUMN_BOARD = 0;
+    public static final int COLUMN_PIECE = 1;
+    public static final int COLUMN_ROTATION = 2;
+    public static final int COLUMN_X = 3;
+    public static final int COLUMN_LINES = 4;
+    public static final int COLUMN_SCORE_DELTA = 5;
+    public static final int COLUMN_COUNT = 6;
+    // Type de pièce inconnu dans la colonne des pièces
+    public static final byte UNKNOWN_PIECE = -1;
+    
+    private static final GameLogger logger = GameLogger.getInstance();
+    private static final int FILE_MAGIC = 0x50475444;  // "PGTD"
+    private static final int BLOCK_MAGIC = 0x50475442; // "PGTB"
+    private static final int VERSION = 1;
+    private static final int BLOCK_RECORDS = 4096;
+    private static final int BLOCK_BUFFERS = 4;
+    
+    private final Path path;
+    private final int width;
+    private final int height;
+    private final int words;
+    // Octets utiles du dernier mot d'une ligne (colonnes restantes)
+    private final int lastWordBytes;
+    private final FileChannel channel;
+    private final BlockingQueue<Block> freeBlocks = new ArrayBlockingQueue<>(BLOCK_BUFFERS);
+    private final BlockingQueue<Block> fullBlocks = new ArrayBlockingQueue<>(BLOCK_BUFFERS + 1);
+    private final Block endOfStream;
+    private final Thread writer;
+    private Block current;
+    private long recordCount;
+    private volatile IOException failure;
+    private boolean closed;
+    
+    // Tampons du thread d'écriture
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final ByteBuffer raw;
+    private final byte[] compressed;
+    private final ByteBuffer header = ByteBuffer.allocate(2 * Integer.BYTES * (COLUMN_COUNT + 1));
+    
+    /**
+     * Crée le fichier d'export pour des grilles de la taille donnée
+     */
+    public TrainingDataExporter(Path path, int width, int height) throws IOException {
+        this.path = path;
+        this.width = width;
+        this.height = height;
+        this.words = (width + 63) >>> 6;
+        this.lastWordBytes = (((width - 1) & 63) >>> 3) + 1;
+        for (int i = 0; i < BLOCK_BUFFERS; i++) {
+            freeBlocks.add(new Block(height * words));
+        }
+        this.endOfStream = new Block(0);
+        this.raw = ByteBuffer.allocate(height * words * BLOCK_RECORDS * Long.BYTES);
+        this.compressed = new byte[raw.capacity() + raw.capacity() / 1000 + 64];
+        
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer fileHeader = ByteBuffer.allocate(5 * Integer.BYTES);
+        fileHeader.putInt(FILE_MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(words).flip();
+        writeFully(fileHeader);
+        
+        this.writer = new Thread(this::writeBlocks, "training-export");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    @Override
+    public void pieceLocking(GameGrid grid, ActivePiece piece) {
+        if (closed || failure != null) {
+            return;
+        }
+        if (grid.getWidth() != width || grid.getHeight() != height) {
+            throw new IllegalArgumentException("Exporter built for " + width + "x" + height);
+        }
+        if (current == null) {
+            current = takeFreeBlock();
+        }
+        Block block = current;
+        int index = block.count;
+        // Copie contiguë par enregistrement ; la transposition en colonnes
+        // est faite par le thread d'écriture
+        int base = index * height * words;
+        int top = grid.getHighestRow();
+        block.tops[index] = top;
+        if (words == 1) {
+            for (int row = top; row < height; row++) {
+                block.boards[base + row] = grid.getRowWord(row, 0);
+            }
+        } else {
+            for (int row = top; row < height; row++) {
+                for (int word = 0; word < words; word++) {
+                    block.boards[base + row * words + word] = grid.getRowWord(row, word);
+                }
+            }
+        }
+        // Le type est retrouvé par le thread d'écriture
+        block.pieces[index] = piece.getPiece();
+        block.rotations[index] = (byte) piece.getRotation();
+        block.xs[index] = (short) piece.getX();
+    }
+    
+    @Override
+    public void pieceLocked(int lines, int scoreDelta) {
+        Block block = current;
+        if (block == null) {
+            return;
+        }
+        block.lines[block.count] = (byte) lines;
+        block.scoreDeltas[block.count] = scoreDelta;
+        block.count++;
+        recordCount++;
+        if (block.count == BLOCK_RECORDS) {
+            current = null;
+            putFullBlock(block);
+        }
+    }
+    
+    private Block takeFreeBlock() {
+        try {
+            return freeBlocks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the training writer", e);
+        }
+    }
+    
+    private void putFullBlock(Block block) {
+        try {
+            fullBlocks.put(block);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the training writer", e);
+        }
+    }
+    
+    /**
+     * Boucle du thread d'écriture : compresse et écrit les blocs pleins
+     * Après une erreur, les blocs sont rendus sans être écrits
+     */
+    private void writeBlocks() {
+        while (true) {
+            Block block;
+            try {
+                block = fullBlocks.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (block == endOfStream) {
+                return;
+            }
+            if (failure == null) {
+                try {
+                    writeBlock(block);
+                } catch (IOException e) {
+                    failure = e;
+                    logger.logError("Training data export failed (" + path + ")", e);
+                }
+            }
+            block.count = 0;
+            Arrays.fill(block.pieces, null);
+            freeBlocks.add(block);
+        }
+    }
+    
+    private void writeBlock(Block block) throws IOException {
+        int count = block.count;
+        header.clear();
+        header.putInt(BLOCK_MAGIC).putInt(count);
+        // Les colonnes compressées suivent l'en-tête, dont les tailles sont connues à la fin
+        long headerPosition = channel.position();
+        channel.position(headerPosition + header.capacity());
+        
+        // Transposition en un seul passage séquentiel sur les grilles copiées :
+        // seules les lignes écrites par la partie (à partir de la plus haute)
+        // sont lues, le bloc n'a donc pas à être remis à zéro
+        raw.clear();
+        byte[] bytes = raw.array();
+        int boardWords = height * words;
+        int rowBytes = (words - 1) * Long.BYTES + lastWordBytes;
+        int length = count * height * rowBytes;
+        Arrays.fill(bytes, 0, length, (byte) 0);
+        for (int i = 0; i < count; i++) {
+            int record = i * boardWords;
+            for (int row = block.tops[i]; row < height; row++) {
+                for (int w = 0; w < words; w++) {
+                    int index = record + row * words + w;
+                    long value = block.boards[index];
+                    if (value == 0) {
+                        continue;
+                    }
+                    int size = w == words - 1 ? lastWordBytes : Long.BYTES;
+                    int position = count * (row * rowBytes + w * Long.BYTES) + i * size;
+                    for (int b = 0; b < size; b++) {
+                        bytes[position + b] = (byte) (value >>> (b << 3));
+                    }
+                }
+            }
+        }
+        raw.position(length);
+        writeColumn();
+        raw.clear();
+        for (int i = 0; i < count; i++) {
+            PieceFactory.PieceType type = PieceFactory.typeOf(block.pieces[i]);
+            raw.put(type != null ? (byte) type.ordinal() : UNKNOWN_PIECE);
+        }
+        writeColumn();
+        raw.clear();
+        raw.put(block.rotations, 0, count);
+        writeColumn();
+        raw.clear();
+        for (int i = 0; i < count; i++) {
+            raw.putShort(block.xs[i]);
+        }
+        writeColumn();
+        raw.clear();
+        raw.put(block.lines, 0, count);
+        writeColumn();
+        raw.clear();
+        for (int i = 0; i < count; i++) {
+            raw.putInt(block.scoreDeltas[i]);
+        }
+        writeColumn();
+        
+        long end = channel.position();
+        header.flip();
+        channel.position(headerPosition);
+        writeFully(header);
+        channel.position(end);
+    }
+    
+    /**
+     * Compresse le contenu de raw, écrit la colonne et note ses tailles dans l'en-tête
+     */
+    private void writeColumn() throws IOException {
+        raw.flip();
+        deflater.reset();
+        deflater.setInput(raw.array(), 0, raw.limit());
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        header.putInt(raw.limit()).putInt(length);
+        writeFully(ByteBuffer.wrap(compressed, 0, length));
+    }
+    
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    
+    /**
+     * Nombre d'enregistrements reçus depuis la création
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+    
+    /**
+     * Écrit le dernier bloc, arrête le thread d'écriture et ferme le fichier
+     * Signale l'erreur d'écriture éventuelle
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (current != null && current.count > 0) {
+            putFullBlock(current);
+        }
+        current = null;
+        putFullBlock(endOfStream);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        deflater.end();
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+        logger.logInfo("Training data exported: " + recordCount + " records (" + path + ")");
+    }
+    
+    /**
+     * Bloc d'enregistrements en colonnes
+     */
+    private static final class Block {
+        
+        final long[] boards;
+        // Ligne la plus haute de chaque grille : les lignes au-dessus sont vides
+        final int[] tops = new int[BLOCK_RECORDS];
+        final PuzzlePiece[] pieces = new PuzzlePiece[BLOCK_RECORDS];
+        final byte[] rotations = new byte[BLOCK_RECORDS];
+        final short[] xs = new short[BLOCK_RECORDS];
+        final byte[] lines = new byte[BLOCK_RECORDS];
+        final int[] scoreDeltas = new int[BLOCK_RECORDS];
+        int count;
+        
+        Block(int boardWords) {
+            boards = new long[boardWords * BLOCK_RECORDS];
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.designpatterns.puzzle.replay;
+
+import com.designpatterns.puzzle.core.InputCommand;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Partie enregistrée : métadonnées et commandes de jeu
+ * Les commandes sont une vue en lecture seule sur le segment projeté
+ * en mémoire (aucune copie), un octet par commande
+ */
+public final class Replay {
+    
+    private final long gameId;
+    private final long seed;
+    private final long timestamp;
+    private final int score;
+    private final int level;
+    private final int linesCleared;
+    private final ByteBuffer commands;
+    
+    Replay(long gameId, long seed, long timestamp, int score, int level, int linesCleared, ByteBuffer commands) {
+        this.gameId = gameId;
+        this.seed = seed;
+        this.timestamp = timestamp;
+        this.score = score;
+        this.level = level;
+        this.linesCleared = linesCleared;
+        this.commands = commands;
+    }
+    
+    public int getCommandCount() {
+        return commands.limit();
+    }
+    
+    /**
+     * Commande à l'index donné (accès absolu, sans déplacer la vue)
+     */
+    public InputCommand getCommand(int index) {
+        return InputCommand.fromCode(commands.get(index));
+    }
+    
+    /**
+     * Vue en lecture seule des codes de commande
+     */
+    public ByteBuffer getCommands() {
+        return commands.duplicate();
+    }
+    
+    public long getGameId() {
+        return gameId;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    public int getLevel() {
+        return level;
+    }
+    
+    public int getLinesCleared() {
+        return linesCleared;
+    }
+    
+    @Override
+    public String toString() {
+        return "Replay[id=" + gameId + ", seed=" + seed + ", score=" + score
+                + ", commands=" + getCommandCount() + "]";
+    }
+}
@@ -0,0 +1,455 @@
+package com.designpatterns.puzzle.replay;
+
+import com.designpatterns.puzzle.utils.GameLogger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Archive des replays
+ *
+ * Les parties sont ajoutées à un grand fichier segment par jour
+ * (replay-AAAAMMJJ-NN.seg), écrit au travers d'un MappedByteBuffer et
+ * découpé en parties de 1 Go au plus. Un index (replays.idx) d'entrées de
+ * taille fixe associe à chaque identifiant de partie sa graine, son score
+ * et sa position ; il est chargé en tableaux primitifs à l'ouverture.
+ *
+ * Format d'une entrée de segment (en-tête de 48 octets) :
+ * magic, longueur, id, graine, date, score, niveau, lignes,
+ * nombre de commandes, puis un octet par commande.
+ */
+public class ReplayArchive implements Closeable {
+    
+    static final int ENTRY_HEADER_SIZE = 48;
+    
+    private static final GameLogger logger = GameLogger.getInstance();
+    private static final int SEGMENT_MAGIC = 0x50475253; // "PGRS"
+    private static final int ENTRY_MAGIC = 0x52504C59;   // "RPLY"
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER_SIZE = 64;
+    private static final int WRITE_POSITION_OFFSET = 16;
+    private static final int INDEX_ENTRY_SIZE = 40;
+    private static final long INITIAL_SEGMENT_SIZE = 16L * 1024 * 1024;
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+    private static final int MAX_PARTS_PER_DAY = 100;
+    private static final String INDEX_FILE = "replays.idx";
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+    
+    private final Path directory;
+    private final FileChannel indexChannel;
+    private final ByteBuffer indexEntry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+    
+    // Segment en cours d'écriture
+    private int activeSegmentId = -1;
+    private FileChannel activeChannel;
+    private MappedByteBuffer activeMap;
+    private long writePosition;
+    
+    // Segments ouverts en lecture seule
+    private final Map<Integer, MappedByteBuffer> readSegments = new HashMap<>();
+    
+    // Index en mémoire (la position d'une entrée est l'identifiant de la partie)
+    private int count;
+    private long[] seeds = new long[1024];
+    private int[] scores = new int[1024];
+    private int[] segmentIds = new int[1024];
+    private long[] offsets = new long[1024];
+    
+    // Table de hachage graine -> chaîne d'entrées
+    private int[] seedHeads = new int[2048];
+    private int[] seedNext = new int[1024];
+    
+    // Entrées triées par score (score << 32 | position), reconstruites à la demande
+    private long[] scoreOrder = new long[0];
+    private boolean scoreOrderDirty;
+    
+    public ReplayArchive(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        Arrays.fill(seedHeads, -1);
+        this.indexChannel = FileChannel.open(directory.resolve(INDEX_FILE), StandardOpenOption.CREATE,
+                                             StandardOpenOption.READ, StandardOpenOption.WRITE);
+        loadIndex();
+        logger.logInfo("Replay archive opened: " + count + " games (" + directory + ")");
+    }
+    
+    /**
+     * Ajoute une partie au segment du jour et à l'index
+     * Retourne l'identifiant attribué à la partie
+     */
+    public synchronized long append(long seed, int score, int level, int linesCleared,
+                                    byte[] commands, int commandCount) throws IOException {
+        int entryLength = ENTRY_HEADER_SIZE + commandCount;
+        ensureActiveSegment(entryLength);
+        
+        long gameId = count;
+        int offset = (int) writePosition;
+        activeMap.putInt(offset, ENTRY_MAGIC);
+        activeMap.putInt(offset + 4, entryLength);
+        activeMap.putLong(offset + 8, gameId);
+        activeMap.putLong(offset + 16, seed);
+        activeMap.putLong(offset + 24, System.currentTimeMillis());
+        activeMap.putInt(offset + 32, score);
+        activeMap.putInt(offset + 36, level);
+        activeMap.putInt(offset + 40, linesCleared);
+        activeMap.putInt(offset + 44, commandCount);
+        activeMap.put(offset + ENTRY_HEADER_SIZE, commands, 0, commandCount);
+        writePosition += entryLength;
+        activeMap.putLong(WRITE_POSITION_OFFSET, writePosition);
+        
+        // L'entrée d'index n'est écrite qu'une fois le replay complet dans le segment
+        indexEntry.clear();
+        indexEntry.putLong(gameId).putLong(seed).putInt(score).putInt(activeSegmentId)
+                  .putLong(offset).putInt(entryLength).putInt(0);
+        indexEntry.flip();
+        long indexPosition = gameId * INDEX_ENTRY_SIZE;
+        while (indexEntry.hasRemaining()) {
+            indexPosition += indexChannel.write(indexEntry, indexPosition);
+        }
+        
+        addToIndex(seed, score, activeSegmentId, offset);
+        return gameId;
+    }
+    
+    /**
+     * Ouvre un replay sans copie : les commandes restent dans le segment projeté
+     * Retourne null si l'identifiant est inconnu
+     */
+    public synchronized Replay open(long gameId) throws IOException {
+        if (gameId < 0 || gameId >= count) {
+            return null;
+        }
+        int position = (int) gameId;
+        return readEntry(segmentBuffer(segmentIds[position]), (int) offsets[position]);
+    }
+    
+    /**
+     * Identifiants des parties jouées avec cette graine
+     */
+    public synchronized long[] findBySeed(long seed) {
+        long[] result = new long[4];
+        int found = 0;
+        for (int position = seedHeads[bucketOf(seed)]; position >= 0; position = seedNext[position]) {
+            if (seeds[position] == seed) {
+                if (found == result.length) {
+                    result = Arrays.copyOf(result, found * 2);
+                }
+                result[found++] = position;
+            }
+        }
+        long[] ids = Arrays.copyOf(result, found);
+        Arrays.sort(ids);
+        return ids;
+    }
+    
+    /**
+     * Identifiants des parties dont le score est dans [minScore, maxScore],
+     * par score croissant
+     */
+    public synchronized long[] findByScore(int minScore, int maxScore) {
+        long[] order = scoreOrder();
+        if (minScore > maxScore) {
+            return new long[0];
+        }
+        int from = lowerBound(order, scoreKey(minScore, 0));
+        int to = maxScore == Integer.MAX_VALUE ? order.length : lowerBound(order, scoreKey(maxScore + 1, 0));
+        long[] ids = new long[Math.max(0, to - from)];
+        for (int i = from; i < to; i++) {
+            ids[i - from] = order[i] & 0xFFFFFFFFL;
+        }
+        return ids;
+    }
+    
+    /**
+     * Identifiants des meilleures parties, par score décroissant
+     */
+    public synchronized long[] findTopScores(int limit) {
+        long[] order = scoreOrder();
+        int n = Math.min(limit, order.length);
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = order[order.length - 1 - i] & 0xFFFFFFFFL;
+        }
+        return ids;
+    }
+    
+    /**
+     * Parcourt séquentiellement toutes les parties d'un segment, dans l'ordre
+     * du fichier (lecture à la vitesse du disque pour les re-simulations)
+     */
+    public void forEachInSegment(int segmentId, Consumer<Replay> consumer) throws IOException {
+        ByteBuffer segment;
+        long end;
+        synchronized (this) {
+            segment = segmentBuffer(segmentId);
+            end = segment.getLong(WRITE_POSITION_OFFSET);
+        }
+        int offset = SEGMENT_HEADER_SIZE;
+        while (offset + ENTRY_HEADER_SIZE <= end) {
+            Replay replay = readEntry(segment, offset);
+            if (replay == null) {
+                break;
+            }
+            consumer.accept(replay);
+            offset += segment.getInt(offset + 4);
+        }
+    }
+    
+    /**
+     * Identifiants des segments présents dans l'archive, dans l'ordre chronologique
+     */
+    public List<Integer> getSegmentIds() throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "replay-*.seg")) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                int day = Integer.parseInt(name.substring(7, 15));
+                int part = Integer.parseInt(name.substring(16, 18));
+                ids.add(day * MAX_PARTS_PER_DAY + part);
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+    
+    public synchronized int getGameCount() {
+        return count;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        if (activeMap != null) {
+            activeMap.force();
+            activeChannel.close();
+            activeMap = null;
+        }
+        indexChannel.force(true);
+        indexChannel.close();
+        readSegments.clear();
+        logger.logInfo("Replay archive closed: " + count + " games");
+    }
+    
+    private Replay readEntry(ByteBuffer segment, int offset) {
+        if (segment.getInt(offset) != ENTRY_MAGIC) {
+            return null;
+        }
+        int commandCount = segment.getInt(offset + 44);
+        ByteBuffer commands = segment.slice(offset + ENTRY_HEADER_SIZE, commandCount).asReadOnlyBuffer();
+        return new Replay(segment.getLong(offset + 8), segment.getLong(offset + 16), segment.getLong(offset + 24),
+                          segment.getInt(offset + 32), segment.getInt(offset + 36), segment.getInt(offset + 40),
+                          commands);
+    }
+    
+    /**
+     * Prépare le segment du jour pour une entrée de la taille donnée :
+     * change de jour, agrandit la projection ou passe à la partie suivante
+     */
+    private void ensureActiveSegment(int entryLength) throws IOException {
+        if (entryLength > MAX_SEGMENT_SIZE - SEGMENT_HEADER_SIZE) {
+            throw new IOException("Replay too large: " + entryLength + " bytes");
+        }
+        int day = Integer.parseInt(LocalDate.now(ZoneOffset.UTC).format(DAY_FORMAT));
+        if (activeMap == null || activeSegmentId / MAX_PARTS_PER_DAY != day) {
+            openForWrite(latestSegmentOf(day));
+        }
+        long required = writePosition + entryLength;
+        if (required <= activeMap.capacity()) {
+            return;
+        }
+        if (required <= MAX_SEGMENT_SIZE) {
+            long size = activeMap.capacity();
+            while (size < required) {
+                size = Math.min(size * 2, MAX_SEGMENT_SIZE);
+            }
+            activeMap.force();
+            activeMap = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } else {
+            int part = activeSegmentId % MAX_PARTS_PER_DAY + 1;
+            if (part >= MAX_PARTS_PER_DAY) {
+                throw new IOException("Too many replay segments for day " + day);
+            }
+            openForWrite(day * MAX_PARTS_PER_DAY + part);
+        }
+    }
+    
+    private int latestSegmentOf(int day) throws IOException {
+        int latest = day * MAX_PARTS_PER_DAY;
+        for (int segmentId : getSegmentIds()) {
+            if (segmentId / MAX_PARTS_PER_DAY == day) {
+                latest = Math.max(latest, segmentId);
+            }
+        }
+        return latest;
+    }
+    
+    private void openForWrite(int segmentId) throws IOException {
+        if (activeMap != null) {
+            activeMap.force();
+            activeChannel.close();
+        }
+        readSegments.remove(segmentId);
+        activeChannel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.CREATE,
+                                         StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = activeChannel.size() < SEGMENT_HEADER_SIZE;
+        long size = Math.max(activeChannel.size(), INITIAL_SEGMENT_SIZE);
+        activeMap = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        activeSegmentId = segmentId;
+        
+        if (created) {
+            activeMap.putInt(0, SEGMENT_MAGIC);
+            activeMap.putInt(4, VERSION);
+            activeMap.putInt(8, segmentId);
+            activeMap.putLong(WRITE_POSITION_OFFSET, SEGMENT_HEADER_SIZE);
+        } else if (activeMap.getInt(0) != SEGMENT_MAGIC) {
+            throw new IOException("Not a replay segment: " + segmentPath(segmentId));
+        }
+        writePosition = activeMap.getLong(WRITE_POSITION_OFFSET);
+    }
+    
+    /**
+     * Projection d'un segment : celle du segment actif, sinon une projection
+     * en lecture seule mise en cache
+     */
+    private ByteBuffer segmentBuffer(int segmentId) throws IOException {
+        if (segmentId == activeSegmentId && activeMap != null) {
+            return activeMap.duplicate();
+        }
+        MappedByteBuffer mapped = readSegments.get(segmentId);
+        if (mapped == null) {
+            try (FileChannel channel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            readSegments.put(segmentId, mapped);
+        }
+        return mapped.duplicate();
+    }
+    
+    private Path segmentPath(int segmentId) {
+        return directory.resolve(String.format("replay-%08d-%02d.seg",
+                                               segmentId / MAX_PARTS_PER_DAY, segmentId % MAX_PARTS_PER_DAY));
+    }
+    
+    /**
+     * Charge l'index ; une entrée incomplète en fin de fichier est ignorée
+     */
+    private void loadIndex() throws IOException {
+        long entries = indexChannel.size() / INDEX_ENTRY_SIZE;
+        ByteBuffer chunk = ByteBuffer.allocate(INDEX_ENTRY_SIZE * 16384);
+        long position = 0;
+        for (long loaded = 0; loaded < entries; ) {
+            chunk.clear();
+            int toRead = (int) Math.min(chunk.capacity(), (entries - loaded) * INDEX_ENTRY_SIZE);
+            chunk.limit(toRead);
+            while (chunk.hasRemaining()) {
+                int read = indexChannel.read(chunk, position + chunk.position());
+                if (read < 0) {
+                    break;
+                }
+            }
+            chunk.flip();
+            position += toRead;
+            while (chunk.remaining() >= INDEX_ENTRY_SIZE) {
+                chunk.getLong();
+                long seed = chunk.getLong();
+                int score = chunk.getInt();
+                int segmentId = chunk.getInt();
+                long offset = chunk.getLong();
+                chunk.getInt();
+                chunk.getInt();
+                addToIndex(seed, score, segmentId, offset);
+                loaded++;
+            }
+        }
+    }
+    
+    private void addToIndex(long seed, int score, int segmentId, long offset) {
+        if (count == seeds.length) {
+            int capacity = seeds.length * 2;
+            seeds = Arrays.copyOf(seeds, capacity);
+            scores = Arrays.copyOf(scores, capacity);
+            segmentIds = Arrays.copyOf(segmentIds, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            seedNext = Arrays.copyOf(seedNext, capacity);
+        }
+        int position = count++;
+        seeds[position] = seed;
+        scores[position] = score;
+        segmentIds[position] = segmentId;
+        offsets[position] = offset;
+        
+        if (count > seedHeads.length / 2) {
+            rehashSeeds(seedHeads.length * 2);
+        } else {
+            int bucket = bucketOf(seed);
+            seedNext[position] = seedHeads[bucket];
+            seedHeads[bucket] = position;
+        }
+        scoreOrderDirty = true;
+    }
+    
+    private void rehashSeeds(int buckets) {
+        seedHeads = new int[buckets];
+        Arrays.fill(seedHeads, -1);
+        for (int position = 0; position < count; position++) {
+            int bucket = bucketOf(seeds[position]);
+            seedNext[position] = seedHeads[bucket];
+            seedHeads[bucket] = position;
+        }
+    }
+    
+    private int bucketOf(long seed) {
+        long h = seed * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (seedHeads.length - 1);
+    }
+    
+    private long[] scoreOrder() {
+        if (scoreOrderDirty) {
+            scoreOrder = new long[count];
+            for (int position = 0; position < count; position++) {
+                scoreOrder[position] = scoreKey(scores[position], position);
+            }
+            Arrays.sort(scoreOrder);
+            scoreOrderDirty = false;
+        }
+        return scoreOrder;
+    }
+    
+    /**
+     * Clé de tri : le score signé dans les 32 bits de poids fort (l'extension
+     * de signe garde l'ordre des scores), la position dans ceux de poids faible
+     */
+    private static long scoreKey(int score, int position) {
+        return ((long) score << 32) | position;
+    }
+    
+    private static int lowerBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,58 @@
+package com.designpatterns.puzzle.replay;
+
+import com.designpatterns.puzzle.core.GameRecorder;
+import com.designpatterns.puzzle.core.InputCommand;
+import com.designpatterns.puzzle.utils.GameLogger;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Enregistre les commandes d'une partie et l'archive à sa fin
+ */
+public class ReplayRecorder implements GameRecorder {
+    
+    private static final GameLogger logger = GameLogger.getInstance();
+    
+    private final ReplayArchive archive;
+    private byte[] commands = new byte[4096];
+    private int commandCount;
+    private long seed;
+    private boolean recording;
+    
+    public ReplayRecorder(ReplayArchive archive) {
+        this.archive = archive;
+    }
+    
+    @Override
+    public void gameStarted(long seed) {
+        this.seed = seed;
+        this.commandCount = 0;
+        this.recording = true;
+    }
+    
+    @Override
+    public void commandApplied(InputCommand command) {
+        if (!recording) {
+            return;
+        }
+        if (commandCount == commands.length) {
+            commands = Arrays.copyOf(commands, commands.length * 2);
+        }
+        commands[commandCount++] = command.getCode();
+    }
+    
+    @Override
+    public void gameEnded(int score, int level, int linesCleared) {
+        if (!recording) {
+            return;
+        }
+        recording = false;
+        try {
+            long gameId = archive.append(seed, score, level, linesCleared, commands, commandCount);
+            logger.logGameEvent("Replay archived (game " + gameId + ", " + commandCount + " commands)");
+        } catch (IOException e) {
+            logger.logError("Failed to archive replay", e);
+        }
+    }
+}
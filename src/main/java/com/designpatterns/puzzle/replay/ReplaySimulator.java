@@ -0,0 +1,72 @@
+package com.designpatterns.puzzle.replay;
+
+import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.core.InputCommand;
+import com.designpatterns.puzzle.core.LockListener;
+import com.designpatterns.puzzle.patterns.state.ReplayState;
+import com.designpatterns.puzzle.utils.GameLogger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Rejoue des parties archivées à partir de leur graine et de leurs commandes
+ */
+public final class ReplaySimulator {
+    
+    private static final GameLogger logger = GameLogger.getInstance();
+    
+    private ReplaySimulator() {
+    }
+    
+    /**
+     * Rejoue une partie et retourne le contexte dans son état final
+     */
+    public static GameContext simulate(Replay replay) {
+        return simulate(replay, null);
+    }
+    
+    /**
+     * Rejoue une partie en signalant ses verrouillages à un observateur (null = aucun)
+     */
+    public static GameContext simulate(Replay replay, LockListener lockListener) {
+        GameContext context = new GameContext(new ReplayState());
+        context.setLockListener(lockListener);
+        context.startReplay(replay.getSeed());
+        ByteBuffer commands = replay.getCommands();
+        while (commands.hasRemaining()) {
+            InputCommand command = InputCommand.fromCode(commands.get());
+            if (command != null) {
+                context.applyCommand(command);
+            }
+        }
+        return context;
+    }
+    
+    /**
+     * Vérifie que le rejeu retrouve le score et les lignes enregistrés
+     */
+    public static boolean verify(Replay replay) {
+        GameContext context = simulate(replay);
+        return context.getScore() == replay.getScore()
+                && context.getLinesCleared() == replay.getLinesCleared();
+    }
+    
+    /**
+     * Re-simule toutes les parties d'un segment en lecture séquentielle
+     * Retourne le nombre de parties dont le résultat diffère
+     */
+    public static int resimulateSegment(ReplayArchive archive, int segmentId) throws IOException {
+        int[] totals = new int[2];
+        archive.forEachInSegment(segmentId, replay -> {
+            totals[0]++;
+            if (!verify(replay)) {
+                totals[1]++;
+                logger.logWarning("Replay mismatch: " + replay);
+            }
+        });
+        logger.logInfo("Segment " + segmentId + " re-simulated: " + totals[0] + " games, "
+                       + totals[1] + " mismatches");
+        return totals[1];
+    }
+}
@@ -14,6 +14,8 @@ public class GameLogger {
     private static GameLogger instance;
     private static final Logger logger = LogManager.getLogger(GameLogger.class);
     
+    private volatile boolean verbose = true;
+    
     /**
      * Constructeur privé pour empêcher l'instanciation directe (Singleton)
      */
@@ -44,6 +46,9 @@ public class GameLogger {
      * Format: [TIMESTAMP] [STATE] Context: FROM_STATE -> TO_STATE
      */
     public void logStateChange(String context, String fromState, String toState) {
+        if (!verbose) {
+            return;
+        }
         String message = String.format("[STATE] %s: %s -> %s", context, fromState, toState);
         logger.info(message);
     }
@@ -53,6 +58,9 @@ public class GameLogger {
      * Format: [TIMESTAMP] [DECORATOR] DecoratorType applied to Target
      */
     public void logDecoratorApplied(String decoratorType, String target) {
+        if (!verbose) {
+            return;
+        }
         String message = String.format("[DECORATOR] %s applied to %s", decoratorType, target);
         logger.info(message);
     }
@@ -62,6 +70,9 @@ public class GameLogger {
      * Format: [TIMESTAMP] [DECORATOR] DecoratorType removed from Target
      */
     public void logDecoratorRemoved(String decoratorType, String target) {
+        if (!verbose) {
+            return;
+        }
         String message = String.format("[DECORATOR] %s removed from %s", decoratorType, target);
         logger.info(message);
     }
@@ -71,6 +82,9 @@ public class GameLogger {
      * Format: [TIMESTAMP] [EVENT] Event description
      */
     public void logGameEvent(String event) {
+        if (!verbose) {
+            return;
+        }
         String message = String.format("[EVENT] %s", event);
         logger.info(message);
     }
@@ -79,6 +93,9 @@ public class GameLogger {
      * Log la création d'un objet (Factory Pattern)
      */
     public void logObjectCreation(String objectType, String details) {
+        if (!verbose) {
+            return;
+        }
         String message = String.format("[FACTORY] Created %s: %s", objectType, details);
         logger.info(message);
     }
@@ -105,4 +122,16 @@ public class GameLogger {
                                       score, level, linesCleared);
         logger.info(message);
     }
+    
+    /**
+     * Active ou désactive les traces détaillées (états, décorateurs,
+     * événements, créations). Les infos, avertissements et erreurs restent tracés.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+    
+    public boolean isVerbose() {
+        return verbose;
+    }
 }
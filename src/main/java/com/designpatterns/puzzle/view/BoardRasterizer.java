@@ -0,0 +1,157 @@
+package com.designpatterns.puzzle.view;
+
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rendu de la grille dans un tampon de pixels ARGB
+ * Chaque case est une tuile précalculée (case vide avec son quadrillage, ou
+ * bloc d'une couleur avec fond, reflet et bordure, comme GameView.renderBlock) :
+ * rendre un frame revient à copier une ligne de tuile par ligne de pixels.
+ * Les pixels sont opaques, donc valides en ARGB prémultiplié
+ * (PixelFormat.getIntArgbPreInstance)
+ */
+public final class BoardRasterizer {
+    
+    private static final int BACKGROUND = 0xFF000000;
+    private static final int GRID_LINE = argb(Color.rgb(25, 25, 25));
+    private static final int MAX_CACHED_TILES = 256;
+    
+    private final int blockSize;
+    private final int[] emptyTile;
+    private final Map<Color, int[]> tiles = new HashMap<>();
+    private int[] pixels = new int[0];
+    private int width;
+    private int height;
+    
+    public BoardRasterizer(int blockSize) {
+        this.blockSize = blockSize;
+        this.emptyTile = new int[blockSize * blockSize];
+        Arrays.fill(emptyTile, BACKGROUND);
+        for (int i = 0; i < blockSize; i++) {
+            emptyTile[i] = GRID_LINE;
+            emptyTile[i * blockSize] = GRID_LINE;
+        }
+    }
+    
+    /**
+     * Dessine la fenêtre de grille et la pièce active du frame
+     */
+    public void rasterize(FrameSnapshot frame) {
+        int columns = frame.getColumns();
+        int rows = frame.getRows();
+        width = columns * blockSize;
+        height = rows * blockSize;
+        if (pixels.length < width * height) {
+            pixels = new int[width * height];
+        }
+        
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < columns; col++) {
+                Color color = frame.getCell(row, col);
+                blit(color != null ? tile(color) : emptyTile, col, row);
+            }
+        }
+        
+        Color pieceColor = frame.getPieceColor();
+        if (pieceColor != null) {
+            int[] tile = tile(pieceColor);
+            for (int bits = frame.getPieceMask() & 0xFFFF; bits != 0; bits &= bits - 1) {
+                int bit = Integer.numberOfTrailingZeros(bits);
+                int col = frame.getPieceX() + (bit & 3);
+                int row = frame.getPieceY() + (bit >>> 2);
+                if (col >= 0 && col < columns && row >= 0 && row < rows) {
+                    blit(tile, col, row);
+                }
+            }
+        }
+    }
+    
+    private void blit(int[] tile, int col, int row) {
+        int target = row * blockSize * width + col * blockSize;
+        for (int y = 0; y < blockSize; y++) {
+            System.arraycopy(tile, y * blockSize, pixels, target, blockSize);
+            target += width;
+        }
+    }
+    
+    /**
+     * Tuile d'un bloc de la couleur donnée, calculée au premier usage
+     */
+    private int[] tile(Color color) {
+        int[] tile = tiles.get(color);
+        if (tile == null) {
+            if (tiles.size() >= MAX_CACHED_TILES) {
+                tiles.clear();
+            }
+            tile = createTile(color);
+            tiles.put(color, tile);
+        }
+        return tile;
+    }
+    
+    private int[] createTile(Color color) {
+        int size = blockSize;
+        int[] tile = emptyTile.clone();
+        // Fond principal
+        int fill = argb(color);
+        for (int y = 1; y < size - 1; y++) {
+            Arrays.fill(tile, y * size + 1, y * size + size - 1, fill);
+        }
+        // Reflet discret en haut
+        int highlight = argb(color.brighter());
+        for (int y = 2; y < Math.min(4, size - 2); y++) {
+            for (int x = 2; x < size - 2; x++) {
+                tile[y * size + x] = blend(tile[y * size + x], highlight, 0.3);
+            }
+        }
+        // Bordure sombre d'un pixel
+        for (int i = 0; i < size; i++) {
+            tile[i] = blend(tile[i], BACKGROUND, 0.4);
+            tile[(size - 1) * size + i] = blend(tile[(size - 1) * size + i], BACKGROUND, 0.4);
+        }
+        for (int y = 1; y < size - 1; y++) {
+            tile[y * size] = blend(tile[y * size], BACKGROUND, 0.4);
+            tile[y * size + size - 1] = blend(tile[y * size + size - 1], BACKGROUND, 0.4);
+        }
+        return tile;
+    }
+    
+    /**
+     * Pixels du dernier frame, getWidth() par ligne
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    static int argb(Color color) {
+        return 0xFF000000
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+    }
+    
+    /**
+     * Mélange la couleur source sur dst avec l'opacité alpha
+     */
+    private static int blend(int dst, int src, double alpha) {
+        int result = 0xFF000000;
+        for (int shift = 0; shift <= 16; shift += 8) {
+            int d = (dst >>> shift) & 0xFF;
+            int s = (src >>> shift) & 0xFF;
+            result |= (int) Math.round(d + (s - d) * alpha) << shift;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package com.designpatterns.puzzle.view;
+
+import com.designpatterns.puzzle.model.ActivePiece;
+import com.designpatterns.puzzle.model.ColorPalette;
+import com.designpatterns.puzzle.model.GameGrid;
+
+/**
+ * Image compacte et immuable d'une grille pour le mode spectateur : un
+ * octet de palette par case (voir ColorPalette), pièce active incluse
+ */
+public final class BoardThumbnail {
+    
+    private final int width;
+    private final int height;
+    private final byte[] cells;
+    
+    private BoardThumbnail(int width, int height, byte[] cells) {
+        this.width = width;
+        this.height = height;
+        this.cells = cells;
+    }
+    
+    /**
+     * Capture la grille et la pièce active ; les lignes au-dessus de
+     * l'empilement sont vides et ne sont pas lues
+     */
+    public static BoardThumbnail capture(GameGrid grid, ActivePiece piece) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        byte[] cells = new byte[width * height];
+        for (int row = grid.getHighestRow(); row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                cells[row * width + col] = (byte) ColorPalette.indexOf(grid.getBlock(row, col));
+            }
+        }
+        if (piece != null) {
+            byte color = (byte) ColorPalette.indexOf(piece.getPiece().getColor());
+            for (int bits = piece.getCurrentMask() & 0xFFFF; bits != 0; bits &= bits - 1) {
+                int bit = Integer.numberOfTrailingZeros(bits);
+                int col = piece.getX() + (bit & 3);
+                int row = piece.getY() + (bit >>> 2);
+                if (col >= 0 && col < width && row >= 0 && row < height) {
+                    cells[row * width + col] = color;
+                }
+            }
+        }
+        return new BoardThumbnail(width, height, cells);
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    /**
+     * Index de palette d'une case (ColorPalette.EMPTY si vide)
+     */
+    public int getCell(int row, int col) {
+        return cells[row * width + col] & 0xFF;
+    }
+}
@@ -0,0 +1,61 @@
+package com.designpatterns.puzzle.view;
+
+import com.designpatterns.puzzle.core.GameContext;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Triple tampon sans verrou entre la simulation et le rendu
+ * Trois FrameSnapshot préalloués : le producteur remplit le sien puis
+ * l'échange avec celui du milieu, le consommateur échange le sien avec
+ * celui du milieu s'il est plus récent. Un seul échange atomique de chaque
+ * côté : aucun ne bloque l'autre, et le rendu lit toujours un frame complet.
+ * Un seul thread producteur et un seul thread consommateur
+ */
+public final class FrameBuffer {
+    
+    // Bit indiquant que le tampon du milieu n'a pas encore été lu
+    private static final int FRESH = 4;
+    private static final int INDEX = 3;
+    
+    private final FrameSnapshot[] frames = {new FrameSnapshot(), new FrameSnapshot(), new FrameSnapshot()};
+    private final AtomicInteger middle = new AtomicInteger(1);
+    
+    // Côté producteur
+    private int back = 0;
+    private long sequence;
+    private int viewColumn;
+    private int viewRow;
+    
+    // Côté consommateur
+    private int front = 2;
+    
+    /**
+     * Publie l'état courant de la partie (thread de simulation)
+     */
+    public void publish(GameContext context) {
+        FrameSnapshot frame = frames[back];
+        frame.capture(context, ++sequence, viewColumn, viewRow);
+        viewColumn = frame.getViewColumn();
+        viewRow = frame.getViewRow();
+        back = middle.getAndSet(back | FRESH) & INDEX;
+    }
+    
+    /**
+     * Vrai si un frame a été publié depuis le dernier appel à latest
+     */
+    public boolean hasFresh() {
+        return (middle.get() & FRESH) != 0;
+    }
+    
+    /**
+     * Dernier frame complet publié (thread de rendu)
+     * Le frame retourné reste valide jusqu'au prochain appel
+     */
+    public FrameSnapshot latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX;
+        }
+        return frames[front];
+    }
+}
@@ -0,0 +1,164 @@
+package com.designpatterns.puzzle.view;
+
+import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.model.ActivePiece;
+import com.designpatterns.puzzle.model.GameGrid;
+import com.designpatterns.puzzle.patterns.decorator.PuzzlePiece;
+import javafx.scene.paint.Color;
+
+/**
+ * Image de l'état du jeu pour un frame : fenêtre visible de la grille,
+ * pièce active, pièce suivante, HUD et nom de l'état
+ * Remplie par le thread de simulation (voir FrameBuffer), puis immuable
+ * une fois publiée : le rendu la lit sans verrou ni accès à GameContext.
+ * Les couleurs et pièces décorées référencées sont elles-mêmes immuables
+ */
+public final class FrameSnapshot {
+    
+    // Fenêtre visible de la grille : les grandes grilles défilent avec la pièce
+    public static final int VIEW_COLUMNS = 10;
+    public static final int VIEW_ROWS = 20;
+    
+    private long sequence;
+    private String stateName;
+    private int score;
+    private int level;
+    private int linesCleared;
+    
+    private int viewColumn;
+    private int viewRow;
+    private int columns;
+    private int rows;
+    private final Color[] cells = new Color[VIEW_COLUMNS * VIEW_ROWS];
+    
+    private int pieceMask;
+    private int pieceX;
+    private int pieceY;
+    private Color pieceColor;
+    private PuzzlePiece nextPiece;
+    
+    FrameSnapshot() {
+    }
+    
+    /**
+     * Copie l'état de la partie ; la fenêtre reste à sa position précédente
+     * s'il n'y a pas de pièce active
+     */
+    void capture(GameContext context, long sequence, int previousColumn, int previousRow) {
+        this.sequence = sequence;
+        stateName = context.getCurrentStateName();
+        score = context.getScore();
+        level = context.getLevel();
+        linesCleared = context.getLinesCleared();
+        nextPiece = context.getNextPiece();
+        
+        GameGrid grid = context.getGrid();
+        ActivePiece piece = context.getCurrentPiece();
+        columns = Math.min(grid.getWidth(), VIEW_COLUMNS);
+        rows = Math.min(grid.getHeight(), VIEW_ROWS);
+        viewColumn = previousColumn;
+        viewRow = previousRow;
+        if (piece != null) {
+            viewColumn = piece.getX() + 2 - columns / 2;
+            viewRow = piece.getY() + 2 - rows / 2;
+        }
+        viewColumn = Math.max(0, Math.min(viewColumn, grid.getWidth() - columns));
+        viewRow = Math.max(0, Math.min(viewRow, grid.getHeight() - rows));
+        
+        // Seules les cases de la fenêtre sont copiées (mots occupés d'une grille creuse)
+        for (int row = 0; row < rows; row++) {
+            grid.copyRow(viewRow + row, viewColumn, cells, row * columns, columns);
+        }
+        
+        if (piece != null) {
+            pieceMask = piece.getCurrentMask();
+            pieceX = piece.getX() - viewColumn;
+            pieceY = piece.getY() - viewRow;
+            pieceColor = piece.getPiece().getColor();
+        } else {
+            pieceMask = 0;
+            pieceColor = null;
+        }
+    }
+    
+    /**
+     * Numéro du frame, croissant à chaque publication (0 : aucun état publié)
+     */
+    public long getSequence() {
+        return sequence;
+    }
+    
+    /**
+     * Nom de l'état du jeu (null tant qu'aucun état n'a été publié)
+     */
+    public String getStateName() {
+        return stateName;
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    public int getLevel() {
+        return level;
+    }
+    
+    public int getLinesCleared() {
+        return linesCleared;
+    }
+    
+    /**
+     * Colonne de la grille affichée à gauche de la fenêtre
+     */
+    public int getViewColumn() {
+        return viewColumn;
+    }
+    
+    /**
+     * Ligne de la grille affichée en haut de la fenêtre
+     */
+    public int getViewRow() {
+        return viewRow;
+    }
+    
+    public int getColumns() {
+        return columns;
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    /**
+     * Couleur d'une case de la fenêtre (null si vide)
+     */
+    public Color getCell(int row, int col) {
+        return cells[row * columns + col];
+    }
+    
+    /**
+     * Masque 4x4 de la pièce active (0 sans pièce, voir Protocol.shapeMask)
+     */
+    public int getPieceMask() {
+        return pieceMask;
+    }
+    
+    /**
+     * Position de la pièce active relative à la fenêtre
+     */
+    public int getPieceX() {
+        return pieceX;
+    }
+    
+    public int getPieceY() {
+        return pieceY;
+    }
+    
+    public Color getPieceColor() {
+        return pieceColor;
+    }
+    
+    public PuzzlePiece getNextPiece() {
+        return nextPiece;
+    }
+}
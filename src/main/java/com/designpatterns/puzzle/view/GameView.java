@@ -1,12 +1,11 @@
 package com.designpatterns.puzzle.view;
 
-import com.designpatterns.puzzle.core.GameContext;
-import com.designpatterns.puzzle.core.GameManager;
-import com.designpatterns.puzzle.model.ActivePiece;
-import com.designpatterns.puzzle.model.GameGrid;
+import com.designpatterns.puzzle.model.ColorPalette;
+import com.designpatterns.puzzle.network.RemoteGameState;
 import com.designpatterns.puzzle.patterns.decorator.PuzzlePiece;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
@@ -19,59 +18,133 @@ public class GameView {
     
     private Canvas canvas;
     private GraphicsContext gc;
-    private GameManager gameManager;
+    // Rendu de la grille en pixels (null : opérations vectorielles)
+    private BoardRasterizer rasterizer;
+    private boolean wallCleared;
     
-    private static final double BLOCK_SIZE = 32;
-    private static final double GRID_X = 60;
-    private static final double GRID_Y = 60;
-    private static final double HUD_X = 420;
+    // Disposition partagée avec le rendu hors écran (voir ReplayFrameRenderer)
+    static final double BLOCK_SIZE = 32;
+    static final double GRID_X = 60;
+    static final double GRID_Y = 60;
+    static final double HUD_X = 420;
+    static final double NEXT_PANEL_Y = 540;
     
-    // Animation variables
+    // Animation variables, avancées selon le temps écoulé (par seconde)
+    private static final double PULSE_SPEED = 3.0;
+    private static final double STAR_SPEED = 120;
     private double menuPulseTime = 0;
     private double starRotation = 0;
     private double glowIntensity = 0;
+    private long lastAnimationNanos = -1;
     
     public GameView(Canvas canvas) {
+        this(canvas, RenderBackend.VECTOR);
+    }
+    
+    public GameView(Canvas canvas, RenderBackend backend) {
         this.canvas = canvas;
         this.gc = canvas.getGraphicsContext2D();
-        this.gameManager = GameManager.getInstance();
+        if (backend == RenderBackend.RASTER) {
+            this.rasterizer = new BoardRasterizer((int) BLOCK_SIZE);
+        }
     }
     
     /**
-     * Rend la vue complète avec animations
+     * Rend la vue complète avec animations, à partir du dernier frame publié
+     * par la simulation (voir FrameBuffer)
+     * @param now instant du rendu en nanosecondes (horloge de l'AnimationTimer)
      */
-    public void render() {
-        // Update animations
-        menuPulseTime += 0.05;
-        starRotation += 2;
-        glowIntensity = Math.abs(Math.sin(menuPulseTime));
+    public void render(FrameSnapshot frame, long now) {
+        updateAnimations(now);
         
         // Efface le canvas avec fond noir
         renderGradientBackground();
         
-        GameContext context = gameManager.getGameContext();
-        if (context == null) return;
-        
-        String stateName = context.getCurrentStateName();
+        String stateName = frame.getStateName();
+        if (stateName == null) return;
         
         switch (stateName) {
             case "MENU":
                 renderMenu();
                 break;
             case "PLAYING":
-                renderGame(context);
+                renderGame(frame);
                 break;
             case "PAUSED":
-                renderGame(context);
+                renderGame(frame);
                 renderPauseOverlay();
                 break;
             case "GAME_OVER":
-                renderGame(context);
-                renderGameOverOverlay(context);
+                renderGame(frame);
+                renderGameOverOverlay(frame.getScore(), frame.getLevel(), frame.getLinesCleared());
                 break;
         }
     }
     
+    /**
+     * Rend l'état reçu d'un serveur distant (mode client léger)
+     */
+    public void render(RemoteGameState remote, long now) {
+        updateAnimations(now);
+        renderGradientBackground();
+        
+        synchronized (remote) {
+            if (!remote.isConnected()) {
+                gc.setFont(Font.font("Arial", FontWeight.NORMAL, 20));
+                gc.setFill(Color.rgb(200, 200, 200));
+                gc.fillText("Connecting to server...", canvas.getWidth() / 2 - 100, canvas.getHeight() / 2);
+                return;
+            }
+            
+            String stateName = remote.getStateName();
+            if ("MENU".equals(stateName)) {
+                renderMenu();
+                return;
+            }
+            
+            renderRemoteGame(remote);
+            if ("PAUSED".equals(stateName)) {
+                renderPauseOverlay();
+            } else if ("GAME_OVER".equals(stateName)) {
+                renderGameOverOverlay(remote.getScore(), remote.getLevel(), remote.getLinesCleared());
+            }
+        }
+    }
+    
+    /**
+     * Rend le mur de vignettes du mode spectateur
+     * Seul le rectangle des vignettes changées est recopié, en une opération
+     */
+    public void render(SpectatorWall wall) {
+        int offsetX = Math.max(0, ((int) canvas.getWidth() - wall.getWidth()) / 2);
+        int offsetY = Math.max(0, ((int) canvas.getHeight() - wall.getHeight()) / 2);
+        if (!wallCleared) {
+            renderGradientBackground();
+            wallCleared = true;
+        }
+        if (wall.update()) {
+            int x = wall.getDirtyX();
+            int y = wall.getDirtyY();
+            gc.getPixelWriter().setPixels(offsetX + x, offsetY + y, wall.getDirtyWidth(), wall.getDirtyHeight(),
+                                          PixelFormat.getIntArgbPreInstance(), wall.getPixels(),
+                                          y * wall.getWidth() + x, wall.getWidth());
+        }
+    }
+    
+    /**
+     * Met à jour les variables d'animation selon le temps écoulé depuis le
+     * rendu précédent : leur vitesse ne dépend pas de la fréquence des rendus
+     */
+    private void updateAnimations(long now) {
+        if (lastAnimationNanos >= 0) {
+            double elapsed = (now - lastAnimationNanos) / 1_000_000_000.0;
+            menuPulseTime += PULSE_SPEED * elapsed;
+            starRotation = (starRotation + STAR_SPEED * elapsed) % 360;
+        }
+        lastAnimationNanos = now;
+        glowIntensity = Math.abs(Math.sin(menuPulseTime));
+    }
+    
     /**
      * Rend le menu principal professionnel minimaliste de niveau international
      */
@@ -179,7 +252,7 @@ public class GameView {
         gc.fillText("© 2025 - Professional Edition", centerX - 95, canvas.getHeight() - 30);
     }
     
-
+    
     
     /**
      * Rend un fond noir pur style Tetris classique
@@ -193,19 +266,92 @@ public class GameView {
     /**
      * Rend le jeu en cours
      */
-    private void renderGame(GameContext context) {
-        renderGrid(context.getGrid());
-        renderCurrentPiece(context.getCurrentPiece());
-        renderHUD(context);
-        renderNextPiece(context.getNextPiece());
+    private void renderGame(FrameSnapshot frame) {
+        if (rasterizer != null) {
+            renderGridPixels(frame);
+        } else {
+            renderGrid(frame);
+            renderCurrentPiece(frame);
+        }
+        renderHUD(frame.getScore(), frame.getLevel(), frame.getLinesCleared());
+        renderNextPiece(frame.getNextPiece());
     }
     
     /**
-     * Rend la grille de jeu style Tetris classique amélioré
+     * Rend une partie distante à partir des indices de palette
      */
-    private void renderGrid(GameGrid grid) {
-        double gridWidth = grid.getWidth() * BLOCK_SIZE;
-        double gridHeight = grid.getHeight() * BLOCK_SIZE;
+    private void renderRemoteGame(RemoteGameState remote) {
+        renderGridFrame(remote.getWidth(), remote.getHeight());
+        for (int row = 0; row < remote.getHeight(); row++) {
+            for (int col = 0; col < remote.getWidth(); col++) {
+                Color color = ColorPalette.colorOf(remote.getCell(row, col));
+                if (color != null) {
+                    renderBlock(GRID_X + col * BLOCK_SIZE, GRID_Y + row * BLOCK_SIZE, BLOCK_SIZE, color);
+                }
+            }
+        }
+        renderMask(remote.getPieceMask(), ColorPalette.colorOf(remote.getPieceColor()),
+                   GRID_X + remote.getPieceX() * BLOCK_SIZE, GRID_Y + remote.getPieceY() * BLOCK_SIZE, BLOCK_SIZE);
+        renderHUD(remote.getScore(), remote.getLevel(), remote.getLinesCleared());
+        if (remote.getNextMask() != 0) {
+            renderNextPanelFrame(HUD_X, NEXT_PANEL_Y);
+            renderMask(remote.getNextMask(), ColorPalette.colorOf(remote.getNextColor()),
+                       HUD_X + 50, NEXT_PANEL_Y + 50, 20);
+        }
+    }
+    
+    /**
+     * Rend une forme encodée en masque 4x4 (voir Protocol.shapeMask)
+     */
+    private void renderMask(int mask, Color color, double x, double y, double blockSize) {
+        if (mask == 0 || color == null) return;
+        for (int bits = mask & 0xFFFF; bits != 0; bits &= bits - 1) {
+            int bit = Integer.numberOfTrailingZeros(bits);
+            renderBlock(x + (bit & 3) * blockSize, y + (bit >>> 2) * blockSize, blockSize, color);
+        }
+    }
+    
+    /**
+     * Rend la fenêtre visible de la grille, copiée dans le frame
+     */
+    private void renderGrid(FrameSnapshot frame) {
+        renderGridFrame(frame.getColumns(), frame.getRows());
+        
+        // Blocs placés
+        for (int row = 0; row < frame.getRows(); row++) {
+            for (int col = 0; col < frame.getColumns(); col++) {
+                Color color = frame.getCell(row, col);
+                if (color != null) {
+                    renderBlock(GRID_X + col * BLOCK_SIZE, GRID_Y + row * BLOCK_SIZE, BLOCK_SIZE, color);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Rend la grille et la pièce active en une seule copie de pixels
+     * (voir BoardRasterizer), entre l'ombre et les bordures du cadre
+     */
+    private void renderGridPixels(FrameSnapshot frame) {
+        rasterizer.rasterize(frame);
+        int width = rasterizer.getWidth();
+        int height = rasterizer.getHeight();
+        
+        // Ombre portée de la grille
+        gc.setFill(Color.rgb(0, 0, 0, 0.5));
+        gc.fillRect(GRID_X + 4, GRID_Y + 4, width, height);
+        
+        gc.getPixelWriter().setPixels((int) GRID_X, (int) GRID_Y, width, height,
+                                      PixelFormat.getIntArgbPreInstance(), rasterizer.getPixels(), 0, width);
+        renderGridBorder(width, height);
+    }
+    
+    /**
+     * Rend le cadre de la grille (fond, quadrillage, bordures)
+     */
+    private void renderGridFrame(int columns, int rows) {
+        double gridWidth = columns * BLOCK_SIZE;
+        double gridHeight = rows * BLOCK_SIZE;
         
         // Ombre portée de la grille
         gc.setFill(Color.rgb(0, 0, 0, 0.5));
@@ -218,15 +364,22 @@ public class GameView {
         // Grille subtile en gris très foncé avec effet de profondeur
         gc.setStroke(Color.rgb(25, 25, 25));
         gc.setLineWidth(1);
-        for (int i = 0; i <= grid.getHeight(); i++) {
+        for (int i = 0; i <= rows; i++) {
             double y = GRID_Y + i * BLOCK_SIZE;
             gc.strokeLine(GRID_X, y, GRID_X + gridWidth, y);
         }
-        for (int i = 0; i <= grid.getWidth(); i++) {
+        for (int i = 0; i <= columns; i++) {
             double x = GRID_X + i * BLOCK_SIZE;
             gc.strokeLine(x, GRID_Y, x, GRID_Y + gridHeight);
         }
         
+        renderGridBorder(gridWidth, gridHeight);
+    }
+    
+    /**
+     * Rend les bordures du cadre de la grille
+     */
+    private void renderGridBorder(double gridWidth, double gridHeight) {
         // Bordure minimaliste élégante
         gc.setStroke(Color.rgb(60, 60, 60));
         gc.setLineWidth(2);
@@ -236,19 +389,6 @@ public class GameView {
         gc.setStroke(Color.rgb(0, 150, 200, 0.6));
         gc.setLineWidth(2);
         gc.strokeLine(GRID_X, GRID_Y, GRID_X + gridWidth, GRID_Y);
-        
-        // Blocs placés
-        Color[][] gridData = grid.getGrid();
-        for (int row = 0; row < grid.getHeight(); row++) {
-            for (int col = 0; col < grid.getWidth(); col++) {
-                Color color = gridData[row][col];
-                if (color != null) {
-                    double x = GRID_X + col * BLOCK_SIZE;
-                    double y = GRID_Y + row * BLOCK_SIZE;
-                    renderBlock(x, y, BLOCK_SIZE, color);
-                }
-            }
-        }
     }
     
     /**
@@ -274,43 +414,39 @@ public class GameView {
     }
     
     /**
-     * Rend la pièce active avec rotation
+     * Rend la pièce active, limitée à la fenêtre visible
      */
-    private void renderCurrentPiece(ActivePiece piece) {
-        if (piece == null) return;
-        
-        // Obtient la forme avec rotation appliquée
-        int[][] shape = piece.getCurrentShape();
-        Color color = piece.getPiece().getColor();
-        
-        // Rend chaque bloc de la pièce
-        for (int row = 0; row < shape.length; row++) {
-            for (int col = 0; col < shape[row].length; col++) {
-                if (shape[row][col] != 0) {
-                    double blockX = GRID_X + (piece.getX() + col) * BLOCK_SIZE;
-                    double blockY = GRID_Y + (piece.getY() + row) * BLOCK_SIZE;
-                    renderBlock(blockX, blockY, BLOCK_SIZE, color);
-                }
+    private void renderCurrentPiece(FrameSnapshot frame) {
+        Color color = frame.getPieceColor();
+        if (color == null) return;
+        
+        for (int bits = frame.getPieceMask() & 0xFFFF; bits != 0; bits &= bits - 1) {
+            int bit = Integer.numberOfTrailingZeros(bits);
+            int viewX = frame.getPieceX() + (bit & 3);
+            int viewY = frame.getPieceY() + (bit >>> 2);
+            if (viewX < 0 || viewX >= frame.getColumns() || viewY < 0 || viewY >= frame.getRows()) {
+                continue;
             }
+            renderBlock(GRID_X + viewX * BLOCK_SIZE, GRID_Y + viewY * BLOCK_SIZE, BLOCK_SIZE, color);
         }
     }
     
     /**
      * Rend le HUD (score, niveau, etc.) avec design moderne néon
      */
-    private void renderHUD(GameContext context) {
+    private void renderHUD(int score, int level, int lines) {
         double y = GRID_Y;
         
         // Panel Score minimaliste
-        renderModernHUDPanel("SCORE", String.valueOf(context.getScore()), HUD_X, y, Color.rgb(0, 200, 255));
+        renderModernHUDPanel("SCORE", String.valueOf(score), HUD_X, y, Color.rgb(0, 200, 255));
         
         y += 95;
         // Panel Level minimaliste
-        renderModernHUDPanel("LEVEL", String.valueOf(context.getLevel()), HUD_X, y, Color.rgb(100, 150, 200));
+        renderModernHUDPanel("LEVEL", String.valueOf(level), HUD_X, y, Color.rgb(100, 150, 200));
         
         y += 95;
         // Panel Lines minimaliste
-        renderModernHUDPanel("LINES", String.valueOf(context.getLinesCleared()), HUD_X, y, Color.rgb(150, 150, 150));
+        renderModernHUDPanel("LINES", String.valueOf(lines), HUD_X, y, Color.rgb(150, 150, 150));
         
         // Panel Contrôles minimaliste
         y += 105;
@@ -417,7 +553,29 @@ public class GameView {
         if (nextPiece == null) return;
         
         double x = HUD_X;
-        double y = 540; // Position ajustée
+        double y = NEXT_PANEL_Y;
+        double panelWidth = 210;
+        
+        renderNextPanelFrame(x, y);
+        
+        // Pièce centrée
+        nextPiece.render(gc, x + 50, y + 50, 20);
+        
+        // Indicateur power-up animé
+        if (nextPiece.hasSpecialEffect()) {
+            gc.setFill(Color.GOLD.deriveColor(0, 1, 1, 0.3));
+            gc.fillRect(x + 20, y + 125, panelWidth - 50, 10);
+            
+            gc.setFont(Font.font("Arial", FontWeight.BOLD, 10));
+            gc.setFill(Color.GOLD);
+            gc.fillText("⭐ POWER-UP ⭐", x + 30, y + 133);
+        }
+    }
+    
+    /**
+     * Rend le cadre du panneau de la pièce suivante
+     */
+    private void renderNextPanelFrame(double x, double y) {
         double panelWidth = 210;
         double panelHeight = 140;
         
@@ -451,19 +609,6 @@ public class GameView {
         gc.setStroke(Color.rgb(60, 60, 60));
         gc.setLineWidth(2);
         gc.strokeRect(x + 10, y + 35, panelWidth - 30, 85);
-        
-        // Pièce centrée
-        nextPiece.render(gc, x + 50, y + 50, 20);
-        
-        // Indicateur power-up animé
-        if (nextPiece.hasSpecialEffect()) {
-            gc.setFill(Color.GOLD.deriveColor(0, 1, 1, 0.3));
-            gc.fillRect(x + 20, y + 125, panelWidth - 50, 10);
-            
-            gc.setFont(Font.font("Arial", FontWeight.BOLD, 10));
-            gc.setFill(Color.GOLD);
-            gc.fillText("⭐ POWER-UP ⭐", x + 30, y + 133);
-        }
     }
     
     /**
@@ -500,7 +645,7 @@ public class GameView {
     /**
      * Rend l'overlay game over avec design moderne
      */
-    private void renderGameOverOverlay(GameContext context) {
+    private void renderGameOverOverlay(int score, int level, int lines) {
         // Fond sombre
         gc.setFill(Color.rgb(0, 0, 0, 0.85));
         gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
@@ -531,17 +676,17 @@ public class GameView {
         gc.setFont(Font.font("Arial", FontWeight.BOLD, 22));
         gc.fillText("Final Score:", 180, statsY + 40);
         gc.setFill(Color.WHITE);
-        gc.fillText(String.valueOf(context.getScore()), 350, statsY + 40);
+        gc.fillText(String.valueOf(score), 350, statsY + 40);
         
         gc.setFill(Color.rgb(200, 150, 100));
         gc.fillText("Level:", 180, statsY + 75);
         gc.setFill(Color.WHITE);
-        gc.fillText(String.valueOf(context.getLevel()), 350, statsY + 75);
+        gc.fillText(String.valueOf(level), 350, statsY + 75);
         
         gc.setFill(Color.rgb(150, 100, 200));
         gc.fillText("Lines:", 180, statsY + 110);
         gc.setFill(Color.WHITE);
-        gc.fillText(String.valueOf(context.getLinesCleared()), 350, statsY + 110);
+        gc.fillText(String.valueOf(lines), 350, statsY + 110);
         
         // Boutons
         gc.setFont(Font.font("Arial", FontWeight.NORMAL, 18));
@@ -0,0 +1,21 @@
+package com.designpatterns.puzzle.view;
+
+/**
+ * Méthode de rendu de la grille, choisie au démarrage
+ */
+public enum RenderBackend {
+    VECTOR,  // Opérations GraphicsContext par case
+    RASTER;  // Tampon de pixels et une seule copie par frame (voir BoardRasterizer)
+    
+    /**
+     * Méthode à partir de son nom, insensible à la casse (VECTOR si inconnue)
+     */
+    public static RenderBackend fromName(String name) {
+        for (RenderBackend backend : values()) {
+            if (backend.name().equalsIgnoreCase(name)) {
+                return backend;
+            }
+        }
+        return VECTOR;
+    }
+}
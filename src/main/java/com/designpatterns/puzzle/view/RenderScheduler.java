@@ -0,0 +1,94 @@
+package com.designpatterns.puzzle.view;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Planification des rendus selon ce qui bouge à l'écran
+ * - partie en cours : un rendu par frame publié, aucun sinon ;
+ * - menu : seules quelques particules bougent, rendu à fréquence réduite ;
+ * - pause, fin de partie : écran fixe, le dernier frame est rendu puis le
+ *   timer s'arrête.
+ * Le timer arrêté, plus rien ne tourne sur le thread FX : wake (appelé à
+ * chaque publication de frame et à chaque entrée, depuis n'importe quel
+ * thread) le redémarre
+ */
+public class RenderScheduler {
+    
+    private static final long MENU_INTERVAL_NANOS = 1_000_000_000L / 15;
+    
+    private final GameView view;
+    private final FrameBuffer frames;
+    private final AnimationTimer timer;
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    // Thread FX uniquement
+    private long renderedSequence = -1;
+    private long lastRenderNanos;
+    
+    public RenderScheduler(GameView view, FrameBuffer frames) {
+        this.view = view;
+        this.frames = frames;
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                pulse(now);
+            }
+        };
+    }
+    
+    /**
+     * Demande un rendu ; redémarre le timer s'il est arrêté
+     */
+    public void wake() {
+        if (running.compareAndSet(false, true)) {
+            if (Platform.isFxApplicationThread()) {
+                timer.start();
+            } else {
+                Platform.runLater(timer::start);
+            }
+        }
+    }
+    
+    /**
+     * Arrête définitivement les rendus (les réveils suivants sont ignorés)
+     */
+    public void stop() {
+        running.set(true);
+        timer.stop();
+    }
+    
+    private void pulse(long now) {
+        FrameSnapshot frame = frames.latest();
+        boolean fresh = frame.getSequence() != renderedSequence;
+        String stateName = frame.getStateName();
+        
+        if ("MENU".equals(stateName)) {
+            if (fresh || now - lastRenderNanos >= MENU_INTERVAL_NANOS) {
+                render(frame, now);
+            }
+            return;
+        }
+        if (fresh) {
+            render(frame, now);
+            return;
+        }
+        if (!"PLAYING".equals(stateName)) {
+            // Rien ne bouge : le timer s'arrête jusqu'au prochain réveil
+            timer.stop();
+            running.set(false);
+            // Un frame publié entre-temps n'a pas pu réveiller le timer
+            if (frames.hasFresh()) {
+                wake();
+            }
+        }
+    }
+    
+    private void render(FrameSnapshot frame, long now) {
+        view.render(frame, now);
+        renderedSequence = frame.getSequence();
+        lastRenderNanos = now;
+    }
+}
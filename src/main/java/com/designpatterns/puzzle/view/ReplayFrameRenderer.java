@@ -0,0 +1,172 @@
+package com.designpatterns.puzzle.view;
+
+import com.designpatterns.puzzle.patterns.decorator.PuzzlePiece;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Rendu logiciel d'un frame, sans affichage, dans le style de GameView
+ * L'image est un tableau int[] (BufferedImage TYPE_INT_RGB). Le décor fixe
+ * (fond, panneaux du HUD et leurs titres) est dessiné une fois dans un
+ * modèle ; chaque frame copie ce modèle, y recopie la grille rendue par
+ * BoardRasterizer, puis ajoute les valeurs du HUD et la pièce suivante.
+ * Une instance par thread
+ */
+public class ReplayFrameRenderer {
+    
+    private static final int PANEL_WIDTH = 210;
+    private static final int PANEL_STEP = 95;
+    private static final int PREVIEW_BLOCK = 20;
+    private static final Font LABEL_FONT = new Font("Arial", Font.PLAIN, 14);
+    private static final Font VALUE_FONT = new Font("Arial", Font.BOLD, 36);
+    private static final Color[] ACCENTS = {new Color(0, 200, 255), new Color(100, 150, 200), new Color(150, 150, 150)};
+    private static final String[] LABELS = {"SCORE", "LEVEL", "LINES"};
+    
+    private final int width;
+    private final int height;
+    private final BufferedImage image;
+    private final int[] pixels;
+    private final int[] template;
+    private final Graphics2D graphics;
+    private final BoardRasterizer rasterizer = new BoardRasterizer((int) GameView.BLOCK_SIZE);
+    
+    public ReplayFrameRenderer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        this.graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        drawDecor();
+        this.template = pixels.clone();
+    }
+    
+    /**
+     * Rend un frame ; l'image retournée est réutilisée au frame suivant
+     */
+    public BufferedImage render(FrameSnapshot frame) {
+        System.arraycopy(template, 0, pixels, 0, pixels.length);
+        rasterizer.rasterize(frame);
+        int gridX = (int) GameView.GRID_X;
+        int gridY = (int) GameView.GRID_Y;
+        int copyWidth = Math.min(rasterizer.getWidth(), width - gridX);
+        int copyHeight = Math.min(rasterizer.getHeight(), height - gridY);
+        int[] board = rasterizer.getPixels();
+        for (int y = 0; y < copyHeight; y++) {
+            System.arraycopy(board, y * rasterizer.getWidth(), pixels, (gridY + y) * width + gridX, copyWidth);
+        }
+        drawGridBorder(rasterizer.getWidth(), rasterizer.getHeight());
+        
+        int[] values = {frame.getScore(), frame.getLevel(), frame.getLinesCleared()};
+        graphics.setFont(VALUE_FONT);
+        graphics.setColor(Color.WHITE);
+        for (int i = 0; i < values.length; i++) {
+            int x = (int) GameView.HUD_X;
+            int y = gridY + i * PANEL_STEP;
+            graphics.drawString(String.valueOf(values[i]), x + 10, y + 62);
+        }
+        drawNextPiece(frame.getNextPiece());
+        return image;
+    }
+    
+    /**
+     * Pixels du dernier frame, RGB sur 24 bits, width par ligne
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    /**
+     * Décor fixe : fond, panneaux du HUD et cadre de la pièce suivante
+     */
+    private void drawDecor() {
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(0, 0, width, height);
+        int x = (int) GameView.HUD_X;
+        for (int i = 0; i < LABELS.length; i++) {
+            int y = (int) GameView.GRID_Y + i * PANEL_STEP;
+            drawPanel(x, y, 85, ACCENTS[i], 60);
+            graphics.setFont(LABEL_FONT);
+            graphics.setColor(new Color(160, 160, 160));
+            graphics.drawString(LABELS[i], x + 5, y + 22);
+        }
+        
+        int y = (int) GameView.NEXT_PANEL_Y;
+        drawPanel(x, y, 140, new Color(100, 150, 200), 80);
+        graphics.setFont(LABEL_FONT);
+        graphics.setColor(new Color(160, 160, 160));
+        graphics.drawString("NEXT PIECE", x + 5, y + 22);
+        graphics.setColor(new Color(10, 10, 10));
+        graphics.fillRect(x + 10, y + 35, PANEL_WIDTH - 30, 85);
+        graphics.setStroke(new BasicStroke(2));
+        graphics.setColor(new Color(60, 60, 60));
+        graphics.drawRect(x + 10, y + 35, PANEL_WIDTH - 30, 85);
+    }
+    
+    /**
+     * Panneau du HUD comme GameView.renderModernHUDPanel (sans sa valeur)
+     */
+    private void drawPanel(int x, int y, int panelHeight, Color accent, int accentLength) {
+        graphics.setColor(new Color(0, 0, 0, 77));
+        graphics.fillRoundRect(x - 3, y + 2, PANEL_WIDTH, panelHeight, 8, 8);
+        graphics.setColor(new Color(20, 20, 25));
+        graphics.fillRoundRect(x - 4, y, PANEL_WIDTH, panelHeight, 8, 8);
+        graphics.setStroke(new BasicStroke(2));
+        graphics.setColor(withAlpha(accent, 0.5));
+        graphics.drawRoundRect(x - 4, y, PANEL_WIDTH, panelHeight, 8, 8);
+        graphics.setColor(withAlpha(accent, 0.7));
+        graphics.drawLine(x + 5, y + 2, x + accentLength, y + 2);
+    }
+    
+    private void drawGridBorder(int gridWidth, int gridHeight) {
+        int x = (int) GameView.GRID_X;
+        int y = (int) GameView.GRID_Y;
+        graphics.setStroke(new BasicStroke(2));
+        graphics.setColor(new Color(60, 60, 60));
+        graphics.drawRect(x, y, gridWidth, gridHeight);
+        graphics.setColor(new Color(0, 150, 200, 153));
+        graphics.drawLine(x, y, x + gridWidth, y);
+    }
+    
+    private void drawNextPiece(PuzzlePiece piece) {
+        if (piece == null) {
+            return;
+        }
+        int x = (int) GameView.HUD_X + 50;
+        int y = (int) GameView.NEXT_PANEL_Y + 50;
+        Color color = awt(piece.getColor());
+        for (int bits = piece.getAttributes().getShapeMask() & 0xFFFF; bits != 0; bits &= bits - 1) {
+            int bit = Integer.numberOfTrailingZeros(bits);
+            int blockX = x + (bit & 3) * PREVIEW_BLOCK;
+            int blockY = y + (bit >>> 2) * PREVIEW_BLOCK;
+            graphics.setColor(color);
+            graphics.fillRect(blockX + 1, blockY + 1, PREVIEW_BLOCK - 2, PREVIEW_BLOCK - 2);
+            graphics.setStroke(new BasicStroke(1));
+            graphics.setColor(new Color(0, 0, 0, 102));
+            graphics.drawRect(blockX, blockY, PREVIEW_BLOCK - 1, PREVIEW_BLOCK - 1);
+        }
+    }
+    
+    private static Color withAlpha(Color color, double alpha) {
+        return new Color(color.getRed(), color.getGreen(), color.getBlue(), (int) Math.round(alpha * 255));
+    }
+    
+    private static Color awt(javafx.scene.paint.Color color) {
+        return new Color(BoardRasterizer.argb(color) & 0xFFFFFF);
+    }
+}
@@ -0,0 +1,204 @@
+package com.designpatterns.puzzle.view;
+
+import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.core.InputCommand;
+import com.designpatterns.puzzle.patterns.state.ReplayState;
+import com.designpatterns.puzzle.replay.Replay;
+import com.designpatterns.puzzle.utils.GameLogger;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Rendu hors écran d'une partie archivée en suite d'images
+ * Le frame k montre l'état après from + k * step commandes. Les frames
+ * sont répartis en plages contiguës, une par thread : chaque thread rejoue
+ * la partie jusqu'au début de sa plage (le rejeu est déterministe et bien
+ * plus rapide que le rendu), puis rend et encode ses frames. Les frames
+ * encodés passent par une file bornée vers le thread appelant, seul à
+ * écrire : la mémoire reste bornée même si le disque est lent.
+ * Formats : une image PNG par frame, ou un fichier brut de pixels "bgr0"
+ * (4 octets par pixel, frames bout à bout), lisible par exemple avec
+ * ffmpeg -f rawvideo -pixel_format bgr0 -video_size LxH -i frames.raw
+ */
+public class ReplayVideoExporter {
+    
+    private static final GameLogger logger = GameLogger.getInstance();
+    
+    public enum Format {
+        PNG,  // frame-000000.png, ... dans un répertoire
+        RAW   // Un seul fichier, frames bout à bout
+    }
+    
+    // Frame encodé, ou échec d'un thread si error n'est pas nul
+    private static final class EncodedFrame {
+        final int index;
+        final byte[] data;
+        final Throwable error;
+        
+        EncodedFrame(int index, byte[] data, Throwable error) {
+            this.index = index;
+            this.data = data;
+            this.error = error;
+        }
+    }
+    
+    private final int threadCount;
+    private final int width;
+    private final int height;
+    
+    public ReplayVideoExporter(int threadCount, int width, int height) {
+        this.threadCount = Math.max(1, threadCount);
+        this.width = width;
+        this.height = height;
+    }
+    
+    /**
+     * Rend les états from, from + step, ... (to exclu, borné à la fin de la
+     * partie) dans output : un répertoire en PNG, un fichier en RAW
+     * @return nombre de frames écrits
+     */
+    public int export(Replay replay, Path output, int from, int to, int step, Format format)
+            throws IOException {
+        int last = Math.min(to, replay.getCommandCount() + 1);
+        int start = Math.max(0, from);
+        int stride = Math.max(1, step);
+        int frames = last > start ? (last - start + stride - 1) / stride : 0;
+        if (frames == 0) {
+            return 0;
+        }
+        int workers = Math.min(threadCount, frames);
+        BlockingQueue<EncodedFrame> queue = new ArrayBlockingQueue<>(workers * 2);
+        
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            int first = (int) ((long) frames * w / workers);
+            int end = (int) ((long) frames * (w + 1) / workers);
+            Thread thread = new Thread(() -> renderRange(replay, start, stride, first, end, format, queue),
+                                       "replay-render-" + (w + 1));
+            thread.setDaemon(true);
+            threads.add(thread);
+        }
+        
+        long startTime = System.nanoTime();
+        threads.forEach(Thread::start);
+        try {
+            write(queue, frames, output, format);
+        } finally {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+        }
+        long millis = (System.nanoTime() - startTime) / 1_000_000;
+        logger.logInfo("Replay " + replay.getGameId() + " rendered: " + frames + " frames ("
+                       + format + ") on " + workers + " threads in " + millis + " ms");
+        return frames;
+    }
+    
+    /**
+     * Thread de rendu : frames [first, end) de l'export
+     */
+    private void renderRange(Replay replay, int start, int stride, int first, int end,
+                             Format format, BlockingQueue<EncodedFrame> queue) {
+        try {
+            GameContext context = new GameContext(new ReplayState());
+            context.startReplay(replay.getSeed());
+            ReplayFrameRenderer renderer = new ReplayFrameRenderer(width, height);
+            FrameSnapshot snapshot = new FrameSnapshot();
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            int applied = 0;
+            for (int k = first; k < end; k++) {
+                int target = start + k * stride;
+                while (applied < target) {
+                    InputCommand command = replay.getCommand(applied++);
+                    if (command != null) {
+                        context.applyCommand(command);
+                    }
+                }
+                snapshot.capture(context, k, snapshot.getViewColumn(), snapshot.getViewRow());
+                BufferedImage image = renderer.render(snapshot);
+                byte[] data;
+                if (format == Format.PNG) {
+                    png.reset();
+                    ImageIO.write(image, "png", png);
+                    data = png.toByteArray();
+                } else {
+                    data = encodeRaw(renderer.getPixels());
+                }
+                queue.put(new EncodedFrame(k, data, null));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            // Bloquant : l'écrivain consomme jusqu'à recevoir cet échec
+            try {
+                queue.put(new EncodedFrame(-1, null, e));
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Pixels 0x00RRGGBB en petit-boutiste : octets B, G, R, 0
+     */
+    private static byte[] encodeRaw(int[] pixels) {
+        ByteBuffer buffer = ByteBuffer.allocate(pixels.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asIntBuffer().put(pixels);
+        return buffer.array();
+    }
+    
+    /**
+     * Écrit les frames dans l'ordre où ils arrivent (thread appelant)
+     */
+    private void write(BlockingQueue<EncodedFrame> queue, int frames, Path output, Format format)
+            throws IOException {
+        long frameBytes = (long) width * height * 4;
+        FileChannel channel = null;
+        try {
+            if (format == Format.RAW) {
+                if (output.getParent() != null) {
+                    Files.createDirectories(output.getParent());
+                }
+                channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                           StandardOpenOption.TRUNCATE_EXISTING);
+            } else {
+                Files.createDirectories(output);
+            }
+            for (int written = 0; written < frames; written++) {
+                EncodedFrame frame = queue.take();
+                if (frame.error != null) {
+                    throw new IOException("Replay rendering failed", frame.error);
+                }
+                if (channel != null) {
+                    ByteBuffer data = ByteBuffer.wrap(frame.data);
+                    long position = frame.index * frameBytes;
+                    while (data.hasRemaining()) {
+                        position += channel.write(data, position);
+                    }
+                } else {
+                    Files.write(output.resolve(String.format("frame-%06d.png", frame.index)), frame.data);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Replay rendering interrupted", e);
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.designpatterns.puzzle.view;
+
+import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.model.ColorPalette;
+import com.designpatterns.puzzle.model.Zobrist;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Mur de vignettes pour suivre des centaines de parties à la fois
+ * Chaque session publie une BoardThumbnail (thread de simulation)
+ * seulement si sa grille ou sa pièce a changé, d'après leur hachage de
+ * Zobrist. Le rendu (thread FX) ne redessine dans le tampon de pixels
+ * partagé que les vignettes dont l'image a changé depuis le frame
+ * précédent, et signale le rectangle à recopier.
+ * La taille des cases est la plus grande qui fait tenir toutes les grilles
+ */
+public final class SpectatorWall {
+    
+    private static final int GAP = 2;
+    private static final int BACKGROUND = 0xFF000000;
+    private static final int EMPTY_CELL = BoardRasterizer.argb(Color.rgb(20, 20, 25));
+    private static final int[] PALETTE = new int[ColorPalette.size()];
+    
+    static {
+        PALETTE[ColorPalette.EMPTY] = EMPTY_CELL;
+        for (int i = 1; i < PALETTE.length; i++) {
+            PALETTE[i] = BoardRasterizer.argb(ColorPalette.colorOf(i));
+        }
+    }
+    
+    private final int boards;
+    private final int boardWidth;
+    private final int boardHeight;
+    private final int scale;
+    private final int columns;
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+    
+    // Dernière image publiée par session
+    private final AtomicReferenceArray<BoardThumbnail> published;
+    // Côté simulation : clé de la dernière image publiée par session
+    private final long[] publishedKeys;
+    // Côté rendu : image déjà dessinée par session
+    private final BoardThumbnail[] drawn;
+    
+    private int dirtyMinX;
+    private int dirtyMinY;
+    private int dirtyMaxX;
+    private int dirtyMaxY;
+    
+    public SpectatorWall(int boards, int boardWidth, int boardHeight, int viewWidth, int viewHeight) {
+        this.boards = boards;
+        this.boardWidth = boardWidth;
+        this.boardHeight = boardHeight;
+        int fit = 1;
+        for (int s = 2; capacity(s, viewWidth, viewHeight) >= boards; s++) {
+            fit = s;
+        }
+        this.scale = fit;
+        this.columns = Math.max(1, Math.min(boards, viewWidth / tileWidth()));
+        int rows = (boards + columns - 1) / columns;
+        this.width = columns * tileWidth();
+        this.height = rows * tileHeight();
+        this.pixels = new int[width * height];
+        Arrays.fill(pixels, BACKGROUND);
+        this.published = new AtomicReferenceArray<>(boards);
+        this.publishedKeys = new long[boards];
+        this.drawn = new BoardThumbnail[boards];
+    }
+    
+    private int capacity(int s, int viewWidth, int viewHeight) {
+        return (viewWidth / (boardWidth * s + GAP)) * (viewHeight / (boardHeight * s + GAP));
+    }
+    
+    private int tileWidth() {
+        return boardWidth * scale + GAP;
+    }
+    
+    private int tileHeight() {
+        return boardHeight * scale + GAP;
+    }
+    
+    /**
+     * Publie l'état d'une session s'il a changé (thread de la session)
+     */
+    public void publish(GameContext context, int index) {
+        long key = context.getGrid().getHash() ^ Zobrist.pieceKey(context.getCurrentPiece());
+        if (key == publishedKeys[index] && published.get(index) != null) {
+            return;
+        }
+        publishedKeys[index] = key;
+        published.set(index, BoardThumbnail.capture(context.getGrid(), context.getCurrentPiece()));
+    }
+    
+    /**
+     * Redessine les vignettes changées (thread de rendu)
+     * @return vrai si des pixels ont changé ; voir getDirtyX et suivants
+     */
+    public boolean update() {
+        dirtyMinX = Integer.MAX_VALUE;
+        dirtyMinY = Integer.MAX_VALUE;
+        dirtyMaxX = 0;
+        dirtyMaxY = 0;
+        for (int i = 0; i < boards; i++) {
+            BoardThumbnail thumbnail = published.get(i);
+            if (thumbnail == drawn[i]) {
+                continue;
+            }
+            drawn[i] = thumbnail;
+            int x = (i % columns) * tileWidth();
+            int y = (i / columns) * tileHeight();
+            drawTile(thumbnail, x, y);
+            dirtyMinX = Math.min(dirtyMinX, x);
+            dirtyMinY = Math.min(dirtyMinY, y);
+            dirtyMaxX = Math.max(dirtyMaxX, x + tileWidth());
+            dirtyMaxY = Math.max(dirtyMaxY, y + tileHeight());
+        }
+        return dirtyMaxX > 0;
+    }
+    
+    private void drawTile(BoardThumbnail thumbnail, int x, int y) {
+        int rows = Math.min(thumbnail.getHeight(), boardHeight);
+        int cols = Math.min(thumbnail.getWidth(), boardWidth);
+        for (int row = 0; row < rows; row++) {
+            int line = (y + row * scale) * width + x;
+            for (int col = 0; col < cols; col++) {
+                int color = PALETTE[thumbnail.getCell(row, col)];
+                Arrays.fill(pixels, line + col * scale, line + (col + 1) * scale, color);
+            }
+            // Lignes suivantes de la case : copie de la première
+            for (int dy = 1; dy < scale; dy++) {
+                System.arraycopy(pixels, line, pixels, line + dy * width, cols * scale);
+            }
+        }
+    }
+    
+    /**
+     * Pixels du mur, getWidth() par ligne
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    /**
+     * Rectangle modifié par le dernier update (vide si rien n'a changé)
+     */
+    public int getDirtyX() {
+        return dirtyMinX;
+    }
+    
+    public int getDirtyY() {
+        return dirtyMinY;
+    }
+    
+    public int getDirtyWidth() {
+        return dirtyMaxX - dirtyMinX;
+    }
+    
+    public int getDirtyHeight() {
+        return dirtyMaxY - dirtyMinY;
+    }
+    
+    /**
+     * Taille d'une case en pixels
+     */
+    public int getScale() {
+        return scale;
+    }
+}
@@ -0,0 +1,135 @@
+package com.designpatterns.puzzle.ai;
+
+import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.core.GameMode;
+import com.designpatterns.puzzle.core.InputCommand;
+import com.designpatterns.puzzle.model.GameGrid;
+import com.designpatterns.puzzle.patterns.state.MenuState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recherche interrompue ou fermée : pas de coup plutôt qu'une exception ;
+ * une recherche réutilisée d'un coup à l'autre donne le même coup qu'une neuve
+ */
+class LookaheadSearchTest {
+    
+    @Test
+    void searchFindsAMove() {
+        LookaheadSearch search = newSearch();
+        assertNotNull(search.search(startedGame()));
+        search.close();
+    }
+    
+    @Test
+    void closedSearchReturnsNull() {
+        LookaheadSearch search = newSearch();
+        search.close();
+        assertNull(search.search(startedGame()));
+    }
+    
+    @Test
+    void interruptedSearchReturnsNull() {
+        LookaheadSearch search = newSearch();
+        GameContext context = startedGame();
+        Thread.currentThread().interrupt();
+        try {
+            assertNull(search.search(context));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+            search.close();
+        }
+    }
+    
+    @Test
+    void reusedSearchMatchesFreshSearch() {
+        GameContext[] positions = {
+            startedGame(),
+            startedGame(new GameGrid(12, 22), GameMode.CASCADE),
+            startedGame(new GameGrid(12, 22, true), GameMode.COLOR_MATCH),
+            startedGame()
+        };
+        LookaheadSearch reused = newSearch(1);
+        try {
+            for (GameContext position : positions) {
+                reused.getTable().clear();
+                SearchResult expected = searchOnce(position);
+                SearchResult actual = reused.search(position);
+                assertEquals(expected.getX(), actual.getX());
+                assertEquals(expected.getRotation(), actual.getRotation());
+                assertEquals(expected.getValue(), actual.getValue());
+                assertEquals(expected.getNodes(), actual.getNodes());
+            }
+        } finally {
+            reused.close();
+        }
+    }
+    
+    @Test
+    void threadCountDoesNotChangeTheResult() {
+        GameContext context = startedGame(new GameGrid(), GameMode.CLASSIC, 2);
+        LookaheadSearch single = new LookaheadSearch(new HeuristicEvaluator(), new TranspositionTable(16), 1, 3, 60_000);
+        LookaheadSearch parallel = new LookaheadSearch(new HeuristicEvaluator(), new TranspositionTable(16), 4, 3, 60_000);
+        try {
+            for (int placed = 0; placed < 60 && !context.isGameOver(); ) {
+                context.update(0.0001);
+                if (context.getCurrentPiece() == null) {
+                    continue;
+                }
+                single.getTable().clear();
+                parallel.getTable().clear();
+                SearchResult expected = single.search(context);
+                SearchResult actual = parallel.search(context);
+                assertEquals(expected.getValue(), actual.getValue(), "move " + placed);
+                assertEquals(expected.getX(), actual.getX(), "move " + placed);
+                assertEquals(expected.getRotation(), actual.getRotation(), "move " + placed);
+                for (InputCommand command : expected.getCommands()) {
+                    context.handleInput(command.getInput());
+                }
+                placed++;
+            }
+        } finally {
+            single.close();
+            parallel.close();
+        }
+    }
+    
+    private static LookaheadSearch newSearch() {
+        return newSearch(2);
+    }
+    
+    private static LookaheadSearch newSearch(int threads) {
+        return new LookaheadSearch(new HeuristicEvaluator(), new TranspositionTable(1), threads, 2, 60_000);
+    }
+    
+    private static SearchResult searchOnce(GameContext context) {
+        LookaheadSearch search = newSearch(1);
+        try {
+            return search.search(context);
+        } finally {
+            search.close();
+        }
+    }
+    
+    private static GameContext startedGame() {
+        return startedGame(new GameGrid(), GameMode.CLASSIC);
+    }
+    
+    private static GameContext startedGame(GameGrid grid, GameMode mode) {
+        return startedGame(grid, mode, 1);
+    }
+    
+    private static GameContext startedGame(GameGrid grid, GameMode mode, int previews) {
+        GameContext context = new GameContext(new MenuState(), null, grid);
+        context.setGameMode(mode);
+        context.setPreviewCount(previews);
+        context.setSeed(7);
+        context.handleInput("START");
+        return context;
+    }
+}
@@ -0,0 +1,45 @@
+package com.designpatterns.puzzle.ai;
+
+import com.designpatterns.puzzle.core.GameMode;
+import com.designpatterns.puzzle.model.GameGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comptes de référence du perft sur une grille vide (graine 1, mode classique)
+ */
+class PerftTest {
+    
+    private static final long[] EMPTY_BOARD_SEED_1 = {17, 294, 2714, 47885, 1747177};
+    
+    @Test
+    void emptyBoardCountsMatchReference() {
+        PerftResult result = new Perft(GameMode.CLASSIC).run(new GameGrid(), 1, EMPTY_BOARD_SEED_1.length);
+        assertArrayEquals(EMPTY_BOARD_SEED_1, counts(result));
+    }
+    
+    @Test
+    void resultDoesNotDependOnPoolSize() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            PerftResult sequential = new Perft(GameMode.CASCADE, single).run(new GameGrid(), 3, 4);
+            PerftResult parallel = new Perft(GameMode.CASCADE).run(new GameGrid(), 3, 4);
+            assertArrayEquals(counts(sequential), counts(parallel));
+            assertEquals(sequential.getChecksum(), parallel.getChecksum());
+        } finally {
+            single.shutdown();
+        }
+    }
+    
+    private static long[] counts(PerftResult result) {
+        long[] counts = new long[result.getDepth()];
+        for (int depth = 1; depth <= counts.length; depth++) {
+            counts[depth - 1] = result.getCount(depth);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,162 @@
+package com.designpatterns.puzzle.core;
+
+import com.designpatterns.puzzle.model.GameGrid;
+import com.designpatterns.puzzle.patterns.decorator.PieceShape;
+import com.designpatterns.puzzle.patterns.factory.PieceFactory;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Placements atteignables et plus courts chemins, comparés à un parcours
+ * en largeur direct sur toute la hauteur de la grille
+ */
+class ReachabilityAnalyzerTest {
+    
+    private static final PieceFactory.PieceType[] TYPES = PieceFactory.PieceType.values();
+    
+    @Test
+    void placementsAndPathsMatchAPlainSearch() {
+        Random random = new Random(3);
+        for (int round = 0; round < 400; round++) {
+            int width = 4 + random.nextInt(16);
+            int height = 8 + random.nextInt(24);
+            GameGrid grid = randomStack(random, random.nextBoolean(), width, height);
+            PieceShape shape = PieceFactory.createPiece(TYPES[random.nextInt(TYPES.length)]).getPieceShape();
+            int startX = random.nextInt(width - 3);
+            int startY = -1 + random.nextInt(3);
+            int rotation = random.nextInt(PieceShape.ROTATIONS);
+            
+            Map<Long, Integer> expected = plainSearch(grid, shape, startX, startY, rotation);
+            ReachabilityAnalyzer analyzer = new ReachabilityAnalyzer(width, height);
+            int count = analyzer.analyze(grid, shape, startX, startY, rotation);
+            assertEquals(expected.size(), count, "round " + round);
+            for (int i = 0; i < count; i++) {
+                long placement = analyzer.getPlacement(i);
+                assertEquals(expected.get(canonical(shape, placement)), analyzer.getPathLength(i), "round " + round);
+                assertEquals(placement, replay(grid, shape, startX, startY, rotation, analyzer.getPath(i)), "round " + round);
+            }
+        }
+    }
+    
+    @Test
+    void tallSparseBoardOnlyCoversTheStack() {
+        GameGrid grid = new GameGrid(4000, 50000, true);
+        for (int col = 0; col < grid.getWidth(); col++) {
+            if (col != 2000) {
+                grid.setBlock(49999, col, Color.RED);
+                grid.setBlock(49998, col, Color.RED);
+            }
+        }
+        PieceShape shape = PieceFactory.createPiece(PieceFactory.PieceType.I).getPieceShape();
+        ReachabilityAnalyzer analyzer = new ReachabilityAnalyzer(grid.getWidth(), grid.getHeight());
+        int count = analyzer.analyze(grid, shape, 1998, 0, 0);
+        
+        // Couchée au-dessus de la pile, debout partout, et au fond du puits
+        assertEquals((4000 - 3) + 4000, count);
+        boolean well = false;
+        for (int i = 0; i < count; i++) {
+            long placement = analyzer.getPlacement(i);
+            assertEquals(placement, replay(grid, shape, 1998, 0, 0, analyzer.getPath(i)));
+            well |= ReachabilityAnalyzer.placementY(placement) == 49996;
+        }
+        assertTrue(well);
+    }
+    
+    /**
+     * Plus court chemin (chute finale comprise) de chaque placement canonique,
+     * par un parcours en largeur sur des états (rotation, x, y) en table
+     */
+    private static Map<Long, Integer> plainSearch(GameGrid grid, PieceShape shape, int x, int y, int rotation) {
+        Map<Long, Integer> distances = new HashMap<>();
+        Map<Long, Integer> placements = new HashMap<>();
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        distances.put(ReachabilityAnalyzer.placement(rotation, x, y), 0);
+        queue.add(new int[] {rotation, x, y});
+        while (!queue.isEmpty()) {
+            int[] state = queue.poll();
+            int distance = distances.get(ReachabilityAnalyzer.placement(state[0], state[1], state[2]));
+            int landY = state[2];
+            while (grid.canPlace(shape, state[0], state[1], landY + 1)) {
+                landY++;
+            }
+            placements.putIfAbsent(canonical(shape, ReachabilityAnalyzer.placement(state[0], state[1], landY)), distance + 1);
+            int[][] next = {
+                {state[0], state[1] - 1, state[2]},
+                {state[0], state[1] + 1, state[2]},
+                {(state[0] + 1) & 3, state[1], state[2]},
+                {state[0], state[1], state[2] + 1}
+            };
+            for (int[] candidate : next) {
+                long key = ReachabilityAnalyzer.placement(candidate[0], candidate[1], candidate[2]);
+                if (grid.canPlace(shape, candidate[0], candidate[1], candidate[2]) && !distances.containsKey(key)) {
+                    distances.put(key, distance + 1);
+                    queue.add(candidate);
+                }
+            }
+        }
+        return placements;
+    }
+    
+    /**
+     * Joue un chemin comme GameContext et retourne le placement obtenu
+     */
+    private static long replay(GameGrid grid, PieceShape shape, int x, int y, int rotation, List<InputCommand> path) {
+        for (InputCommand command : path) {
+            switch (command) {
+                case LEFT:
+                    assertTrue(grid.canPlace(shape, rotation, x - 1, y));
+                    x--;
+                    break;
+                case RIGHT:
+                    assertTrue(grid.canPlace(shape, rotation, x + 1, y));
+                    x++;
+                    break;
+                case ROTATE:
+                    assertTrue(grid.canPlace(shape, (rotation + 1) & 3, x, y));
+                    rotation = (rotation + 1) & 3;
+                    break;
+                case DOWN:
+                    assertTrue(grid.canPlace(shape, rotation, x, y + 1));
+                    y++;
+                    break;
+                default:
+                    assertEquals(InputCommand.DROP, command);
+                    while (grid.canPlace(shape, rotation, x, y + 1)) {
+                        y++;
+                    }
+            }
+        }
+        return ReachabilityAnalyzer.placement(rotation, x, y);
+    }
+    
+    private static long canonical(PieceShape shape, long placement) {
+        int rotation = ReachabilityAnalyzer.canonicalRotation(shape, ReachabilityAnalyzer.placementRotation(placement));
+        return ReachabilityAnalyzer.placement(rotation,
+                ReachabilityAnalyzer.placementX(placement), ReachabilityAnalyzer.placementY(placement));
+    }
+    
+    /**
+     * Pile aléatoire avec trous et surplombs sur le bas de la grille
+     */
+    private static GameGrid randomStack(Random random, boolean sparse, int width, int height) {
+        GameGrid grid = new GameGrid(width, height, sparse);
+        int top = height - 1 - random.nextInt(height / 2);
+        for (int row = top; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                if (random.nextInt(100) < 55) {
+                    grid.setBlock(row, col, Color.RED);
+                }
+            }
+        }
+        return grid;
+    }
+}
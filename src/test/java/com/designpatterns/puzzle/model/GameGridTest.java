@@ -0,0 +1,243 @@
+package com.designpatterns.puzzle.model;
+
+import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.core.GameMode;
+import com.designpatterns.puzzle.core.InputCommand;
+import com.designpatterns.puzzle.patterns.factory.PieceFactory;
+import com.designpatterns.puzzle.patterns.state.ReplayState;
+import com.designpatterns.puzzle.patterns.strategy.CascadeClearStrategy;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compactage des colonnes, profil de la grille, stockage creux par mots
+ * et hachage de Zobrist (comparé à celui d'une grille reconstruite case
+ * par case)
+ */
+class GameGridTest {
+    
+    private static final Color[] COLORS = {Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW};
+    private static final InputCommand[] MOVES = {
+        InputCommand.LEFT, InputCommand.RIGHT, InputCommand.ROTATE, InputCommand.DOWN, InputCommand.DROP
+    };
+    
+    @Test
+    void compactColumnsMatchesGravity() {
+        assertCompactionMatchesGravity(false, 10, 20);
+        assertCompactionMatchesGravity(false, 130, 40);
+    }
+    
+    @Test
+    void sparseCompactColumnsMatchesGravity() {
+        assertCompactionMatchesGravity(true, 130, 200);
+    }
+    
+    @Test
+    void sparseStorageFollowsOccupiedWords() {
+        Random random = new Random(5);
+        GameGrid grid = new GameGrid(4000, 50000, true);
+        Map<Integer, TreeMap<Integer, Color>> cells = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            int row = random.nextInt(grid.getHeight());
+            int col = random.nextInt(grid.getWidth());
+            Color color = COLORS[random.nextInt(COLORS.length)];
+            grid.setBlock(row, col, color);
+            cells.computeIfAbsent(row, r -> new TreeMap<>()).put(col, color);
+        }
+        
+        long words = 0;
+        for (Map.Entry<Integer, TreeMap<Integer, Color>> entry : cells.entrySet()) {
+            int row = entry.getKey();
+            TreeSet<Integer> occupied = new TreeSet<>();
+            for (Map.Entry<Integer, Color> cell : entry.getValue().entrySet()) {
+                occupied.add(cell.getKey() >>> 6);
+                assertEquals(cell.getValue(), grid.getBlock(row, cell.getKey()));
+                assertTrue((grid.getRowWord(row, cell.getKey() >>> 6) & (1L << cell.getKey())) != 0);
+            }
+            words += occupied.size();
+            List<Integer> visited = new ArrayList<>();
+            for (int word = grid.nextOccupiedWord(row, 0); word >= 0; word = grid.nextOccupiedWord(row, word + 1)) {
+                visited.add(word);
+            }
+            assertEquals(new ArrayList<>(occupied), visited);
+            
+            int from = random.nextInt(grid.getWidth() - 300);
+            Color[] range = new Color[300];
+            grid.copyRow(row, from, range, 0, range.length);
+            for (int col = from; col < from + range.length; col++) {
+                assertEquals(entry.getValue().get(col), range[col - from], row + "," + col);
+            }
+        }
+        // Un mot de 64 colonnes par groupe de blocs voisins, pas une ligne entière
+        assertEquals(cells.size(), grid.getAllocatedRowCount());
+        assertEquals(words, grid.getAllocatedWordCount());
+        
+        GameGrid copy = new GameGrid(4000, 50000, true);
+        copy.copyFrom(grid);
+        assertEquals(words, copy.getAllocatedWordCount());
+        assertEquals(grid.getHash(), copy.getHash());
+        
+        for (Map.Entry<Integer, TreeMap<Integer, Color>> entry : cells.entrySet()) {
+            for (int col : entry.getValue().keySet()) {
+                grid.setBlock(entry.getKey(), col, null);
+            }
+        }
+        assertEquals(0, grid.getAllocatedRowCount());
+        assertEquals(0, grid.getAllocatedWordCount());
+        assertEquals(0, grid.getHash());
+        copy.copyFrom(grid);
+        assertEquals(0, copy.getAllocatedWordCount());
+    }
+    
+    @Test
+    void hashFollowsLineClears() {
+        for (boolean sparse : new boolean[] {false, true}) {
+            Random random = new Random(1);
+            for (int round = 0; round < 50; round++) {
+                GameGrid grid = randomStack(random, sparse, 70, 30, 4);
+                BitSet rows = new BitSet();
+                grid.markCompleteLines(rows);
+                grid.removeRows(rows);
+                assertEquals(recomputedHash(grid), grid.getHash(), "sparse=" + sparse + " round " + round);
+            }
+        }
+    }
+    
+    @Test
+    void hashFollowsBombRows() {
+        for (boolean sparse : new boolean[] {false, true}) {
+            Random random = new Random(2);
+            for (int round = 0; round < 50; round++) {
+                GameGrid grid = randomStack(random, sparse, 10, 20, 0);
+                ActivePiece piece = new ActivePiece(PieceFactory.createPiece(PieceFactory.PieceType.O),
+                                                    random.nextInt(9), 8 + random.nextInt(10));
+                BitSet rows = new BitSet();
+                new BombEffect().apply(grid, piece, rows);
+                grid.removeRows(rows);
+                assertEquals(recomputedHash(grid), grid.getHash(), "sparse=" + sparse + " round " + round);
+            }
+        }
+    }
+    
+    @Test
+    void hashFollowsCascade() {
+        for (boolean sparse : new boolean[] {false, true}) {
+            Random random = new Random(3);
+            CascadeClearStrategy cascade = new CascadeClearStrategy();
+            for (int round = 0; round < 50; round++) {
+                GameGrid grid = randomStack(random, sparse, 10, 20, 5);
+                cascade.clear(grid, null, new BitSet());
+                assertEquals(recomputedHash(grid), grid.getHash(), "sparse=" + sparse + " round " + round);
+            }
+        }
+    }
+    
+    @Test
+    void hashFollowsGamesInEveryMode() {
+        for (GameMode mode : GameMode.values()) {
+            for (boolean sparse : new boolean[] {false, true}) {
+                GameGrid grid = new GameGrid(10, 20, sparse);
+                GameContext context = new GameContext(new ReplayState(), null, grid);
+                context.setGameMode(mode);
+                context.startReplay(42);
+                Random random = new Random(7);
+                for (int step = 0; step < 2000 && !context.isGameOver(); step++) {
+                    if (context.getCurrentPiece() == null) {
+                        context.applyCommand(InputCommand.SPAWN);
+                        assertEquals(recomputedHash(grid), grid.getHash(), mode + " sparse=" + sparse + " step " + step);
+                    } else {
+                        context.applyCommand(MOVES[random.nextInt(MOVES.length)]);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static void assertCompactionMatchesGravity(boolean sparse, int width, int height) {
+        Random random = new Random(width * 31L + height);
+        for (int round = 0; round < 50; round++) {
+            GameGrid grid = new GameGrid(width, height, sparse);
+            for (int row = height / 2; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    if (random.nextInt(3) == 0) {
+                        grid.setBlock(row, col, COLORS[random.nextInt(COLORS.length)]);
+                    }
+                }
+            }
+            
+            // Référence : chaque colonne retombe au fond, case par case
+            GameGrid expected = new GameGrid(width, height, sparse);
+            for (int col = 0; col < width; col++) {
+                int target = height - 1;
+                for (int row = height - 1; row >= 0; row--) {
+                    Color color = grid.getBlock(row, col);
+                    if (color != null) {
+                        expected.setBlock(target--, col, color);
+                    }
+                }
+            }
+            
+            long[] columns = new long[(width + 63) >>> 6];
+            if (grid.findUnsupportedColumns(columns)) {
+                grid.compactColumns(columns);
+            }
+            assertFalse(grid.findUnsupportedColumns(columns));
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    assertEquals(expected.getBlock(row, col), grid.getBlock(row, col), row + "," + col);
+                }
+            }
+            for (int col = 0; col < width; col++) {
+                assertEquals(expected.getColumnHeight(col), grid.getColumnHeight(col), "column " + col);
+            }
+            assertEquals(expected.getAggregateHeight(), grid.getAggregateHeight());
+            assertEquals(expected.getStackHeight(), grid.getStackHeight());
+            assertEquals(expected.getHash(), grid.getHash());
+            assertEquals(expected.getAllocatedRowCount(), grid.getAllocatedRowCount());
+            assertEquals(expected.getAllocatedWordCount(), grid.getAllocatedWordCount());
+        }
+    }
+    
+    /**
+     * Empilement aléatoire sur la moitié basse ; une ligne sur fullEvery
+     * est complète (aucune si fullEvery vaut 0)
+     */
+    private static GameGrid randomStack(Random random, boolean sparse, int width, int height, int fullEvery) {
+        GameGrid grid = new GameGrid(width, height, sparse);
+        for (int row = height / 2; row < height; row++) {
+            boolean full = fullEvery > 0 && random.nextInt(fullEvery) == 0;
+            for (int col = 0; col < width; col++) {
+                if (full || random.nextInt(3) == 0) {
+                    grid.setBlock(row, col, COLORS[random.nextInt(COLORS.length)]);
+                }
+            }
+        }
+        return grid;
+    }
+    
+    /**
+     * Hachage d'une grille dense neuve remplie case par case
+     */
+    private static long recomputedHash(GameGrid grid) {
+        GameGrid fresh = new GameGrid(grid.getWidth(), grid.getHeight());
+        for (int row = 0; row < grid.getHeight(); row++) {
+            for (int col = 0; col < grid.getWidth(); col++) {
+                fresh.setBlock(row, col, grid.getBlock(row, col));
+            }
+        }
+        return fresh.getHash();
+    }
+}
@@ -0,0 +1,100 @@
+package com.designpatterns.puzzle.network;
+
+import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.core.GameMode;
+import com.designpatterns.puzzle.model.ColorPalette;
+import com.designpatterns.puzzle.model.GameGrid;
+import com.designpatterns.puzzle.patterns.state.MenuState;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Le flux rejoué par un BoardFeedDecoder doit retrouver la grille à chaque tick
+ */
+class BoardChangeFeedTest {
+    
+    private static final String[] INPUTS = {"LEFT", "RIGHT", "ROTATE", "DOWN", "DROP"};
+    
+    @Test
+    void decoderFollowsClassicGame() {
+        assertDecoderFollows(GameMode.CLASSIC);
+    }
+    
+    @Test
+    void decoderFollowsCascadeGame() {
+        assertDecoderFollows(GameMode.CASCADE);
+    }
+    
+    @Test
+    void decoderFollowsColorMatchGame() {
+        assertDecoderFollows(GameMode.COLOR_MATCH);
+    }
+    
+    @Test
+    void lastWriteOfACellWins() {
+        GameContext context = new GameContext(new MenuState());
+        BoardChangeFeed feed = new BoardChangeFeed(context);
+        BoardFeedDecoder decoder = new BoardFeedDecoder();
+        feed.subscribe(decoder);
+        feed.publishTick();
+        
+        GameGrid grid = context.getGrid();
+        grid.setBlock(19, 3, Color.RED);
+        grid.setBlock(19, 3, null);
+        grid.setBlock(19, 4, null);
+        grid.setBlock(19, 4, Color.BLUE);
+        feed.publishTick();
+        
+        assertTrue(decoder.isSynced());
+        assertEquals(ColorPalette.EMPTY, decoder.getCell(19, 3));
+        assertEquals(ColorPalette.indexOf(Color.BLUE), decoder.getCell(19, 4));
+    }
+    
+    @Test
+    void keyframeOfSparseBoardFollowsContent() {
+        GameGrid grid = new GameGrid(4096, 4096, true);
+        GameContext context = new GameContext(new MenuState(), null, grid);
+        grid.setBlock(4095, 0, Color.RED);
+        grid.setBlock(2000, 2000, Color.BLUE);
+        BoardChangeFeed feed = new BoardChangeFeed(context);
+        int[] size = new int[1];
+        feed.subscribe((frame, keyframe) -> size[0] = frame.remaining());
+        feed.publishTick();
+        assertTrue(size[0] < 256, "keyframe of " + size[0] + " bytes");
+    }
+    
+    private static void assertDecoderFollows(GameMode mode) {
+        GameContext context = new GameContext(new MenuState());
+        context.setGameMode(mode);
+        context.setSeed(42);
+        BoardChangeFeed feed = new BoardChangeFeed(context, 1_000_000);
+        BoardFeedDecoder decoder = new BoardFeedDecoder();
+        feed.subscribe(decoder);
+        context.handleInput("START");
+        
+        Random random = new Random(7);
+        GameGrid grid = context.getGrid();
+        for (int tick = 0; tick < 3000; tick++) {
+            if (random.nextInt(4) == 0) {
+                context.handleInput(INPUTS[random.nextInt(INPUTS.length)]);
+            }
+            context.update(1.0 / 60);
+            if ("GAME_OVER".equals(context.getCurrentStateName())) {
+                context.handleInput("RESTART");
+            }
+            feed.publishTick();
+            assertTrue(decoder.isSynced(), "decoder lost sync at tick " + tick);
+            for (int row = 0; row < grid.getHeight(); row++) {
+                for (int col = 0; col < grid.getWidth(); col++) {
+                    assertEquals(ColorPalette.indexOf(grid.getBlock(row, col)), decoder.getCell(row, col),
+                                 mode + " tick " + tick + " cell " + row + "," + col);
+                }
+            }
+        }
+    }
+}
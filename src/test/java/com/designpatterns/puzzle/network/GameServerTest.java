@@ -0,0 +1,182 @@
+package com.designpatterns.puzzle.network;
+
+import com.designpatterns.puzzle.core.InputCommand;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Serveur et client léger reliés en boucle locale
+ */
+class GameServerTest {
+    
+    private static final long TIMEOUT_MILLIS = 5000;
+    
+    private GameServer server;
+    private GameClient client;
+    
+    @BeforeEach
+    void connect() throws Exception {
+        server = new GameServer(new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+        client = new GameClient("127.0.0.1", server.getPort());
+        client.start();
+    }
+    
+    @AfterEach
+    void disconnect() {
+        client.close();
+        server.stop();
+        server.awaitTermination();
+    }
+    
+    @Test
+    void helloCarriesGridSize() {
+        RemoteGameState state = client.getState();
+        assertTrue(waitFor(state::isConnected), "hello not received");
+        assertEquals(10, state.getWidth());
+        assertEquals(20, state.getHeight());
+    }
+    
+    @Test
+    void firstDeltasFollowTheSession() {
+        RemoteGameState state = client.getState();
+        assertTrue(waitFor(state::isConnected), "hello not received");
+        client.send(InputCommand.START);
+        assertTrue(waitFor(() -> "PLAYING".equals(state.getStateName()) && state.getPieceMask() != 0),
+                   "no delta with the active piece");
+        assertTrue(state.getNextMask() != 0);
+        
+        // Le verrouillage de la pièce doit arriver par les lignes modifiées
+        client.send(InputCommand.DROP);
+        assertTrue(waitFor(() -> occupiedCells(state) > 0), "locked piece not received");
+    }
+    
+    @Test
+    void spectatorSeesThePlayerBoard() throws Exception {
+        RemoteGameState player = client.getState();
+        assertTrue(waitFor(player::isConnected), "hello not received");
+        client.send(InputCommand.START);
+        assertTrue(waitFor(() -> "PLAYING".equals(player.getStateName())), "game not started");
+        
+        GameClient spectator = new GameClient("127.0.0.1", server.getPort());
+        spectator.start();
+        try {
+            assertTrue(waitFor(spectator.getState()::isConnected), "spectator hello not received");
+            spectator.watch();
+            assertTrue(waitFor(() -> spectator.getBoardFeed().isSynced()), "no keyframe for the spectator");
+            for (int i = 0; i < 3; i++) {
+                client.send(InputCommand.DROP);
+            }
+            assertTrue(waitFor(() -> occupiedCells(player) > 0
+                                     && sameBoard(player, spectator.getState())), "spectator board differs");
+        } finally {
+            spectator.close();
+        }
+    }
+    
+    @Test
+    void spectatorMovesToAnotherPlayerWhenTheWatchedOneLeaves() throws Exception {
+        RemoteGameState first = client.getState();
+        assertTrue(waitFor(first::isConnected), "hello not received");
+        client.send(InputCommand.START);
+        
+        GameClient second = new GameClient("127.0.0.1", server.getPort());
+        second.start();
+        GameClient spectator = new GameClient("127.0.0.1", server.getPort());
+        spectator.start();
+        try {
+            assertTrue(waitFor(second.getState()::isConnected), "second hello not received");
+            second.send(InputCommand.START);
+            assertTrue(waitFor(() -> "PLAYING".equals(second.getState().getStateName())), "second game not started");
+            assertTrue(waitFor(spectator.getState()::isConnected), "spectator hello not received");
+            spectator.watch();
+            assertTrue(waitFor(() -> spectator.getBoardFeed().isSynced()), "no keyframe for the spectator");
+            
+            // Le joueur regardé (le plus ancien) part : le flux passe au second
+            client.close();
+            for (int i = 0; i < 3; i++) {
+                second.send(InputCommand.DROP);
+            }
+            assertTrue(waitFor(() -> occupiedCells(second.getState()) > 0
+                                     && sameBoard(second.getState(), spectator.getState())),
+                       "spectator not moved to the remaining game");
+        } finally {
+            spectator.close();
+            second.close();
+        }
+    }
+    
+    @Test
+    void spectatorIsToldWhenNoGameIsLeft() throws Exception {
+        RemoteGameState player = client.getState();
+        assertTrue(waitFor(player::isConnected), "hello not received");
+        client.send(InputCommand.START);
+        assertTrue(waitFor(() -> "PLAYING".equals(player.getStateName())), "game not started");
+        
+        GameClient spectator = new GameClient("127.0.0.1", server.getPort());
+        spectator.start();
+        try {
+            RemoteGameState watching = spectator.getState();
+            assertTrue(waitFor(watching::isConnected), "spectator hello not received");
+            spectator.watch();
+            assertTrue(waitFor(() -> spectator.getBoardFeed().isSynced()
+                                     && "PLAYING".equals(watching.getStateName())), "no keyframe for the spectator");
+            
+            client.close();
+            assertTrue(waitFor(() -> "MENU".equals(watching.getStateName())), "end of stream not signalled");
+            
+            // Redevenu joueur : ses commandes sont de nouveau appliquées
+            spectator.send(InputCommand.START);
+            assertTrue(waitFor(() -> "PLAYING".equals(watching.getStateName()) && watching.getPieceMask() != 0),
+                       "former spectator cannot play");
+        } finally {
+            spectator.close();
+        }
+    }
+    
+    private static boolean sameBoard(RemoteGameState a, RemoteGameState b) {
+        for (int row = 0; row < a.getHeight(); row++) {
+            for (int col = 0; col < a.getWidth(); col++) {
+                if (a.getCell(row, col) != b.getCell(row, col)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    private static int occupiedCells(RemoteGameState state) {
+        int count = 0;
+        for (int row = 0; row < state.getHeight(); row++) {
+            for (int col = 0; col < state.getWidth(); col++) {
+                if (state.getCell(row, col) != 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+    
+    private static boolean waitFor(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
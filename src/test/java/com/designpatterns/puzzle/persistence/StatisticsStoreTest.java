@@ -0,0 +1,59 @@
+package com.designpatterns.puzzle.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Compaction du journal des statistiques et reprise après interruption
+ */
+class StatisticsStoreTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void gamesSurviveReopen() throws Exception {
+        Path file = directory.resolve("stats.dat");
+        StatisticsStore store = new StatisticsStore(file);
+        store.append(new GameRecord(1, 500, 2, 10, 1000, 42));
+        store.append(new GameRecord(2, 900, 3, 15, 2000, 43));
+        store.close();
+        
+        StatisticsStore reopened = new StatisticsStore(file);
+        assertEquals(2, reopened.getGamesPlayed());
+        assertEquals(900, reopened.getBestScore());
+        assertEquals(43, reopened.getLeaderboard(1).get(0).getSeed());
+        reopened.close();
+    }
+    
+    @Test
+    void truncatedCompactionIsDiscarded() throws Exception {
+        Path file = directory.resolve("stats.dat");
+        StatisticsStore store = new StatisticsStore(file);
+        for (int i = 0; i < 10; i++) {
+            store.append(new GameRecord(i, 100 * i, 1, i, 1000, i));
+        }
+        store.close();
+        
+        // Compaction interrompue : copie tronquée laissée à côté du journal
+        Path pending = directory.resolve("stats.dat.compact");
+        Files.copy(file, pending, StandardCopyOption.REPLACE_EXISTING);
+        try (FileChannel channel = FileChannel.open(pending, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+        
+        StatisticsStore reopened = new StatisticsStore(file);
+        assertEquals(10, reopened.getGamesPlayed());
+        assertFalse(Files.exists(pending));
+        reopened.close();
+    }
+}
@@ -0,0 +1,140 @@
+package com.designpatterns.puzzle.persistence;
+
+import com.designpatterns.puzzle.core.GameContext;
+import com.designpatterns.puzzle.core.InputCommand;
+import com.designpatterns.puzzle.core.LockListener;
+import com.designpatterns.puzzle.model.ActivePiece;
+import com.designpatterns.puzzle.model.GameGrid;
+import com.designpatterns.puzzle.patterns.factory.PieceFactory;
+import com.designpatterns.puzzle.patterns.state.ReplayState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Relecture du fichier d'export : chaque enregistrement doit redonner la
+ * grille et la pièce vues au verrouillage, sur plusieurs blocs
+ */
+class TrainingDataExporterTest {
+    
+    private static final InputCommand[] MOVES = {
+        InputCommand.LEFT, InputCommand.RIGHT, InputCommand.ROTATE, InputCommand.DOWN, InputCommand.DROP
+    };
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void recordsRoundTripOnNarrowBoard() throws Exception {
+        assertRoundTrip(10, 20, 1500);
+    }
+    
+    @Test
+    void recordsRoundTripOnWideBoard() throws Exception {
+        assertRoundTrip(70, 24, 300);
+    }
+    
+    private void assertRoundTrip(int width, int height, int games) throws Exception {
+        Path file = directory.resolve("training.pgtd");
+        TrainingDataExporter exporter = new TrainingDataExporter(file, width, height);
+        List<long[]> boards = new ArrayList<>();
+        List<Integer> pieces = new ArrayList<>();
+        LockListener capture = new LockListener() {
+            @Override
+            public void pieceLocking(GameGrid grid, ActivePiece piece) {
+                int words = grid.getWordCount();
+                long[] board = new long[height * words];
+                for (int row = 0; row < height; row++) {
+                    for (int word = 0; word < words; word++) {
+                        board[row * words + word] = grid.getRowWord(row, word);
+                    }
+                }
+                boards.add(board);
+                pieces.add(PieceFactory.typeOf(piece.getPiece()).ordinal());
+                exporter.pieceLocking(grid, piece);
+            }
+            
+            @Override
+            public void pieceLocked(int lines, int scoreDelta) {
+                exporter.pieceLocked(lines, scoreDelta);
+            }
+        };
+        for (long seed = 0; seed < games; seed++) {
+            GameContext context = new GameContext(new ReplayState(), null, new GameGrid(width, height));
+            context.setLockListener(capture);
+            context.startReplay(seed);
+            Random random = new Random(seed);
+            for (int step = 0; step < 3000 && !context.isGameOver(); step++) {
+                if (context.getCurrentPiece() == null) {
+                    context.applyCommand(InputCommand.SPAWN);
+                } else {
+                    context.applyCommand(MOVES[random.nextInt(MOVES.length)]);
+                }
+            }
+        }
+        exporter.close();
+        
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        in.position(3 * Integer.BYTES);
+        assertEquals(height, in.getInt());
+        int words = in.getInt();
+        int lastWordBytes = (((width - 1) & 63) >>> 3) + 1;
+        int record = 0;
+        while (in.hasRemaining()) {
+            in.getInt();
+            int count = in.getInt();
+            int[] rawSizes = new int[TrainingDataExporter.COLUMN_COUNT];
+            int[] compressedSizes = new int[TrainingDataExporter.COLUMN_COUNT];
+            for (int column = 0; column < TrainingDataExporter.COLUMN_COUNT; column++) {
+                rawSizes[column] = in.getInt();
+                compressedSizes[column] = in.getInt();
+            }
+            byte[] boardColumn = inflate(in, compressedSizes[0], rawSizes[0]);
+            byte[] pieceColumn = inflate(in, compressedSizes[1], rawSizes[1]);
+            for (int column = 2; column < TrainingDataExporter.COLUMN_COUNT; column++) {
+                in.position(in.position() + compressedSizes[column]);
+            }
+            
+            for (int i = 0; i < count; i++) {
+                long[] expected = boards.get(record + i);
+                int position = 0;
+                for (int row = 0; row < height; row++) {
+                    for (int w = 0; w < words; w++) {
+                        int size = w == words - 1 ? lastWordBytes : Long.BYTES;
+                        long value = 0;
+                        for (int b = 0; b < size; b++) {
+                            value |= (boardColumn[position + i * size + b] & 0xFFL) << (b << 3);
+                        }
+                        position += count * size;
+                        assertEquals(expected[row * words + w], value, "record " + (record + i) + " row " + row);
+                    }
+                }
+                assertEquals((int) pieces.get(record + i), pieceColumn[i], "record " + (record + i));
+            }
+            record += count;
+        }
+        assertEquals(boards.size(), record);
+    }
+    
+    private static byte[] inflate(ByteBuffer in, int compressedSize, int rawSize) throws Exception {
+        Inflater inflater = new Inflater();
+        inflater.setInput(in.array(), in.position(), compressedSize);
+        byte[] out = new byte[rawSize];
+        int length = 0;
+        while (length < rawSize) {
+            length += inflater.inflate(out, length, rawSize - length);
+        }
+        inflater.end();
+        in.position(in.position() + compressedSize);
+        return out;
+    }
+}
@@ -0,0 +1,57 @@
+package com.designpatterns.puzzle.replay;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Recherches de l'archive par score, scores négatifs compris
+ */
+class ReplayArchiveTest {
+    
+    private static final int[] SCORES = {300, -5, 0, 1200, Integer.MIN_VALUE, 300, Integer.MAX_VALUE, -40};
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void findByScoreKeepsSignedOrder() throws Exception {
+        try (ReplayArchive archive = filledArchive()) {
+            assertArrayEquals(new long[] {4, 7, 1, 2, 0, 5, 3, 6}, archive.findByScore(Integer.MIN_VALUE, Integer.MAX_VALUE));
+            assertArrayEquals(new long[] {4, 7, 1, 2, 0, 5}, archive.findByScore(Integer.MIN_VALUE, 1000));
+            assertArrayEquals(new long[] {7, 1, 2}, archive.findByScore(-40, 0));
+            assertArrayEquals(new long[] {0, 5}, archive.findByScore(300, 300));
+            assertArrayEquals(new long[] {3, 6}, archive.findByScore(1000, Integer.MAX_VALUE));
+            assertArrayEquals(new long[0], archive.findByScore(1, 299));
+            assertArrayEquals(new long[0], archive.findByScore(10, -10));
+        }
+    }
+    
+    @Test
+    void findTopScoresIsDescending() throws Exception {
+        try (ReplayArchive archive = filledArchive()) {
+            assertArrayEquals(new long[] {6, 3, 5}, archive.findTopScores(3));
+            assertArrayEquals(new long[] {6, 3, 5, 0, 2, 1, 7, 4}, archive.findTopScores(100));
+        }
+    }
+    
+    @Test
+    void scoresSurviveReopen() throws Exception {
+        filledArchive().close();
+        try (ReplayArchive archive = new ReplayArchive(directory)) {
+            assertArrayEquals(new long[] {4, 7, 1}, archive.findByScore(Integer.MIN_VALUE, -1));
+        }
+    }
+    
+    private ReplayArchive filledArchive() throws Exception {
+        ReplayArchive archive = new ReplayArchive(directory);
+        byte[] commands = new byte[] {1, 2, 3};
+        for (int i = 0; i < SCORES.length; i++) {
+            archive.append(i, SCORES[i], 1, 0, commands, commands.length);
+        }
+        return archive;
+    }
+}